@@ -0,0 +1,74 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.constraints.AllDifferentDC;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.maxicp.util.io.InputReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.maxicp.cp.CPFactory.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+/**
+ * Propagation of {@link AllDifferentDC} on the quadratic assignment problem
+ * (see {@link org.maxicp.cp.examples.raw.QAP}), optimized with a node limit.
+ * The forward checking decomposition is given as a reference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllDifferentDCBenchmark {
+
+    @Param({"dc", "fwc"})
+    public String consistency;
+
+    @Param({"QAP/qap.txt"})
+    public String instance;
+
+    @Param({"5000"})
+    public int nNodes;
+
+    private DFSearch dfs;
+    private Objective obj;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InputReader reader = new InputReader(Benchmarks.data(instance));
+        int n = reader.getInt();
+        int[][] w = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                w[i][j] = reader.getInt();
+        int[][] d = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                d[i][j] = reader.getInt();
+
+        CPSolver cp = makeSolver();
+        CPIntVar[] x = makeIntVarArray(cp, n, n);
+        cp.post(consistency.equals("dc") ? allDifferentDC(x) : allDifferent(x));
+        CPIntVar[] weightedDist = new CPIntVar[n * n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                weightedDist[i * n + j] = mul(element(d, x[i], x[j]), w[i][j]);
+        obj = cp.minimize(sum(weightedDist));
+        dfs = makeDfs(cp, firstFailBinary(x));
+    }
+
+    @Benchmark
+    public int optimize() {
+        return Benchmarks.optimize(dfs, obj, nNodes);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.constraints.scheduling.CPCumulFunction;
+import org.maxicp.cp.engine.constraints.scheduling.CPFlatCumulFunction;
+import org.maxicp.cp.engine.constraints.scheduling.CPPlusCumulFunction;
+import org.maxicp.cp.engine.constraints.scheduling.CPPulseCumulFunction;
+import org.maxicp.cp.engine.constraints.seqvar.Distance;
+import org.maxicp.cp.engine.constraints.seqvar.TransitionTimes;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPIntervalVar;
+import org.maxicp.cp.engine.core.CPSeqVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.examples.utils.JobShopInstance;
+import org.maxicp.cp.examples.utils.TSPInstance;
+import org.maxicp.cp.examples.utils.TSPTWInstance;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.maxicp.search.Rank;
+import org.maxicp.util.io.InputReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.maxicp.cp.CPFactory.*;
+import static org.maxicp.search.Searches.*;
+
+/**
+ * Model families run by {@link SolverBenchmark}.
+ * Each family builds, from an instance of the data directory, the model
+ * of one of the examples of {@code org.maxicp.cp.examples.raw} with its search.
+ */
+final class BenchmarkModels {
+
+    /**
+     * A model ready to be optimized
+     *
+     * @param dfs          the search
+     * @param objective    the objective to minimize
+     * @param value        the variable whose value is minimized
+     * @param neighborhood if not null, the model is optimized with a large neighborhood search,
+     *                     each restart posting the constraints returned by this function
+     */
+    record Model(DFSearch dfs, Objective objective, CPIntVar value, Neighborhood neighborhood) {
+    }
+
+    /**
+     * Relaxation of the best solution of a large neighborhood search
+     */
+    interface Neighborhood {
+        /**
+         * Records the current solution as the best one
+         */
+        void onSolution();
+
+        /**
+         * Posts a relaxation of the best solution
+         *
+         * @param random random generator of the run
+         */
+        void relax(Random random);
+    }
+
+    /**
+     * A family of models
+     *
+     * @param instances the default instances, relative to the data directory
+     * @param builder   builds the model of an instance
+     */
+    record Family(List<String> instances, Builder builder) {
+    }
+
+    interface Builder {
+        Model build(String path);
+    }
+
+    static final Map<String, Family> FAMILIES = new LinkedHashMap<>();
+
+    static {
+        FAMILIES.put("jobshop", new Family(List.of("JOBSHOP/ft10.txt", "JOBSHOP/jobshop-8-8-0"), BenchmarkModels::jobShop));
+        FAMILIES.put("rcpsp", new Family(List.of("RCPSP/j30_1_1.rcp", "RCPSP/j60_1_1.rcp"), BenchmarkModels::rcpsp));
+        FAMILIES.put("tsp", new Family(List.of("TSP/gr21.xml", "TSP/instance_30_0.xml"), BenchmarkModels::tsp));
+        FAMILIES.put("tsptw", new Family(List.of("TSPTW/Dumas/n60w20.001.txt"), BenchmarkModels::tsptw));
+        FAMILIES.put("qap", new Family(List.of("QAP/qap.txt"), BenchmarkModels::qap));
+    }
+
+    private BenchmarkModels() {
+    }
+
+    /**
+     * @see org.maxicp.cp.examples.raw.JobShop
+     */
+    static Model jobShop(String path) {
+        JobShopInstance instance = new JobShopInstance(path);
+        int nJobs = instance.nJobs;
+        int nMachines = instance.nMachines;
+        CPSolver cp = makeSolver();
+        CPIntervalVar[][] activities = new CPIntervalVar[nJobs][nMachines];
+        for (int j = 0; j < nJobs; j++)
+            for (int m = 0; m < nMachines; m++)
+                activities[j][m] = makeIntervalVar(cp, false, instance.duration[j][m], instance.duration[j][m]);
+        for (int j = 0; j < nJobs; j++)
+            for (int m = 1; m < nMachines; m++)
+                cp.post(endBeforeStart(activities[j][m - 1], activities[j][m]));
+        CPIntervalVar[][] onMachine = new CPIntervalVar[nMachines][];
+        for (int m = 0; m < nMachines; m++) {
+            List<CPIntervalVar> machineActivities = new ArrayList<>();
+            for (int j = 0; j < nJobs; j++)
+                for (int i = 0; i < nMachines; i++)
+                    if (instance.machine[j][i] == m)
+                        machineActivities.add(activities[j][i]);
+            onMachine[m] = machineActivities.toArray(new CPIntervalVar[0]);
+            cp.post(noOverlap(onMachine[m]));
+        }
+        CPIntVar makespan = makespan(Arrays.stream(activities)
+                .map(job -> job[nMachines - 1])
+                .toArray(CPIntervalVar[]::new));
+        Objective obj = cp.minimize(makespan);
+        DFSearch dfs = makeDfs(cp, and(new Rank(onMachine),
+                () -> makespan.isFixed() ? EMPTY : branch(() -> cp.post(le(makespan, makespan.min())))));
+        return new Model(dfs, obj, makespan, null);
+    }
+
+    /**
+     * @see org.maxicp.cp.examples.raw.RCPSP
+     */
+    static Model rcpsp(String path) {
+        InputReader reader = new InputReader(path);
+        int nActivities = reader.getInt();
+        int nResources = reader.getInt();
+        int[] capa = new int[nResources];
+        for (int r = 0; r < nResources; r++)
+            capa[r] = reader.getInt();
+        int[] duration = new int[nActivities];
+        int[][] consumption = new int[nResources][nActivities];
+        int[][] successors = new int[nActivities][];
+        for (int i = 0; i < nActivities; i++) {
+            duration[i] = reader.getInt();
+            for (int r = 0; r < nResources; r++)
+                consumption[r][i] = reader.getInt();
+            successors[i] = new int[reader.getInt()];
+            for (int k = 0; k < successors[i].length; k++)
+                successors[i][k] = reader.getInt() - 1;
+        }
+        CPSolver cp = makeSolver();
+        CPIntervalVar[] tasks = makeIntervalVarArray(cp, nActivities);
+        for (int i = 0; i < nActivities; i++) {
+            tasks[i].setLength(duration[i]);
+            tasks[i].setPresent();
+        }
+        for (int r = 0; r < nResources; r++) {
+            CPCumulFunction resource = new CPFlatCumulFunction();
+            for (int i = 0; i < nActivities; i++)
+                if (consumption[r][i] > 0)
+                    resource = new CPPlusCumulFunction(resource, new CPPulseCumulFunction(tasks[i], consumption[r][i]));
+            cp.post(le(resource, capa[r]));
+        }
+        for (int i = 0; i < nActivities; i++)
+            for (int k : successors[i])
+                cp.post(endBeforeStart(tasks[i], tasks[k]));
+        CPIntVar makespan = makespan(tasks);
+        Objective obj = cp.minimize(makespan);
+        return new Model(makeDfs(cp, fds(tasks)), obj, makespan, null);
+    }
+
+    /**
+     * @see org.maxicp.cp.examples.raw.tsp.TSP
+     */
+    static Model tsp(String path) {
+        TSPInstance instance = new TSPInstance(path);
+        int n = instance.n;
+        CPSolver cp = makeSolver();
+        CPIntVar[] succ = makeIntVarArray(cp, n, n);
+        CPIntVar[] distSucc = makeIntVarArray(n, i -> element(instance.distanceMatrix[i], succ[i]));
+        cp.post(circuit(succ));
+        CPIntVar totalDist = sum(distSucc);
+        Objective obj = cp.minimize(totalDist);
+        return new Model(makeDfs(cp, firstFailBinary(succ)), obj, totalDist, null);
+    }
+
+    /**
+     * @see org.maxicp.cp.examples.raw.tsptw.TSPTWSeqVar
+     */
+    static Model tsptw(String path) {
+        TSPTWInstance instance = new TSPTWInstance(path);
+        CPSolver cp = makeSolver();
+        // the depot is duplicated at the end of the instance
+        CPSeqVar tour = makeSeqVar(cp, instance.n, 0, instance.n - 1);
+        for (int i = 0; i < instance.n; i++)
+            tour.require(i);
+        CPIntVar[] time = makeIntVarArray(cp, instance.n, instance.horizon);
+        cp.post(eq(time[0], 0));
+        for (int i = 1; i < instance.n; i++) {
+            time[i].removeAbove(instance.latest[i]);
+            time[i].removeBelow(instance.earliest[i]);
+        }
+        cp.post(new TransitionTimes(tour, time, instance.distMatrix));
+        CPIntVar totalDist = makeIntVar(cp, 0, 100000);
+        cp.post(new Distance(tour, instance.distMatrix, totalDist));
+        Objective obj = cp.minimize(totalDist);
+        return new Model(makeDfs(cp, firstFailBinary(tour)), obj, totalDist, null);
+    }
+
+    /**
+     * Large neighborhood search relaxing 95% of the variables,
+     * as in {@link org.maxicp.cp.examples.raw.QAP}
+     */
+    static Model qap(String path) {
+        InputReader reader = new InputReader(path);
+        int n = reader.getInt();
+        int[][] w = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                w[i][j] = reader.getInt();
+        int[][] d = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                d[i][j] = reader.getInt();
+        CPSolver cp = makeSolver();
+        CPIntVar[] x = makeIntVarArray(cp, n, n);
+        cp.post(allDifferent(x));
+        CPIntVar[] weightedDist = new CPIntVar[n * n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                weightedDist[i * n + j] = mul(element(d, x[i], x[j]), w[i][j]);
+        CPIntVar totCost = sum(weightedDist);
+        Objective obj = cp.minimize(totCost);
+        int[] xBest = IntStream.range(0, n).toArray();
+        Neighborhood neighborhood = new Neighborhood() {
+            @Override
+            public void onSolution() {
+                for (int i = 0; i < n; i++)
+                    xBest[i] = x[i].min();
+            }
+
+            @Override
+            public void relax(Random random) {
+                for (int i = 0; i < n; i++)
+                    if (random.nextInt(100) < 5)
+                        cp.post(eq(x[i], xBest[i]));
+            }
+        };
+        return new Model(makeDfs(cp, firstFailBinary(x)), obj, totCost, neighborhood);
+    }
+}
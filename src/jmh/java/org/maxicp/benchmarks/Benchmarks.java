@@ -0,0 +1,87 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.maxicp.search.SearchStatistics;
+
+import java.util.Random;
+
+/**
+ * Utilities shared by the benchmarks.
+ *
+ * Every benchmark is built from an instance of the {@code data} directory
+ * or from a random instance generated with {@link #SEED},
+ * such that the results of two commits can be compared.
+ * The data directory can be changed with the {@code maxicp.data} system property.
+ */
+final class Benchmarks {
+
+    static final long SEED = 42;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Returns the path of a file in the data directory
+     *
+     * @param relativePath path of the file, relative to the data directory
+     * @return the path of the file
+     */
+    static String data(String relativePath) {
+        return System.getProperty("maxicp.data", "data") + "/" + relativePath;
+    }
+
+    /**
+     * Returns a random permutation of {@code {0,...,n-1}}
+     *
+     * @param n      size of the permutation
+     * @param random random generator used for the shuffle
+     * @return a permutation of {@code {0,...,n-1}}
+     */
+    static int[] permutation(int n, Random random) {
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++)
+            perm[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = perm[i];
+            perm[i] = perm[j];
+            perm[j] = tmp;
+        }
+        return perm;
+    }
+
+    /**
+     * Explores the first nodes of a search tree.
+     * The search restores the state of the solver once it is done,
+     * such that it can be called once per benchmark invocation.
+     *
+     * @param dfs    the search
+     * @param nNodes maximum number of nodes to explore
+     * @return the number of nodes explored
+     */
+    static int explore(DFSearch dfs, int nNodes) {
+        SearchStatistics stats = dfs.solve(s -> s.numberOfNodes() >= nNodes);
+        return stats.numberOfNodes();
+    }
+
+    /**
+     * Optimizes over the first nodes of a search tree, starting from a relaxed objective
+     * such that every benchmark invocation explores the same nodes.
+     *
+     * @param dfs    the search
+     * @param obj    the objective to optimize
+     * @param nNodes maximum number of nodes to explore
+     * @return the number of nodes explored
+     */
+    static int optimize(DFSearch dfs, Objective obj, int nNodes) {
+        obj.relax();
+        SearchStatistics stats = dfs.optimize(obj, s -> s.numberOfNodes() >= nNodes);
+        return stats.numberOfNodes();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.constraints.Circuit;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.examples.utils.TSPInstance;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.maxicp.cp.CPFactory.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+/**
+ * Propagation of {@link Circuit} on successor models of the TSP
+ * (see {@link org.maxicp.cp.examples.raw.tsp.TSP}), optimized with a node limit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CircuitBenchmark {
+
+    @Param({"TSP/gr21.xml", "TSP/instance_30_0.xml"})
+    public String instance;
+
+    @Param({"5000"})
+    public int nNodes;
+
+    private DFSearch dfs;
+    private Objective obj;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TSPInstance tsp = new TSPInstance(Benchmarks.data(instance));
+        int n = tsp.n;
+        CPSolver cp = makeSolver();
+        CPIntVar[] succ = makeIntVarArray(cp, n, n);
+        CPIntVar[] distSucc = makeIntVarArray(n, i -> element(tsp.distanceMatrix[i], succ[i]));
+        cp.post(circuit(succ));
+        obj = cp.minimize(sum(distSucc));
+        dfs = makeDfs(cp, firstFailBinary(succ));
+    }
+
+    @Benchmark
+    public int optimize() {
+        return Benchmarks.optimize(dfs, obj, nNodes);
+    }
+}
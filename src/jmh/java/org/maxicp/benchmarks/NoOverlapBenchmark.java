@@ -0,0 +1,82 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.constraints.scheduling.NoOverlap;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPIntervalVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.examples.utils.JobShopInstance;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.maxicp.search.Rank;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.maxicp.cp.CPFactory.*;
+import static org.maxicp.search.Searches.*;
+
+/**
+ * Propagation of {@link NoOverlap} on the job-shop
+ * (see {@link org.maxicp.cp.examples.raw.JobShop}), optimized with a node limit
+ * by ranking the activities of each machine and then fixing the makespan.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoOverlapBenchmark {
+
+    @Param({"JOBSHOP/ft10.txt", "JOBSHOP/jobshop-15-5-0"})
+    public String instance;
+
+    @Param({"2000"})
+    public int nNodes;
+
+    private DFSearch dfs;
+    private Objective obj;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        JobShopInstance jobShop = new JobShopInstance(Benchmarks.data(instance));
+        int nJobs = jobShop.nJobs;
+        int nMachines = jobShop.nMachines;
+        CPSolver cp = makeSolver();
+        CPIntervalVar[][] activities = new CPIntervalVar[nJobs][nMachines];
+        for (int j = 0; j < nJobs; j++)
+            for (int m = 0; m < nMachines; m++)
+                activities[j][m] = makeIntervalVar(cp, false, jobShop.duration[j][m], jobShop.duration[j][m]);
+        for (int j = 0; j < nJobs; j++)
+            for (int m = 1; m < nMachines; m++)
+                cp.post(endBeforeStart(activities[j][m - 1], activities[j][m]));
+        CPIntervalVar[][] onMachine = new CPIntervalVar[nMachines][];
+        for (int m = 0; m < nMachines; m++) {
+            ArrayList<CPIntervalVar> machineActivities = new ArrayList<>();
+            for (int j = 0; j < nJobs; j++)
+                for (int i = 0; i < nMachines; i++)
+                    if (jobShop.machine[j][i] == m)
+                        machineActivities.add(activities[j][i]);
+            onMachine[m] = machineActivities.toArray(new CPIntervalVar[0]);
+            cp.post(noOverlap(onMachine[m]));
+        }
+        CPIntVar makespan = makespan(Arrays.stream(activities)
+                .map(job -> job[nMachines - 1])
+                .toArray(CPIntervalVar[]::new));
+        obj = cp.minimize(makespan);
+        dfs = makeDfs(cp, and(new Rank(onMachine),
+                () -> makespan.isFixed() ? EMPTY : branch(() -> cp.post(le(makespan, makespan.min())))));
+    }
+
+    @Benchmark
+    public int optimize() {
+        return Benchmarks.optimize(dfs, obj, nNodes);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.maxicp.search.SearchStatistics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * End-to-end benchmark of the solver on the instances of the data directory.
+ *
+ * Each run builds the model of an instance (see {@link BenchmarkModels}) and optimizes it
+ * until the search is completed or one of the limits is reached. A run records the
+ * nodes and failures per second, the time to the first and to the best solution,
+ * and the peak heap usage. The results are written as CSV and/or JSON.
+ *
+ * Given the JSON results of a baseline, the throughput (nodes per second) of each family
+ * is compared with the baseline one, as the geometric mean of the ratios over its instances.
+ * The program exits with status 1 if a family is slower than the baseline by more than the tolerance.
+ *
+ * Options, all of the form {@code --name=value}:
+ * <ul>
+ *     <li>{@code --families}: comma-separated families to run, all by default ({@value #ALL})</li>
+ *     <li>{@code --time-limit}: time limit of a run in seconds, 10 by default</li>
+ *     <li>{@code --node-limit}: node limit of a run, none by default</li>
+ *     <li>{@code --seed}: seed of the random generator of a run, 42 by default</li>
+ *     <li>{@code --csv}, {@code --json}: files where the results are written</li>
+ *     <li>{@code --baseline}: JSON results to compare with</li>
+ *     <li>{@code --tolerance}: accepted relative slowdown, 0.1 by default</li>
+ * </ul>
+ */
+public class SolverBenchmark {
+
+    private static final String ALL = "jobshop,rcpsp,tsp,tsptw,qap";
+    private static final int LNS_FAILURE_LIMIT = 100;
+
+    /**
+     * Result of one run
+     */
+    record Result(String family, String instance, long seed, boolean completed,
+                  int nodes, int failures, int solutions, Integer best,
+                  long timeMillis, long timeToFirstMillis, long timeToBestMillis, long peakHeapBytes) {
+
+        double nodesPerSecond() {
+            return nodes * 1000.0 / Math.max(1, timeMillis);
+        }
+
+        double failuresPerSecond() {
+            return failures * 1000.0 / Math.max(1, timeMillis);
+        }
+
+        static final String CSV_HEADER = "family,instance,seed,completed,nodes,failures,solutions,best,"
+                + "timeMillis,timeToFirstMillis,timeToBestMillis,nodesPerSecond,failuresPerSecond,peakHeapBytes";
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%b,%d,%d,%d,%s,%d,%d,%d,%.1f,%.1f,%d",
+                    family, instance, seed, completed, nodes, failures, solutions, best == null ? "" : best,
+                    timeMillis, timeToFirstMillis, timeToBestMillis, nodesPerSecond(), failuresPerSecond(), peakHeapBytes);
+        }
+
+        JSONObject toJson() {
+            JSONObject o = new JSONObject();
+            o.put("family", family);
+            o.put("instance", instance);
+            o.put("seed", seed);
+            o.put("completed", completed);
+            o.put("nodes", nodes);
+            o.put("failures", failures);
+            o.put("solutions", solutions);
+            if (best != null)
+                o.put("best", best);
+            o.put("timeMillis", timeMillis);
+            o.put("timeToFirstMillis", timeToFirstMillis);
+            o.put("timeToBestMillis", timeToBestMillis);
+            o.put("nodesPerSecond", nodesPerSecond());
+            o.put("failuresPerSecond", failuresPerSecond());
+            o.put("peakHeapBytes", peakHeapBytes);
+            return o;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        List<String> families = Arrays.asList(options.getOrDefault("families", ALL).split(","));
+        long timeLimitMillis = (long) (Double.parseDouble(options.getOrDefault("time-limit", "10")) * 1000);
+        int nodeLimit = Integer.parseInt(options.getOrDefault("node-limit", String.valueOf(Integer.MAX_VALUE)));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+
+        List<Result> results = new ArrayList<>();
+        for (String family : families) {
+            BenchmarkModels.Family f = BenchmarkModels.FAMILIES.get(family);
+            if (f == null)
+                throw new IllegalArgumentException("unknown family " + family + ", expected one of " + ALL);
+            for (String instance : f.instances()) {
+                Result result = run(family, instance, f.builder(), seed, timeLimitMillis, nodeLimit);
+                System.out.println(result.toCsv());
+                results.add(result);
+            }
+        }
+
+        if (options.containsKey("csv")) {
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Path.of(options.get("csv"))))) {
+                out.println(Result.CSV_HEADER);
+                for (Result r : results)
+                    out.println(r.toCsv());
+            }
+        }
+        if (options.containsKey("json")) {
+            JSONObject json = new JSONObject();
+            json.put("seed", seed);
+            json.put("timeLimitMillis", timeLimitMillis);
+            json.put("nodeLimit", nodeLimit);
+            json.put("results", new JSONArray(results.stream().map(Result::toJson).toList()));
+            Files.writeString(Path.of(options.get("json")), json.toString(2));
+        }
+        if (options.containsKey("baseline")) {
+            JSONObject baseline = new JSONObject(Files.readString(Path.of(options.get("baseline"))));
+            double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.1"));
+            if (!compare(results, baseline, tolerance))
+                System.exit(1);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("options must be of the form --name=value, got " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Builds and optimizes the model of an instance
+     */
+    static Result run(String family, String instance, BenchmarkModels.Builder builder,
+                      long seed, long timeLimitMillis, int nodeLimit) {
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        BenchmarkModels.Model model = builder.build(Benchmarks.data(instance));
+        long t0 = System.currentTimeMillis(); // the times are measured from the start of the search
+        long[] timeToFirst = {-1};
+        long[] timeToBest = {-1};
+        Integer[] best = {null};
+        model.dfs().onSolution(() -> {
+            long t = System.currentTimeMillis() - t0;
+            if (timeToFirst[0] < 0)
+                timeToFirst[0] = t;
+            int value = model.value().min();
+            if (best[0] == null || value < best[0]) {
+                best[0] = value;
+                timeToBest[0] = t;
+            }
+            if (model.neighborhood() != null)
+                model.neighborhood().onSolution();
+        });
+
+        SearchStatistics total = new SearchStatistics();
+        Predicate<SearchStatistics> outOfTime = s -> System.currentTimeMillis() - t0 >= timeLimitMillis;
+        boolean completed;
+        if (model.neighborhood() == null) {
+            SearchStatistics stats = model.dfs().optimize(model.objective(),
+                    s -> outOfTime.test(s) || s.numberOfNodes() >= nodeLimit);
+            total.merge(stats);
+            completed = stats.isCompleted();
+        } else {
+            Random random = new Random(seed);
+            // first solution, then restarts from the best one
+            total.merge(model.dfs().optimize(model.objective(), s -> s.numberOfSolutions() >= 1 || outOfTime.test(s)));
+            while (!outOfTime.test(total) && total.numberOfNodes() < nodeLimit) {
+                int nodes = total.numberOfNodes();
+                total.merge(model.dfs().optimizeSubjectTo(model.objective(),
+                        s -> s.numberOfFailures() >= LNS_FAILURE_LIMIT || outOfTime.test(s) || nodes + s.numberOfNodes() >= nodeLimit,
+                        () -> model.neighborhood().relax(random)));
+            }
+            completed = false;
+        }
+        long time = System.currentTimeMillis() - t0;
+        long peakHeap = heapPools.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+        return new Result(family, instance, seed, completed, total.numberOfNodes(), total.numberOfFailures(),
+                total.numberOfSolutions(), best[0], time, timeToFirst[0], timeToBest[0], peakHeap);
+    }
+
+    /**
+     * Compares the throughput of each family with the one of a baseline
+     *
+     * @return true if no family is slower than the baseline by more than the tolerance
+     */
+    static boolean compare(List<Result> results, JSONObject baseline, double tolerance) {
+        Map<String, Double> baselineThroughput = new HashMap<>();
+        JSONArray baselineResults = baseline.getJSONArray("results");
+        for (int i = 0; i < baselineResults.length(); i++) {
+            JSONObject r = baselineResults.getJSONObject(i);
+            baselineThroughput.put(r.getString("family") + "/" + r.getString("instance"), r.getDouble("nodesPerSecond"));
+        }
+        // geometric mean of the ratios of each family
+        Map<String, double[]> logRatios = new LinkedHashMap<>(); // family -> {sum of log ratios, count}
+        for (Result r : results) {
+            Double reference = baselineThroughput.get(r.family() + "/" + r.instance());
+            if (reference == null || reference <= 0 || r.nodesPerSecond() <= 0)
+                continue;
+            double[] acc = logRatios.computeIfAbsent(r.family(), k -> new double[2]);
+            acc[0] += Math.log(r.nodesPerSecond() / reference);
+            acc[1]++;
+        }
+        boolean ok = true;
+        System.out.println("family,instances,throughputRatio,status");
+        for (Map.Entry<String, double[]> e : logRatios.entrySet()) {
+            double ratio = Math.exp(e.getValue()[0] / e.getValue()[1]);
+            boolean regression = ratio < 1 - tolerance;
+            ok &= !regression;
+            System.out.printf(Locale.ROOT, "%s,%d,%.3f,%s%n", e.getKey(), (int) e.getValue()[1], ratio,
+                    regression ? "REGRESSION" : "ok");
+        }
+        return ok;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.state.StateManager;
+import org.maxicp.state.datastructures.StateLazySparseSet;
+import org.maxicp.state.datastructures.StateSparseSet;
+import org.maxicp.state.trail.Trailer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removals from a {@link StateSparseSet} and from a {@link StateLazySparseSet}.
+ *
+ * One invocation removes the bounds of the set a few times, as a bound-consistent
+ * propagator would, then removes half of the remaining values in a random order
+ * and finally restores the set.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparseSetBenchmark {
+
+    @Param({"sparse", "lazy"})
+    public String set;
+
+    @Param({"100", "10000"})
+    public int n;
+
+    private static final int N_BOUND_UPDATES = 10;
+
+    private StateManager sm;
+    private StateSparseSet sparse;
+    private StateLazySparseSet lazy;
+    private int[] removals;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sm = new Trailer();
+        if (set.equals("sparse"))
+            sparse = new StateSparseSet(sm, n, 0);
+        else
+            lazy = new StateLazySparseSet(sm, n, 0);
+        removals = Benchmarks.permutation(n, new Random(Benchmarks.SEED));
+    }
+
+    @Benchmark
+    public int removeAndRestore() {
+        sm.saveState();
+        int size = sparse != null ? removeSparse() : removeLazy();
+        sm.restoreState();
+        return size;
+    }
+
+    private int removeSparse() {
+        for (int i = 0; i < N_BOUND_UPDATES; i++) {
+            sparse.removeBelow(sparse.min() + 1);
+            sparse.removeAbove(sparse.max() - 1);
+        }
+        for (int i = 0; i < removals.length / 2; i++)
+            sparse.remove(removals[i]);
+        return sparse.size();
+    }
+
+    private int removeLazy() {
+        for (int i = 0; i < N_BOUND_UPDATES; i++) {
+            lazy.removeBelow(lazy.min() + 1);
+            lazy.removeAbove(lazy.max() - 1);
+        }
+        for (int i = 0; i < removals.length / 2; i++)
+            lazy.remove(removals[i]);
+        return lazy.size();
+    }
+}
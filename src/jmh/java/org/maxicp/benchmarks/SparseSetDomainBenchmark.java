@@ -0,0 +1,87 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.core.IntDomainListener;
+import org.maxicp.cp.engine.core.SparseSetDomain;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.trail.Trailer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteration over the values of a {@link SparseSetDomain},
+ * after a fixed fraction of its values were removed in a random order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparseSetDomainBenchmark {
+
+    @Param({"100", "10000"})
+    public int n;
+
+    @Param({"0.0", "0.5", "0.9"})
+    public double removedRatio;
+
+    private static final IntDomainListener NO_LISTENER = new IntDomainListener() {
+        @Override
+        public void empty() {
+        }
+
+        @Override
+        public void bind() {
+        }
+
+        @Override
+        public void change() {
+        }
+
+        @Override
+        public void changeMin() {
+        }
+
+        @Override
+        public void changeMax() {
+        }
+    };
+
+    private SparseSetDomain domain;
+    private int[] values;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StateManager sm = new Trailer();
+        domain = new SparseSetDomain(sm, 0, n - 1);
+        int[] removals = Benchmarks.permutation(n, new Random(Benchmarks.SEED));
+        for (int i = 0; i < (int) (n * removedRatio); i++)
+            domain.remove(removals[i], NO_LISTENER);
+        values = new int[n];
+    }
+
+    @Benchmark
+    public long fillArray() {
+        int size = domain.fillArray(values);
+        long sum = 0;
+        for (int i = 0; i < size; i++)
+            sum += values[i];
+        return sum;
+    }
+
+    @Benchmark
+    public long contains() {
+        long count = 0;
+        for (int v = 0; v < n; v++)
+            if (domain.contains(v))
+                count++;
+        return count;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.copy.Copier;
+import org.maxicp.state.copy.PagedCopier;
+import org.maxicp.state.trail.Trailer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and restore of the {@link Trailer}, of the {@link Copier} and of the {@link PagedCopier}.
+ *
+ * One invocation descends {@code depth} levels, updating {@code writesPerLevel}
+ * random integers at each of them, and then restores the initial level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateManagerBenchmark {
+
+    @Param({"trailer", "copier", "paged"})
+    public String stateManager;
+
+    @Param({"1000", "100000"})
+    public int nInts;
+
+    @Param({"20"})
+    public int depth;
+
+    @Param({"10"})
+    public int writesPerLevel;
+
+    private StateManager sm;
+    private StateInt[] ints;
+    private int[] indices;
+    private int[] values;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sm = switch (stateManager) {
+            case "trailer" -> new Trailer();
+            case "copier" -> new Copier();
+            case "paged" -> new PagedCopier();
+            default -> throw new IllegalArgumentException(stateManager);
+        };
+        ints = new StateInt[nInts];
+        for (int i = 0; i < nInts; i++)
+            ints[i] = sm.makeStateInt(i);
+        Random random = new Random(Benchmarks.SEED);
+        indices = new int[depth * writesPerLevel];
+        values = new int[depth * writesPerLevel];
+        for (int k = 0; k < indices.length; k++) {
+            indices[k] = random.nextInt(nInts);
+            values[k] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public int saveWriteRestore() {
+        int level = sm.getLevel();
+        int k = 0;
+        for (int d = 0; d < depth; d++) {
+            sm.saveState();
+            for (int w = 0; w < writesPerLevel; w++, k++)
+                ints[indices[k]].setValue(values[k]);
+        }
+        int checksum = ints[indices[k - 1]].value();
+        sm.restoreStateUntil(level);
+        return checksum;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.constraints.ShortTableCT;
+import org.maxicp.cp.engine.constraints.TableCT;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.search.DFSearch;
+import org.maxicp.util.io.InputReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.maxicp.cp.CPFactory.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+/**
+ * Propagation of {@link TableCT} and {@link ShortTableCT} on the Eternity puzzle
+ * (see {@link org.maxicp.cp.examples.modeling.Eternity}):
+ * each cell is constrained by a table of the rotated pieces.
+ * The short table does not contain any star, it measures the overhead
+ * of its support for stars on the same tuples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableBenchmark {
+
+    @Param({"ct", "shortct"})
+    public String table;
+
+    @Param({"ETERNITY/eternity7x7.txt"})
+    public String instance;
+
+    @Param({"2000"})
+    public int nNodes;
+
+    private DFSearch dfs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InputReader reader = new InputReader(Benchmarks.data(instance));
+        int n = reader.getInt();
+        int m = reader.getInt();
+        int[][] pieces = new int[n * m][4];
+        for (int i = 0; i < n * m; i++)
+            for (int j = 0; j < 4; j++)
+                pieces[i][j] = reader.getInt();
+        // one tuple per rotation of each piece: id, up, right, down, left
+        int[][] tuples = new int[4 * n * m][5];
+        for (int i = 0; i < pieces.length; i++) {
+            for (int r = 0; r < 4; r++) {
+                tuples[i * 4 + r][0] = i;
+                for (int k = 0; k < 4; k++)
+                    tuples[i * 4 + r][k + 1] = pieces[i][(r + k) % 4];
+            }
+        }
+        int max = Arrays.stream(pieces).flatMapToInt(Arrays::stream).max().getAsInt();
+
+        CPSolver cp = makeSolver();
+        CPIntVar[][] id = new CPIntVar[n][];
+        CPIntVar[][] horizontal = new CPIntVar[n + 1][]; // color of the edge above each cell
+        CPIntVar[][] vertical = new CPIntVar[n][]; // color of the edge at the left of each cell
+        for (int i = 0; i < n; i++) {
+            id[i] = makeIntVarArray(cp, m, n * m);
+            vertical[i] = makeIntVarArray(cp, m + 1, max + 1);
+        }
+        for (int i = 0; i <= n; i++)
+            horizontal[i] = makeIntVarArray(cp, m, max + 1);
+        CPIntVar[] ids = Arrays.stream(id).flatMap(Arrays::stream).toArray(CPIntVar[]::new);
+        cp.post(allDifferent(ids));
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                CPIntVar[] cell = {id[i][j], horizontal[i][j], vertical[i][j + 1], horizontal[i + 1][j], vertical[i][j]};
+                cp.post(table.equals("ct") ? new TableCT(cell, tuples) : new ShortTableCT(cell, tuples, -1));
+            }
+        }
+        // the borders are gray
+        for (int i = 0; i < n; i++) {
+            cp.post(eq(vertical[i][0], 0));
+            cp.post(eq(vertical[i][m], 0));
+        }
+        for (int j = 0; j < m; j++) {
+            cp.post(eq(horizontal[0][j], 0));
+            cp.post(eq(horizontal[n][j], 0));
+        }
+        dfs = makeDfs(cp, firstFailBinary(ids));
+    }
+
+    @Benchmark
+    public int search() {
+        return Benchmarks.explore(dfs, nNodes);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.benchmarks;
+
+import org.maxicp.cp.engine.constraints.seqvar.Distance;
+import org.maxicp.cp.engine.constraints.seqvar.TransitionTimes;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSeqVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.examples.utils.TSPTWInstance;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.maxicp.cp.CPFactory.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+/**
+ * Propagation of {@link TransitionTimes} on the TSP with time windows
+ * (see {@link org.maxicp.cp.examples.raw.tsptw.TSPTWSeqVar}), optimized with a node limit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransitionTimesBenchmark {
+
+    @Param({"TSPTW/Dumas/n60w20.001.txt"})
+    public String instance;
+
+    @Param({"2000"})
+    public int nNodes;
+
+    private DFSearch dfs;
+    private Objective obj;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        TSPTWInstance tsptw = new TSPTWInstance(Benchmarks.data(instance));
+        CPSolver cp = makeSolver();
+        // the depot is duplicated at the end of the instance
+        CPSeqVar tour = makeSeqVar(cp, tsptw.n, 0, tsptw.n - 1);
+        for (int i = 0; i < tsptw.n; i++)
+            tour.require(i);
+        CPIntVar[] time = makeIntVarArray(cp, tsptw.n, tsptw.horizon);
+        cp.post(eq(time[0], 0));
+        for (int i = 1; i < tsptw.n; i++) {
+            time[i].removeAbove(tsptw.latest[i]);
+            time[i].removeBelow(tsptw.earliest[i]);
+        }
+        cp.post(new TransitionTimes(tour, time, tsptw.distMatrix));
+        CPIntVar distance = makeIntVar(cp, 0, 100000);
+        cp.post(new Distance(tour, tsptw.distMatrix, distance));
+        obj = cp.minimize(distance);
+        dfs = makeDfs(cp, firstFailBinary(tour));
+    }
+
+    @Benchmark
+    public int optimize() {
+        return Benchmarks.optimize(dfs, obj, nNodes);
+    }
+}
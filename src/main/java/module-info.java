@@ -12,6 +12,7 @@ module org.maxicp {
     exports org.maxicp.util;
     exports org.maxicp.util.io;
     exports org.maxicp.util.algo;
+    exports org.maxicp.util.collections;
     exports org.maxicp.util.exception;
     exports org.maxicp.state;
     exports org.maxicp.state.trail;
@@ -40,4 +40,23 @@ public class Constants {
         SCHAUS_THOMAS_KAMEUGNE,
         SCHAUS_THOMAS_KAMEUGNE_BASELINE,
     }
+
+    /**
+     * Filtering level of a cumulative constraint, on top of time-tabling
+     */
+    public enum CumulativeFiltering {
+        /**
+         * Time-tabling only
+         */
+        TIME_TABLING,
+        /**
+         * Time-tabling, overload checking and time-table edge-finding, in O(n^2)
+         */
+        TIME_TABLING_EDGE_FINDING,
+        /**
+         * Time-tabling, overload checking, time-table edge-finding
+         * and energetic reasoning on the relevant intervals, in O(n^3)
+         */
+        ENERGETIC_REASONING,
+    }
 }
@@ -14,6 +14,8 @@ import org.maxicp.modeling.symbolic.*;
 import org.maxicp.search.BestFirstSearch;
 import org.maxicp.search.ConcurrentDFSearch;
 import org.maxicp.search.DFSearch;
+import org.maxicp.search.EmbarrassinglyParallelSearch;
+import org.maxicp.search.ParallelDFSearch;
 import org.maxicp.util.Ints;
 
 import java.util.List;
@@ -204,6 +206,31 @@ public class ModelDispatcher implements ModelProxyInstantiator, AutoCloseable, M
         return new ConcurrentDFSearch(this, symbolicBranching);
     }
 
+    /**
+     * Creates a work-stealing depth-first search running nWorkers CP solvers in parallel,
+     * each instantiated from the current symbolic model
+     *
+     * @param nWorkers the number of workers, each running in its own thread
+     * @param symbolicBranching the symbolic branching, evaluated in the thread of each worker
+     * @return the parallel search
+     */
+    public ParallelDFSearch parallelDFSearch(int nWorkers, Supplier<SymbolicModel[]> symbolicBranching) {
+        return new ParallelDFSearch(this, nWorkers, symbolicBranching);
+    }
+
+    /**
+     * Creates an Embarrassingly Parallel Search: the current symbolic model is decomposed into subproblems
+     * by the branching up to the given depth, and the subproblems are solved by nWorkers CP solvers in parallel
+     *
+     * @param nWorkers the number of workers, each running in its own thread
+     * @param depth the depth at which the search tree is decomposed into subproblems
+     * @param branching the branching, used both for the decomposition and by the workers
+     * @return the parallel search
+     */
+    public EmbarrassinglyParallelSearch embarrassinglyParallelSearch(int nWorkers, int depth, Supplier<Runnable[]> branching) {
+        return new EmbarrassinglyParallelSearch(this, nWorkers, depth, branching);
+    }
+
     public <U extends Comparable<U>> BestFirstSearch<U> bestFirstSearch(Supplier<Runnable[]> branching, Supplier<U> nodeEvaluator) {
         return new BestFirstSearch<U>(this, branching, nodeEvaluator);
     }
@@ -21,6 +21,8 @@ import org.maxicp.search.Objective;
 import org.maxicp.state.copy.Copier;
 import org.maxicp.state.trail.Trailer;
 import org.maxicp.util.NumberUtils;
+import org.maxicp.util.algo.Automaton;
+import org.maxicp.util.algo.LayeredGraph;
 import org.maxicp.util.exception.InconsistencyException;
 import org.maxicp.util.exception.IntOverFlowException;
 
@@ -260,6 +262,22 @@ public final class CPFactory {
         return new CPSeqVarImpl(cp, nNodes, start, end);
     }
 
+    /**
+     * Creates a sequence variable, choosing the representation of its edges.
+     *
+     * @param cp      the solver in which the variable is created
+     * @param nNodes  the number of nodes, including the start and end nodes
+     * @param start   the start node
+     * @param end     the end node
+     * @param compact true to store the edges in bitsets, using memory in {@code O(n^2/64)}
+     *                instead of {@code O(n^2)}, false to store them in sparse sets as done by
+     *                {@link #makeSeqVar(CPSolver, int, int, int)}. The enumeration order of the edges differs.
+     * @return a sequence variable
+     */
+    public static CPSeqVar makeSeqVar(CPSolver cp, int nNodes, int start, int end, boolean compact) {
+        return new CPSeqVarImpl(cp, nNodes, start, end, compact);
+    }
+
     // ********************
     // Interval variables
     // ********************
@@ -384,7 +402,9 @@ public final class CPFactory {
      * @see org.maxicp.search.Searches#branch(Runnable...)
      */
     public static DFSearch makeDfs(CPSolver cp, Supplier<Runnable[]> branching) {
-        return new DFSearch(cp.getStateManager(), branching);
+        DFSearch dfs = new DFSearch(cp.getStateManager(), branching);
+        dfs.setPropagationProfile(cp::getProfiler);
+        return dfs;
     }
 
     // -------------- constraints -----------------------
@@ -1330,6 +1350,78 @@ public final class CPFactory {
         return new NegTableCT(x, table);
     }
 
+    /**
+     * Returns a regular constraint
+     *
+     * @param x         an array of variables
+     * @param automaton a finite automaton, possibly non-deterministic,
+     *                  whose unrolling over {@code x.length} symbols is shared by the constraints using it
+     * @return a constraint ensuring that the sequence of values taken by x is accepted by the automaton
+     */
+    public static CPConstraint regular(CPIntVar[] x, Automaton automaton) {
+        return new MDD(x, automaton.unroll(x.length));
+    }
+
+    /**
+     * Returns a multi-valued decision diagram constraint
+     *
+     * @param x     an array of variables
+     * @param graph a graph with {@code x.length+1} layers whose edges between layers {@code i} and {@code i+1}
+     *              are labeled with values of {@code x[i]}, and whose first layer has at most one node
+     * @return a constraint ensuring that the sequence of values taken by x
+     *         are the labels of a path from the first to the last layer of the graph
+     */
+    public static CPConstraint mdd(CPIntVar[] x, LayeredGraph<?> graph) {
+        return new MDD(x, graph);
+    }
+
+    // ********************
+    // Lexicographic ordering constraints
+    // ********************
+
+    /**
+     * Returns a lexicographic ordering constraint
+     *
+     * @param x an array of variables
+     * @param y an array of variables, of the same length as x
+     * @return a constraint so that {@code x <=lex y}
+     */
+    public static CPConstraint lexLe(CPIntVar[] x, CPIntVar[] y) {
+        return new LexLeq(x, y, false);
+    }
+
+    /**
+     * Returns a strict lexicographic ordering constraint
+     *
+     * @param x an array of variables
+     * @param y an array of variables, of the same length as x
+     * @return a constraint so that {@code x <lex y}
+     */
+    public static CPConstraint lexLt(CPIntVar[] x, CPIntVar[] y) {
+        return new LexLeq(x, y, true);
+    }
+
+    /**
+     * Returns a chain of lexicographic ordering constraints,
+     * typically to break the symmetries between the rows of a matrix
+     *
+     * @param x arrays of variables, of the same length
+     * @return a constraint so that {@code x[0] <=lex x[1] <=lex ... <=lex x[x.length-1]}
+     */
+    public static CPConstraint lexChainLe(CPIntVar[]... x) {
+        return x.length == 2 ? lexLe(x[0], x[1]) : new LexChain(x, false);
+    }
+
+    /**
+     * Returns a chain of strict lexicographic ordering constraints
+     *
+     * @param x arrays of variables, of the same length
+     * @return a constraint so that {@code x[0] <lex x[1] <lex ... <lex x[x.length-1]}
+     */
+    public static CPConstraint lexChainLt(CPIntVar[]... x) {
+        return x.length == 2 ? lexLt(x[0], x[1]) : new LexChain(x, true);
+    }
+
     // ********************
     // Sequence constraints
     // ********************
@@ -2316,4 +2408,95 @@ public final class CPFactory {
     public static CPConstraint le(CPCumulFunction fun, int maxValue) {
         return le(fun, maxValue, Constants.CumulativeAlgo.SCHAUS_THOMAS_KAMEUGNE);
     }
+
+    /**
+     * Requires a cumulative function to always be equal or lesser than a value
+     * on the execution range [0..Constants.HORIZON), with a stronger filtering than time-tabling.
+     * The energy based filtering levels trade propagation time for search-space reduction
+     * and only apply if the function has consumptions only.
+     *
+     * @param fun a cumulative function
+     * @param maxValue an int value
+     * @param filtering the filtering level
+     * @return a constraint which ensures that fun is always lesser or equal to maxVal
+     */
+    public static CPConstraint le(CPCumulFunction fun, int maxValue, Constants.CumulativeFiltering filtering) {
+        return le(fun, maxValue, Constants.CumulativeAlgo.SCHAUS_THOMAS_KAMEUGNE, filtering);
+    }
+
+    /**
+     * Requires a cumulative function to always be equal or lesser than a value
+     * on the execution range [0..Constants.HORIZON), with a given algorithm and filtering level.
+     * The baseline algorithm only supports time-tabling.
+     *
+     * @param fun a cumulative function
+     * @param maxValue an int value
+     * @param algo a cumulative algorithm
+     * @param filtering the filtering level
+     * @return a constraint which ensures that fun is always lesser or equal to maxVal
+     */
+    public static CPConstraint le(CPCumulFunction fun, int maxValue, Constants.CumulativeAlgo algo, Constants.CumulativeFiltering filtering) {
+        if (algo == Constants.CumulativeAlgo.SCHAUS_THOMAS_KAMEUGNE_BASELINE && filtering != Constants.CumulativeFiltering.TIME_TABLING)
+            throw new IllegalArgumentException("the baseline only supports time-tabling");
+        List<Activity> activities = fun.flatten(true);
+
+        if (activities.isEmpty()) {
+            return new DoNothingConstraint();
+        }
+
+        CPSolver cp = activities.get(0).interval().getSolver();
+        return new AbstractCPConstraint(cp) {
+            @Override
+            public void post() {
+                switch (algo) {
+                    case BELDICEANU_CARLSSON -> {
+                        cp.post(new GeneralizedCumulativeSweepMax(activities.toArray(new Activity[0]), maxValue, filtering));
+                    }
+                    case SCHAUS_THOMAS_KAMEUGNE -> {
+                        cp.post(new GeneralizedCumulativeConstraint(activities.toArray(new Activity[0]), maxValue, filtering));
+                    }
+                    case SCHAUS_THOMAS_KAMEUGNE_BASELINE -> {
+                        cp.post(new GeneralizedCumulativeConstraintBaseLine(activities.toArray(new Activity[0]), maxValue));
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a cumulative constraint over interval variables with variable heights,
+     * filtered by time-tabling and edge-finding on the minimum heights and lengths.
+     *
+     * @param intervals the interval variables
+     * @param heights   the height of each interval, non negative
+     * @param capacity  the capacity of the resource
+     * @return a constraint so that, at any time, the sum of the heights
+     *         of the present intervals overlapping it is at most the capacity
+     */
+    public static CPConstraint cumulative(CPIntervalVar[] intervals, CPIntVar[] heights, int capacity) {
+        return new org.maxicp.cp.engine.constraints.scheduling.Cumulative(intervals, heights, capacity);
+    }
+
+    /**
+     * Returns a cumulative constraint over tasks with variable starts, lengths and heights.
+     *
+     * @param starts   the start of each task
+     * @param lengths  the length of each task, non negative
+     * @param heights  the height of each task, non negative
+     * @param capacity the capacity of the resource
+     * @return a constraint so that, at any time, the sum of the heights
+     *         of the tasks overlapping it is at most the capacity
+     */
+    public static CPConstraint cumulative(CPIntVar[] starts, CPIntVar[] lengths, CPIntVar[] heights, int capacity) {
+        CPSolver cp = starts[0].getSolver();
+        CPIntervalVar[] intervals = new CPIntervalVar[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            lengths[i].removeBelow(0);
+            intervals[i] = makeIntervalVar(cp, lengths[i].min(), lengths[i].max());
+            intervals[i].setPresent();
+            cp.post(new IntervalVarStart(intervals[i], starts[i]));
+            cp.post(new IntervalVarLength(intervals[i], lengths[i]));
+        }
+        return cumulative(intervals, heights, capacity);
+    }
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ package org.maxicp.cp.engine.constraints;
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPIntVar;
 import org.maxicp.cp.engine.core.DeltaCPIntVar;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
 import org.maxicp.state.StateInt;
 import org.maxicp.state.StateManager;
 import org.maxicp.util.exception.InconsistencyException;
@@ -32,6 +34,7 @@ public class Element1D extends AbstractCPConstraint {
 
     private final CPIntVar y;
     private final CPIntVar z;
+    private final Explanations explanations;
 
 
     /**
@@ -58,15 +61,24 @@ public class Element1D extends AbstractCPConstraint {
 
         this.y = y;
         this.z = z;
+        this.explanations = Explanations.forPropagator(getSolver());
     }
 
     @Override
     public void post() {
 
-        y.removeBelow(0);
-        y.removeAbove(t.length - 1);
-        z.removeBelow(t[sortedPerm[0]]);
-        z.removeAbove(t[sortedPerm[t.length-1]]);
+        if (explanations == null) {
+            y.removeBelow(0);
+            y.removeAbove(t.length - 1);
+            z.removeBelow(t[sortedPerm[0]]);
+            z.removeAbove(t[sortedPerm[t.length-1]]);
+        } else {
+            // implied by the constraint alone
+            explanations.removeBelow(y, 0);
+            explanations.removeAbove(y, t.length - 1);
+            explanations.removeBelow(z, t[sortedPerm[0]]);
+            explanations.removeAbove(z, t[sortedPerm[t.length-1]]);
+        }
 
         y.propagateOnDomainChange(this);
         z.propagateOnBoundChange(this);
@@ -76,6 +88,10 @@ public class Element1D extends AbstractCPConstraint {
 
     @Override
     public void propagate() {
+        if (explanations != null) {
+            propagateExplained();
+            return;
+        }
 
         int l = low.value(), u = up.value();
         int zMin = z.min(), zMax = z.max();
@@ -100,4 +116,68 @@ public class Element1D extends AbstractCPConstraint {
         up.setValue(u);
 
     }
+
+    /**
+     * Same filtering as {@link #propagate()}, an index being removed because its entry is not in the bounds of z,
+     * and a bound of z because the indices of the entries beyond it are removed.
+     */
+    private void propagateExplained() {
+        int l = low.value(), u = up.value();
+        int zMin = z.min(), zMax = z.max();
+
+        while (t[sortedPerm[l]] < zMin || !y.contains(sortedPerm[l])) {
+            int i = sortedPerm[l];
+            explanations.remove(y, i, Literal.ge(z, t[i] + 1));
+            l++;
+            if (l > u) {
+                throw explanations.fail(emptyReason(zMin, zMax));
+            }
+        }
+        while (t[sortedPerm[u]] > zMax || !y.contains(sortedPerm[u])) {
+            int i = sortedPerm[u];
+            explanations.remove(y, i, Literal.le(z, t[i] - 1));
+            u--;
+            if (l > u) {
+                throw explanations.fail(emptyReason(zMin, zMax));
+            }
+        }
+        int newMin = t[sortedPerm[l]];
+        if (z.min() < newMin) {
+            // the indices of the entries below the new minimum are removed
+            Literal[] reason = new Literal[l];
+            int k = 0;
+            while (t[sortedPerm[k]] < newMin) {
+                reason[k] = Literal.neq(y, sortedPerm[k]);
+                k++;
+            }
+            explanations.removeBelow(z, newMin, Arrays.copyOf(reason, k));
+        }
+        int newMax = t[sortedPerm[u]];
+        if (z.max() > newMax) {
+            // the indices of the entries above the new maximum are removed
+            Literal[] reason = new Literal[t.length - 1 - u];
+            int k = 0;
+            while (t[sortedPerm[t.length - 1 - k]] > newMax) {
+                reason[k] = Literal.neq(y, sortedPerm[t.length - 1 - k]);
+                k++;
+            }
+            explanations.removeAbove(z, newMax, Arrays.copyOf(reason, k));
+        }
+        low.setValue(l);
+        up.setValue(u);
+    }
+
+    // every index is removed, or its entry is not in the bounds of z
+    private Literal[] emptyReason(int zMin, int zMax) {
+        Literal[] reason = new Literal[t.length];
+        for (int i = 0; i < t.length; i++) {
+            if (!y.contains(i))
+                reason[i] = Literal.neq(y, i);
+            else if (t[i] < zMin)
+                reason[i] = Literal.ge(z, t[i] + 1);
+            else
+                reason[i] = Literal.le(z, t[i] - 1);
+        }
+        return reason;
+    }
 }
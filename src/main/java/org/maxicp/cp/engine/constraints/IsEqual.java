@@ -9,6 +9,8 @@ import org.maxicp.cp.CPFactory;
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPBoolVar;
 import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
 
 
 /**
@@ -20,6 +22,7 @@ public class IsEqual extends AbstractCPConstraint { // b <=> x == v
     private final CPBoolVar b;
     private final CPIntVar x;
     private final int v;
+    private final Explanations explanations;
 
     /**
      * Returns a boolean variable representing
@@ -35,6 +38,7 @@ public class IsEqual extends AbstractCPConstraint { // b <=> x == v
         this.b = b;
         this.x = x;
         this.v = v;
+        this.explanations = Explanations.forPropagator(getSolver());
     }
 
     @Override
@@ -48,7 +52,9 @@ public class IsEqual extends AbstractCPConstraint { // b <=> x == v
 
     @Override
     public void propagate() {
-        if (b.isTrue()) {
+        if (explanations != null) {
+            propagateExplained();
+        } else if (b.isTrue()) {
             x.fix(v);
             setActive(false);
         } else if (b.isFalse()) {
@@ -62,4 +68,20 @@ public class IsEqual extends AbstractCPConstraint { // b <=> x == v
             setActive(false);
         }
     }
+
+    private void propagateExplained() {
+        if (b.isTrue()) {
+            explanations.fix(x, v, Literal.ge(b, 1));
+            setActive(false);
+        } else if (b.isFalse()) {
+            explanations.remove(x, v, Literal.le(b, 0));
+            setActive(false);
+        } else if (!x.contains(v)) {
+            explanations.fix(b, 0, Literal.neq(x, v));
+            setActive(false);
+        } else if (x.isFixed()) {
+            explanations.fix(b, 1, Literal.eq(x, v));
+            setActive(false);
+        }
+    }
 }
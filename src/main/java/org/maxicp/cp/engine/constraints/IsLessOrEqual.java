@@ -9,6 +9,8 @@ import org.maxicp.cp.CPFactory;
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPBoolVar;
 import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
 
 /**
  * Reified less or equal constraint.
@@ -18,6 +20,7 @@ public class IsLessOrEqual extends AbstractCPConstraint { // b <=> x <= v
     private final CPBoolVar b;
     private final CPIntVar x;
     private final int v;
+    private final Explanations explanations;
 
     /**
      * Creates a constraint that
@@ -34,37 +37,62 @@ public class IsLessOrEqual extends AbstractCPConstraint { // b <=> x <= v
         this.b = b;
         this.x = x;
         this.v = v;
+        this.explanations = Explanations.forPropagator(getSolver());
     }
 
     @Override
     public void post() {
         if (b.isTrue()) {
-            x.removeAbove(v);
+            removeAbove();
         } else if (b.isFalse()) {
-            x.removeBelow(v + 1);
+            removeBelow();
         } else if (x.max() <= v) {
-            b.fix(1);
+            fixB(1);
         } else if (x.min() > v) {
-            b.fix(0);
+            fixB(0);
         } else {
             b.whenFixed(() -> {
                 // should deactivate the constraint as it is entailed
                 if (b.isTrue()) {
-                    x.removeAbove(v);
+                    removeAbove();
 
                 } else {
-                    x.removeBelow(v + 1);
+                    removeBelow();
                 }
             });
             x.whenBoundChange(() -> {
                 if (x.max() <= v) {
                     // should deactivate the constraint as it is entailed
-                    b.fix(1);
+                    fixB(1);
                 } else if (x.min() > v) {
                     // should deactivate the constraint as it is entailed
-                    b.fix(0);
+                    fixB(0);
                 }
             });
         }
     }
+
+    // b is true, x <= v
+    private void removeAbove() {
+        if (explanations == null)
+            x.removeAbove(v);
+        else
+            explanations.removeAbove(x, v, Literal.ge(b, 1));
+    }
+
+    // b is false, x > v
+    private void removeBelow() {
+        if (explanations == null)
+            x.removeBelow(v + 1);
+        else
+            explanations.removeBelow(x, v + 1, Literal.le(b, 0));
+    }
+
+    // x <= v is entailed (value 1) or violated (value 0)
+    private void fixB(int value) {
+        if (explanations == null)
+            b.fix(value);
+        else
+            explanations.fix(b, value, value == 1 ? Literal.le(x, v) : Literal.ge(x, v + 1));
+    }
 }
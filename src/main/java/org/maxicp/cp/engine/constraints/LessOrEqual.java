@@ -7,6 +7,8 @@ package org.maxicp.cp.engine.constraints;
 
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
 
 /**
  * Less or equal constraint between two variables
@@ -15,11 +17,13 @@ public class LessOrEqual extends AbstractCPConstraint { // x <= y
 
     private final CPIntVar x;
     private final CPIntVar y;
+    private final Explanations explanations;
 
     public LessOrEqual(CPIntVar x, CPIntVar y) {
         super(x.getSolver());
         this.x = x;
         this.y = y;
+        this.explanations = Explanations.forPropagator(getSolver());
     }
 
     @Override
@@ -31,8 +35,13 @@ public class LessOrEqual extends AbstractCPConstraint { // x <= y
 
     @Override
     public void propagate() {
-        x.removeAbove(y.max());
-        y.removeBelow(x.min());
+        if (explanations == null) {
+            x.removeAbove(y.max());
+            y.removeBelow(x.min());
+        } else {
+            explanations.removeAbove(x, y.max(), Literal.le(y, y.max()));
+            explanations.removeBelow(y, x.min(), Literal.ge(x, x.min()));
+        }
         if (x.max() <= y.min())
             setActive(false);
     }
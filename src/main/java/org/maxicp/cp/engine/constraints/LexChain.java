@@ -0,0 +1,160 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.maxicp.cp.engine.core.AbstractCPConstraint;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+
+/**
+ * Chain of lexicographic orderings: {@code x[0] <=lex x[1] <=lex ... <=lex x[m-1]},
+ * or with strict orderings.
+ *
+ * Bounds consistent filtering: each array is filtered between a lexicographic lower bound,
+ * the smallest array within its bounds that is greater than the lower bound of its predecessor,
+ * and a lexicographic upper bound, the largest array within its bounds that is smaller than the upper bound of its successor.
+ * Only the minimum and maximum of the variables are reasoned on (the arc consistent algorithm of
+ * Carlsson, M., &amp; Beldiceanu, N. (2002). Arc-consistency for a chain of lexicographic
+ * ordering constraints. SICS Technical Report, also takes the holes of the domains into account).
+ *
+ * The propagation is not incremental: no state is kept between two propagations, and the bounds of the whole chain
+ * are recomputed from scratch, in O(m.n), each time a bound of any of the m.n variables changes.
+ * This is stronger than a decomposition into {@link LexLeq} constraints between consecutive arrays,
+ * as the bounds are propagated along the whole chain.
+ * The decomposition should however be preferred when the chain is long and the arrays are mostly ordered
+ * by their first positions, or when the holes of the domains matter:
+ * each {@link LexLeq} is domain consistent, is only woken up by the variables of its two arrays,
+ * and skips the prefix of its arrays fixed to the same values thanks to its reversible pointers.
+ */
+public class LexChain extends AbstractCPConstraint {
+
+    private final CPIntVar[][] x;
+    private final boolean strict;
+    private final int m;
+    private final int n;
+    private final int[][] lb;
+    private final int[][] ub;
+
+    /**
+     * Creates a chain of lexicographic ordering constraints
+     *
+     * @param x      arrays of variables, of the same length
+     * @param strict true if the consecutive arrays are strictly ordered
+     * @throws IllegalArgumentException if there is no array or if the arrays are empty
+     */
+    public LexChain(CPIntVar[][] x, boolean strict) {
+        super(solverOf(x));
+        this.x = x;
+        this.strict = strict;
+        this.m = x.length;
+        this.n = x[0].length;
+        for (CPIntVar[] xi : x) {
+            if (xi.length != n)
+                throw new IllegalArgumentException("the arrays should have the same length");
+        }
+        this.lb = new int[m][n];
+        this.ub = new int[m][n];
+    }
+
+    private static CPSolver solverOf(CPIntVar[][] x) {
+        if (x.length == 0 || x[0].length == 0)
+            throw new IllegalArgumentException("at least one non empty array is required");
+        return x[0][0].getSolver();
+    }
+
+    @Override
+    public void post() {
+        for (CPIntVar[] xi : x) {
+            for (CPIntVar v : xi)
+                v.propagateOnBoundChange(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public void propagate() {
+        for (int j = 0; j < n; j++)
+            lb[0][j] = x[0][j].min();
+        for (int i = 1; i < m; i++)
+            lowerBound(x[i], lb[i - 1], lb[i]);
+        for (int j = 0; j < n; j++)
+            ub[m - 1][j] = x[m - 1][j].max();
+        for (int i = m - 2; i >= 0; i--)
+            upperBound(x[i], ub[i + 1], ub[i]);
+        for (int i = 0; i < m; i++) {
+            if (Arrays.compare(lb[i], ub[i]) > 0)
+                throw InconsistencyException.INCONSISTENCY;
+            removeBelow(x[i], lb[i]);
+            removeAbove(x[i], ub[i]);
+        }
+    }
+
+    /**
+     * Computes the smallest array within the bounds of the variables that is greater than {@code prev}
+     */
+    private void lowerBound(CPIntVar[] xi, int[] prev, int[] res) {
+        int p = 0; // length of the prefix of prev within the bounds
+        while (p < n && xi[p].min() <= prev[p] && prev[p] <= xi[p].max())
+            p++;
+        if (p == n && !strict) {
+            System.arraycopy(prev, 0, res, 0, n);
+            return;
+        }
+        // the last position from which the array can become greater than prev
+        int k = Math.min(p, n - 1);
+        while (k >= 0 && xi[k].max() <= prev[k])
+            k--;
+        if (k < 0)
+            throw InconsistencyException.INCONSISTENCY;
+        System.arraycopy(prev, 0, res, 0, k);
+        res[k] = Math.max(prev[k] + 1, xi[k].min());
+        for (int j = k + 1; j < n; j++)
+            res[j] = xi[j].min();
+    }
+
+    /**
+     * Computes the largest array within the bounds of the variables that is smaller than {@code next}
+     */
+    private void upperBound(CPIntVar[] xi, int[] next, int[] res) {
+        int p = 0;
+        while (p < n && xi[p].min() <= next[p] && next[p] <= xi[p].max())
+            p++;
+        if (p == n && !strict) {
+            System.arraycopy(next, 0, res, 0, n);
+            return;
+        }
+        int k = Math.min(p, n - 1);
+        while (k >= 0 && xi[k].min() >= next[k])
+            k--;
+        if (k < 0)
+            throw InconsistencyException.INCONSISTENCY;
+        System.arraycopy(next, 0, res, 0, k);
+        res[k] = Math.min(next[k] - 1, xi[k].max());
+        for (int j = k + 1; j < n; j++)
+            res[j] = xi[j].max();
+    }
+
+    // enforces xi >=lex l, where l is within the bounds of xi
+    private static void removeBelow(CPIntVar[] xi, int[] l) {
+        for (int j = 0; j < xi.length; j++) {
+            xi[j].removeBelow(l[j]);
+            if (!xi[j].isFixed() || xi[j].min() > l[j])
+                return;
+        }
+    }
+
+    // enforces xi <=lex u, where u is within the bounds of xi
+    private static void removeAbove(CPIntVar[] xi, int[] u) {
+        for (int j = 0; j < xi.length; j++) {
+            xi[j].removeAbove(u[j]);
+            if (!xi[j].isFixed() || xi[j].max() < u[j])
+                return;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.maxicp.cp.engine.core.AbstractCPConstraint;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.state.StateInt;
+import org.maxicp.util.exception.InconsistencyException;
+
+/**
+ * Lexicographic ordering constraint between two arrays: {@code x <=lex y}, or {@code x <lex y} if strict.
+ *
+ * Domain consistent propagator with the two reversible pointers of
+ * Frisch, A. M., Hnich, B., Kiziltan, Z., Miguel, I., &amp; Walsh, T. (2002).
+ * Global constraints for lexicographic orderings. CP 2002.
+ * <ul>
+ *     <li>alpha is the first index such that {@code x[alpha]} and {@code y[alpha]} are not fixed to the same value,</li>
+ *     <li>beta is the first index from which the suffix of {@code x} is necessarily greater than the suffix of {@code y}.</li>
+ * </ul>
+ * Only the pair at index alpha is filtered, and both pointers only move towards each other.
+ */
+public class LexLeq extends AbstractCPConstraint {
+
+    private final CPIntVar[] x;
+    private final CPIntVar[] y;
+    private final int n;
+    private final int none; // value of beta when no suffix is necessarily greater
+    private final StateInt alpha;
+    private final StateInt beta;
+
+    /**
+     * Creates a lexicographic ordering constraint
+     *
+     * @param x      an array of variables
+     * @param y      an array of variables, of the same length as x
+     * @param strict true for {@code x <lex y}, false for {@code x <=lex y}
+     * @throws IllegalArgumentException if the arrays are empty or of different lengths
+     */
+    public LexLeq(CPIntVar[] x, CPIntVar[] y, boolean strict) {
+        super(solverOf(x, y));
+        this.x = x;
+        this.y = y;
+        this.n = x.length;
+        // when strict, the empty suffixes are considered as ordered the wrong way
+        this.none = strict ? n : n + 1;
+        this.alpha = getSolver().getStateManager().makeStateInt(0);
+        this.beta = getSolver().getStateManager().makeStateInt(none);
+    }
+
+    private static CPSolver solverOf(CPIntVar[] x, CPIntVar[] y) {
+        if (x.length != y.length)
+            throw new IllegalArgumentException("the arrays should have the same length");
+        if (x.length == 0)
+            throw new IllegalArgumentException("the arrays should not be empty");
+        return x[0].getSolver();
+    }
+
+    @Override
+    public void post() {
+        for (int i = 0; i < n; i++) {
+            x[i].propagateOnBoundChange(this);
+            y[i].propagateOnBoundChange(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public void propagate() {
+        int a = alpha.value();
+        while (a < n && x[a].isFixed() && y[a].isFixed() && x[a].min() == y[a].min())
+            a++;
+        alpha.setValue(a);
+        int b = updateBeta(a);
+        if (a >= b)
+            throw InconsistencyException.INCONSISTENCY;
+        if (a == n) { // the arrays are equal
+            setActive(false);
+            return;
+        }
+        if (b == a + 1) {
+            x[a].removeAbove(y[a].max() - 1);
+            y[a].removeBelow(x[a].min() + 1);
+        } else {
+            x[a].removeAbove(y[a].max());
+            y[a].removeBelow(x[a].min());
+        }
+        if (x[a].max() < y[a].min())
+            setActive(false);
+    }
+
+    /**
+     * Moves beta backward, scanning from alpha up to its previous value:
+     * the suffix from the previous beta remains necessarily greater as the domains shrink.
+     */
+    private int updateBeta(int a) {
+        int old = beta.value();
+        int limit = Math.min(old, n);
+        int b = -1; // start of the current run of positions where x[i] >= y[i] is necessarily tight
+        int i = a;
+        while (i < limit && x[i].min() <= y[i].max()) {
+            if (x[i].min() == y[i].max()) {
+                if (b == -1)
+                    b = i;
+            } else {
+                b = -1;
+            }
+            i++;
+        }
+        if (i < limit || old != n + 1)
+            b = b == -1 ? i : b;
+        else
+            b = n + 1;
+        if (b < old)
+            beta.setValue(b);
+        return b;
+    }
+}
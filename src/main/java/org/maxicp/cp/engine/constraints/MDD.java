@@ -0,0 +1,244 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.maxicp.cp.engine.core.AbstractCPConstraint;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.DeltaCPIntVar;
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.datastructures.StateSparseSet;
+import org.maxicp.util.algo.Automaton;
+import org.maxicp.util.algo.LayeredGraph;
+
+import java.util.Arrays;
+
+import static org.maxicp.util.exception.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Multi-valued decision diagram constraint.
+ *
+ * The diagram is given as a layered graph with {@code n+1} layers, {@code n} being the number of variables,
+ * whose edges between layers {@code i} and {@code i+1} are labeled with values of {@code x[i]}.
+ * The constraint holds if the values of the variables are the labels of a path from the first to the last layer.
+ * A regular constraint is obtained by unrolling an automaton (see {@link Automaton#unroll(int)}),
+ * the graph is read-only and can thus be shared by several constraints.
+ *
+ * The filtering is domain consistent and incremental:
+ * the edges are removed when their label is removed from the domain or when their origin has no outgoing edge
+ * or their destination no incoming edge anymore. The numbers of edges entering and leaving each node,
+ * and the number of edges supporting each value, are reversible counters,
+ * and a value is removed once it has no support.
+ */
+public class MDD extends AbstractCPConstraint {
+
+    private final CPIntVar[] x;
+    private final int n;
+    private final DeltaCPIntVar[] delta;
+    private final int[] ofs; // minimum initial value of each variable
+
+    // edges, numbered layer by layer
+    private final int[] edgeLayer;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final int[] edgeLabel;
+    private final int[][] inEdges; // edges entering each node
+    private final int[][] outEdges; // edges leaving each node
+    private final int[][][] edgesOfValue; // edgesOfValue[i][v-ofs[i]] edges of layer i labeled v
+    private final int root;
+
+    private final StateSparseSet alive; // edges still on a path from the first to the last layer
+    private final StateInt[] nIn; // number of alive edges entering each node
+    private final StateInt[] nOut; // number of alive edges leaving each node
+    private final StateInt[][] nSupports; // nSupports[i][v-ofs[i]] number of alive edges of layer i labeled v
+
+    private final int[] stack; // removed edges whose counters must be updated
+    private int stackSize = 0;
+    private final int[] values;
+
+    /**
+     * Creates a multi-valued decision diagram constraint
+     *
+     * @param x     the variables
+     * @param graph a graph with {@code x.length+1} layers whose edges between layers {@code i} and {@code i+1}
+     *              are labeled with values of {@code x[i]}, the first layer must have at most one node.
+     *              The graph is not modified.
+     */
+    public MDD(CPIntVar[] x, LayeredGraph<?> graph) {
+        super(x[0].getSolver());
+        if (graph.nLayers() != x.length + 1)
+            throw new IllegalArgumentException("the graph must have " + (x.length + 1) + " layers");
+        if (graph.layerSize(0) > 1)
+            throw new IllegalArgumentException("the first layer of the graph must have at most one node");
+        StateManager sm = getSolver().getStateManager();
+        this.x = x;
+        this.n = x.length;
+        this.delta = new DeltaCPIntVar[n];
+        this.ofs = new int[n];
+        int maxSize = 0;
+        for (int i = 0; i < n; i++) {
+            ofs[i] = x[i].min();
+            maxSize = Math.max(maxSize, x[i].max() - x[i].min() + 1);
+        }
+        this.values = new int[maxSize];
+
+        int nNodes = graph.nNodes();
+        int nEdges = 0;
+        int[] nInOfNode = new int[nNodes];
+        for (int node = 0; node < graph.layerEnd(n - 1); node++) {
+            LayeredGraph.EdgeList succ = graph.successors(node);
+            nEdges += succ.size();
+            for (int k = 0; k < succ.size(); k++)
+                nInOfNode[succ.node(k)]++;
+        }
+        edgeLayer = new int[nEdges];
+        edgeFrom = new int[nEdges];
+        edgeTo = new int[nEdges];
+        edgeLabel = new int[nEdges];
+        inEdges = new int[nNodes][];
+        outEdges = new int[nNodes][];
+        for (int node = 0; node < nNodes; node++)
+            inEdges[node] = new int[nInOfNode[node]];
+        int[] nValueEdges = new int[maxSize];
+        edgesOfValue = new int[n][][];
+        int[] filled = new int[nNodes];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            int size = x[i].max() - ofs[i] + 1;
+            Arrays.fill(nValueEdges, 0, size, 0);
+            int first = e;
+            for (int node = graph.layerBegin(i); node < graph.layerEnd(i); node++) {
+                LayeredGraph.EdgeList succ = graph.successors(node);
+                outEdges[node] = new int[succ.size()];
+                for (int k = 0; k < succ.size(); k++) {
+                    int to = succ.node(k);
+                    if (to < graph.layerBegin(i + 1) || to >= graph.layerEnd(i + 1))
+                        throw new IllegalArgumentException("the edges must link two consecutive layers");
+                    edgeLayer[e] = i;
+                    edgeFrom[e] = node;
+                    edgeTo[e] = to;
+                    edgeLabel[e] = succ.label(k);
+                    outEdges[node][k] = e;
+                    inEdges[to][filled[to]++] = e;
+                    int v = edgeLabel[e] - ofs[i];
+                    if (v >= 0 && v < size)
+                        nValueEdges[v]++;
+                    e++;
+                }
+            }
+            edgesOfValue[i] = new int[size][];
+            for (int v = 0; v < size; v++)
+                edgesOfValue[i][v] = new int[nValueEdges[v]];
+            Arrays.fill(nValueEdges, 0, size, 0);
+            for (int k = first; k < e; k++) {
+                int v = edgeLabel[k] - ofs[i];
+                if (v >= 0 && v < size)
+                    edgesOfValue[i][v][nValueEdges[v]++] = k;
+            }
+        }
+        for (int node = graph.layerBegin(n); node < graph.layerEnd(n); node++)
+            outEdges[node] = new int[0];
+        root = graph.layerSize(0) == 0 ? -1 : graph.layerBegin(0);
+
+        alive = new StateSparseSet(sm, Math.max(nEdges, 1), 0);
+        if (nEdges == 0)
+            alive.remove(0);
+        nIn = new StateInt[nNodes];
+        nOut = new StateInt[nNodes];
+        for (int node = 0; node < nNodes; node++) {
+            nIn[node] = sm.makeStateInt(inEdges[node].length);
+            nOut[node] = sm.makeStateInt(outEdges[node].length);
+        }
+        nSupports = new StateInt[n][];
+        for (int i = 0; i < n; i++) {
+            nSupports[i] = new StateInt[edgesOfValue[i].length];
+            for (int v = 0; v < nSupports[i].length; v++)
+                nSupports[i][v] = sm.makeStateInt(edgesOfValue[i][v].length);
+        }
+        stack = new int[nEdges];
+    }
+
+    @Override
+    public void post() {
+        if (root < 0)
+            throw INCONSISTENCY;
+        // edges labeled with values outside of the initial domains, or leaving nodes that are not on a complete path
+        for (int e = 0; e < edgeLabel.length; e++) {
+            if (!x[edgeLayer[e]].contains(edgeLabel[e]))
+                removeEdge(e);
+            else if (edgeFrom[e] != root && inEdges[edgeFrom[e]].length == 0)
+                removeEdge(e);
+            else if (edgeLayer[e] < n - 1 && outEdges[edgeTo[e]].length == 0)
+                removeEdge(e);
+        }
+        processRemovedEdges();
+        for (int i = 0; i < n; i++) {
+            int size = x[i].fillArray(values);
+            for (int k = 0; k < size; k++) {
+                int v = values[k] - ofs[i];
+                if (nSupports[i][v].value() == 0)
+                    x[i].remove(values[k]);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            delta[i] = x[i].delta(this);
+            x[i].propagateOnDomainChange(this);
+        }
+    }
+
+    @Override
+    public void propagate() {
+        for (int i = 0; i < n; i++) {
+            if (delta[i].changed()) {
+                int size = delta[i].fillArray(values);
+                for (int k = 0; k < size; k++) {
+                    int v = values[k] - ofs[i];
+                    if (nSupports[i][v].value() > 0) {
+                        for (int e : edgesOfValue[i][v])
+                            removeEdge(e);
+                    }
+                }
+            }
+        }
+        processRemovedEdges();
+    }
+
+    private void removeEdge(int e) {
+        if (alive.remove(e))
+            stack[stackSize++] = e;
+    }
+
+    /**
+     * Updates the counters of the removed edges,
+     * removing the edges of the nodes that have no incoming or no outgoing edge anymore,
+     * and the values that have no support anymore
+     */
+    private void processRemovedEdges() {
+        try {
+            while (stackSize > 0) {
+                int e = stack[--stackSize];
+                int i = edgeLayer[e];
+                int v = edgeLabel[e] - ofs[i];
+                if (v >= 0 && v < nSupports[i].length && nSupports[i][v].decrement() == 0)
+                    x[i].remove(edgeLabel[e]);
+                int from = edgeFrom[e];
+                if (nOut[from].decrement() == 0) {
+                    if (from == root)
+                        throw INCONSISTENCY;
+                    for (int in : inEdges[from])
+                        removeEdge(in);
+                }
+                int to = edgeTo[e];
+                if (nIn[to].decrement() == 0) {
+                    for (int out : outEdges[to])
+                        removeEdge(out);
+                }
+            }
+        } finally {
+            stackSize = 0;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.maxicp.cp.engine.core.AbstractCPConstraint;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
+import org.maxicp.search.IntDecision.Relation;
+import org.maxicp.state.StateInt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import static org.maxicp.util.exception.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Database of nogoods, each nogood being a set of literals {@code x rel v} that cannot all hold together.
+ *
+ * The nogoods are propagated with two watched literals, as the clauses of a SAT solver:
+ * each nogood watches two of its literals that are not entailed.
+ * When a watched literal becomes entailed, another literal is watched instead,
+ * and when every literal except one is entailed, the negation of the last one is enforced.
+ * The watches are not reversible, since restoring the domains can only make the watched literals
+ * less entailed. For the same reason, the nogoods must be added at the level at which the store is posted,
+ * typically between two restarts of the search, and are discarded when this level is restored.
+ * The nogoods learnt during the search (see {@link #learn(Literal...)}) are kept when backtracking,
+ * the variables that they involve being subscribed again at the restored state.
+ */
+public class NogoodStore extends AbstractCPConstraint {
+
+    private final List<CPIntVar> vars = new ArrayList<>();
+    private final IdentityHashMap<CPIntVar, Integer> varIndex = new IdentityHashMap<>();
+
+    // literals of the nogoods, the two first literals of a nogood being the watched ones
+    private final List<int[]> nogoodVar = new ArrayList<>();
+    private final List<Relation[]> nogoodRel = new ArrayList<>();
+    private final List<int[]> nogoodVal = new ArrayList<>();
+
+    // watches[x] watches on the variable x, encoded as 2*nogood+watchedLiteral
+    private int[][] watches = new int[0][];
+    private int[] nWatches = new int[0];
+
+    // variables modified since the last propagation
+    private int[] modified = new int[0];
+    private int nModified = 0;
+    private boolean[] isModified = new boolean[0];
+
+    private final Explanations explanations;
+
+    // the demons of the variables, subscribed for the variables in [0..nSubscribed-1]
+    private final List<Runnable> demons = new ArrayList<>();
+    private final StateInt nSubscribed;
+    // 1 from the post of the store until the state at which it was posted is restored
+    private final StateInt alive;
+
+    public NogoodStore(CPSolver cp) {
+        super(cp);
+        explanations = Explanations.forPropagator(cp);
+        nSubscribed = cp.getStateManager().makeStateInt(0);
+        alive = cp.getStateManager().makeStateInt(0);
+    }
+
+    @Override
+    public void post() {
+        alive.setValue(1);
+        // the subscriptions of the variables met during the search are discarded when backtracking,
+        // while the nogoods on them are kept: they are subscribed again at the restored state
+        getSolver().getStateManager().onRestore(() -> {
+            if (alive.value() == 1)
+                subscribe();
+        });
+    }
+
+    /**
+     * Returns the number of nogoods in the store
+     *
+     * @return the number of nogoods
+     */
+    public int size() {
+        return nogoodVar.size();
+    }
+
+    /**
+     * Adds a nogood and propagates it.
+     *
+     * @param x      the variables of the literals
+     * @param rel    the relations of the literals
+     * @param values the values of the literals, such that {@code x[i] rel[i] values[i]} cannot hold for every {@code i}
+     * @throws org.maxicp.util.exception.InconsistencyException if every literal is entailed
+     */
+    public void add(CPIntVar[] x, Relation[] rel, int[] values) {
+        int n = x.length;
+        int[] var = new int[n];
+        Relation[] r = rel.clone();
+        int[] val = values.clone();
+        for (int i = 0; i < n; i++)
+            var[i] = indexOf(x[i]);
+        // the literals that are not entailed are moved first, to be watched
+        int nFree = 0;
+        for (int i = 0; i < n; i++) {
+            if (!isEntailed(var[i], r[i], val[i]))
+                swap(var, r, val, i, nFree++);
+        }
+        if (nFree == 0)
+            throw INCONSISTENCY;
+        if (nFree == 1)
+            enforceNegation(var, r, val, 0);
+        if (n >= 2) {
+            int id = nogoodVar.size();
+            nogoodVar.add(var);
+            nogoodRel.add(r);
+            nogoodVal.add(val);
+            watch(var[0], 2 * id);
+            watch(var[1], 2 * id + 1);
+        }
+        getSolver().fixPoint();
+    }
+
+    /**
+     * Adds a nogood during the search, typically learnt from a failure (see {@link Explanations#analyze()}).
+     * Contrary to {@link #add(CPIntVar[], Relation[], int[])}, the domains are not modified:
+     * if at most one literal is not entailed, the store is scheduled to propagate it at the next fix point.
+     * The nogood is kept when the search backtracks, it must thus be implied by the constraints of the model.
+     *
+     * @param nogood literals that cannot all hold together
+     */
+    public void learn(Literal... nogood) {
+        if (nogood.length == 0)
+            return;
+        if (nogood.length == 1) // the literal is watched twice
+            nogood = new Literal[]{nogood[0], nogood[0]};
+        int n = nogood.length;
+        int[] var = new int[n];
+        Relation[] r = new Relation[n];
+        int[] val = new int[n];
+        int nFree = 0;
+        for (int i = 0; i < n; i++) {
+            var[i] = indexOf(nogood[i].x());
+            r[i] = nogood[i].rel();
+            val[i] = nogood[i].value();
+            if (!nogood[i].isTrue())
+                swap(var, r, val, i, nFree++);
+        }
+        int id = nogoodVar.size();
+        nogoodVar.add(var);
+        nogoodRel.add(r);
+        nogoodVal.add(val);
+        watch(var[0], 2 * id);
+        watch(var[1], 2 * id + 1);
+        if (nFree <= 1) {
+            markModified(var[1]);
+            getSolver().schedule(this);
+        }
+    }
+
+    @Override
+    public void propagate() {
+        while (nModified > 0) {
+            int x = modified[--nModified];
+            isModified[x] = false;
+            int[] w = watches[x];
+            int i = 0;
+            while (i < nWatches[x]) {
+                int ng = w[i] >> 1;
+                int lit = w[i] & 1;
+                int[] var = nogoodVar.get(ng);
+                Relation[] rel = nogoodRel.get(ng);
+                int[] val = nogoodVal.get(ng);
+                if (!isEntailed(var[lit], rel[lit], val[lit])) {
+                    i++;
+                    continue;
+                }
+                int other = 1 - lit;
+                if (isFalsified(var[other], rel[other], val[other])) {
+                    // the nogood is satisfied
+                    i++;
+                    continue;
+                }
+                int k = 2;
+                while (k < var.length && isEntailed(var[k], rel[k], val[k]))
+                    k++;
+                if (k < var.length) {
+                    swap(var, rel, val, lit, k);
+                    watch(var[lit], w[i]);
+                    w = watches[x]; // the array may have grown if the new watch is on x
+                    w[i] = w[--nWatches[x]];
+                } else {
+                    enforceNegation(var, rel, val, other);
+                    i++;
+                }
+            }
+        }
+    }
+
+    private int indexOf(CPIntVar x) {
+        Integer index = varIndex.get(x);
+        if (index != null)
+            return index;
+        int i = vars.size();
+        vars.add(x);
+        varIndex.put(x, i);
+        watches = Arrays.copyOf(watches, i + 1);
+        watches[i] = new int[4];
+        nWatches = Arrays.copyOf(nWatches, i + 1);
+        modified = Arrays.copyOf(modified, i + 1);
+        isModified = Arrays.copyOf(isModified, i + 1);
+        demons.add(() -> {
+            markModified(i);
+            getSolver().schedule(this);
+        });
+        subscribe();
+        return i;
+    }
+
+    // subscribes the demons of the variables that are not subscribed at the current state
+    private void subscribe() {
+        int n = nSubscribed.value();
+        if (n == vars.size())
+            return;
+        for (int i = n; i < vars.size(); i++)
+            vars.get(i).demonOnDomainChange(demons.get(i));
+        nSubscribed.setValue(vars.size());
+    }
+
+    private void markModified(int x) {
+        if (!isModified[x]) {
+            isModified[x] = true;
+            modified[nModified++] = x;
+        }
+    }
+
+    private void watch(int x, int watch) {
+        if (nWatches[x] == watches[x].length)
+            watches[x] = Arrays.copyOf(watches[x], nWatches[x] * 2);
+        watches[x][nWatches[x]++] = watch;
+    }
+
+    private static void swap(int[] var, Relation[] rel, int[] val, int i, int j) {
+        int v = var[i];
+        var[i] = var[j];
+        var[j] = v;
+        Relation r = rel[i];
+        rel[i] = rel[j];
+        rel[j] = r;
+        v = val[i];
+        val[i] = val[j];
+        val[j] = v;
+    }
+
+    private boolean isEntailed(int x, Relation rel, int v) {
+        CPIntVar y = vars.get(x);
+        return switch (rel) {
+            case EQ -> y.isFixed() && y.min() == v;
+            case NEQ -> !y.contains(v);
+            case LE -> y.max() <= v;
+            case GT -> y.min() > v;
+        };
+    }
+
+    private boolean isFalsified(int x, Relation rel, int v) {
+        return isEntailed(x, rel.negation(), v);
+    }
+
+    // enforces the negation of a literal of a nogood, all the other ones being true
+    private void enforceNegation(int[] var, Relation[] rel, int[] val, int lit) {
+        CPIntVar y = vars.get(var[lit]);
+        int v = val[lit];
+        if (explanations != null) {
+            Literal[] reason = new Literal[var.length - 1];
+            for (int k = 0, j = 0; k < var.length; k++) {
+                if (k != lit)
+                    reason[j++] = new Literal(vars.get(var[k]), rel[k], val[k]);
+            }
+            explanations.enforce(new Literal(y, rel[lit].negation(), v), reason);
+            return;
+        }
+        switch (rel[lit]) {
+            case EQ -> y.remove(v);
+            case NEQ -> y.fix(v);
+            case LE -> y.removeBelow(v + 1);
+            case GT -> y.removeAbove(v);
+        }
+    }
+}
@@ -8,6 +8,8 @@ package org.maxicp.cp.engine.constraints;
 import org.maxicp.cp.CPFactory;
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
 
 import static org.maxicp.cp.CPFactory.plus;
 
@@ -16,6 +18,7 @@ import static org.maxicp.cp.CPFactory.plus;
  */
 public class NotEqual extends AbstractCPConstraint {
     private final CPIntVar x, y;
+    private final Explanations explanations;
 
     /**
      * Creates a constraint such
@@ -42,14 +45,15 @@ public class NotEqual extends AbstractCPConstraint {
         super(x.getSolver());
         this.x = x;
         this.y = y;
+        this.explanations = Explanations.forPropagator(getSolver());
     }
 
     @Override
     public void post() {
         if (y.isFixed())
-            x.remove(y.min());
+            removeValueOf(x, y);
         else if (x.isFixed())
-            y.remove(x.min());
+            removeValueOf(y, x);
         else {
             x.propagateOnFix(this);
             y.propagateOnFix(this);
@@ -59,9 +63,17 @@ public class NotEqual extends AbstractCPConstraint {
     @Override
     public void propagate() {
         if (y.isFixed())
-            x.remove(y.min());
+            removeValueOf(x, y);
         else
-            y.remove(x.min());
+            removeValueOf(y, x);
         setActive(false);
     }
+
+    // removes the value of the fixed variable from the domain of the other one
+    private void removeValueOf(CPIntVar other, CPIntVar fixed) {
+        if (explanations == null)
+            other.remove(fixed.min());
+        else
+            explanations.remove(other, fixed.min(), Literal.eq(fixed, fixed.min()));
+    }
 }
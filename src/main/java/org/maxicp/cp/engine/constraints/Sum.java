@@ -9,6 +9,8 @@ import org.maxicp.cp.CPFactory;
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPIntVar;
 import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
 import org.maxicp.state.State;
 import org.maxicp.state.StateInt;
 import org.maxicp.util.exception.InconsistencyException;
@@ -27,6 +29,8 @@ public class Sum extends AbstractCPConstraint {
     private CPIntVar[] x;
     private int[] min, max;
     private int n;
+    private int nReason; // the variables x[nReason..n-1] are constants, not needed in the reasons
+    private final Explanations explanations;
 
     /**
      * Creates a sum constraint.
@@ -54,6 +58,7 @@ public class Sum extends AbstractCPConstraint {
         this(x.length + 1, x[0].getSolver());
         System.arraycopy(x, 0, this.x, 0, x.length);
         this.x[x.length] = CPFactory.makeIntVar(getSolver(), -y, -y);
+        this.nReason = x.length;
     }
 
     /**
@@ -72,11 +77,13 @@ public class Sum extends AbstractCPConstraint {
         super(solver);
         this.x = new CPIntVar[n];
         this.n = n;
+        this.nReason = n;
         min = new int[n];
         max = new int[n];
         nFrees = getSolver().getStateManager().makeStateInt(n);
         sumFixed = getSolver().getStateManager().makeStateRef(0L);
         free = IntStream.range(0, n).toArray();
+        explanations = Explanations.forPropagator(getSolver());
     }
 
     @Override
@@ -105,6 +112,10 @@ public class Sum extends AbstractCPConstraint {
             }
         }
         nFrees.setValue(nU);
+        if (explanations != null) {
+            filterExplained(nU, sumMin, sumMax);
+            return;
+        }
         if (sumMin > 0 || sumMax < 0) {
             throw new InconsistencyException();
         }
@@ -115,4 +126,42 @@ public class Sum extends AbstractCPConstraint {
             x[idx].removeBelow(-((int) (sumMax - max[idx])));
         }
     }
+
+    private void filterExplained(int nU, long sumMin, long sumMax) {
+        // bounds of the variables fixed before this propagation
+        for (int i = nU; i < n; i++) {
+            int idx = free[i];
+            min[idx] = x[idx].min();
+            max[idx] = x[idx].max();
+        }
+        // a single reason for all the filtered variables, the literal on the filtered variable being ignored
+        Literal[] minReason = null, maxReason = null;
+        if (sumMin > 0)
+            throw explanations.fail(boundsReason(true));
+        if (sumMax < 0)
+            throw explanations.fail(boundsReason(false));
+        for (int i = nU - 1; i >= 0; i--) {
+            int idx = free[i];
+            int newMax = -((int) (sumMin - min[idx]));
+            if (x[idx].max() > newMax) {
+                if (minReason == null)
+                    minReason = boundsReason(true);
+                explanations.removeAboveShared(x[idx], newMax, minReason);
+            }
+            int newMin = -((int) (sumMax - max[idx]));
+            if (x[idx].min() < newMin) {
+                if (maxReason == null)
+                    maxReason = boundsReason(false);
+                explanations.removeBelowShared(x[idx], newMin, maxReason);
+            }
+        }
+    }
+
+    // the minimum (or maximum) values of the variables
+    private Literal[] boundsReason(boolean minimum) {
+        Literal[] reason = new Literal[nReason];
+        for (int j = 0; j < nReason; j++)
+            reason[j] = minimum ? Literal.ge(x[j], min[j]) : Literal.le(x[j], max[j]);
+        return reason;
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2024 UCLouvain
+ *
+ */
+
+package org.maxicp.cp.engine.constraints.scheduling;
+
+import org.maxicp.Constants;
+import org.maxicp.cp.engine.core.AbstractCPConstraint;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPIntervalVar;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Cumulative constraint over interval variables with variable heights:
+ * at any time, the sum of the heights of the present intervals overlapping it does not exceed the capacity.
+ * The filtering algorithms implemented are:
+ * - Time-tabling, with the sweep of {@link GeneralizedCumulativeSweepMax}
+ * - Overload checking and edge-finding, with the energy envelopes of a {@link ThetaLambdaTree}
+ * The reasoning is on the minimum height and length of the intervals.
+ */
+public class Cumulative extends AbstractCPConstraint {
+
+    private final CPIntervalVar[] intervals;
+    private final CPIntVar[] heights;
+    private final int capacity;
+
+    /**
+     * Creates a cumulative constraint
+     *
+     * @param intervals the interval variables
+     * @param heights   the height of each interval, non negative
+     * @param capacity  the capacity of the resource
+     */
+    public Cumulative(CPIntervalVar[] intervals, CPIntVar[] heights, int capacity) {
+        super(intervals[0].getSolver());
+        if (intervals.length != heights.length)
+            throw new IllegalArgumentException("the number of heights should be the number of intervals");
+        if (capacity < 0)
+            throw new IllegalArgumentException("the capacity should be >= 0");
+        this.intervals = intervals;
+        this.heights = heights;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void post() {
+        Activity[] activities = new Activity[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            heights[i].removeBelow(0);
+            activities[i] = new Activity(intervals[i], heights[i]);
+        }
+        getSolver().post(new GeneralizedCumulativeSweepMax(activities, capacity));
+        getSolver().post(new CumulativeEdgeFinding(intervals, heights, capacity));
+    }
+}
+
+
+class CumulativeEdgeFinding extends AbstractCPConstraint {
+    private final CPIntervalVar[] intervals;
+    private final CPIntVar[] heights;
+    private final int capacity;
+
+    // present activities with a positive energy, indexed from 0 to n-1
+    private int n;
+    private final int[] index;
+    private final int[] startMin, endMax, height;
+    private final long[] energy;
+    private final int[] startMinNew;
+    private final Integer[] permEst, permLct;
+    private final int[] rankEst;
+    private final boolean[] inTheta;
+    private final ThetaLambdaTree thetaLambdaTree;
+
+    CumulativeEdgeFinding(CPIntervalVar[] intervals, CPIntVar[] heights, int capacity) {
+        super(intervals[0].getSolver());
+        this.intervals = intervals;
+        this.heights = heights;
+        this.capacity = capacity;
+        int nMax = intervals.length;
+        index = new int[nMax];
+        startMin = new int[nMax];
+        endMax = new int[nMax];
+        height = new int[nMax];
+        energy = new long[nMax];
+        startMinNew = new int[nMax];
+        permEst = new Integer[nMax];
+        permLct = new Integer[nMax];
+        rankEst = new int[nMax];
+        inTheta = new boolean[nMax];
+        thetaLambdaTree = new ThetaLambdaTree(nMax);
+    }
+
+    @Override
+    public void post() {
+        for (int i = 0; i < intervals.length; i++) {
+            intervals[i].propagateOnChange(this);
+            heights[i].propagateOnBoundChange(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public int priority() {
+        return Constants.PIORITY_SLOW;
+    }
+
+    @Override
+    public void propagate() {
+        // left to right
+        n = 0;
+        for (int i = 0; i < intervals.length; i++) {
+            CPIntervalVar interval = intervals[i];
+            if (interval.isPresent() && interval.lengthMin() > 0 && heights[i].min() > 0) {
+                index[n] = i;
+                startMin[n] = interval.startMin();
+                endMax[n] = interval.endMax();
+                height[n] = heights[i].min();
+                energy[n] = (long) height[n] * interval.lengthMin();
+                n++;
+            }
+        }
+        if (n == 0)
+            return;
+        if (edgeFinding()) {
+            for (int i = 0; i < n; i++)
+                intervals[index[i]].setStartMin(startMinNew[i]);
+        }
+
+        // right to left, on the mirrored activities
+        for (int i = 0; i < n; i++) {
+            CPIntervalVar interval = intervals[index[i]];
+            startMin[i] = -interval.endMax();
+            endMax[i] = -interval.startMin();
+        }
+        if (edgeFinding()) {
+            for (int i = 0; i < n; i++)
+                intervals[index[i]].setEndMax(-startMinNew[i]);
+        }
+    }
+
+    /**
+     * Overload checking and edge-finding, as described in
+     * Vilim, P. (2009). Edge finding filtering algorithm for discrete cumulative resources in O(kn log n). CP 2009.
+     * The energy envelope {@code C*est(Omega) + e(Omega)} of a set is computed by a theta-lambda tree
+     * whose activities start at {@code C*est} and last their energy.
+     * When {@code Theta} precedes an activity {@code i}, its start is adjusted with the subsets of {@code Theta}
+     * made of its activities starting after some time.
+     *
+     * @return true if the start of an activity is increased
+     */
+    private boolean edgeFinding() {
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long totalEnergy = 0;
+        for (int i = 0; i < n; i++) {
+            minTime = Math.min(minTime, startMin[i]);
+            maxTime = Math.max(maxTime, endMax[i]);
+            totalEnergy += energy[i];
+        }
+        // the envelopes are computed with int
+        long bound = (Integer.MAX_VALUE >> 1);
+        if (capacity * Math.max(Math.abs(minTime), Math.abs(maxTime)) + totalEnergy > bound)
+            return false;
+
+        for (int i = 0; i < n; i++) {
+            permEst[i] = i;
+            permLct[i] = i;
+            startMinNew[i] = startMin[i];
+        }
+        Arrays.sort(permEst, 0, n, Comparator.comparingInt(i -> startMin[i]));
+        Arrays.sort(permLct, 0, n, Comparator.comparingInt(i -> -endMax[i]));
+        thetaLambdaTree.reset();
+        for (int r = 0; r < n; r++) {
+            int act = permEst[r];
+            rankEst[act] = r;
+            inTheta[act] = true;
+            thetaLambdaTree.insertTheta(r, capacity * startMin[act], (int) energy[act]);
+        }
+        boolean changed = false;
+        for (int j = 0; j < n; j++) {
+            int actj = permLct[j];
+            if (thetaLambdaTree.getThetaEct() > (long) capacity * endMax[actj])
+                throw InconsistencyException.INCONSISTENCY;
+            if (j == n - 1)
+                break;
+            thetaLambdaTree.moveFromThetaToLambda(rankEst[actj]);
+            inTheta[actj] = false;
+            int lctTheta = endMax[permLct[j + 1]];
+            while (thetaLambdaTree.getThetaLambdaEct() > (long) capacity * lctTheta) {
+                int r = thetaLambdaTree.getResponsibleForThetaLambdaEct();
+                if (r == ThetaLambdaTree.UNDEF)
+                    throw InconsistencyException.INCONSISTENCY;
+                int acti = permEst[r];
+                changed |= adjust(acti, lctTheta);
+                thetaLambdaTree.remove(r);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Adjusts the start of an activity that ends after all the activities of Theta
+     *
+     * @return true if the start of the activity is increased
+     */
+    private boolean adjust(int acti, int lctTheta) {
+        long c = height[acti];
+        long e = 0;
+        int newStart = startMinNew[acti];
+        for (int r = n - 1; r >= 0; r--) {
+            int k = permEst[r];
+            if (!inTheta[k])
+                continue;
+            e += energy[k];
+            // the energy of the activities of Theta starting from est(k) that cannot be executed in parallel with acti
+            long rest = e - (capacity - c) * (lctTheta - startMin[k]);
+            if (rest > 0)
+                newStart = (int) Math.max(newStart, startMin[k] + (rest + c - 1) / c);
+        }
+        if (newStart > startMinNew[acti]) {
+            startMinNew[acti] = newStart;
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2024 UCLouvain
+ *
+ */
+
+package org.maxicp.cp.engine.constraints.scheduling;
+
+import org.maxicp.Constants;
+import org.maxicp.cp.engine.core.AbstractCPConstraint;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Energy based filtering of a cumulative resource of maximum capacity,
+ * to be used on top of a time-tabling propagator such as {@link GeneralizedCumulativeConstraint}:
+ * - Overload checking with the energy envelopes of a {@link ThetaTree}, in O(n log n)
+ * - Time-table edge-finding, in O(n^2), as in
+ * Vilim, P. (2011). Timetable edge finding filtering algorithm for discrete cumulative resources. CPAIOR 2011.
+ * - Optionally, energetic reasoning on the relevant intervals, in O(n^3), as in
+ * Baptiste, P., Le Pape, C., &amp; Nuijten, W. (1999). Satisfiability tests and time-bound adjustments for cumulative scheduling problems.
+ *
+ * The reasoning is on the minimum height and length of the present activities.
+ * Optional activities are ignored.
+ * The filtering is only valid for consumptions: it does nothing if an activity can have a negative height.
+ */
+public class CumulativeEnergyFiltering extends AbstractCPConstraint {
+
+    private final Activity[] activities;
+    private final int capacity;
+    private final boolean energetic;
+
+    // present activities with a positive energy, indexed from 0 to n-1
+    private int n;
+    private final int[] index;
+    private final int[] est, lct, lst, ect, height, length;
+    private final long[] freeEnergy;
+    private final long[] ttAtEst, ttAtLct;
+    private final long[] slack;
+    private final int[] estNew, lctNew;
+    private final Integer[] permEst, permLct;
+    private final int[] rankEst;
+    private final ThetaTree thetaTree;
+    private final int[] t1, t2;
+
+    /**
+     * Creates the energy based filtering of a cumulative resource
+     *
+     * @param activities the activities consuming the resource
+     * @param capacity   the maximum capacity of the resource
+     * @param energetic  true to also apply energetic reasoning, in O(n^3)
+     */
+    public CumulativeEnergyFiltering(Activity[] activities, int capacity, boolean energetic) {
+        super(activities[0].interval().getSolver());
+        this.activities = activities.clone();
+        this.capacity = capacity;
+        this.energetic = energetic;
+        int nMax = activities.length;
+        index = new int[nMax];
+        est = new int[nMax];
+        lct = new int[nMax];
+        lst = new int[nMax];
+        ect = new int[nMax];
+        height = new int[nMax];
+        length = new int[nMax];
+        freeEnergy = new long[nMax];
+        ttAtEst = new long[nMax];
+        ttAtLct = new long[nMax];
+        slack = new long[nMax];
+        estNew = new int[nMax];
+        lctNew = new int[nMax];
+        permEst = new Integer[nMax];
+        permLct = new Integer[nMax];
+        rankEst = new int[nMax];
+        thetaTree = new ThetaTree(nMax);
+        t1 = new int[3 * nMax];
+        t2 = new int[3 * nMax];
+    }
+
+    @Override
+    public void post() {
+        for (Activity act : activities) {
+            act.interval().propagateOnChange(this);
+            act.height().propagateOnBoundChange(this);
+        }
+        propagate();
+    }
+
+    @Override
+    public int priority() {
+        return Constants.PIORITY_SLOW;
+    }
+
+    @Override
+    public void propagate() {
+        if (!collect())
+            return;
+        overloadChecking();
+
+        // left to right
+        timeTableEdgeFinding();
+        for (int i = 0; i < n; i++)
+            activities[index[i]].interval().setStartMin(estNew[i]);
+
+        // right to left, on the mirrored activities
+        collect();
+        mirror();
+        timeTableEdgeFinding();
+        for (int i = 0; i < n; i++)
+            activities[index[i]].interval().setEndMax(-estNew[i]);
+
+        if (energetic) {
+            collect();
+            energeticReasoning();
+            for (int i = 0; i < n; i++) {
+                activities[index[i]].interval().setStartMin(estNew[i]);
+                activities[index[i]].interval().setEndMax(lctNew[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the bounds of the present activities with a positive energy
+     *
+     * @return false if the filtering does not apply
+     */
+    private boolean collect() {
+        n = 0;
+        for (int a = 0; a < activities.length; a++) {
+            Activity act = activities[a];
+            if (act.isAbsent())
+                continue;
+            if (act.getHeightMin() < 0)
+                return false;
+            if (act.isPresent() && act.getLengthMin() > 0 && act.getHeightMin() > 0) {
+                index[n] = a;
+                est[n] = act.getStartMin();
+                lct[n] = act.getEndMax();
+                lst[n] = act.getStartMax();
+                ect[n] = act.getEndMin();
+                height[n] = act.getHeightMin();
+                length[n] = act.getLengthMin();
+                n++;
+            }
+        }
+        return n > 0;
+    }
+
+    // mirrors the time window of the activities, such that adjusting a start adjusts an end
+    private void mirror() {
+        for (int i = 0; i < n; i++) {
+            int s = est[i];
+            est[i] = -lct[i];
+            lct[i] = -s;
+            int l = lst[i];
+            lst[i] = -ect[i];
+            ect[i] = -l;
+        }
+    }
+
+    /**
+     * Fails if the energy of the activities ending before the lct of some activity
+     * does not fit between their est and this lct.
+     */
+    private void overloadChecking() {
+        long minTime = Long.MAX_VALUE;
+        long maxTime = Long.MIN_VALUE;
+        long totalEnergy = 0;
+        for (int i = 0; i < n; i++) {
+            minTime = Math.min(minTime, est[i]);
+            maxTime = Math.max(maxTime, lct[i]);
+            totalEnergy += (long) height[i] * length[i];
+        }
+        // the envelopes are computed with int
+        if ((long) capacity * Math.max(Math.abs(minTime), Math.abs(maxTime)) + totalEnergy > (Integer.MAX_VALUE >> 1))
+            return;
+        sortActivities();
+        thetaTree.reset();
+        for (int j = 0; j < n; j++) {
+            int act = permLct[j];
+            thetaTree.insert(rankEst[act], capacity * est[act], height[act] * length[act]);
+            if (thetaTree.getEct() > (long) capacity * lct[act])
+                throw InconsistencyException.INCONSISTENCY;
+        }
+    }
+
+    private void sortActivities() {
+        for (int i = 0; i < n; i++) {
+            permEst[i] = i;
+            permLct[i] = i;
+        }
+        Arrays.sort(permEst, 0, n, Comparator.comparingInt(i -> est[i]));
+        Arrays.sort(permLct, 0, n, Comparator.comparingInt(i -> lct[i]));
+        for (int r = 0; r < n; r++)
+            rankEst[permEst[r]] = r;
+    }
+
+    // energy of the compulsory parts before time t
+    private long timeTableEnergy(int t) {
+        long e = 0;
+        for (int i = 0; i < n; i++) {
+            if (lst[i] < t && lst[i] < ect[i])
+                e += (long) height[i] * (Math.min(t, ect[i]) - lst[i]);
+        }
+        return e;
+    }
+
+    /**
+     * Time-table edge-finding, adjusting the starts into {@code estNew}.
+     * For each window [b, e) with b an est and e an lct, the energy required in the window is
+     * the energy of the compulsory parts in the window plus the energy of the free parts of the activities
+     * within the window. An activity u with {@code est(u) >= b} ending after e cannot start at est(u)
+     * if the energy of its free part in the window when it does exceeds the available energy.
+     */
+    private void timeTableEdgeFinding() {
+        for (int i = 0; i < n; i++) {
+            int cp = Math.max(0, ect[i] - lst[i]);
+            freeEnergy[i] = (long) height[i] * Math.max(0, length[i] - cp);
+            ttAtEst[i] = timeTableEnergy(est[i]);
+            ttAtLct[i] = timeTableEnergy(lct[i]);
+            estNew[i] = est[i];
+        }
+        sortActivities();
+        for (int j = 0; j < n; j++) {
+            int actj = permLct[j];
+            int end = lct[actj];
+            if (j + 1 < n && lct[permLct[j + 1]] == end)
+                continue; // the window is considered with all the activities ending at the same time
+            long inside = 0;
+            for (int r = n - 1; r >= 0; r--) {
+                int i = permEst[r];
+                if (lct[i] <= end)
+                    inside += freeEnergy[i];
+                if (est[i] >= end) {
+                    slack[r] = Long.MAX_VALUE;
+                } else {
+                    slack[r] = (long) capacity * (end - est[i]) - (ttAtLct[actj] - ttAtEst[i]) - inside;
+                    if (slack[r] < 0)
+                        throw InconsistencyException.INCONSISTENCY;
+                }
+            }
+            // minimum slack of the windows starting before the activity of each rank
+            for (int r = 1; r < n; r++)
+                slack[r] = Math.min(slack[r], slack[r - 1]);
+            for (int r = 0; r < n; r++) {
+                int u = permEst[r];
+                if (lct[u] <= end || est[u] >= end || slack[r] == Long.MAX_VALUE)
+                    continue;
+                int overlap = Math.min(est[u] + length[u], end) - est[u];
+                int compulsory = Math.max(0, Math.min(ect[u], end) - lst[u]);
+                long required = (long) height[u] * (overlap - compulsory);
+                if (required > slack[r])
+                    estNew[u] = (int) Math.max(estNew[u], end - compulsory - slack[r] / height[u]);
+            }
+        }
+    }
+
+    // minimum energy of an activity within [from, to)
+    private long minimumIntersection(int i, int from, int to) {
+        int leftShift = est[i] + length[i] - from;
+        int rightShift = to - (lct[i] - length[i]);
+        int d = Math.min(Math.min(to - from, length[i]), Math.min(leftShift, rightShift));
+        return d > 0 ? (long) height[i] * d : 0;
+    }
+
+    /**
+     * Energetic reasoning on the intervals [t1, t2) with t1 in {est, lst, ect} and t2 in {lct, ect, lst},
+     * adjusting the starts into {@code estNew} and the ends into {@code lctNew}.
+     */
+    private void energeticReasoning() {
+        int n1 = 0;
+        for (int i = 0; i < n; i++) {
+            estNew[i] = est[i];
+            lctNew[i] = lct[i];
+            t1[n1] = est[i];
+            t2[n1++] = lct[i];
+            t1[n1] = lct[i] - length[i];
+            t2[n1++] = est[i] + length[i];
+            t1[n1] = est[i] + length[i];
+            t2[n1++] = lct[i] - length[i];
+        }
+        Arrays.sort(t1, 0, n1);
+        Arrays.sort(t2, 0, n1);
+        for (int a = 0; a < n1; a++) {
+            int from = t1[a];
+            if (a > 0 && from == t1[a - 1])
+                continue;
+            for (int b = 0; b < n1; b++) {
+                int to = t2[b];
+                if (to <= from || (b > 0 && to == t2[b - 1]))
+                    continue;
+                long work = 0;
+                for (int i = 0; i < n; i++)
+                    work += minimumIntersection(i, from, to);
+                long available = (long) capacity * (to - from) - work;
+                if (available < 0)
+                    throw InconsistencyException.INCONSISTENCY;
+                for (int i = 0; i < n; i++) {
+                    long availableForI = available + minimumIntersection(i, from, to);
+                    long leftShift = (long) height[i] * Math.max(0, Math.min(to, est[i] + length[i]) - Math.max(from, est[i]));
+                    if (leftShift > availableForI)
+                        estNew[i] = (int) Math.max(estNew[i], to - availableForI / height[i]);
+                    long rightShift = (long) height[i] * Math.max(0, Math.min(to, lct[i]) - Math.max(from, lct[i] - length[i]));
+                    if (rightShift > availableForI)
+                        lctNew[i] = (int) Math.min(lctNew[i], from + availableForI / height[i]);
+                }
+            }
+        }
+    }
+}
@@ -19,7 +19,8 @@ import java.util.Comparator;
 import static org.maxicp.Constants.HORIZON;
 
 /**
- * Generalized Cumulative Constraint using Timetabling
+ * Generalized Cumulative Constraint using Timetabling,
+ * optionally strengthened by the energy based filtering of {@link CumulativeEnergyFiltering}
  * TODO Refer paper once published
  *
  * @author Roger Kameugne, Charles Thomas, Pierre Schaus
@@ -28,6 +29,7 @@ public class GeneralizedCumulativeConstraint extends AbstractCPConstraint {
     private final Activity[] activities;
     protected final long maxCapacity;
     protected final long minCapacity;
+    protected final Constants.CumulativeFiltering filtering;
 
     // Propagation structures:
     protected final StateSparseSet activeSet; // Tracks active activities
@@ -67,14 +69,17 @@ public class GeneralizedCumulativeConstraint extends AbstractCPConstraint {
      * @param activities  array of activities
      * @param minCapacity minimum capacity
      * @param maxCapacity maximum capacity
+     * @param filtering   filtering level, the energy based filtering only applies to the maximum capacity
+     *                    of a resource with consumptions only
      */
-    public GeneralizedCumulativeConstraint(Activity[] activities, int minCapacity, int maxCapacity) {
+    public GeneralizedCumulativeConstraint(Activity[] activities, int minCapacity, int maxCapacity, Constants.CumulativeFiltering filtering) {
         super(activities[0].interval().getSolver());
         if (minCapacity > maxCapacity)
             throw new IllegalArgumentException("The minimum capacity provided is > max capacity");
         this.activities = activities.clone();
         this.maxCapacity = maxCapacity;
         this.minCapacity = minCapacity;
+        this.filtering = filtering;
         hasMinCapa = minCapacity > Integer.MIN_VALUE;
 
         StateManager sm = activities[0].interval().getSolver().getStateManager();
@@ -97,11 +102,33 @@ public class GeneralizedCumulativeConstraint extends AbstractCPConstraint {
         endMinInProfile = new int[nMax()];
     }
 
+    /**
+     * Creates an new Generalized Cumulative Constraint using Timetabling
+     *
+     * @param activities  array of activities
+     * @param minCapacity minimum capacity
+     * @param maxCapacity maximum capacity
+     */
+    public GeneralizedCumulativeConstraint(Activity[] activities, int minCapacity, int maxCapacity) {
+        this(activities, minCapacity, maxCapacity, Constants.CumulativeFiltering.TIME_TABLING);
+    }
+
     /**
      * Creates an new Generalized Cumulative Constraint with only a maximum capacity
      *
      * @param activities  array of activities
      * @param maxCapacity maximum capacity
+     * @param filtering   filtering level, the energy based filtering only applies to a resource with consumptions only
+     */
+    public GeneralizedCumulativeConstraint(Activity[] activities, int maxCapacity, Constants.CumulativeFiltering filtering) {
+        this(activities, Integer.MIN_VALUE, maxCapacity, filtering);
+    }
+
+    /**
+     * Creates an new Generalized Cumulative Constraint with only a maximum capacity, using Timetabling
+     *
+     * @param activities  array of activities
+     * @param maxCapacity maximum capacity
      */
     public GeneralizedCumulativeConstraint(Activity[] activities, int maxCapacity) {
         this(activities, Integer.MIN_VALUE, maxCapacity);
@@ -118,6 +145,9 @@ public class GeneralizedCumulativeConstraint extends AbstractCPConstraint {
             act.height().propagateOnBoundChange(this);
         }
         propagate();
+        if (filtering != Constants.CumulativeFiltering.TIME_TABLING && maxCapacity < Integer.MAX_VALUE)
+            getSolver().post(new CumulativeEnergyFiltering(activities, (int) maxCapacity,
+                    filtering == Constants.CumulativeFiltering.ENERGETIC_REASONING));
     }
 
     @Override
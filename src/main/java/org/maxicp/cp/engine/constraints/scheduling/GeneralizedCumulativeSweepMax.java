@@ -12,6 +12,7 @@ import java.util.List;
 public class GeneralizedCumulativeSweepMax extends AbstractCPConstraint {
     private final Activity[] activities;
     private final int maxCapacity;
+    private final Constants.CumulativeFiltering filtering;
 
     //Propagation structures:
     private final int nMax;
@@ -33,10 +34,22 @@ public class GeneralizedCumulativeSweepMax extends AbstractCPConstraint {
     }
 
     public GeneralizedCumulativeSweepMax(Activity [] activities, int maxCapacity) {
+        this(activities, maxCapacity, Constants.CumulativeFiltering.TIME_TABLING);
+    }
+
+    /**
+     * Creates the sweep of the maximum capacity
+     *
+     * @param activities  array of activities
+     * @param maxCapacity maximum capacity
+     * @param filtering   filtering level, the energy based filtering only applies to a resource with consumptions only
+     */
+    public GeneralizedCumulativeSweepMax(Activity [] activities, int maxCapacity, Constants.CumulativeFiltering filtering) {
         super(activities[0].interval().getSolver());
         if (maxCapacity < 0) throw new IllegalArgumentException("The maximum capacity provided is < 0");
         this.activities = activities.clone();
         this.maxCapacity = maxCapacity;
+        this.filtering = filtering;
 
         nMax = this.activities.length;
 
@@ -93,6 +106,9 @@ public class GeneralizedCumulativeSweepMax extends AbstractCPConstraint {
             act.height().propagateOnBoundChange(this);
         }
         propagate();
+        if (filtering != Constants.CumulativeFiltering.TIME_TABLING)
+            getSolver().post(new CumulativeEnergyFiltering(activities, maxCapacity,
+                    filtering == Constants.CumulativeFiltering.ENERGETIC_REASONING));
     }
 
     @Override
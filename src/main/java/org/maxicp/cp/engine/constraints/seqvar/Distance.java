@@ -8,90 +8,330 @@ package org.maxicp.cp.engine.constraints.seqvar;
 import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPIntVar;
 import org.maxicp.cp.engine.core.CPSeqVar;
+import org.maxicp.state.StateInt;
+import org.maxicp.state.datastructures.StateSparseSet;
+import org.maxicp.util.algo.DistanceMatrix;
+
+import java.util.Arrays;
 
 import static org.maxicp.modeling.algebra.sequence.SeqStatus.*;
+import static org.maxicp.util.exception.InconsistencyException.INCONSISTENCY;
 
+/**
+ * Links a sequence with the total distance of its members, in their order.
+ * <p>
+ * The length of the partial tour is maintained incrementally: only the edges around the inserted nodes are updated.
+ * Its lower bound on the total distance is the length of the partial tour,
+ * increased by the smallest detour of the required node that is the most costly to insert.
+ * With the strong bound, it is also at least the cost of an assignment relaxation: each node chooses a successor
+ * among its remaining edges, the successors being all different, the end going back to the start at no cost,
+ * and the nodes that are not required being allowed to be their own successor at no cost.
+ * The assignment of minimum cost is computed with the Hungarian algorithm, lazily, only when the graph of the sequence
+ * changed. As the costs only increase while diving in the search tree, its dual potentials remain feasible:
+ * only the nodes whose successor was removed are reassigned, in O(n^2) each.
+ * After a backtrack, the assignment is recomputed from scratch in O(n^3).
+ */
 public class Distance extends AbstractCPConstraint {
 
     private final CPSeqVar seqVar;
     private final int[] nodes;
     private final int[] inserts;
-    private final int[][] dist;
+    private final DistanceMatrix dist;
     private final CPIntVar totalDist;
+    private final boolean strongBound;
+
+    private final StateInt length; // length of the tour through the counted members
+    private final StateSparseSet uncounted; // nodes not counted in the length
+    private final int[] inserted; // nodes inserted since the last propagation
+    private final boolean[] isInserted;
+    private int nInserted;
+
+    private final StateInt arcBound; // last computed bound on the edges
+    private boolean dirty; // true if the bound on the edges must be recomputed, only used with the strong bound
 
+    // Hungarian algorithm, with the rows and columns 1..n standing for the nodes and 0 for the row being assigned
+    private final long forbidden; // cost of a missing edge, larger than any assignment using only the edges
+    private final long[] u; // potential of the rows
+    private final long[] v; // potential of the columns
+    private final int[] rowOf; // row assigned to each column, 0 if none
+    private final int[] colOf; // column assigned to each row, 0 if none
+    private final int[] way;
+    private final long[] minv;
+    private final boolean[] used;
+    private final StateInt assignmentVersion; // version of the assignment valid in the current state
+    private int version; // version of the assignment, increased each time it is modified
+
+    /**
+     * Creates a distance constraint
+     *
+     * @param seqVar    the sequence
+     * @param dist      the distance matrix between the nodes, assumed to respect the triangular inequality
+     * @param totalDist the total distance of the sequence
+     */
     public Distance(CPSeqVar seqVar, int[][] dist, CPIntVar totalDist) {
+        this(seqVar, dist, totalDist, false);
+    }
+
+    /**
+     * Creates a distance constraint
+     *
+     * @param seqVar      the sequence
+     * @param dist        the distance matrix between the nodes, assumed to respect the triangular inequality
+     * @param totalDist   the total distance of the sequence
+     * @param strongBound true to also bound the total distance with an assignment relaxation,
+     *                    updated each time the graph of the sequence changes
+     */
+    public Distance(CPSeqVar seqVar, int[][] dist, CPIntVar totalDist, boolean strongBound) {
         super(seqVar.getSolver());
         this.seqVar  = seqVar;
-        this.dist = dist;
-        checkTriangularInequality(dist);
+        this.dist = DistanceMatrix.of(dist);
+        this.dist.checkTriangularInequality();
         this.totalDist = totalDist;
+        this.strongBound = strongBound;
         this.nodes = new int[seqVar.nNode()];
         this.inserts = new int[seqVar.nNode()];
-    }
-
-    private static void checkTriangularInequality(int[][] dist) {
-        for (int i = 0 ; i < dist.length ; i++) {
-            for (int j = 0 ; j < dist[i].length ; j++) {
-                int smallestDist = dist[i][j];
-                for (int k = 0 ; k < dist.length ; k++) {
-                    int distWithDetour = dist[i][k] + dist[k][j];
-                    if (distWithDetour < smallestDist) {
-                        System.err.println("[WARNING]: triangular inequality not respected with distance matrix");
-                        System.err.printf("[WARNING]: dist[%d][%d] + dist[%d][%d] < dist[%d][%d] (%d + %d < %d)%n", i, k, k, j, i, j,
-                                dist[i][k], dist[k][j], dist[i][j]);
-                        System.err.println("[WARNING]: this might remove some solutions");
-                        return;
-                    }
-                }
-            }
-        }
+        this.length = getSolver().getStateManager().makeStateInt(0);
+        this.uncounted = new StateSparseSet(getSolver().getStateManager(), seqVar.nNode(), 0);
+        this.inserted = new int[seqVar.nNode()];
+        this.isInserted = new boolean[seqVar.nNode()];
+        this.arcBound = getSolver().getStateManager().makeStateInt(0);
+        this.dirty = true;
+        int n = seqVar.nNode();
+        long maxDist = 0;
+        for (int i = 0 ; i < n ; i++)
+            for (int j = 0 ; j < n ; j++)
+                maxDist = Math.max(maxDist, this.dist.get(i, j));
+        this.forbidden = (maxDist + 1) * (n + 1);
+        this.u = new long[n + 1];
+        this.v = new long[n + 1];
+        this.rowOf = new int[n + 1];
+        this.colOf = new int[n + 1];
+        this.way = new int[n + 1];
+        this.minv = new long[n + 1];
+        this.used = new boolean[n + 1];
+        this.assignmentVersion = getSolver().getStateManager().makeStateInt(-1);
+        this.version = 0;
     }
 
     @Override
     public void post() {
+        int nMember = seqVar.fillNode(nodes, MEMBER_ORDERED);
+        int d = 0;
+        for (int i = 0 ; i < nMember ; ++i) {
+            uncounted.remove(nodes[i]);
+            if (i < nMember - 1)
+                d += dist.get(nodes[i], nodes[i+1]);
+        }
+        length.setValue(d);
+        for (int node = 0 ; node < seqVar.nNode() ; node++) {
+            final int n = node;
+            seqVar.getNodeVar(node).whenInsert(() -> {
+                if (!isInserted[n]) {
+                    isInserted[n] = true;
+                    inserted[nInserted++] = n;
+                }
+                if (strongBound)
+                    dirty = true;
+                getSolver().schedule(this);
+            });
+        }
+        if (strongBound) {
+            seqVar.whenExclude(this::setDirty);
+            seqVar.whenRequire(this::setDirty);
+            seqVar.whenInsertRemoved(this::setDirty);
+        }
         propagate();
-        seqVar.propagateOnInsert(this);
         seqVar.propagateOnFix(this);
         totalDist.propagateOnBoundChange(this);
     }
 
+    private void setDirty() {
+        dirty = true;
+        getSolver().schedule(this);
+    }
+
     @Override
     public void propagate() {
         // update the current distance
-        int nMember = seqVar.fillNode(nodes, MEMBER_ORDERED);
-        int d = 0;
-        for (int i = 0 ; i < nMember-1 ; ++i) {
-            d += dist[nodes[i]][nodes[i+1]];
-        }
+        int d = updateLength();
         if (seqVar.isFixed()) {
             totalDist.fix(d);
             setActive(false);
             return;
-        } else {
-            totalDist.removeBelow(d);
-            // TODO add estimate of upper bound on the total distance
         }
-        int maxDetour = totalDist.max() - d;
         // filter invalid insertions
+        int maxDetour = totalDist.max() - d;
+        int maxMinDetour = 0;
         int nInsertable = seqVar.fillNode(nodes, INSERTABLE);
         for (int i = 0 ; i < nInsertable ; i++) {
             int node = nodes[i];
+            int minDetour = Integer.MAX_VALUE;
             int nPreds = seqVar.fillInsert(node, inserts);
             for (int p = 0 ; p < nPreds ; p++) {
                 int pred = inserts[p];
-                filterEdge(pred, node, maxDetour);
+                minDetour = Math.min(minDetour, filterEdge(pred, node, maxDetour));
             }
+            if (seqVar.isNode(node, REQUIRED) && minDetour != Integer.MAX_VALUE)
+                maxMinDetour = Math.max(maxMinDetour, minDetour);
         }
+        totalDist.removeBelow(d + maxMinDetour);
+        if (strongBound) {
+            if (dirty) {
+                dirty = false;
+                arcBound.setValue(assignmentBound());
+            }
+            totalDist.removeBelow(arcBound.value());
+        }
+        // TODO add estimate of upper bound on the total distance
+    }
+
+    /**
+     * Updates the length of the partial tour with the nodes inserted since the last propagation.
+     * Each run of consecutive uncounted members replaces the edge between the counted members around it.
+     *
+     * @return the length of the partial tour
+     */
+    private int updateLength() {
+        int d = length.value();
+        if (seqVar.isFixed()) {
+            // the insertions not notified yet are counted at once
+            int nMember = seqVar.fillNode(nodes, MEMBER_ORDERED);
+            d = 0;
+            for (int i = 0 ; i < nMember - 1 ; ++i)
+                d += dist.get(nodes[i], nodes[i+1]);
+        } else {
+            for (int i = 0 ; i < nInserted ; i++) {
+                int node = inserted[i];
+                if (!seqVar.isNode(node, MEMBER) || !uncounted.contains(node))
+                    continue; // already counted or inserted in a branch that failed
+                int pred = seqVar.memberBefore(node);
+                while (uncounted.contains(pred))
+                    pred = seqVar.memberBefore(pred);
+                int current = pred;
+                int succ = seqVar.memberAfter(current);
+                while (uncounted.contains(succ)) {
+                    d += dist.get(current, succ);
+                    uncounted.remove(succ);
+                    current = succ;
+                    succ = seqVar.memberAfter(current);
+                }
+                d += dist.get(current, succ) - dist.get(pred, succ);
+            }
+        }
+        for (int i = 0 ; i < nInserted ; i++)
+            isInserted[inserted[i]] = false;
+        nInserted = 0;
+        length.setValue(d);
+        return d;
     }
 
-    private void filterEdge(int pred, int node, int maxDetour) {
+    /**
+     * Returns the detour of an insertion, after removing it if it is too long
+     */
+    private int filterEdge(int pred, int node, int maxDetour) {
         if (seqVar.isNode(pred, MEMBER)) {
             int succ = seqVar.memberAfter(pred);
-            int detour = dist[pred][node] + dist[node][succ] - dist[pred][succ];
+            int detour = dist.get(pred, node) + dist.get(node, succ) - dist.get(pred, succ);
             if (detour > maxDetour) { // detour is too long
                 seqVar.notBetween(pred, node, succ);
+                return Integer.MAX_VALUE;
             }
+            return detour;
         }
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the cost of a minimum assignment of the nodes to their successors.
+     * The assignment of the previous call is repaired if it was computed in an ancestor of the current state,
+     * otherwise it is computed from scratch.
+     */
+    private int assignmentBound() {
+        int n = seqVar.nNode();
+        if (assignmentVersion.value() != version) {
+            // backtracked since the last computation: the costs may have decreased
+            Arrays.fill(u, 0);
+            Arrays.fill(v, 0);
+            Arrays.fill(rowOf, 0);
+            Arrays.fill(colOf, 0);
+        } else {
+            // the costs only increased: the potentials remain feasible, the removed edges are unassigned
+            for (int row = 1 ; row <= n ; row++) {
+                int col = colOf[row];
+                if (col != 0 && cost(row - 1, col - 1) == forbidden) {
+                    colOf[row] = 0;
+                    rowOf[col] = 0;
+                }
+            }
+        }
+        for (int row = 1 ; row <= n ; row++) {
+            if (colOf[row] == 0)
+                augment(row);
+        }
+        long bound = 0;
+        for (int col = 1 ; col <= n ; col++) {
+            colOf[rowOf[col]] = col;
+            bound += cost(rowOf[col] - 1, col - 1);
+        }
+        assignmentVersion.setValue(++version);
+        if (bound >= forbidden)
+            throw INCONSISTENCY; // the nodes cannot all be given a successor
+        return (int) Math.min(bound, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Assigns a row by a shortest augmenting path, updating the potentials (Hungarian algorithm).
+     */
+    private void augment(int row) {
+        int n = seqVar.nNode();
+        rowOf[0] = row;
+        int col0 = 0;
+        Arrays.fill(minv, Long.MAX_VALUE);
+        Arrays.fill(used, false);
+        do {
+            used[col0] = true;
+            int row0 = rowOf[col0];
+            long delta = Long.MAX_VALUE;
+            int col1 = 0;
+            for (int col = 1 ; col <= n ; col++) {
+                if (!used[col]) {
+                    long reduced = cost(row0 - 1, col - 1) - u[row0] - v[col];
+                    if (reduced < minv[col]) {
+                        minv[col] = reduced;
+                        way[col] = col0;
+                    }
+                    if (minv[col] < delta) {
+                        delta = minv[col];
+                        col1 = col;
+                    }
+                }
+            }
+            for (int col = 0 ; col <= n ; col++) {
+                if (used[col]) {
+                    u[rowOf[col]] += delta;
+                    v[col] -= delta;
+                } else {
+                    minv[col] -= delta;
+                }
+            }
+            col0 = col1;
+        } while (rowOf[col0] != 0);
+        do {
+            int col1 = way[col0];
+            rowOf[col0] = rowOf[col1];
+            col0 = col1;
+        } while (col0 != 0);
+    }
+
+    /**
+     * Returns the cost of choosing succ as successor of node in the assignment relaxation
+     */
+    private long cost(int node, int succ) {
+        if (node == succ)
+            return seqVar.isNode(node, REQUIRED) ? forbidden : 0;
+        if (node == seqVar.end())
+            return succ == seqVar.start() ? 0 : forbidden;
+        return seqVar.hasEdge(node, succ) ? dist.get(node, succ) : forbidden;
     }
 
 }
@@ -17,7 +17,6 @@ public class Exclude extends AbstractCPConstraint {
 
     private final CPSeqVar seqVar;
     private final int node;
-    private boolean scheduled = false;
 
     /**
      * Excludes a node from a sequence
@@ -41,14 +40,6 @@ public class Exclude extends AbstractCPConstraint {
 
     }
 
-    public void setScheduled(boolean scheduled) {
-        this.scheduled = scheduled;
-    }
-
-    public boolean isScheduled() {
-        return scheduled;
-    }
-
     @Override
     public void setActive(boolean active) {
 
@@ -10,7 +10,6 @@ public class NotBetween extends AbstractCPConstraint {
     private final int prev;
     private final int node;
     private final int succ;
-    private boolean scheduled = false;
 
     public NotBetween(CPSeqVar seqVar, int prev, int node, int succ) {
         super(seqVar.getSolver());
@@ -30,14 +29,6 @@ public class NotBetween extends AbstractCPConstraint {
 
     }
 
-    public void setScheduled(boolean scheduled) {
-        this.scheduled = scheduled;
-    }
-
-    public boolean isScheduled() {
-        return scheduled;
-    }
-
     @Override
     public void setActive(boolean active) {
 
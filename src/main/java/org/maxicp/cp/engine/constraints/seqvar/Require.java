@@ -17,7 +17,6 @@ public class Require extends AbstractCPConstraint {
 
     private final CPSeqVar seqVar;
     private final int node;
-    private boolean scheduled = false;
 
     public Require(CPSeqVar seqVar, int node) {
         super(seqVar.getSolver());
@@ -35,14 +34,6 @@ public class Require extends AbstractCPConstraint {
 
     }
 
-    public void setScheduled(boolean scheduled) {
-        this.scheduled = scheduled;
-    }
-
-    public boolean isScheduled() {
-        return scheduled;
-    }
-
     @Override
     public void setActive(boolean active) {
 
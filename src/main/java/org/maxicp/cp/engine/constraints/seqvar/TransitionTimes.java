@@ -9,6 +9,7 @@ import org.maxicp.cp.engine.core.AbstractCPConstraint;
 import org.maxicp.cp.engine.core.CPIntVar;
 import org.maxicp.cp.engine.core.CPSeqVar;
 import org.maxicp.state.State;
+import org.maxicp.util.algo.DistanceMatrix;
 
 import java.util.Optional;
 
@@ -21,7 +22,7 @@ public class TransitionTimes extends AbstractCPConstraint {
 
     private final CPSeqVar seqVar;              // sequence ordering the visits of nodes
     private final CPIntVar[] time;              // time window of each node
-    private final int[][] dist;                 // distance between each pair of nodes
+    private final DistanceMatrix dist;          // distance between each pair of nodes
     private Optional<int[]> serviceTime;        // time to process each node
 
     private final int[] nodes;                  // used for fill operations over the nodes
@@ -78,30 +79,12 @@ public class TransitionTimes extends AbstractCPConstraint {
         assert serviceTime.isEmpty() || serviceTime.get().length >= seqVar.nNode();
         this.seqVar = seqVar;
         this.time = time;
-        this.dist = dist;
+        this.dist = DistanceMatrix.of(dist);
         this.serviceTime = serviceTime;
         this.nodes = new int[seqVar.nNode()];
         this.preds = new int[seqVar.nNode()];
         masterConstraintPropagating = getSolver().getStateManager().makeStateRef(false);
-        checkTriangularInequality(dist);
-    }
-
-    private void checkTriangularInequality(int[][] dist) {
-        for (int i = 0 ; i < dist.length ; i++) {
-            for (int j = 0 ; j < dist[i].length ; j++) {
-                int smallestDist = dist[i][j];
-                for (int k = 0 ; k < dist.length ; k++) {
-                    int distWithDetour = dist[i][k] + serviceTime(k) + dist[k][j];
-                    if (distWithDetour < smallestDist) {
-                        System.err.println("[WARNING]: triangular inequality not respected with distance matrix and service time");
-                        System.err.printf("[WARNING]: dist[%d][%d] + duration[%d] + dist[%d][%d] < dist[%d][%d] (%d + %d + %d < %d)%n", i, k, k, k, j, i, j,
-                                dist[i][k], serviceTime(k), dist[k][j], dist[i][j]);
-                        System.err.println("[WARNING]: this might remove some solutions");
-                        return;
-                    }
-                }
-            }
-        }
+        this.dist.checkTriangularInequality(serviceTime.orElse(null));
     }
 
     @Override
@@ -153,7 +136,7 @@ public class TransitionTimes extends AbstractCPConstraint {
         int predTime = time[pred].min() + serviceTime(pred);
         for (int i = 1 ; i < nMember ; ++i) {
             int current = nodes[i];
-            predTime += dist[pred][current];
+            predTime += dist.get(pred, current);
             time[current].removeBelow(predTime);
             // waiting at a node is allowed
             predTime = Math.max(predTime, time[current].min()) + serviceTime(current);
@@ -171,7 +154,7 @@ public class TransitionTimes extends AbstractCPConstraint {
         int succTime = time[succ].max();
         for (int i = n - 2 ; i >= 0 ; --i) {
             int current = nodes[i];
-            succTime -= dist[current][succ] + serviceTime(current);
+            succTime -= dist.get(current, succ) + serviceTime(current);
             time[current].removeAbove(succTime);
             succTime = time[current].max();
 
@@ -187,13 +170,13 @@ public class TransitionTimes extends AbstractCPConstraint {
      */
     private boolean filterInsert(int pred, int node) {
         int succ = seqVar.memberAfter(pred);
-        int timeReachingNode = time[pred].min() + serviceTime(pred) + dist[pred][node];
+        int timeReachingNode = time[pred].min() + serviceTime(pred) + dist.get(pred, node);
         if (timeReachingNode > time[node].max()) { // check that pred -> current is feasible
             seqVar.notBetween(pred, node, succ);
             return true;
         } else { // check that current -> succ is feasible
             int timeDeparture = Math.max(timeReachingNode, time[node].min());
-            if (timeDeparture + serviceTime(node) + dist[node][succ] > time[succ].max()) {
+            if (timeDeparture + serviceTime(node) + dist.get(node, succ) > time[succ].max()) {
                 // The detour pred->node->succ takes too much time.
                 // Because of triangular inequality, there is no way to get a better result by inserting some node
                 // between pred->node: this would only add a longer delay, the edge is still invalid.
@@ -233,10 +216,10 @@ public class TransitionTimes extends AbstractCPConstraint {
                 int pred = preds[i];
                 if (!filterInsert(pred, node)) {
                     // if the edge is valid, it can be used to decide the min and max departure time
-                    int arrival = time[pred].min() + serviceTime(pred) + dist[pred][node]; // min departure time
+                    int arrival = time[pred].min() + serviceTime(pred) + dist.get(pred, node); // min departure time
                     earliestArrival = Math.min(earliestArrival, arrival);
                     int succ = seqVar.memberAfter(pred);
-                    int departure = time[succ].max() - serviceTime(node) - dist[node][succ]; // max departure time
+                    int departure = time[succ].max() - serviceTime(node) - dist.get(node, succ); // max departure time
                     latestDeparture = Math.max(latestDeparture, departure);
                 }
             }
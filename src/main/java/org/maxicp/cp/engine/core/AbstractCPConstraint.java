@@ -22,7 +22,8 @@ public abstract class AbstractCPConstraint implements CPConstraint {
      * The solver in which the constraint is created
      */
     private final CPSolver cp;
-    private boolean scheduled = false;
+    // propagation epoch in which the constraint was scheduled, -1 if it is not
+    private long scheduledEpoch = -1;
     private final State<Boolean> active;
 
     private ArrayList<Delta> deltas;
@@ -57,11 +58,11 @@ public abstract class AbstractCPConstraint implements CPConstraint {
     }
 
     public void setScheduled(boolean scheduled) {
-        this.scheduled = scheduled;
+        this.scheduledEpoch = scheduled ? cp.getPropagationEpoch() : -1;
     }
 
     public boolean isScheduled() {
-        return scheduled;
+        return scheduledEpoch == cp.getPropagationEpoch();
     }
 
     public void setActive(boolean active) {
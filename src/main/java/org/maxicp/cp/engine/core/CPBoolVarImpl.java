@@ -64,6 +64,21 @@ public class CPBoolVarImpl implements CPBoolVar {
         binaryVar.whenDomainChange(f);
     }
 
+    @Override
+    public void demonOnFix(Runnable demon) {
+        binaryVar.demonOnFix(demon);
+    }
+
+    @Override
+    public void demonOnBoundChange(Runnable demon) {
+        binaryVar.demonOnBoundChange(demon);
+    }
+
+    @Override
+    public void demonOnDomainChange(Runnable demon) {
+        binaryVar.demonOnDomainChange(demon);
+    }
+
     @Override
     public void whenDomainChange(Consumer<DeltaCPIntVar> f) {
         binaryVar.whenDomainChange(f);
@@ -119,6 +119,10 @@ public class CPFixedSetVar implements CPSetVar {
     public void propagateOnDomainChange(CPConstraint c) {
     }
 
+    @Override
+    public void demonOnDomainChange(Runnable demon) {
+    }
+
     @Override
     public void includeAll() {
     }
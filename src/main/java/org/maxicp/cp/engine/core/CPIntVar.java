@@ -47,6 +47,45 @@ public interface CPIntVar extends CPVar, ConcreteIntVar {
     void whenDomainChange(Runnable f);
 
 
+    /**
+     * Asks that the demon is run whenever the domain
+     * of this variable is reduced to a single value.
+     * Contrary to {@link #whenFixed(Runnable)}, the demon is not a constraint:
+     * it is run immediately, without going through the propagation queue,
+     * and must not modify any domain.
+     * The default implementation falls back on {@link #whenFixed(Runnable)}.
+     *
+     * @param demon the closure, for light bookkeeping on reversible states
+     * @see Subscriptions#addDemon(Runnable)
+     */
+    default void demonOnFix(Runnable demon) {
+        whenFixed(demon);
+    }
+
+    /**
+     * Asks that the demon is run whenever
+     * the max or min value of the domain of this variable changes.
+     * The demon is run once for each modified bound.
+     * The default implementation falls back on {@link #whenBoundChange(Runnable)}.
+     *
+     * @param demon the closure, that must not modify any domain
+     * @see #demonOnFix(Runnable)
+     */
+    default void demonOnBoundChange(Runnable demon) {
+        whenBoundChange(demon);
+    }
+
+    /**
+     * Asks that the demon is run whenever the domain of this variable changes.
+     * The default implementation falls back on {@link #whenDomainChange(Runnable)}.
+     *
+     * @param demon the closure, that must not modify any domain
+     * @see #demonOnFix(Runnable)
+     */
+    default void demonOnDomainChange(Runnable demon) {
+        whenDomainChange(demon);
+    }
+
     /**
      * Asks that the consumer is called whenever the domain change
      * of this variable changes.
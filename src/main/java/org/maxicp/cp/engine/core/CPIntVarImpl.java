@@ -6,7 +6,6 @@
 package org.maxicp.cp.engine.core;
 
 import org.maxicp.modeling.ModelProxy;
-import org.maxicp.state.datastructures.StateStack;
 import org.maxicp.util.exception.InconsistencyException;
 
 import java.security.InvalidParameterException;
@@ -21,9 +20,9 @@ public class CPIntVarImpl implements CPIntVar {
 
     private CPSolver cp;
     private IntDomain domain;
-    private StateStack<CPConstraint> onDomain;
-    private StateStack<CPConstraint> onBind;
-    private StateStack<CPConstraint> onBounds;
+    private Subscriptions onDomain;
+    private Subscriptions onBind;
+    private Subscriptions onBounds;
 
     private IntDomainListener domListener = new IntDomainListener() {
         @Override
@@ -34,22 +33,23 @@ public class CPIntVarImpl implements CPIntVar {
 
         @Override
         public void bind() {
-            scheduleAll(onBind);
+            onBind.fire(cp);
         }
 
         @Override
         public void change() {
-            scheduleAll(onDomain);
+            cp.notifyDomainReduction();
+            onDomain.fire(cp);
         }
 
         @Override
         public void changeMin() {
-            scheduleAll(onBounds);
+            onBounds.fire(cp);
         }
 
         @Override
         public void changeMax() {
-            scheduleAll(onBounds);
+            onBounds.fire(cp);
         }
     };
 
@@ -77,9 +77,9 @@ public class CPIntVarImpl implements CPIntVar {
         if (min > max) throw new InvalidParameterException("at least one setValue in the domain");
         this.cp = cp;
         domain = new SparseSetDomain(cp.getStateManager(), min, max);
-        onDomain = new StateStack<>(cp.getStateManager());
-        onBind = new StateStack<>(cp.getStateManager());
-        onBounds = new StateStack<>(cp.getStateManager());
+        onDomain = new Subscriptions(cp.getStateManager());
+        onBind = new Subscriptions(cp.getStateManager());
+        onBounds = new Subscriptions(cp.getStateManager());
     }
 
 
@@ -120,17 +120,17 @@ public class CPIntVarImpl implements CPIntVar {
 
     @Override
     public void whenFixed(Runnable f) {
-        onBind.push(constraintClosure(f));
+        onBind.add(constraintClosure(f));
     }
 
     @Override
     public void whenBoundChange(Runnable f) {
-        onBounds.push(constraintClosure(f));
+        onBounds.add(constraintClosure(f));
     }
 
     @Override
     public void whenDomainChange(Runnable f) {
-        onDomain.push(constraintClosure(f));
+        onDomain.add(constraintClosure(f));
     }
     @Override
     public void whenDomainChange(Consumer<DeltaCPIntVar> f) {
@@ -146,23 +146,32 @@ public class CPIntVarImpl implements CPIntVar {
 
     @Override
     public void propagateOnDomainChange(CPConstraint c) {
-        onDomain.push(c);
+        onDomain.add(c);
     }
 
     @Override
     public void propagateOnFix(CPConstraint c) {
-        onBind.push(c);
+        onBind.add(c);
     }
 
     @Override
     public void propagateOnBoundChange(CPConstraint c) {
-        onBounds.push(c);
+        onBounds.add(c);
     }
 
+    @Override
+    public void demonOnFix(Runnable demon) {
+        onBind.addDemon(demon);
+    }
+
+    @Override
+    public void demonOnBoundChange(Runnable demon) {
+        onBounds.addDemon(demon);
+    }
 
-    protected void scheduleAll(StateStack<CPConstraint> constraints) {
-        for (int i = 0; i < constraints.size(); i++)
-            cp.schedule(constraints.get(i));
+    @Override
+    public void demonOnDomainChange(Runnable demon) {
+        onDomain.addDemon(demon);
     }
 
     @Override
@@ -50,6 +50,21 @@ public class CPIntVarViewOffset implements CPIntVar {
         x.whenDomainChange(f);
     }
 
+    @Override
+    public void demonOnFix(Runnable demon) {
+        x.demonOnFix(demon);
+    }
+
+    @Override
+    public void demonOnBoundChange(Runnable demon) {
+        x.demonOnBoundChange(demon);
+    }
+
+    @Override
+    public void demonOnDomainChange(Runnable demon) {
+        x.demonOnDomainChange(demon);
+    }
+
     @Override
     public void whenDomainChange(Consumer<DeltaCPIntVar> f) {
         CPConstraint c = new CPConstraintClosureWithDelta(getSolver(),this,f);
@@ -20,6 +20,16 @@ public interface CPIntervalVar extends CPVar, ConcreteIntervalVar {
 
     void propagateOnChange(CPConstraint c);
 
+    /**
+     * Asks that the demon is run whenever the domain of this interval variable changes.
+     * Contrary to {@link #propagateOnChange(CPConstraint)}, the demon is run immediately,
+     * without going through the propagation queue, and must not modify any domain.
+     *
+     * @param demon the closure, for light bookkeeping on reversible states
+     * @see Subscriptions#addDemon(Runnable)
+     */
+    void demonOnChange(Runnable demon);
+
     int startMin();
 
     int startMax();
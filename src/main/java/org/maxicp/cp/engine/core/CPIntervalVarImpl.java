@@ -9,7 +9,6 @@ package org.maxicp.cp.engine.core;
 import org.maxicp.modeling.ModelProxy;
 import org.maxicp.state.State;
 import org.maxicp.state.StateInt;
-import org.maxicp.state.datastructures.StateStack;
 import org.maxicp.util.exception.InconsistencyException;
 
 import java.util.function.Consumer;
@@ -26,7 +25,7 @@ import static org.maxicp.util.exception.InconsistencyException.INCONSISTENCY;
 public class CPIntervalVarImpl implements CPIntervalVar {
 
     private CPSolver cp;
-    private StateStack<CPConstraint> onChange;
+    private Subscriptions onChange;
 
 
     // start + length = end
@@ -49,7 +48,7 @@ public class CPIntervalVarImpl implements CPIntervalVar {
         isPresent = cp.getStateManager().makeStateRef(Boolean.FALSE);
         isAbsent = cp.getStateManager().makeStateRef(Boolean.FALSE);
 
-        onChange = new StateStack<>(cp.getStateManager());
+        onChange = new Subscriptions(cp.getStateManager());
 
         this.b = new CPBoolVar() {
             @Override
@@ -78,17 +77,17 @@ public class CPIntervalVarImpl implements CPIntervalVar {
 
             @Override
             public void whenFixed(Runnable f) {
-                onChange.push(constraintClosure(f));
+                onChange.add(constraintClosure(f));
             }
 
             @Override
             public void whenBoundChange(Runnable f) {
-                onChange.push(constraintClosure(f));
+                onChange.add(constraintClosure(f));
             }
 
             @Override
             public void whenDomainChange(Runnable f) {
-                onChange.push(constraintClosure(f));
+                onChange.add(constraintClosure(f));
             }
 
             @Override
@@ -99,17 +98,17 @@ public class CPIntervalVarImpl implements CPIntervalVar {
 
             @Override
             public void propagateOnDomainChange(CPConstraint c) {
-                onChange.push(c);
+                onChange.add(c);
             }
 
             @Override
             public void propagateOnFix(CPConstraint c) {
-                onChange.push(c);
+                onChange.add(c);
             }
 
             @Override
             public void propagateOnBoundChange(CPConstraint c) {
-                onChange.push(c);
+                onChange.add(c);
             }
 
             @Override
@@ -221,13 +220,17 @@ public class CPIntervalVarImpl implements CPIntervalVar {
 
     @Override
     public void propagateOnChange(CPConstraint c) {
-        onChange.push(c);
+        onChange.add(c);
+    }
+
+    @Override
+    public void demonOnChange(Runnable demon) {
+        onChange.addDemon(demon);
     }
 
     protected void scheduleAll() {
-        for (int i = 0; i < onChange.size(); i++) {
-            cp.schedule(onChange.get(i));
-        }
+        cp.notifyDomainReduction();
+        onChange.fire(cp);
     }
 
     private CPConstraint constraintClosure(Runnable f) {
@@ -41,6 +41,11 @@ public class CPIntervalVarOffset implements CPIntervalVar {
         interval.propagateOnChange(c);
     }
 
+    @Override
+    public void demonOnChange(Runnable demon) {
+        interval.demonOnChange(demon);
+    }
+
     @Override
     public int startMin() {
         return interval.startMin() + offset;
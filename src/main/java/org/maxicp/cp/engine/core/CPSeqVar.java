@@ -295,6 +295,64 @@ public interface CPSeqVar extends CPVar, ConcreteSeqVar {
      */
     void whenRequire(Runnable f);
 
+    /**
+     * Asks that the demon is run whenever the domain is fixed {@link CPSeqVar#isFixed()}.
+     * Contrary to {@link #whenFixed(Runnable)}, the demon is not a constraint:
+     * it is run immediately, without going through the propagation queue,
+     * and must not modify any domain.
+     * The default implementation falls back on {@link #whenFixed(Runnable)}.
+     *
+     * @param demon the closure, for light bookkeeping on reversible states
+     * @see Subscriptions#addDemon(Runnable)
+     */
+    default void demonOnFix(Runnable demon) {
+        whenFixed(demon);
+    }
+
+    /**
+     * Asks that the demon is run whenever an insertion happens.
+     * The default implementation falls back on {@link #whenInsert(Runnable)}.
+     *
+     * @param demon the closure, that must not modify any domain
+     * @see #demonOnFix(Runnable)
+     */
+    default void demonOnInsert(Runnable demon) {
+        whenInsert(demon);
+    }
+
+    /**
+     * Asks that the demon is run whenever an insertion is removed.
+     * The default implementation falls back on {@link #whenInsertRemoved(Runnable)}.
+     *
+     * @param demon the closure, that must not modify any domain
+     * @see #demonOnFix(Runnable)
+     */
+    default void demonOnInsertRemoved(Runnable demon) {
+        whenInsertRemoved(demon);
+    }
+
+    /**
+     * Asks that the demon is run whenever an exclusion happens.
+     * The default implementation falls back on {@link #whenExclude(Runnable)}.
+     *
+     * @param demon the closure, that must not modify any domain
+     * @see #demonOnFix(Runnable)
+     */
+    default void demonOnExclude(Runnable demon) {
+        whenExclude(demon);
+    }
+
+    /**
+     * Asks that the demon is run whenever a node is required.
+     * The default implementation falls back on {@link #whenRequire(Runnable)}.
+     *
+     * @param demon the closure, that must not modify any domain
+     * @see #demonOnFix(Runnable)
+     */
+    default void demonOnRequire(Runnable demon) {
+        whenRequire(demon);
+    }
+
     /**
      * Asks that {@link CPConstraint#propagate()} is called whenever the domain is fixed {@link CPSeqVar#isFixed()}
      * In such a state the variable is fixed and we say that a <i>fix</i> event occurs.
@@ -4,8 +4,9 @@ import org.maxicp.modeling.BoolVar;
 import org.maxicp.modeling.ModelProxy;
 import org.maxicp.modeling.algebra.sequence.SeqStatus;
 import org.maxicp.state.StateInt;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.datastructures.StateBitSet;
 import org.maxicp.state.datastructures.StateSparseSet;
-import org.maxicp.state.datastructures.StateStack;
 import org.maxicp.state.datastructures.StateTriPartition;
 
 import java.util.StringJoiner;
@@ -17,6 +18,35 @@ import static org.maxicp.util.exception.InconsistencyException.INCONSISTENCY;
 
 public class CPSeqVarImpl implements CPSeqVar {
 
+    /**
+     * Reversible set of the predecessors or successors of a node
+     */
+    private interface Edges {
+        boolean remove(int node);
+
+        void removeAll();
+
+        int size();
+
+        boolean contains(int node);
+
+        int fillArray(int[] dest);
+
+        int fillArrayWithFilter(int[] dest, Predicate<Integer> filterPredicate);
+    }
+
+    private static final class SparseEdges extends StateSparseSet implements Edges {
+        private SparseEdges(StateManager sm, int n) {
+            super(sm, n, 0);
+        }
+    }
+
+    private static final class CompactEdges extends StateBitSet implements Edges {
+        private CompactEdges(StateManager sm, int n) {
+            super(sm, n);
+        }
+    }
+
     private final StateInt[] succ; // successors in the current partial sequence
     private final StateInt[] pred; // predecessors in the current partial sequence
     private final int start;
@@ -28,15 +58,39 @@ public class CPSeqVarImpl implements CPSeqVar {
     private final StateTriPartition domain;  // split between required, possible and excluded
     private final StateSparseSet insertable; // holds the insertable nodes
 
-    private final StateStack<CPConstraint> onInsert;        // a node has been inserted into the sequence
-    private final StateStack<CPConstraint> onFix;           // all nodes are members or excluded: no possible node remain
-    private final StateStack<CPConstraint> onExclude;       // a node has been excluded from the sequence
-    private final StateStack<CPConstraint> onRequire;       // a node has been required within the sequence
-    private final StateStack<CPConstraint> onInsertRemoved; // an insertion has been removed from the sequence
+    private final Subscriptions onInsert;        // a node has been inserted into the sequence
+    private final Subscriptions onFix;           // all nodes are members or excluded: no possible node remain
+    private final Subscriptions onExclude;       // a node has been excluded from the sequence
+    private final Subscriptions onRequire;       // a node has been required within the sequence
+    private final Subscriptions onInsertRemoved; // an insertion has been removed from the sequence
 
     private final int[] values;
+    private final boolean compact;
 
+    /**
+     * Creates a sequence variable, storing the edges in sparse sets
+     *
+     * @param cp     the solver
+     * @param nNodes the number of nodes, including the start and end nodes
+     * @param start  the start node
+     * @param end    the end node
+     */
     public CPSeqVarImpl(CPSolver cp, int nNodes, int start, int end) {
+        this(cp, nNodes, start, end, false);
+    }
+
+    /**
+     * Creates a sequence variable
+     *
+     * @param cp      the solver
+     * @param nNodes  the number of nodes, including the start and end nodes
+     * @param start   the start node
+     * @param end     the end node
+     * @param compact if true, the predecessors and successors of each node are stored in bitsets
+     *                ({@code 2n/64} words per node) instead of sparse sets ({@code 4n} integers per node),
+     *                the edges of a node are then iterated by increasing node index
+     */
+    public CPSeqVarImpl(CPSolver cp, int nNodes, int start, int end, boolean compact) {
         if (nNodes < 2) {
             throw new IllegalArgumentException("at least two nodes required since start and end are included in the sequence");
         }
@@ -44,6 +98,7 @@ public class CPSeqVarImpl implements CPSeqVar {
             throw new IllegalArgumentException("start and end nodes must be in the range [" + 0 + ".." + (nNodes - 1) + "]" + " start=" + start + " end=" + end);
         }
         this.cp = cp;
+        this.compact = compact;
         this.nNodes = nNodes;
         this.start = start;
         this.end = end;
@@ -72,14 +127,18 @@ public class CPSeqVarImpl implements CPSeqVar {
         nodes[start].pred.removeAll();
         nodes[end].succ.removeAll();
 
-        onInsert = new StateStack<>(cp.getStateManager());
-        onFix = new StateStack<>(cp.getStateManager());
-        onExclude = new StateStack<>(cp.getStateManager());
-        onRequire = new StateStack<>(cp.getStateManager());
-        onInsertRemoved = new StateStack<>(cp.getStateManager());
+        onInsert = new Subscriptions(cp.getStateManager());
+        onFix = new Subscriptions(cp.getStateManager());
+        onExclude = new Subscriptions(cp.getStateManager());
+        onRequire = new Subscriptions(cp.getStateManager());
+        onInsertRemoved = new Subscriptions(cp.getStateManager());
         values = new int[nNodes];
     }
 
+    private Edges makeEdges() {
+        return compact ? new CompactEdges(cp.getStateManager(), nNodes) : new SparseEdges(cp.getStateManager(), nNodes);
+    }
+
     /**
      * Listener for the whole sequence.
      * For more information about the changes (i.e. what insertion has occurred?),
@@ -88,81 +147,81 @@ public class CPSeqVarImpl implements CPSeqVar {
     private final SeqListener listener = new SeqListener() {
         @Override
         public void fix() {
-            scheduleAll(onFix);
+            onFix.fire(cp);
         }
 
         @Override
         public void insert() {
-            scheduleAll(onInsert);
+            onInsert.fire(cp);
         }
 
         @Override
         public void exclude() {
-            scheduleAll(onExclude);
+            onExclude.fire(cp);
         }
 
         @Override
         public void require() {
-            scheduleAll(onRequire);
+            onRequire.fire(cp);
         }
 
         @Override
         public void insertRemoved() {
-            scheduleAll(onInsertRemoved);
+            onInsertRemoved.fire(cp);
         }
     };
 
     private class Node implements CPNodeVar {
 
         private final int me;
-        private StateSparseSet pred;
-        private StateSparseSet succ;
+        private final Edges pred;
+        private final Edges succ;
         private StateInt nInsert;
 
         // constraints registered for this node
-        private StateStack<CPConstraint> onInsert;
-        private StateStack<CPConstraint> onExclude;
-        private StateStack<CPConstraint> onRequire;
-        private StateStack<CPConstraint> onInsertRemoved;
+        private Subscriptions onInsert;
+        private Subscriptions onExclude;
+        private Subscriptions onRequire;
+        private Subscriptions onInsertRemoved;
 
         private Node(int i) {
             me = i;
-            pred = new StateSparseSet(cp.getStateManager(), nNodes, 0);
+            pred = makeEdges();
             pred.remove(me);
             pred.remove(end);
 
-            succ = new StateSparseSet(cp.getStateManager(), nNodes, 0);
+            succ = makeEdges();
             succ.remove(me);
             succ.remove(start);
             // the node can be inserted between start and end at initialization
             nInsert = cp.getStateManager().makeStateInt(1);
 
-            onInsert = new StateStack<>(cp.getStateManager());
-            onRequire = new StateStack<>(cp.getStateManager());
-            onExclude = new StateStack<>(cp.getStateManager());
-            onInsertRemoved = new StateStack<>(cp.getStateManager());
+            onInsert = new Subscriptions(cp.getStateManager());
+            onRequire = new Subscriptions(cp.getStateManager());
+            onExclude = new Subscriptions(cp.getStateManager());
+            onInsertRemoved = new Subscriptions(cp.getStateManager());
         }
 
 
         private final NodeListener listener = new NodeListener() {
             @Override
             public void insert() {
-                scheduleAll(onInsert);
+                onInsert.fire(cp);
             }
 
             @Override
             public void exclude() {
-                scheduleAll(onExclude);
+                onExclude.fire(cp);
             }
 
             @Override
             public void insertRemoved() {
-                scheduleAll(onInsertRemoved);
+                onInsertRemoved.fire(cp);
             }
 
             @Override
             public void require() {
-                scheduleAll(onRequire);
+                onRequire.fire(cp);
             }
 
         };
@@ -460,42 +519,42 @@ public class CPSeqVarImpl implements CPSeqVar {
 
         @Override
         public void whenInsert(Runnable f) {
-            onInsert.push(constraintClosure(f));
+            onInsert.add(constraintClosure(f));
         }
 
         @Override
         public void whenExclude(Runnable f) {
-            onExclude.push(constraintClosure(f));
+            onExclude.add(constraintClosure(f));
         }
 
         @Override
         public void whenRequire(Runnable f) {
-            onRequire.push(constraintClosure(f));
+            onRequire.add(constraintClosure(f));
         }
 
         @Override
         public void whenInsertRemoved(Runnable f) {
-            onInsertRemoved.push(constraintClosure(f));
+            onInsertRemoved.add(constraintClosure(f));
         }
 
         @Override
         public void propagateOnInsert(CPConstraint c) {
-            onInsert.push(c);
+            onInsert.add(c);
         }
 
         @Override
         public void propagateOnExclude(CPConstraint c) {
-            onExclude.push(c);
+            onExclude.add(c);
         }
 
         @Override
         public void propagateOnRequire(CPConstraint c) {
-            onRequire.push(c);
+            onRequire.add(c);
         }
 
         @Override
         public void propagateOnInsertRemoved(CPConstraint c) {
-            onInsertRemoved.push(c);
+            onInsertRemoved.add(c);
         }
 
     }
@@ -862,52 +921,77 @@ public class CPSeqVarImpl implements CPSeqVar {
 
     @Override
     public void whenFixed(Runnable f) {
-        onFix.push(constraintClosure(f));
+        onFix.add(constraintClosure(f));
     }
 
     @Override
     public void whenInsert(Runnable f) {
-        onInsert.push(constraintClosure(f));
+        onInsert.add(constraintClosure(f));
     }
 
     @Override
     public void whenInsertRemoved(Runnable f) {
-        onInsertRemoved.push(constraintClosure(f));
+        onInsertRemoved.add(constraintClosure(f));
     }
 
     @Override
     public void whenExclude(Runnable f) {
-        onExclude.push(constraintClosure(f));
+        onExclude.add(constraintClosure(f));
     }
 
     @Override
     public void whenRequire(Runnable f) {
-        onRequire.push(constraintClosure(f));
+        onRequire.add(constraintClosure(f));
+    }
+
+    @Override
+    public void demonOnFix(Runnable demon) {
+        onFix.addDemon(demon);
+    }
+
+    @Override
+    public void demonOnInsert(Runnable demon) {
+        onInsert.addDemon(demon);
+    }
+
+    @Override
+    public void demonOnInsertRemoved(Runnable demon) {
+        onInsertRemoved.addDemon(demon);
+    }
+
+    @Override
+    public void demonOnExclude(Runnable demon) {
+        onExclude.addDemon(demon);
+    }
+
+    @Override
+    public void demonOnRequire(Runnable demon) {
+        onRequire.addDemon(demon);
     }
 
     @Override
     public void propagateOnFix(CPConstraint c) {
-        onFix.push(c);
+        onFix.add(c);
     }
 
     @Override
     public void propagateOnInsertRemoved(CPConstraint c) {
-        onInsertRemoved.push(c);
+        onInsertRemoved.add(c);
     }
 
     @Override
     public void propagateOnInsert(CPConstraint c) {
-        onInsert.push(c);
+        onInsert.add(c);
     }
 
     @Override
     public void propagateOnExclude(CPConstraint c) {
-        onExclude.push(c);
+        onExclude.add(c);
     }
 
     @Override
     public void propagateOnRequire(CPConstraint c) {
-        onRequire.push(c);
+        onRequire.add(c);
     }
 
     private CPConstraint constraintClosure(Runnable f) {
@@ -916,11 +1000,6 @@ public class CPSeqVarImpl implements CPSeqVar {
         return c;
     }
 
-    private void scheduleAll(StateStack<CPConstraint> constraints) {
-        for (int i = 0; i < constraints.size(); i++)
-            cp.schedule(constraints.get(i));
-    }
-
     @Override
     public String toString() {
         return membersOrdered();
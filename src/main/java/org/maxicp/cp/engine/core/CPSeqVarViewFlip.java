@@ -210,6 +210,31 @@ public class CPSeqVarViewFlip implements CPSeqVar {
         seqVar.whenRequire(f);
     }
 
+    @Override
+    public void demonOnFix(Runnable demon) {
+        seqVar.demonOnFix(demon);
+    }
+
+    @Override
+    public void demonOnInsert(Runnable demon) {
+        seqVar.demonOnInsert(demon);
+    }
+
+    @Override
+    public void demonOnInsertRemoved(Runnable demon) {
+        seqVar.demonOnInsertRemoved(demon);
+    }
+
+    @Override
+    public void demonOnExclude(Runnable demon) {
+        seqVar.demonOnExclude(demon);
+    }
+
+    @Override
+    public void demonOnRequire(Runnable demon) {
+        seqVar.demonOnRequire(demon);
+    }
+
     @Override
     public void propagateOnFix(CPConstraint c) {
         seqVar.propagateOnFix(c);
@@ -142,6 +142,16 @@ public interface CPSetVar extends CPVar, ConcreteVar {
      */
     void propagateOnDomainChange(CPConstraint c);
 
+    /**
+     * Asks that the demon is run whenever the domain of the set variable changes (I,P or E).
+     * Contrary to {@link #propagateOnDomainChange(CPConstraint)}, the demon is run immediately,
+     * without going through the propagation queue, and must not modify any domain.
+     *
+     * @param demon the closure, for light bookkeeping on reversible states
+     * @see Subscriptions#addDemon(Runnable)
+     */
+    void demonOnDomainChange(Runnable demon);
+
     /**
      * Returns the solver of the set variable.
      *
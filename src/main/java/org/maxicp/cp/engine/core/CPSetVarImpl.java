@@ -9,7 +9,6 @@ import org.maxicp.cp.CPFactory;
 import org.maxicp.cp.engine.constraints.setvar.SetCard;
 import org.maxicp.modeling.ModelProxy;
 import org.maxicp.modeling.concrete.ConcreteVar;
-import org.maxicp.state.datastructures.StateStack;
 import org.maxicp.state.datastructures.StateTriPartition;
 import org.maxicp.util.exception.InconsistencyException;
 
@@ -31,7 +30,7 @@ public class CPSetVarImpl implements CPSetVar {
     private CPSolver cp;
     private StateTriPartition domain;
     private CPIntVar card;
-    private StateStack<CPConstraint> onDomain;
+    private Subscriptions onDomain;
 
     /**
      * Creates a set variable with the elements {@code {0,...,n-1}}
@@ -45,7 +44,7 @@ public class CPSetVarImpl implements CPSetVar {
         this.cp = cp;
         this.domain = new StateTriPartition(cp.getStateManager(), n);
         this.card = CPFactory.makeIntVar(cp, 0, n);
-        this.onDomain = new StateStack<>(cp.getStateManager());
+        this.onDomain = new Subscriptions(cp.getStateManager());
         cp.post(new SetCard(this, card));
     }
 
@@ -65,7 +64,7 @@ public class CPSetVarImpl implements CPSetVar {
         }
         if (domain.isPossible(v)) {
             domain.exclude(v);
-            scheduleAll(onDomain);
+            onDomain.fire(cp);
         }
     }
 
@@ -90,7 +89,7 @@ public class CPSetVarImpl implements CPSetVar {
         }
         if (domain.isPossible(v)) {
             domain.include(v);
-            scheduleAll(onDomain);
+            onDomain.fire(cp);
         }
     }
 
@@ -105,14 +104,13 @@ public class CPSetVarImpl implements CPSetVar {
         return card.isFixed() && domain.nIncluded() == card.min();
     }
 
-    protected void scheduleAll(StateStack<CPConstraint> constraints) {
-        for (int i = 0; i < constraints.size(); i++) {
-            cp.schedule(constraints.get(i));
-        }
+    public void propagateOnDomainChange(CPConstraint c) {
+        onDomain.add(c);
     }
 
-    public void propagateOnDomainChange(CPConstraint c) {
-        onDomain.push(c);
+    @Override
+    public void demonOnDomainChange(Runnable demon) {
+        onDomain.addDemon(demon);
     }
 
     public CPSolver getSolver() {
@@ -140,7 +138,7 @@ public class CPSetVarImpl implements CPSetVar {
         if (domain.nPossible() > 0) {
             domain.includeAllPossible();
             card.fix(domain.nIncluded());
-            scheduleAll(onDomain);
+            onDomain.fire(cp);
         }
     }
 
@@ -148,7 +146,7 @@ public class CPSetVarImpl implements CPSetVar {
         if (domain.nPossible() > 0) {
             domain.excludeAllPossible();
             card.fix(domain.nIncluded());
-            scheduleAll(onDomain);
+            onDomain.fire(cp);
         }
     }
 
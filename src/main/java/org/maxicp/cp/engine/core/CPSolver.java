@@ -46,6 +46,56 @@ public interface CPSolver extends StateManaged {
      */
     void fixPoint();
 
+    /**
+     * Returns the propagation epoch, incremented each time the scheduled
+     * constraints are discarded because the fix-point failed.
+     * A constraint scheduled in an earlier epoch is not scheduled any more.
+     *
+     * @return the current propagation epoch
+     */
+    long getPropagationEpoch();
+
+    /**
+     * Enables or disables the propagation profiler.
+     * Enabling it starts with a new profiler, with all its counters at zero.
+     *
+     * @param enabled true to record the propagations in a new profiler,
+     *                false to stop recording them
+     * @see PropagationProfiler
+     */
+    void setProfiling(boolean enabled);
+
+    /**
+     * Returns the propagation profiler
+     *
+     * @return the profiler recording the propagations, null if profiling is disabled
+     */
+    PropagationProfiler getProfiler();
+
+    /**
+     * Enables or disables the explanations of the domain changes.
+     * The propagators that can explain their filtering only do so
+     * if the explanations are enabled when they are created.
+     *
+     * @param enabled true to record the reasons of the domain changes in a new {@link Explanations},
+     *                false to stop recording them
+     * @see Explanations
+     */
+    void setExplanations(boolean enabled);
+
+    /**
+     * Returns the reasons of the domain changes
+     *
+     * @return the explanations, null if they are disabled
+     */
+    Explanations getExplanations();
+
+    /**
+     * Notifies that the domain of a variable was reduced,
+     * such that the profiler can attribute it to the constraint being propagated.
+     */
+    void notifyDomainReduction();
+
     /**
      * Adds a listener called whenever the fix-point.
      *
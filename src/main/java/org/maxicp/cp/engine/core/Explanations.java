@@ -0,0 +1,310 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateManager;
+import org.maxicp.util.collections.IntArrayList;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import static org.maxicp.util.exception.InconsistencyException.INCONSISTENCY;
+
+/**
+ * Reasons of the domain changes, in the spirit of lazy clause generation.
+ *
+ * A propagator that explains its filtering modifies the domains through this class,
+ * giving for each change the literals that were true and imply it.
+ * The changes are recorded on a trail whose size is reversible,
+ * such that the changes made below a saved state are forgotten when it is restored.
+ * When such a propagator fails, the literals implying the failure are recorded as well,
+ * and {@link #analyze()} derives a nogood from them, by replacing each literal
+ * by the reason of the recorded change that made it true.
+ * The literals that were made true by the search or by a propagator that does not explain its filtering
+ * have no reason, they are kept in the nogood as if they were decisions.
+ * The changes of each variable are chained on the trail, such that the changes
+ * that may imply a literal are found without scanning the whole trail.
+ *
+ * The explanations are enabled with {@link CPSolver#setExplanations(boolean)},
+ * before the constraints are created (see {@link #forPropagator(CPSolver)}).
+ */
+public final class Explanations {
+
+    private Literal[] literals = new Literal[64];
+    private Literal[][] reasons = new Literal[64][];
+    // true if the literals of the reason on the changed variable are to be ignored
+    private boolean[] shared = new boolean[64];
+    // index of the previous change on the same variable, -1 if none
+    private int[] previous = new int[64];
+    // index of the last change of each variable on the trail, in a singleton array, for the changes in [0..top-1]
+    private final IdentityHashMap<CPIntVar, int[]> last = new IdentityHashMap<>();
+    private int top;
+    private final StateInt size;
+
+    private Literal[] conflict;
+    private int conflictSize;
+    private int conflictLevel;
+    private final StateManager sm;
+    private final int level;
+
+    public Explanations(StateManager sm) {
+        this.sm = sm;
+        this.level = sm.getLevel();
+        this.size = sm.makeStateInt(0);
+    }
+
+    /**
+     * Returns the explanations to be used by a propagator being created.
+     * A propagator created below the state at which the explanations were enabled,
+     * such as a decision of the search, does not explain its filtering:
+     * the changes it makes are kept in the nogoods as decisions.
+     *
+     * @param cp the solver of the propagator
+     * @return the explanations of the solver, null if the propagator must not explain its filtering
+     */
+    public static Explanations forPropagator(CPSolver cp) {
+        Explanations explanations = cp.getExplanations();
+        if (explanations == null || cp.getStateManager().getLevel() > explanations.level)
+            return null;
+        return explanations;
+    }
+
+    /**
+     * Returns the number of changes recorded on the trail
+     *
+     * @return the number of explained changes since the root
+     */
+    public int size() {
+        return size.value();
+    }
+
+    /**
+     * Removes the values above v from the domain of x
+     *
+     * @param x      the variable
+     * @param v      the new maximum value
+     * @param reason true literals implying {@code x <= v}
+     */
+    public void removeAbove(CPIntVar x, int v, Literal... reason) {
+        if (x.max() > v)
+            apply(Literal.le(x, v), reason, false);
+    }
+
+    /**
+     * Removes the values above v from the domain of x, with a reason shared between several variables.
+     * The literals of the reason on x are ignored, such that a propagator can build a single reason
+     * for all the variables that it filters, instead of one per variable.
+     *
+     * @param x      the variable
+     * @param v      the new maximum value
+     * @param reason true literals implying {@code x <= v}, once those on x are ignored
+     */
+    public void removeAboveShared(CPIntVar x, int v, Literal[] reason) {
+        if (x.max() > v)
+            apply(Literal.le(x, v), reason, true);
+    }
+
+    /**
+     * Removes the values below v from the domain of x
+     *
+     * @param x      the variable
+     * @param v      the new minimum value
+     * @param reason true literals implying {@code x >= v}
+     */
+    public void removeBelow(CPIntVar x, int v, Literal... reason) {
+        if (x.min() < v)
+            apply(Literal.ge(x, v), reason, false);
+    }
+
+    /**
+     * Removes the values below v from the domain of x, with a reason shared between several variables.
+     * The literals of the reason on x are ignored (see {@link #removeAboveShared(CPIntVar, int, Literal[])}).
+     *
+     * @param x      the variable
+     * @param v      the new minimum value
+     * @param reason true literals implying {@code x >= v}, once those on x are ignored
+     */
+    public void removeBelowShared(CPIntVar x, int v, Literal[] reason) {
+        if (x.min() < v)
+            apply(Literal.ge(x, v), reason, true);
+    }
+
+    /**
+     * Removes a value from the domain of x
+     *
+     * @param x      the variable
+     * @param v      the value to remove
+     * @param reason true literals implying {@code x != v}
+     */
+    public void remove(CPIntVar x, int v, Literal... reason) {
+        if (x.contains(v))
+            apply(Literal.neq(x, v), reason, false);
+    }
+
+    /**
+     * Fixes x to a value
+     *
+     * @param x      the variable
+     * @param v      the value assigned to x
+     * @param reason true literals implying {@code x == v}
+     */
+    public void fix(CPIntVar x, int v, Literal... reason) {
+        if (!x.isFixed() || x.min() != v)
+            apply(Literal.eq(x, v), reason, false);
+    }
+
+    /**
+     * Makes a literal true
+     *
+     * @param literal the literal
+     * @param reason  true literals implying it
+     */
+    public void enforce(Literal literal, Literal... reason) {
+        if (!literal.isTrue())
+            apply(literal, reason, false);
+    }
+
+    /**
+     * Records the reason of a failure
+     *
+     * @param reason true literals that cannot hold together
+     * @return the exception to throw
+     */
+    public InconsistencyException fail(Literal... reason) {
+        conflict = reason;
+        conflictSize = size.value();
+        conflictLevel = sm.getLevel();
+        return INCONSISTENCY;
+    }
+
+    private void apply(Literal literal, Literal[] reason, boolean sharedReason) {
+        unwind();
+        int n = size.value();
+        if (n == literals.length) {
+            literals = Arrays.copyOf(literals, n * 2);
+            reasons = Arrays.copyOf(reasons, n * 2);
+            shared = Arrays.copyOf(shared, n * 2);
+            previous = Arrays.copyOf(previous, n * 2);
+        }
+        CPIntVar x = literal.x();
+        int[] lastOfX = last.computeIfAbsent(x, k -> new int[]{-1});
+        literals[n] = literal;
+        reasons[n] = reason;
+        shared[n] = sharedReason;
+        previous[n] = lastOfX[0];
+        lastOfX[0] = n;
+        top = n + 1;
+        size.setValue(n + 1);
+        try {
+            switch (literal.rel()) {
+                case EQ -> x.fix(literal.value());
+                case NEQ -> x.remove(literal.value());
+                case LE -> x.removeAbove(literal.value());
+                case GT -> x.removeBelow(literal.value() + 1);
+            }
+        } catch (InconsistencyException e) {
+            // the negation of the literal was true, as the domain becomes empty
+            Literal[] failure = sharedReason ? without(reason, x) : reason;
+            failure = Arrays.copyOf(failure, failure.length + 1);
+            failure[failure.length - 1] = literal.negation();
+            conflict = failure;
+            conflictSize = n;
+            conflictLevel = sm.getLevel();
+            throw e;
+        }
+    }
+
+    /**
+     * Removes from the chains of the variables the changes that were forgotten when restoring a state
+     */
+    private void unwind() {
+        int n = size.value();
+        while (top > n) {
+            top--;
+            last.get(literals[top].x())[0] = previous[top];
+        }
+    }
+
+    private static Literal[] without(Literal[] reason, CPIntVar x) {
+        int k = 0;
+        Literal[] res = new Literal[reason.length];
+        for (Literal l : reason) {
+            if (l.x() != x)
+                res[k++] = l;
+        }
+        return k == reason.length ? reason : Arrays.copyOf(res, k);
+    }
+
+    /**
+     * Forgets the reason of the last failure
+     */
+    public void clearConflict() {
+        conflict = null;
+    }
+
+    /**
+     * Derives a nogood from the last failure, that must not have been restored yet.
+     * Each literal implying the failure is replaced by the reason of the earliest recorded change implying it,
+     * until only literals without reason remain.
+     * The last failure is forgotten.
+     *
+     * @return the literals without reason that imply the failure,
+     *         null if the last failure was not raised by an explained propagator
+     */
+    public Literal[] analyze() {
+        Literal[] failure = conflict;
+        conflict = null;
+        if (failure == null || conflictLevel != sm.getLevel() || conflictSize > size.value())
+            return null;
+        unwind();
+        boolean[] expanded = new boolean[conflictSize];
+        List<Literal> leaves = new ArrayList<>();
+        List<Literal> toExplain = new ArrayList<>();
+        IntArrayList limits = new IntArrayList();
+        for (Literal l : failure) {
+            toExplain.add(l);
+            limits.add(conflictSize);
+        }
+        while (!toExplain.isEmpty()) {
+            Literal l = toExplain.removeLast();
+            int limit = limits.removeLast();
+            // earliest change on the variable before the limit
+            int cause = -1;
+            int[] lastOfX = last.get(l.x());
+            for (int i = lastOfX == null ? -1 : lastOfX[0]; i >= 0; i = previous[i]) {
+                if (i < limit && literals[i].implies(l))
+                    cause = i;
+            }
+            if (cause < 0) {
+                addLeaf(leaves, l);
+            } else if (!expanded[cause]) {
+                expanded[cause] = true;
+                CPIntVar x = literals[cause].x();
+                for (Literal r : reasons[cause]) {
+                    if (shared[cause] && r.x() == x)
+                        continue;
+                    toExplain.add(r);
+                    limits.add(cause);
+                }
+            }
+        }
+        return leaves.toArray(new Literal[0]);
+    }
+
+    // adds a literal to the nogood, unless it is implied by another literal of the nogood
+    private static void addLeaf(List<Literal> leaves, Literal l) {
+        for (Literal leaf : leaves) {
+            if (leaf.implies(l))
+                return;
+        }
+        leaves.removeIf(l::implies);
+        leaves.add(l);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.maxicp.search.IntDecision.Relation;
+
+/**
+ * Atomic constraint {@code x rel value} on the domain of an integer variable,
+ * used to explain the domain changes (see {@link Explanations}) and to express nogoods.
+ *
+ * @param x     the variable
+ * @param rel   the comparison
+ * @param value the value compared with the variable
+ */
+public record Literal(CPIntVar x, Relation rel, int value) {
+
+    public static Literal eq(CPIntVar x, int v) {
+        return new Literal(x, Relation.EQ, v);
+    }
+
+    public static Literal neq(CPIntVar x, int v) {
+        return new Literal(x, Relation.NEQ, v);
+    }
+
+    public static Literal le(CPIntVar x, int v) {
+        return new Literal(x, Relation.LE, v);
+    }
+
+    public static Literal ge(CPIntVar x, int v) {
+        if (v == Integer.MIN_VALUE) // always true, v - 1 would overflow
+            return new Literal(x, Relation.LE, Integer.MAX_VALUE);
+        return new Literal(x, Relation.GT, v - 1);
+    }
+
+    /**
+     * @return the literal holding iff this one does not hold
+     */
+    public Literal negation() {
+        return new Literal(x, rel.negation(), value);
+    }
+
+    /**
+     * Checks if the literal holds for every value in the domain of its variable
+     *
+     * @return true iff the literal is entailed by the domain
+     */
+    public boolean isTrue() {
+        return switch (rel) {
+            case EQ -> x.isFixed() && x.min() == value;
+            case NEQ -> !x.contains(value);
+            case LE -> x.max() <= value;
+            case GT -> x.min() > value;
+        };
+    }
+
+    /**
+     * Checks if the literal holds for no value in the domain of its variable
+     *
+     * @return true iff the negation of the literal is entailed by the domain
+     */
+    public boolean isFalse() {
+        return negation().isTrue();
+    }
+
+    /**
+     * Checks if this literal implies another one on the same variable
+     *
+     * @param other the other literal
+     * @return true iff {@code other} holds whenever this literal holds
+     */
+    public boolean implies(Literal other) {
+        if (x != other.x)
+            return false;
+        int v = other.value;
+        return switch (rel) {
+            case EQ -> other.rel.holds(value, v);
+            case NEQ -> other.rel == Relation.NEQ && v == value;
+            case LE -> (other.rel == Relation.LE && value <= v) || (other.rel == Relation.NEQ && v > value);
+            case GT -> (other.rel == Relation.GT && value >= v) || (other.rel == Relation.NEQ && v <= value);
+        };
+    }
+
+    @Override
+    public String toString() {
+        String op = switch (rel) {
+            case EQ -> "==";
+            case NEQ -> "!=";
+            case LE -> "<=";
+            case GT -> ">";
+        };
+        return x + op + value;
+    }
+}
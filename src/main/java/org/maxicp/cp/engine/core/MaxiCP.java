@@ -13,7 +13,6 @@ import org.maxicp.modeling.concrete.BasicModelProxy;
 import org.maxicp.modeling.symbolic.SymbolicModel;
 import org.maxicp.search.IntObjective;
 import org.maxicp.state.StateManager;
-import org.maxicp.util.PQueue;
 import org.maxicp.util.exception.InconsistencyException;
 
 import java.util.*;
@@ -21,8 +20,10 @@ import java.util.*;
 
 public class MaxiCP implements CPSolver {
 
-    private final PQueue<CPConstraint> propagationQueue = new PQueue<>(Constants.PIORITY_SLOW+1);
+    private final PropagationQueue propagationQueue = new PropagationQueue(Constants.PIORITY_SLOW+1);
     private final List<Runnable> fixPointListeners = new LinkedList<>();
+    private PropagationProfiler profiler = null;
+    private Explanations explanations = null;
 
     private final StateManager sm;
     private final ModelProxy modelProxy;
@@ -63,26 +64,63 @@ public class MaxiCP implements CPSolver {
     @Override
     public void fixPoint() {
         try {
+            if (explanations != null)
+                explanations.clearConflict();
             notifyFixPoint();
-            while (!propagationQueue.isEmpty()) {
-                propagate(propagationQueue.poll());
+            CPConstraint c;
+            while ((c = propagationQueue.poll()) != null) {
+                propagate(c);
             }
         } catch (InconsistencyException e) {
-            // empty the queue and unset the scheduled status
-            while (!propagationQueue.isEmpty())
-                propagationQueue.poll().setScheduled(false);
+            // empty the queue, the new epoch unsets the scheduled status
+            propagationQueue.clear();
             throw e;
         }
     }
 
+    @Override
+    public long getPropagationEpoch() {
+        return propagationQueue.epoch();
+    }
+
     private void propagate(CPConstraint c) {
         c.setScheduled(false);
         if (c.isActive()) {
-            c.propagate();
-            c.updateDeltas();
+            if (profiler != null) {
+                profiler.propagate(c);
+            } else {
+                c.propagate();
+                c.updateDeltas();
+            }
         }
     }
 
+    @Override
+    public void setProfiling(boolean enabled) {
+        profiler = enabled ? new PropagationProfiler() : null;
+    }
+
+    @Override
+    public PropagationProfiler getProfiler() {
+        return profiler;
+    }
+
+    @Override
+    public void setExplanations(boolean enabled) {
+        explanations = enabled ? new Explanations(sm) : null;
+    }
+
+    @Override
+    public Explanations getExplanations() {
+        return explanations;
+    }
+
+    @Override
+    public void notifyDomainReduction() {
+        if (profiler != null)
+            profiler.domainReduced();
+    }
+
     @Override
     public IntObjective minimize(CPIntVar x) {
         return new Minimize(x);
@@ -0,0 +1,212 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records, per constraint class and per constraint instance,
+ * the number of calls to {@link CPConstraint#propagate()}, the time spent in them,
+ * the number of failures they raised and the number of domain reductions they achieved.
+ *
+ * The profiler is enabled with {@link CPSolver#setProfiling(boolean)}.
+ * When it is disabled, the fix-point does not call it at all.
+ * A domain reduction is any operation that changes the domain of an integer
+ * variable (e.g. removing a value or updating a bound) or of an interval variable.
+ * The time of a propagation includes the propagation of its deltas.
+ */
+public class PropagationProfiler {
+
+    /**
+     * Counters of a constraint class or of a constraint instance
+     */
+    public static final class Stats {
+        private final String name;
+        private long calls = 0;
+        private long timeNanos = 0;
+        private long failures = 0;
+        private long reductions = 0;
+
+        private Stats(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return the name of the class, or of the instance
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return the number of calls to propagate
+         */
+        public long calls() {
+            return calls;
+        }
+
+        /**
+         * @return the time spent propagating, in nanoseconds
+         */
+        public long timeNanos() {
+            return timeNanos;
+        }
+
+        /**
+         * @return the number of propagations that raised an {@link InconsistencyException}
+         */
+        public long failures() {
+            return failures;
+        }
+
+        /**
+         * @return the number of domain reductions achieved by the propagations
+         */
+        public long reductions() {
+            return reductions;
+        }
+
+        private void record(long time, long reduced, boolean failed) {
+            calls++;
+            timeNanos += time;
+            reductions += reduced;
+            if (failed)
+                failures++;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-60s %10d %12.3f %10d %12d", name, calls, timeNanos / 1e6, failures, reductions);
+        }
+    }
+
+    private record Entry(Stats instance, Stats clazz) {
+    }
+
+    private static final int MAX_INSTANCES_IN_DUMP = 10;
+
+    private final Map<Class<?>, Stats> classes = new HashMap<>();
+    private final IdentityHashMap<CPConstraint, Entry> instances = new IdentityHashMap<>();
+    private long reductions = 0;
+
+    /**
+     * Propagates a constraint and records its counters
+     *
+     * @param c the constraint to propagate
+     */
+    void propagate(CPConstraint c) {
+        Entry entry = instances.get(c);
+        if (entry == null) {
+            Stats clazz = classes.computeIfAbsent(c.getClass(), k -> new Stats(k.getName()));
+            entry = new Entry(new Stats(clazz.name() + "@" + Integer.toHexString(System.identityHashCode(c))), clazz);
+            instances.put(c, entry);
+        }
+        long reductions0 = reductions;
+        boolean failed = true;
+        long t0 = System.nanoTime();
+        try {
+            c.propagate();
+            c.updateDeltas();
+            failed = false;
+        } finally {
+            long time = System.nanoTime() - t0;
+            long reduced = reductions - reductions0;
+            entry.instance.record(time, reduced, failed);
+            entry.clazz.record(time, reduced, failed);
+        }
+    }
+
+    /**
+     * Counts a domain reduction, attributed to the constraint being propagated if any
+     */
+    void domainReduced() {
+        reductions++;
+    }
+
+    /**
+     * Returns the counters of each constraint class, by decreasing time
+     *
+     * @return the counters of the constraint classes that were propagated at least once
+     */
+    public List<Stats> byClass() {
+        return sorted(classes.values());
+    }
+
+    /**
+     * Returns the counters of each constraint instance, by decreasing time
+     *
+     * @return the counters of the constraints that were propagated at least once
+     */
+    public List<Stats> byInstance() {
+        List<Stats> stats = new ArrayList<>(instances.size());
+        for (Entry e : instances.values())
+            stats.add(e.instance);
+        return sorted(stats);
+    }
+
+    /**
+     * Returns the counters of a constraint class
+     *
+     * @param clazz the class of the constraints
+     * @return the counters of the class, null if no constraint of this class was propagated
+     */
+    public Stats get(Class<? extends CPConstraint> clazz) {
+        return classes.get(clazz);
+    }
+
+    /**
+     * Returns the counters of a constraint
+     *
+     * @param c the constraint
+     * @return the counters of the constraint, null if it was never propagated
+     */
+    public Stats get(CPConstraint c) {
+        Entry e = instances.get(c);
+        return e == null ? null : e.instance;
+    }
+
+    /**
+     * Resets all the counters
+     */
+    public void reset() {
+        classes.clear();
+        instances.clear();
+        reductions = 0;
+    }
+
+    private static List<Stats> sorted(Iterable<Stats> stats) {
+        List<Stats> list = new ArrayList<>();
+        stats.forEach(list::add);
+        list.sort(Comparator.comparingLong(Stats::timeNanos).reversed());
+        return list;
+    }
+
+    /**
+     * Returns a table of the counters of all the constraint classes,
+     * followed by the ones of the most expensive constraint instances
+     */
+    @Override
+    public String toString() {
+        String header = String.format("%-60s %10s %12s %10s %12s%n", "constraint", "calls", "time(ms)", "fails", "reductions");
+        StringBuilder sb = new StringBuilder();
+        sb.append(header);
+        for (Stats s : byClass())
+            sb.append(s).append('\n');
+        List<Stats> byInstance = byInstance();
+        sb.append(String.format("%ntop %d instances:%n", Math.min(MAX_INSTANCES_IN_DUMP, byInstance.size())));
+        sb.append(header);
+        for (Stats s : byInstance.subList(0, Math.min(MAX_INSTANCES_IN_DUMP, byInstance.size())))
+            sb.append(s).append('\n');
+        return sb.toString();
+    }
+}
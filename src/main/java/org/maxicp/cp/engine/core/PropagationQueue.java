@@ -0,0 +1,128 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of the constraints scheduled for propagation.
+ *
+ * Each priority has its own ring buffer, backed by an array whose capacity
+ * is a power of two, and a bitmask tracks the priorities having at least one constraint,
+ * such that {@link #isEmpty()} and {@link #poll()} do not scan the priorities.
+ * Nothing is allocated once the buffers are large enough.
+ *
+ * The queue also maintains an epoch, incremented by {@link #clear()}.
+ * A constraint enqueued in an earlier epoch is not scheduled any more,
+ * which resets the scheduled status of every enqueued constraint in O(1)
+ * (see {@link AbstractCPConstraint#isScheduled()}).
+ */
+public final class PropagationQueue {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CPConstraint[][] buffers;
+    private final int[] head; // position of the first constraint of each priority
+    private final int[] size; // number of constraints of each priority
+    private int nonEmpty = 0; // bit p is set iff some constraint of priority p is enqueued
+    private long epoch = 0;
+
+    /**
+     * Creates an empty queue
+     *
+     * @param nPriorities number of priorities, the priorities are in [0..nPriorities-1],
+     *                    0 being the one polled first
+     */
+    public PropagationQueue(int nPriorities) {
+        if (nPriorities < 1 || nPriorities > Integer.SIZE)
+            throw new IllegalArgumentException("the number of priorities must be in [1.." + Integer.SIZE + "]");
+        buffers = new CPConstraint[nPriorities][INITIAL_CAPACITY];
+        head = new int[nPriorities];
+        size = new int[nPriorities];
+    }
+
+    /**
+     * Enqueues a constraint
+     *
+     * @param c        the constraint
+     * @param priority its priority
+     */
+    public void add(CPConstraint c, int priority) {
+        CPConstraint[] buffer = buffers[priority];
+        int n = size[priority];
+        if (n == buffer.length)
+            buffer = grow(priority);
+        buffer[(head[priority] + n) & (buffer.length - 1)] = c;
+        size[priority] = n + 1;
+        nonEmpty |= 1 << priority;
+    }
+
+    /**
+     * Removes the oldest constraint with the smallest priority
+     *
+     * @return the removed constraint, null if the queue is empty
+     */
+    public CPConstraint poll() {
+        if (nonEmpty == 0)
+            return null;
+        int priority = Integer.numberOfTrailingZeros(nonEmpty);
+        CPConstraint[] buffer = buffers[priority];
+        int h = head[priority];
+        CPConstraint c = buffer[h];
+        buffer[h] = null;
+        if (--size[priority] == 0) {
+            head[priority] = 0;
+            nonEmpty &= ~(1 << priority);
+        } else {
+            head[priority] = (h + 1) & (buffer.length - 1);
+        }
+        return c;
+    }
+
+    public boolean isEmpty() {
+        return nonEmpty == 0;
+    }
+
+    public int size() {
+        int n = 0;
+        for (int s : size)
+            n += s;
+        return n;
+    }
+
+    /**
+     * Discards all the enqueued constraints and starts a new epoch.
+     * The buffers are not cleared: the discarded constraints are overwritten
+     * as new constraints are enqueued.
+     */
+    public void clear() {
+        Arrays.fill(head, 0);
+        Arrays.fill(size, 0);
+        nonEmpty = 0;
+        epoch++;
+    }
+
+    /**
+     * Returns the current epoch
+     *
+     * @return the number of calls to {@link #clear()}
+     */
+    public long epoch() {
+        return epoch;
+    }
+
+    private CPConstraint[] grow(int priority) {
+        CPConstraint[] buffer = buffers[priority];
+        CPConstraint[] larger = new CPConstraint[buffer.length * 2];
+        // unroll the ring buffer at the beginning of the new array
+        int h = head[priority];
+        System.arraycopy(buffer, h, larger, 0, buffer.length - h);
+        System.arraycopy(buffer, 0, larger, buffer.length - h, h);
+        head[priority] = 0;
+        buffers[priority] = larger;
+        return larger;
+    }
+}
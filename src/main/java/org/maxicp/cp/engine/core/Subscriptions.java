@@ -0,0 +1,115 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateManager;
+
+import java.util.Arrays;
+
+/**
+ * Constraints and demons subscribed to one event of a variable
+ * (e.g. the domain of an integer variable is reduced to a single value).
+ *
+ * The subscriptions are stored in flat arrays whose sizes are reversible integers,
+ * such that the subscriptions made below a saved state are discarded when it is restored.
+ * The arrays are never shrunk, the entries above the sizes being overwritten by the next subscriptions.
+ *
+ * When the event occurs, the constraints are scheduled for propagation while the demons are run immediately,
+ * without going through the propagation queue.
+ * A constraint subscribed several times in a row to the same event is only stored once,
+ * as a constraint usually makes all its subscriptions on a variable when it is posted.
+ * The check is thus done in constant time, other duplicates being harmless since a constraint is scheduled at most once.
+ */
+public final class Subscriptions {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final CPConstraint[] NO_CONSTRAINT = new CPConstraint[0];
+    private static final Runnable[] NO_DEMON = new Runnable[0];
+
+    private CPConstraint[] constraints = NO_CONSTRAINT;
+    private final StateInt nConstraints;
+    private Runnable[] demons = NO_DEMON;
+    private final StateInt nDemons;
+
+    public Subscriptions(StateManager sm) {
+        nConstraints = sm.makeStateInt(0);
+        nDemons = sm.makeStateInt(0);
+    }
+
+    /**
+     * Subscribes a constraint to the event, unless it is the last subscribed constraint.
+     *
+     * @param c the constraint to schedule when the event occurs
+     */
+    public void add(CPConstraint c) {
+        int n = nConstraints.value();
+        if (n > 0 && constraints[n - 1] == c)
+            return;
+        if (n == constraints.length)
+            constraints = Arrays.copyOf(constraints, Math.max(INITIAL_CAPACITY, n * 2));
+        constraints[n] = c;
+        nConstraints.setValue(n + 1);
+    }
+
+    /**
+     * Subscribes a demon to the event.
+     * A demon is run as soon as the event occurs, possibly in the middle of the propagation of a constraint,
+     * and possibly for a change that is later found to be inconsistent.
+     * It must thus not modify any domain, and is meant for light bookkeeping on reversible states.
+     *
+     * @param demon the closure to run when the event occurs
+     */
+    public void addDemon(Runnable demon) {
+        int n = nDemons.value();
+        if (n == demons.length)
+            demons = Arrays.copyOf(demons, Math.max(INITIAL_CAPACITY, n * 2));
+        demons[n] = demon;
+        nDemons.setValue(n + 1);
+    }
+
+    /**
+     * Runs the demons and schedules the constraints subscribed to the event
+     *
+     * @param cp the solver in which the constraints are scheduled
+     */
+    public void fire(CPSolver cp) {
+        int n = nDemons.value();
+        if (n > 0) {
+            Runnable[] demons = this.demons;
+            for (int i = 0; i < n; i++)
+                demons[i].run();
+        }
+        n = nConstraints.value();
+        CPConstraint[] constraints = this.constraints;
+        for (int i = 0; i < n; i++)
+            cp.schedule(constraints[i]);
+    }
+
+    /**
+     * @return the number of constraints subscribed to the event
+     */
+    public int size() {
+        return nConstraints.value();
+    }
+
+    /**
+     * @return the number of demons subscribed to the event
+     */
+    public int nDemons() {
+        return nDemons.value();
+    }
+
+    /**
+     * Returns a subscribed constraint
+     *
+     * @param i the index of the constraint, in {@code [0..size()-1]}
+     * @return the i-th subscribed constraint, by order of subscription
+     */
+    public CPConstraint get(int i) {
+        return constraints[i];
+    }
+}
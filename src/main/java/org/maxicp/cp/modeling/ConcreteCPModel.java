@@ -30,6 +30,7 @@ import org.maxicp.modeling.constraints.scheduling.Start;
 import org.maxicp.modeling.constraints.seqvar.*;
 import org.maxicp.modeling.symbolic.*;
 import org.maxicp.modeling.utils.EqHelper;
+import org.maxicp.search.DFSearch;
 import org.maxicp.search.IntObjective;
 import org.maxicp.state.State;
 import org.maxicp.state.StateManager;
@@ -37,10 +38,9 @@ import org.maxicp.state.StateMap;
 import org.maxicp.util.exception.NotImplementedException;
 import org.maxicp.util.exception.NotYetImplementedException;
 
-import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 public class ConcreteCPModel implements ConcreteModel {
@@ -56,6 +56,7 @@ public class ConcreteCPModel implements ConcreteModel {
 
     private boolean firstConstruction;
     private boolean disableFixPoint;
+    private SymbolicModel[] path = new SymbolicModel[16]; // nodes to instantiate when jumping
 
     /**
      * Temporarily disables the fix point while r is run, then run the fixpoint
@@ -462,33 +463,14 @@ public class ConcreteCPModel implements ConcreteModel {
 
     @Override
     public void jumpTo(SymbolicModel node, boolean enforceFixPoint) {
-        // Find the first node in common
-        HashSet<SymbolicModel> nodeCurrentlyPresent = new HashSet<>();
+        SymbolicModel firstCommonNode = SymbolicModel.lowestCommonAncestor(model.value(), node);
+        if (firstCommonNode == null || firstCommonNode.depth() < concretizedNode.depth())
+            throw new NotAChildModelException();
 
-        SymbolicModel cur = model.value();
-        while (cur != concretizedNode) {
-            nodeCurrentlyPresent.add(cur);
-            cur = cur.parent();
-        }
-        nodeCurrentlyPresent.add(cur);
-
-        cur = node;
-        while (cur != null && !nodeCurrentlyPresent.contains(cur)) {
-            cur = cur.parent();
-        }
-        SymbolicModel firstCommonNode = cur;
-
-        // Now list the nodes before this first common node
-        nodeCurrentlyPresent.clear();
-        cur = firstCommonNode;
-        while (cur != null) {
-            nodeCurrentlyPresent.add(cur);
-            cur = cur.parent();
-        }
-
-        // Now revert the solver until we are at a node below the first common node
+        // Revert the solver until we are at the first common node or above it,
+        // the current node being on the path from the concretized node to the first common node
         boolean hasJumped = false; // set to true if the solver has actually jumped (in case jumping to the current location)
-        while (!nodeCurrentlyPresent.contains(model.value())) {
+        while (model.value().depth() > firstCommonNode.depth()) {
             hasJumped = true;
             getStateManager().restoreState();
         }
@@ -496,18 +478,7 @@ public class ConcreteCPModel implements ConcreteModel {
             getStateManager().saveState();
 
         // We now just have to add constraints until we are at the right node
-        ArrayDeque<Constraint> needConcretization = new ArrayDeque<>();
-        cur = node;
-        while (cur != model.value()) {
-            needConcretization.addFirst(cur.constraint());
-            cur = cur.parent();
-        }
-
-        noFixPoint(() -> {
-            for (Constraint cln : needConcretization) {
-                instantiateConstraint(cln);
-            }
-        });
+        instantiatePath(node, model.value().depth());
         if (enforceFixPoint)
             solver.fixPoint();
 
@@ -517,23 +488,43 @@ public class ConcreteCPModel implements ConcreteModel {
     @Override
     public void jumpToChild(SymbolicModel m, boolean enforceFixPoint) {
         SymbolicModel me = model.value();
-        ArrayDeque<Constraint> todo = new ArrayDeque<>();
-        SymbolicModel child = m;
-        while (child != me) {
-            if (child.isEmpty())
-                throw new NotAChildModelException();
-            todo.addLast(child.constraint());
-            if (child.parent() == null)
-                throw new NotAChildModelException();
-            child = child.parent();
-        }
-        noFixPoint(() -> {
-            for (Constraint cln : todo) {
-                instantiateConstraint(cln);
-            }
-        });
+        SymbolicModel ancestor = m;
+        while (ancestor != null && ancestor.depth() > me.depth())
+            ancestor = ancestor.parent();
+        if (ancestor != me)
+            throw new NotAChildModelException();
+        instantiatePath(m, me.depth());
         if (enforceFixPoint)
             solver.fixPoint();
+
+        model.setValue(m);
+    }
+
+    /**
+     * Instantiates, without fix point, the constraints of the nodes on the path to a node,
+     * from the ancestor at a given depth (excluded) down to the node
+     *
+     * @param node  the last node of the path
+     * @param depth the depth of the ancestor of the node that is already instantiated
+     */
+    private void instantiatePath(SymbolicModel node, int depth) {
+        int n = node.depth() - depth;
+        if (n > path.length)
+            path = new SymbolicModel[Math.max(n, path.length * 2)];
+        SymbolicModel cur = node;
+        for (int i = n - 1; i >= 0; i--) {
+            path[i] = cur;
+            cur = cur.parent();
+        }
+        boolean oldVal = disableFixPoint;
+        disableFixPoint = true;
+        try {
+            for (int i = 0; i < n; i++)
+                instantiateConstraint(path[i].constraint());
+        } finally {
+            disableFixPoint = oldVal;
+            Arrays.fill(path, 0, n, null);
+        }
     }
 
     @Override
@@ -561,7 +552,11 @@ public class ConcreteCPModel implements ConcreteModel {
             case Eq e -> {
                 if (firstConstruction)
                     throw new RuntimeException("It should be impossible to post new Equal constraints while building");
-                post(new org.maxicp.cp.engine.constraints.Equal(getCPVar(e.a()), getCPVar(e.b())));
+                if (e.b() instanceof Constant c) {
+                    getCPVar(e.a()).fix(c.v());
+                    fixpoint();
+                } else
+                    post(new org.maxicp.cp.engine.constraints.Equal(getCPVar(e.a()), getCPVar(e.b())));
             }
             case And a -> {
                 for (BoolExpression e : a.exprs()) {
@@ -572,8 +567,22 @@ public class ConcreteCPModel implements ConcreteModel {
                 CPBoolVar b = getCPVar(e.a());
                 post(CPFactory.not(b));
             }
+            // the comparisons with a constant, typically the decisions replayed when jumping,
+            // are applied on the domain rather than creating a constant variable and a constraint
+            case NotEq e when e.b() instanceof Constant c -> {
+                getCPVar(e.a()).remove(c.v());
+                fixpoint();
+            }
             case NotEq e -> post(new org.maxicp.cp.engine.constraints.NotEqual(getCPVar(e.a()), getCPVar(e.b())));
+            case LessOrEq e when e.b() instanceof Constant c -> {
+                getCPVar(e.a()).removeAbove(c.v());
+                fixpoint();
+            }
             case LessOrEq e -> post(new org.maxicp.cp.engine.constraints.LessOrEqual(getCPVar(e.a()), getCPVar(e.b())));
+            case GreaterOrEq e when e.b() instanceof Constant c -> {
+                getCPVar(e.a()).removeBelow(c.v());
+                fixpoint();
+            }
             case GreaterOrEq e ->
                     post(new org.maxicp.cp.engine.constraints.LessOrEqual(getCPVar(e.b()), getCPVar(e.a())));
             case Or e ->
@@ -648,6 +657,12 @@ public class ConcreteCPModel implements ConcreteModel {
                 else
                     throw new NotYetImplementedException("Negative Table with stars is available in maxicp.cp but not yet implemented");
             }
+            case Regular r -> post(CPFactory.regular(getCPVar(r.x()), r.automaton()));
+            case MDD mdd -> post(CPFactory.mdd(getCPVar(mdd.x()), mdd.graph()));
+            case LexChain l -> {
+                CPIntVar[][] x = Arrays.stream(l.x()).map(this::getCPVar).toArray(CPIntVar[][]::new);
+                post(l.strict() ? CPFactory.lexChainLt(x) : CPFactory.lexChainLe(x));
+            }
             //-----------------------------------------
             case Circuit circuit -> {
                 post(new org.maxicp.cp.engine.constraints.Circuit(getCPVar(circuit.successor())));
@@ -688,6 +703,9 @@ public class ConcreteCPModel implements ConcreteModel {
                     case IntExpression iexpr -> enforceEqualityIntExpression(eqir.expr(), intExprMapping.get(iexpr));
                 }
             }
+            case org.maxicp.modeling.constraints.Cumulative cumulative -> {
+                post(CPFactory.cumulative(getCPVar(cumulative.start()), getCPVar(cumulative.duration()), getCPVar(cumulative.demand()), cumulative.capa()));
+            }
             case NoOverlap noOverlap -> {
                 solver.post(new org.maxicp.cp.engine.constraints.scheduling.NoOverlap(getCPVar(noOverlap.intervals())));
             }
@@ -756,4 +774,11 @@ public class ConcreteCPModel implements ConcreteModel {
     public StateManager getStateManager() {
         return solver.getStateManager();
     }
+
+    @Override
+    public DFSearch dfSearch(Supplier<Runnable[]> branching) {
+        DFSearch dfs = ConcreteModel.super.dfSearch(branching);
+        dfs.setPropagationProfile(solver::getProfiler);
+        return dfs;
+    }
 }
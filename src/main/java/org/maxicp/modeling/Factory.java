@@ -18,9 +18,12 @@ import org.maxicp.modeling.constraints.scheduling.AlwaysIn;
 import org.maxicp.modeling.constraints.scheduling.LessOrEqual;
 import org.maxicp.modeling.constraints.seqvar.*;
 import org.maxicp.modeling.symbolic.*;
+import org.maxicp.util.algo.Automaton;
+import org.maxicp.util.algo.LayeredGraph;
 
 import static org.maxicp.cp.CPFactory.makeIntervalVar;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 public final class Factory {
@@ -295,6 +298,34 @@ public final class Factory {
         return new NegTable(x, array, starred);
     }
 
+    public static Constraint regular(IntExpression[] x, Automaton automaton) {
+        return new Regular(x, automaton);
+    }
+
+    public static Constraint mdd(IntExpression[] x, LayeredGraph<?> graph) {
+        return new MDD(x, graph);
+    }
+
+    // ********************
+    // Lexicographic ordering constraints
+    // ********************
+
+    public static Constraint lexLe(IntExpression[] x, IntExpression[] y) {
+        return new LexChain(new IntExpression[][]{x, y}, false);
+    }
+
+    public static Constraint lexLt(IntExpression[] x, IntExpression[] y) {
+        return new LexChain(new IntExpression[][]{x, y}, true);
+    }
+
+    public static Constraint lexChainLe(IntExpression[]... x) {
+        return new LexChain(x, false);
+    }
+
+    public static Constraint lexChainLt(IntExpression[]... x) {
+        return new LexChain(x, true);
+    }
+
     // ********************
     // Sequence constraints
     // ********************
@@ -306,6 +337,13 @@ public final class Factory {
     // ********************
 
     public static Constraint cumulative(IntExpression[] start, int[] duration, int[] demand, int capa) {
+        ModelProxy modelProxy = start[0].getModelProxy();
+        IntExpression[] d = Arrays.stream(duration).mapToObj(v -> cst(modelProxy, v)).toArray(IntExpression[]::new);
+        IntExpression[] h = Arrays.stream(demand).mapToObj(v -> cst(modelProxy, v)).toArray(IntExpression[]::new);
+        return cumulative(start, d, h, capa);
+    }
+
+    public static Constraint cumulative(IntExpression[] start, IntExpression[] duration, IntExpression[] demand, int capa) {
         return new org.maxicp.modeling.constraints.Cumulative(start, duration, demand, capa);
     }
 
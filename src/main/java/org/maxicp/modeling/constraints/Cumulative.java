@@ -8,11 +8,11 @@ import org.maxicp.modeling.constraints.helpers.ConstraintFromRecord;
 import java.util.Arrays;
 import java.util.Collection;
 
-public record Cumulative(IntExpression[] start, int[] duration, int[] demand, int capa) implements ConstraintFromRecord, DecisionVarsProvider {
+public record Cumulative(IntExpression[] start, IntExpression[] duration, IntExpression[] demand, int capa) implements ConstraintFromRecord, DecisionVarsProvider {
 
     @Override
     public Collection<IntExpression> decisionVariables() {
-        // start times are the decisions; durations/demands/capa are constants
-        return Arrays.stream(start).filter(IntVar.class::isInstance).toList();
+        // start times are the decisions, as well as the durations and demands that are variables
+        return Arrays.stream(new IntExpression[][]{start, duration, demand}).flatMap(Arrays::stream).filter(IntVar.class::isInstance).toList();
     }
 }
@@ -0,0 +1,25 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.modeling.constraints;
+
+import org.maxicp.modeling.DecisionVarsProvider;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.constraints.helpers.CacheScope;
+import org.maxicp.modeling.constraints.helpers.ConstraintFromRecord;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The arrays of {@code x} are lexicographically ordered, strictly if {@code strict}
+ */
+public record LexChain(IntExpression[][] x, boolean strict) implements ConstraintFromRecord, CacheScope, DecisionVarsProvider {
+    @Override
+    public Collection<IntExpression> decisionVariables() {
+        return Arrays.stream(x).flatMap(Arrays::stream).filter(IntVar.class::isInstance).toList();
+    }
+}
@@ -0,0 +1,22 @@
+package org.maxicp.modeling.constraints;
+
+import org.maxicp.modeling.DecisionVarsProvider;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.constraints.helpers.CacheScope;
+import org.maxicp.modeling.constraints.helpers.ConstraintFromRecord;
+import org.maxicp.util.algo.LayeredGraph;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The sequence of values of {@code x} is the sequence of labels of a path
+ * from the first to the last layer of the graph, that has {@code x.length+1} layers
+ */
+public record MDD(IntExpression[] x, @ConstraintFromRecord.IgnoreScope LayeredGraph<?> graph) implements ConstraintFromRecord, CacheScope, DecisionVarsProvider {
+    @Override
+    public Collection<IntExpression> decisionVariables() {
+        return Arrays.stream(x).filter(IntVar.class::isInstance).toList();
+    }
+}
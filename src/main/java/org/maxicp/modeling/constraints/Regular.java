@@ -0,0 +1,21 @@
+package org.maxicp.modeling.constraints;
+
+import org.maxicp.modeling.DecisionVarsProvider;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.constraints.helpers.CacheScope;
+import org.maxicp.modeling.constraints.helpers.ConstraintFromRecord;
+import org.maxicp.util.algo.Automaton;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * The sequence of values of {@code x} is accepted by the automaton
+ */
+public record Regular(IntExpression[] x, @ConstraintFromRecord.IgnoreScope Automaton automaton) implements ConstraintFromRecord, CacheScope, DecisionVarsProvider {
+    @Override
+    public Collection<IntExpression> decisionVariables() {
+        return Arrays.stream(x).filter(IntVar.class::isInstance).toList();
+    }
+}
@@ -52,8 +52,8 @@ class ConstraintFromRecordHelper {
     }
 
     static ImmutableSet<Type> ignored = ImmutableSet.<Type>builder().add(
-            int.class, long.class, float.class, double.class, char.class, short.class,
-            Integer.class, Long.class, Float.class, Double.class, Character.class, Short.class, String.class,
+            int.class, long.class, float.class, double.class, char.class, short.class, boolean.class,
+            Integer.class, Long.class, Float.class, Double.class, Character.class, Short.class, Boolean.class, String.class,
             int[].class, long[].class, float[].class, double[].class, char[].class, short[].class, String[].class,
             int[][].class, long[][].class, float[][].class, double[][].class, char[][].class, short[][].class, String[][].class
     ).build();
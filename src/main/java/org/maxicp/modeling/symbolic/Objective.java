@@ -4,6 +4,22 @@ import org.maxicp.modeling.ModelProxy;
 
 public interface Objective {
     ModelProxy getModelProxy();
+
+    /**
+     * Returns an objective whose bound is shared by all the threads optimizing it,
+     * such as the workers of a parallel search
+     *
+     * @param obj the objective
+     * @return a {@link SharedMinimization} (resp. {@link SharedMaximization}) for a {@link Minimization}
+     *         (resp. {@link Maximization}), the objective itself otherwise
+     */
+    static Objective shared(Objective obj) {
+        return switch (obj) {
+            case Minimization m -> new SharedMinimization(m.expr());
+            case Maximization m -> new SharedMaximization(m.expr());
+            default -> obj;
+        };
+    }
 }
 
 ;
\ No newline at end of file
@@ -16,7 +16,17 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
-public record SymbolicModel(Constraint constraint, SymbolicModel parent, ModelProxy modelProxy, List<List<IntExpression>> variableGroups) implements Model, Iterable<Constraint> {
+/**
+ * Immutable node of a tree of models, each node adding a constraint to its parent.
+ *
+ * @param depth the number of ancestors of the node
+ */
+public record SymbolicModel(Constraint constraint, SymbolicModel parent, ModelProxy modelProxy, List<List<IntExpression>> variableGroups, int depth) implements Model, Iterable<Constraint> {
+
+    public SymbolicModel(Constraint constraint, SymbolicModel parent, ModelProxy modelProxy, List<List<IntExpression>> variableGroups) {
+        this(constraint, parent, modelProxy, variableGroups, parent == null ? 0 : parent.depth + 1);
+    }
+
     @Override
     public SymbolicModel symbolicCopy() {
         return this;
@@ -69,6 +79,27 @@ public record SymbolicModel(Constraint constraint, SymbolicModel parent, ModelPr
         };
     }
 
+    /**
+     * Returns the deepest node that is an ancestor of both models (or one of the models itself).
+     * The nodes are compared by identity.
+     *
+     * @param a a model
+     * @param b another model
+     * @return the lowest common ancestor of a and b, null if they are not in the same tree
+     */
+    public static SymbolicModel lowestCommonAncestor(SymbolicModel a, SymbolicModel b) {
+        while (a.depth > b.depth)
+            a = a.parent;
+        while (b.depth > a.depth)
+            b = b.parent;
+        // a and b have the same depth, their roots are reached together
+        while (a != b) {
+            a = a.parent;
+            b = b.parent;
+        }
+        return a;
+    }
+
     /**
      * Returns the SymbolicModels that would be created by branching on the constraints given in parameters
      */
@@ -14,6 +14,7 @@ import org.maxicp.search.DFSearch;
 import org.maxicp.search.FDSModeling;
 import org.maxicp.search.SearchStatistics;
 import org.maxicp.util.ImmutableSet;
+import org.maxicp.util.algo.Automaton;
 import org.maxicp.util.exception.NotImplementedException;
 import org.maxicp.util.exception.NotYetImplementedException;
 import org.xcsp.common.Condition;
@@ -127,6 +128,7 @@ public class XCSP3 extends XCallbacksDecomp {
     private final LinkedHashMap<String, IntExpression> varHashMap;
     private final LinkedHashSet<String> decisionVars;
     private final ModelDispatcher md;
+    private final HashMap<Automaton, Automaton> automata; // automata of the regular and mdd constraints
     private Objective objective;
 
     private final XCallbacks.Implem impl;
@@ -135,6 +137,7 @@ public class XCSP3 extends XCallbacksDecomp {
         varHashMap = new LinkedHashMap<>();
         decisionVars = new LinkedHashSet<>();
         md = Factory.makeModelDispatcher();
+        automata = new HashMap<>();
         objective = null;
 
         impl = new XCallbacks.Implem(this);
@@ -190,7 +193,30 @@ public class XCSP3 extends XCallbacksDecomp {
 
     @Override
     public void buildCtrLex(String id, XVariables.XVarInteger[] list, int[] limit, Types.TypeOperatorRel operator) {
-        unimplementedCase(id);
+        addToDV(list);
+        IntExpression[] l = Arrays.stream(limit).mapToObj(v -> Factory.cst(md, v)).toArray(IntExpression[]::new);
+        addLex(new IntExpression[][]{$(list), l}, operator);
+    }
+
+    @Override
+    public void buildCtrLex(String id, XVariables.XVarInteger[][] lists, Types.TypeOperatorRel operator) {
+        for (XVariables.XVarInteger[] list : lists)
+            addToDV(list);
+        addLex(Arrays.stream(lists).map(this::$).toArray(IntExpression[][]::new), operator);
+    }
+
+    private void addLex(IntExpression[][] lists, Types.TypeOperatorRel operator) {
+        if (operator == Types.TypeOperatorRel.GT || operator == Types.TypeOperatorRel.GE) {
+            // a decreasing chain is an increasing one in reverse order
+            IntExpression[][] reversed = new IntExpression[lists.length][];
+            for (int i = 0; i < lists.length; i++)
+                reversed[i] = lists[lists.length - 1 - i];
+            lists = reversed;
+        }
+        switch (operator) {
+            case LT, GT -> md.add(Factory.lexChainLt(lists));
+            case LE, GE -> md.add(Factory.lexChainLe(lists));
+        }
     }
 
     @Override
@@ -584,19 +610,29 @@ public class XCSP3 extends XCallbacksDecomp {
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, int[] lengths, int[] heights,
             Condition condition) {
+        addCumulative($(origins), cst(lengths), cst(heights), condition);
+    }
+
+    private void addCumulative(IntExpression[] origins, IntExpression[] lengths, IntExpression[] heights, Condition condition) {
         if (!(condition instanceof Condition.ConditionVal))
             throw new NotImplementedException("No support for variable capacities");
         int cap = (int) ((Condition.ConditionVal) condition).k;
-        md.add(new Cumulative($(origins), lengths, heights, cap));
+        md.add(Factory.cumulative(origins, lengths, heights, cap));
+    }
+
+    private IntExpression[] cst(int[] values) {
+        return Arrays.stream(values).mapToObj(v -> Factory.cst(md, v)).toArray(IntExpression[]::new);
+    }
+
+    private void addEnds(IntExpression[] origins, IntExpression[] lengths, IntExpression[] ends) {
+        for (int i = 0; i < origins.length; i++)
+            md.add(Factory.eq(Factory.plus(origins[i], lengths[i]), ends[i]));
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, int[] lengths,
             XVariables.XVarInteger[] ends, int[] heights, Condition condition) {
-        IntExpression[] $origins = $(origins);
-        IntExpression[] $ends = $(ends);
-        for (int i = 0; i < origins.length; i++)
-            md.add(Factory.eq(Factory.plus($origins[i], lengths[i]), $ends[i]));
+        addEnds($(origins), cst(lengths), $(ends));
         buildCtrCumulative(id, origins, lengths, heights, condition);
     }
 
@@ -733,10 +769,6 @@ public class XCSP3 extends XCallbacksDecomp {
      * CONSTRAINTS NOT IMPLEMENTED IN MAXICP
      */
 
-    public void buildCtrLex(String id, XVariables.XVarInteger[][] lists, Types.TypeOperatorRel operator) {
-        throw new NotImplementedException();
-    }
-
     public void buildCtrNotAllEqual(String id, XVariables.XVarInteger[] list) {
         throw new NotImplementedException();
     }
@@ -791,54 +823,97 @@ public class XCSP3 extends XCallbacksDecomp {
     @Override
     public void buildCtrRegular(String id, XVariables.XVarInteger[] list, Transition[] transitions, String startState,
             String[] finalStates) {
-        throw new NotImplementedException();
+        // the automaton may be non-deterministic, it is unrolled with one edge per transition
+        HashMap<String, Integer> states = new HashMap<>();
+        int initial = stateIndex(states, startState);
+        int[] finals = Arrays.stream(finalStates).mapToInt(s -> stateIndex(states, s)).toArray();
+        int[][] trans = automatonTransitions(states, transitions);
+        md.add(Factory.regular($(list), internAutomaton(new Automaton(states.size(), initial, finals, trans))));
     }
 
     @Override
     public void buildCtrMDD(String id, XVariables.XVarInteger[] list, Transition[] transitions) {
-        throw new NotImplementedException();
+        // the diagram is an acyclic automaton: its root is the only node without incoming transition,
+        // and its terminal node has no outgoing transition
+        HashMap<String, Integer> states = new HashMap<>();
+        int[][] trans = automatonTransitions(states, transitions);
+        boolean[] hasIn = new boolean[states.size()];
+        boolean[] hasOut = new boolean[states.size()];
+        for (int[] t : trans) {
+            hasOut[t[0]] = true;
+            hasIn[t[2]] = true;
+        }
+        int[] roots = IntStream.range(0, states.size()).filter(s -> !hasIn[s]).toArray();
+        if (roots.length != 1)
+            throw new NotImplementedException("MDD with " + roots.length + " roots");
+        int[] terminals = IntStream.range(0, states.size()).filter(s -> !hasOut[s]).toArray();
+        md.add(Factory.regular($(list), internAutomaton(new Automaton(states.size(), roots[0], terminals, trans))));
+    }
+
+    private static int stateIndex(HashMap<String, Integer> states, String state) {
+        return states.computeIfAbsent(state, k -> states.size());
+    }
+
+    private static int[][] automatonTransitions(HashMap<String, Integer> states, Transition[] transitions) {
+        int[][] trans = new int[transitions.length][];
+        for (int i = 0; i < transitions.length; i++) {
+            Transition t = transitions[i];
+            if (!(t.value instanceof Number symbol))
+                throw new NotImplementedException("Non integer symbol " + t.value + " in transition");
+            trans[i] = new int[]{stateIndex(states, t.start), Math.toIntExact(symbol.longValue()), stateIndex(states, t.end)};
+        }
+        return trans;
+    }
+
+    /**
+     * Returns an automaton equal to the given one if some constraint already uses one,
+     * such that its unrolling is shared by the constraints
+     */
+    private Automaton internAutomaton(Automaton automaton) {
+        return automata.computeIfAbsent(automaton, a -> a);
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, int[] lengths,
             XVariables.XVarInteger[] heights, Condition condition) {
-        // no support for variable heights
-        throw new NotImplementedException();
+        addToDV(heights);
+        addCumulative($(origins), cst(lengths), $(heights), condition);
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths,
             int[] heights, Condition condition) {
-        // no support for variable lengths
-        throw new NotImplementedException();
+        addToDV(lengths);
+        addCumulative($(origins), $(lengths), cst(heights), condition);
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths,
             XVariables.XVarInteger[] heights, Condition condition) {
-        // no support for variable lengths and heights
-        throw new NotImplementedException();
+        addToDV(lengths);
+        addToDV(heights);
+        addCumulative($(origins), $(lengths), $(heights), condition);
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, int[] lengths,
             XVariables.XVarInteger[] ends, XVariables.XVarInteger[] heights, Condition condition) {
-        // no support for variable heights
-        throw new NotImplementedException();
+        addEnds($(origins), cst(lengths), $(ends));
+        buildCtrCumulative(id, origins, lengths, heights, condition);
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths,
             XVariables.XVarInteger[] ends, int[] heights, Condition condition) {
-        // no support for variable lengths
-        throw new NotImplementedException();
+        addEnds($(origins), $(lengths), $(ends));
+        buildCtrCumulative(id, origins, lengths, heights, condition);
     }
 
     @Override
     public void buildCtrCumulative(String id, XVariables.XVarInteger[] origins, XVariables.XVarInteger[] lengths,
             XVariables.XVarInteger[] ends, XVariables.XVarInteger[] heights, Condition condition) {
-        // no support for variable lengths and heights
-        throw new NotImplementedException();
+        addEnds($(origins), $(lengths), $(ends));
+        buildCtrCumulative(id, origins, lengths, heights, condition);
     }
 
     @Override
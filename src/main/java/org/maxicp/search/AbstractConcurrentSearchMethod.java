@@ -102,6 +102,23 @@ public abstract class AbstractConcurrentSearchMethod extends AbstractSearchMetho
         return future;
     }
 
+    /**
+     * Answers the messages received while no solving process is running.
+     * There is no model to give away, so steal requests are answered with null.
+     *
+     * This function must be called on the thread that runs the solving processes of this search method,
+     * between two of them. It allows a thread waiting for some work to not block the threads trying to steal from it.
+     */
+    public void processQueueWhileIdle() {
+        while (!queue.isEmpty()) {
+            Message message = queue.poll();
+            switch (message) {
+                case StealMessage stealMessage -> stealMessage.future.complete(null);
+                case StopMessage stopMessage -> stopMessage.future.complete(null);
+            }
+        }
+    }
+
     private void processQueue() {
         while (!queue.isEmpty()) {
             Message message = queue.poll();
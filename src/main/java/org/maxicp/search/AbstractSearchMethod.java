@@ -8,6 +8,7 @@ package org.maxicp.search;
 import org.maxicp.cp.engine.core.CPIntVar;
 import org.maxicp.cp.engine.core.CPIntervalVar;
 import org.maxicp.cp.engine.core.CPVar;
+import org.maxicp.cp.engine.core.PropagationProfiler;
 import org.maxicp.modeling.concrete.ConcreteModel;
 import org.maxicp.state.State;
 import org.maxicp.state.StateManager;
@@ -33,12 +34,24 @@ public abstract class AbstractSearchMethod<T> implements SearchMethod {
 
     protected List<Consumer<SearchStatistics>> solutionListeners = new LinkedList<>();
     protected List<Consumer<SearchStatistics>> failureListeners = new LinkedList<>();
+    private Supplier<PropagationProfiler> propagationProfile = () -> null;
 
     public AbstractSearchMethod(StateManager sm, Supplier<T[]> branching) {
         this.sm = sm;
         this.branching = branching;
     }
 
+    /**
+     * Sets the provider of the propagation profile attached to the statistics
+     * at the end of each search, e.g. {@code cp::getProfiler}.
+     *
+     * @param propagationProfile supplies the profile, or null when there is none
+     * @see SearchStatistics#setPropagationProfile(PropagationProfiler)
+     */
+    public void setPropagationProfile(Supplier<PropagationProfiler> propagationProfile) {
+        this.propagationProfile = propagationProfile;
+    }
+
     /**
      * Adds a listener that is called on each solution.
      *
@@ -86,10 +99,37 @@ public abstract class AbstractSearchMethod<T> implements SearchMethod {
                 }
             }
         });
+        statistics.setPropagationProfile(propagationProfile.get());
         return statistics;
     }
 
 
+    /**
+     * Explores the subtree of the node reached by executing a closure,
+     * accumulating into the given statistics.
+     * Unlike {@link #solve(Predicate)}, the statistics are neither reset nor marked as completed,
+     * such that they can be shared by several explorations,
+     * e.g. all the subproblems solved by a worker of a parallel search.
+     * The state is restored afterward, even if the closure fails.
+     *
+     * @param subjectTo   the closure reaching the root of the subtree
+     * @param statistics  the statistics to update
+     * @param limit       a predicate called at each node that stops the exploration when it becomes true
+     * @param onNodeVisit a closure to execute at each node visit, including the root of the subtree
+     * @throws InconsistencyException if the closure or the visit of the root of the subtree fails
+     */
+    protected void exploreSubtree(Runnable subjectTo, SearchStatistics statistics, Predicate<SearchStatistics> limit, Runnable onNodeVisit) {
+        sm.withNewState(() -> {
+            subjectTo.run();
+            onNodeVisit.run();
+            try {
+                startSolve(statistics, limit, onNodeVisit);
+            } catch (StopSearchException ignored) {
+
+            }
+        });
+    }
+
     /**
      * Start the solving process
      *
@@ -9,73 +9,281 @@ import org.maxicp.modeling.ModelProxy;
 import org.maxicp.modeling.symbolic.SymbolicModel;
 import org.maxicp.util.exception.InconsistencyException;
 
-import java.util.PriorityQueue;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+/**
+ * Best-first search: the open node with the smallest evaluation is expanded first,
+ * the state of a node being recomputed from its symbolic model with {@link org.maxicp.modeling.concrete.ConcreteModel#jumpTo}.
+ *
+ * Variants bounding the memory can be configured:
+ * <ul>
+ *     <li>{@link #setMaxOpenNodes(int)} bounds the number of open nodes. When it is exceeded,
+ *     the worst open nodes are forgotten as in SMA*: the parent of a forgotten node is kept open with the
+ *     best evaluation of its forgotten children, and regenerates them when it is expanded again.
+ *     The search remains complete, provided that the branching is deterministic.</li>
+ *     <li>{@link #setBeamWidth(int)} turns the search into a beam search, expanding the tree level by level
+ *     and keeping only the best nodes of each level. The search is then incomplete.</li>
+ *     <li>{@link #setMaxDiscrepancy(int)} prunes the nodes whose discrepancy exceeds a limit,
+ *     the discrepancy being defined as in {@link LimitedDiscrepancyBranching}.</li>
+ * </ul>
+ *
+ * @param <T> the type of the evaluation of the nodes
+ */
 public class BestFirstSearch<T extends Comparable<T>> extends RunnableSearchMethod {
-    private Supplier<T> nodeEvaluator;
-    private ModelProxy modelProxy;
-    private PriorityQueue<PQEntry<T>> pq = new PriorityQueue<>();
+    private final Supplier<T> nodeEvaluator;
+    private final ModelProxy modelProxy;
+    private final TreeSet<Node<T>> open = new TreeSet<>();
+    private final TreeSet<Node<T>> nextLevel = new TreeSet<>(); // children of the current level in a beam search
+    private long nCreated = 0;
+
+    private int maxOpenNodes = Integer.MAX_VALUE;
+    private int beamWidth = 0;
+    private int maxDiscrepancy = Integer.MAX_VALUE;
+
+    private static final class Node<T extends Comparable<T>> implements Comparable<Node<T>> {
+        T order;
+        long id; // breaks the remaining ties by order of creation, or of reopening
+        final SymbolicModel m;
+        final Node<T> parent;
+        final int index; // index of the branch leading to this node
+        final int depth;
+        final int discrepancy;
+        boolean expanded = false;
+        int nLiveChildren = 0; // children that are open or whose subtree is being explored
+        int nExpandedChildren = 0;
+        BitSet forgotten; // indices of the forgotten children, null if the node is not open for them
+
+        Node(T order, long id, SymbolicModel m, Node<T> parent, int index, int discrepancy) {
+            this.order = order;
+            this.id = id;
+            this.m = m;
+            this.parent = parent;
+            this.index = index;
+            this.depth = parent == null ? 0 : parent.depth + 1;
+            this.discrepancy = discrepancy;
+        }
 
-    record PQEntry<T extends Comparable<T>>(T order, SymbolicModel m) implements Comparable<PQEntry<T>> {
         @Override
-        public int compareTo(PQEntry<T> o) {
-            return this.order.compareTo(o.order);
+        public int compareTo(Node<T> o) {
+            // on ties, the deepest nodes are expanded first and forgotten last
+            int cmp = order.compareTo(o.order);
+            if (cmp != 0)
+                return cmp;
+            return depth != o.depth ? Integer.compare(o.depth, depth) : Long.compare(id, o.id);
         }
     }
 
-    // TODO best first search with limited number of opened nodes
     public BestFirstSearch(ModelProxy modelProxy, Supplier<Runnable[]> branching, Supplier<T> nodeEvaluator) {
         super(modelProxy.getConcreteModel().getStateManager(), branching);
         this.modelProxy = modelProxy;
         this.nodeEvaluator = nodeEvaluator;
     }
 
+    /**
+     * Bounds the number of open nodes, the worst ones being forgotten and recomputed later from their parent
+     *
+     * @param maxOpenNodes the maximum number of open nodes, at least 1
+     * @return this search
+     */
+    public BestFirstSearch<T> setMaxOpenNodes(int maxOpenNodes) {
+        if (maxOpenNodes < 1) throw new IllegalArgumentException("max open nodes should be >= 1");
+        this.maxOpenNodes = maxOpenNodes;
+        return this;
+    }
+
+    /**
+     * Explores the tree level by level, keeping only the best nodes of each level
+     *
+     * @param beamWidth the number of nodes kept at each level, 0 for a best-first search
+     * @return this search
+     */
+    public BestFirstSearch<T> setBeamWidth(int beamWidth) {
+        if (beamWidth < 0) throw new IllegalArgumentException("beam width should be >= 0");
+        this.beamWidth = beamWidth;
+        return this;
+    }
+
+    /**
+     * Prunes the nodes whose discrepancy exceeds a limit
+     *
+     * @param maxDiscrepancy the maximum discrepancy of a node
+     * @return this search
+     */
+    public BestFirstSearch<T> setMaxDiscrepancy(int maxDiscrepancy) {
+        if (maxDiscrepancy < 0) throw new IllegalArgumentException("max discrepancy should be >= 0");
+        this.maxDiscrepancy = maxDiscrepancy;
+        return this;
+    }
+
     @Override
     protected void startSolve(SearchStatistics statistics, Predicate<SearchStatistics> limit, Runnable onNodeVisit) {
-        pq.clear();
-        pq.add(new PQEntry<>(nodeEvaluator.get(), modelProxy.getModel().symbolicCopy()));
+        open.clear();
+        nextLevel.clear();
+        nCreated = 0;
+        open.add(new Node<>(nodeEvaluator.get(), nCreated++, modelProxy.getModel().symbolicCopy(), null, 0, 0));
 
-        while (!pq.isEmpty()) {
+        while (!open.isEmpty()) {
             if (limit.test(statistics))
                 throw new StopSearchException();
 
-            SymbolicModel m = pq.poll().m;
+            Node<T> node = open.pollFirst();
             statistics.incrNodes();
+            if (!node.expanded && node.parent != null)
+                node.parent.nExpandedChildren++;
+            node.expanded = true;
+            BitSet toRegenerate = node.forgotten;
+            node.forgotten = null;
 
             sm.saveState();
             try {
                 // jumpTo will perform restore operations until it finds the common ancestor
-                modelProxy.getConcreteModel().jumpTo(m);
+                modelProxy.getConcreteModel().jumpTo(node.m);
+                Runnable[] alts = branching.get();
+                if (alts.length == 0) {
+                    statistics.incrSolutions();
+                    notifySolution(statistics);
+                } else {
+                    for (int i = 0; i < alts.length; i++) {
+                        if (toRegenerate != null && !toRegenerate.get(i))
+                            continue;
+                        int discrepancy = node.discrepancy + i;
+                        if (discrepancy > maxDiscrepancy)
+                            break;
+                        sm.saveState();
+                        try {
+                            onNodeVisit.run();
+                            alts[i].run();
+                            T order = nodeEvaluator.get();
+                            if (toRegenerate != null && order.compareTo(node.order) < 0)
+                                order = node.order; // not better than the backed-up value, such that the search progresses
+                            insert(new Node<>(order, nCreated++, modelProxy.getModel().symbolicCopy(), node, i, discrepancy));
+                        } catch (InconsistencyException e) {
+                            statistics.incrFailures();
+                            notifyFailure(statistics);
+                        }
+                        sm.restoreState();
+                    }
+                }
             } catch (InconsistencyException e) {
                 sm.restoreState();
-                continue;
             }
+            if (node.nLiveChildren == 0 && node.forgotten == null)
+                close(node);
+            if (open.isEmpty() && !nextLevel.isEmpty()) {
+                open.addAll(nextLevel);
+                nextLevel.clear();
+            }
+        }
+    }
 
-            Runnable[] alts = branching.get();
-
-            if (alts.length == 0) {
-                statistics.incrSolutions();
-                notifySolution(statistics);
-            } else {
-                for (Runnable b : alts) {
-                    sm.saveState();
-                    try {
-                        onNodeVisit.run();
-                        b.run();
-                        pq.add(new PQEntry<>(nodeEvaluator.get(), modelProxy.getModel().symbolicCopy()));
-                    } catch (InconsistencyException e) {
-                        statistics.incrFailures();
-                        notifyFailure(statistics);
-                    }
-                    sm.restoreState();
-                }
+    private void insert(Node<T> child) {
+        child.parent.nLiveChildren++;
+        if (beamWidth > 0) {
+            nextLevel.add(child);
+            if (nextLevel.size() > beamWidth)
+                close(nextLevel.pollLast());
+        } else {
+            open.add(child);
+            while (open.size() > maxOpenNodes) {
+                if (!forgetWorst(child.parent))
+                    break; // the limit is exceeded until the next expansions
             }
         }
     }
 
+    // the subtree of the node is explored, or discarded
+    private void close(Node<T> node) {
+        Node<T> p = node.parent;
+        while (p != null) {
+            p.nLiveChildren--;
+            if (p.nLiveChildren > 0 || p.forgotten != null || !p.expanded)
+                return;
+            p = p.parent;
+        }
+    }
+
+    /**
+     * Forgets the worst open node that can be recomputed from its parent.
+     * A node can be forgotten if none of its children was expanded.
+     * The children of the node being expanded are kept, otherwise it could be expanded again immediately.
+     *
+     * @param expanding the node being expanded
+     * @return true if a node was forgotten
+     */
+    private boolean forgetWorst(Node<T> expanding) {
+        Iterator<Node<T>> it = open.descendingIterator();
+        while (it.hasNext()) {
+            Node<T> node = it.next();
+            if (node.parent != null && node.parent != expanding && node.nLiveChildren == 0 && node.nExpandedChildren == 0) {
+                it.remove();
+                forget(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void forget(Node<T> node) {
+        Node<T> p = node.parent;
+        p.nLiveChildren--;
+        if (node.expanded)
+            p.nExpandedChildren--; // it is recomputed entirely, having no expanded child
+        if (p.forgotten == null) {
+            // the parent is open again, with the backed-up value of its forgotten children,
+            // after the open nodes having the same value such that they are expanded first
+            p.forgotten = new BitSet();
+            p.order = node.order;
+            p.id = nCreated++;
+            open.add(p);
+        } else if (node.order.compareTo(p.order) < 0) {
+            open.remove(p);
+            p.order = node.order;
+            p.id = nCreated++;
+            open.add(p);
+        }
+        p.forgotten.set(node.index);
+    }
+
+    /**
+     * Returns the models of the open nodes, typically when the search was stopped by a limit.
+     * The forgotten nodes are recomputed from their parents.
+     *
+     * @return the models whose subtrees are not explored yet
+     */
     public SymbolicModel[] getUnexploredModels() {
-        return pq.stream().map(x -> x.m).toArray(SymbolicModel[]::new);
+        List<SymbolicModel> models = new ArrayList<>();
+        for (TreeSet<Node<T>> nodes : List.of(open, nextLevel)) {
+            for (Node<T> node : nodes) {
+                if (node.forgotten == null)
+                    models.add(node.m);
+                else
+                    sm.withNewState(() -> regenerate(node, models));
+            }
+        }
+        return models.toArray(SymbolicModel[]::new);
+    }
+
+    private void regenerate(Node<T> node, List<SymbolicModel> models) {
+        try {
+            modelProxy.getConcreteModel().jumpTo(node.m);
+        } catch (InconsistencyException e) {
+            return;
+        }
+        Runnable[] alts = branching.get();
+        for (int i = node.forgotten.nextSetBit(0); i >= 0 && i < alts.length; i = node.forgotten.nextSetBit(i + 1)) {
+            sm.saveState();
+            try {
+                alts[i].run();
+                models.add(modelProxy.getModel().symbolicCopy());
+            } catch (InconsistencyException ignored) {
+            }
+            sm.restoreState();
+        }
     }
 }
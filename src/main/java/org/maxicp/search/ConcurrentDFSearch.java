@@ -100,9 +100,31 @@ public class ConcurrentDFSearch extends AbstractConcurrentSearchMethod {
         }
     }
 
+    /**
+     * Removes the oldest unexplored model, at the bottom of the stack of alternatives.
+     * It is the closest one to the root and therefore the one with the largest subtree.
+     *
+     * Only restore markers can precede it. If the model was pushed together with
+     * a save and a restore (i.e. it is not the last child of its parent),
+     * those are removed too, to keep the save/restore operations balanced.
+     */
     @Override
     protected SymbolicModel extractModel() {
-        //SymbolicModel firstNode = alternatives.removeFirst();
-        return null;
+        int nRestore = 0;
+        SymbolicModel stolen = null;
+        while (stolen == null && !alternatives.isEmpty()) {
+            switch (alternatives.removeFirst()) {
+                case Restore() -> nRestore++;
+                case SymbolicModelToRun(SymbolicModel m) -> stolen = m;
+                case Save() -> throw new IllegalStateException("a save cannot precede an unexplored model");
+            }
+        }
+        if (stolen != null && !alternatives.isEmpty() && alternatives.getFirst() instanceof Save) {
+            alternatives.removeFirst();
+            nRestore--;
+        }
+        for (int i = 0; i < nRestore; i++)
+            alternatives.addFirst(restore);
+        return stolen;
     }
 }
@@ -0,0 +1,95 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.maxicp.cp.engine.constraints.NogoodStore;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.engine.core.Explanations;
+import org.maxicp.cp.engine.core.Literal;
+import org.maxicp.state.StateManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listener of a {@link DFSearch} that learns a nogood from each failure raised by an explaining propagator
+ * (see {@link Explanations#analyze()}) and adds it to a {@link NogoodStore}, such that the other branches
+ * of the search cannot fail again for the same reason.
+ *
+ * A nogood is learnt when the failing node is left, and is propagated at the next fix point.
+ * The learnt nogoods are implied by the explaining propagators, that are created at the state
+ * at which the explanations were enabled (see {@link Explanations#forPropagator}).
+ */
+public class ConflictLearner implements DFSListener {
+
+    private final NogoodStore store;
+    private final Explanations explanations;
+    private final StateManager sm;
+    private final List<Literal[]> pending = new ArrayList<>();
+    private int failureLevel = -1;
+    private int nLearnt = 0;
+
+    /**
+     * Creates a learner and posts its nogood store
+     *
+     * @param cp the solver, whose explanations are enabled
+     */
+    public ConflictLearner(CPSolver cp) {
+        this.explanations = cp.getExplanations();
+        if (explanations == null)
+            throw new IllegalStateException("the explanations of the solver are not enabled");
+        this.sm = cp.getStateManager();
+        this.store = new NogoodStore(cp);
+        cp.post(store);
+    }
+
+    /**
+     * Returns the number of nogoods learnt so far
+     *
+     * @return the number of nogoods added to the store
+     */
+    public int numberOfNogoods() {
+        return nLearnt;
+    }
+
+    @Override
+    public void fail(int id, int pId) {
+        Literal[] nogood = explanations.analyze();
+        if (nogood != null && nogood.length > 0) {
+            pending.add(nogood);
+            failureLevel = sm.getLevel();
+        }
+    }
+
+    @Override
+    public void saveState(StateManager sm) {
+        flush(sm);
+    }
+
+    @Override
+    public void restoreState(StateManager sm) {
+        // notified before the state is restored
+        flush(sm);
+    }
+
+    @Override
+    public void clear() {
+        flushPending();
+    }
+
+    // the nogoods are added once the failing node is restored, as they hold all the literals of the node
+    private void flush(StateManager sm) {
+        if (!pending.isEmpty() && sm.getLevel() < failureLevel)
+            flushPending();
+    }
+
+    private void flushPending() {
+        for (Literal[] nogood : pending)
+            store.learn(nogood);
+        nLearnt += pending.size();
+        pending.clear();
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.maxicp.cp.modeling.CPModelInstantiator;
+import org.maxicp.modeling.ModelProxyInstantiator;
+import org.maxicp.modeling.SymbolicBranching;
+import org.maxicp.modeling.concrete.ConcreteModel;
+import org.maxicp.modeling.symbolic.SymbolicModel;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Embarrassingly Parallel Search (EPS).
+ *
+ * The search tree is first decomposed by applying the branching breadth-first
+ * up to a given depth. The nodes at this depth that survive the propagation
+ * are the subproblems, as immutable {@link SymbolicModel}.
+ * They are then solved independently by a pool of workers, each one with its own
+ * concrete model instantiated once from the root and a {@link DFSearch}.
+ * The only synchronization between the workers is the (atomic) selection of their next subproblem
+ * and, when optimizing, the shared bound.
+ *
+ * See <i>Embarrassingly Parallel Search</i>, Régin, Rezgui and Malapert, CP 2013.
+ */
+public class EmbarrassinglyParallelSearch {
+
+    private final ModelProxyInstantiator baseModel;
+    private final ModelProxyInstantiator.ModelInstantiator<? extends ConcreteModel> instantiator;
+    private final Supplier<Runnable[]> branching;
+    private final int nWorkers;
+    private final int depth;
+    private final List<Consumer<SearchStatistics>> solutionListeners = new LinkedList<>();
+
+    private SymbolicModel[] subproblems = new SymbolicModel[0];
+    private SearchStatistics decompositionStatistics = new SearchStatistics();
+    private SearchStatistics[] workerStatistics = new SearchStatistics[0];
+    private volatile boolean stop;
+
+    /**
+     * Creates an Embarrassingly Parallel Search
+     *
+     * @param baseModel    the model proxy holding the (symbolic) model to solve
+     * @param instantiator instantiates the concrete model of the decomposition and of each worker
+     * @param nWorkers     the number of workers, each running in its own thread
+     * @param depth        the depth at which the search tree is decomposed into subproblems
+     * @param branching    the branching, used both for the decomposition and by the workers
+     */
+    public EmbarrassinglyParallelSearch(ModelProxyInstantiator baseModel,
+                                        ModelProxyInstantiator.ModelInstantiator<? extends ConcreteModel> instantiator,
+                                        int nWorkers,
+                                        int depth,
+                                        Supplier<Runnable[]> branching) {
+        if (nWorkers < 1) throw new IllegalArgumentException("at least one worker is needed");
+        if (depth < 0) throw new IllegalArgumentException("the depth of the decomposition cannot be negative");
+        this.baseModel = baseModel;
+        this.instantiator = instantiator;
+        this.nWorkers = nWorkers;
+        this.depth = depth;
+        this.branching = branching;
+    }
+
+    /**
+     * Creates an Embarrassingly Parallel Search where each worker uses a CP solver with trailing
+     *
+     * @param baseModel the model proxy holding the (symbolic) model to solve
+     * @param nWorkers  the number of workers, each running in its own thread
+     * @param depth     the depth at which the search tree is decomposed into subproblems
+     * @param branching the branching, used both for the decomposition and by the workers
+     */
+    public EmbarrassinglyParallelSearch(ModelProxyInstantiator baseModel, int nWorkers, int depth, Supplier<Runnable[]> branching) {
+        this(baseModel, CPModelInstantiator.withTrailing, nWorkers, depth, branching);
+    }
+
+    /**
+     * Adds a listener that is called on each solution.
+     * It is called in the thread of the worker that found the solution,
+     * with the statistics of this worker, and never concurrently with another solution listener.
+     *
+     * @param listener the closure to be called whenever a solution is found
+     */
+    public void onSolution(Consumer<SearchStatistics> listener) {
+        solutionListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener that is called on each solution.
+     *
+     * @param listener the closure to be called whenever a solution is found
+     * @see #onSolution(Consumer)
+     */
+    public void onSolution(Runnable listener) {
+        onSolution(s -> listener.run());
+    }
+
+    /**
+     * Solves all the subproblems
+     *
+     * @return the statistics of the decomposition merged with the ones of all the workers
+     */
+    public SearchStatistics solve() {
+        return solve(s -> false);
+    }
+
+    /**
+     * Solves the subproblems until the limit is reached by one of the workers
+     *
+     * @param limit a predicate called at each node with the statistics of the worker visiting it.
+     *              The whole search stops as soon as it becomes true for one worker.
+     * @return the statistics of the decomposition merged with the ones of all the workers
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        return run(null, limit);
+    }
+
+    /**
+     * Starts a branch and bound where the subproblems are solved in parallel
+     *
+     * @param obj the objective to optimize. If it is not shared yet, it is turned into
+     *            a shared objective so that all the workers prune with the best bound found
+     * @return the statistics of the decomposition merged with the ones of all the workers
+     */
+    public SearchStatistics optimize(org.maxicp.modeling.symbolic.Objective obj) {
+        return optimize(obj, s -> false);
+    }
+
+    /**
+     * Starts a branch and bound where the subproblems are solved in parallel
+     *
+     * @param obj   the objective to optimize. If it is not shared yet, it is turned into
+     *              a shared objective so that all the workers prune with the best bound found
+     * @param limit a predicate called at each node with the statistics of the worker visiting it.
+     *              The whole search stops as soon as it becomes true for one worker.
+     * @return the statistics of the decomposition merged with the ones of all the workers
+     */
+    public SearchStatistics optimize(org.maxicp.modeling.symbolic.Objective obj, Predicate<SearchStatistics> limit) {
+        return run(org.maxicp.modeling.symbolic.Objective.shared(obj), limit);
+    }
+
+    /**
+     * Subproblems generated by the last decomposition
+     *
+     * @return the subproblems
+     */
+    public SymbolicModel[] getSubproblems() {
+        return subproblems;
+    }
+
+    /**
+     * Statistics of the last decomposition
+     *
+     * @return the nodes and failures encountered while decomposing the problem
+     */
+    public SearchStatistics decompositionStatistics() {
+        return decompositionStatistics;
+    }
+
+    /**
+     * Statistics of the last resolution of the subproblems, one per worker
+     *
+     * @return the statistics of each worker
+     */
+    public SearchStatistics[] workerStatistics() {
+        return workerStatistics;
+    }
+
+    /**
+     * Decomposes the problem into subproblems, by applying the branching breadth-first up to the depth of the decomposition.
+     * Nodes without any alternative before this depth are kept as subproblems.
+     * The subproblems that are proven infeasible by the propagation are discarded.
+     *
+     * @param root the node to decompose
+     * @return the subproblems
+     */
+    public SymbolicModel[] decompose(SymbolicModel root) {
+        decompositionStatistics = new SearchStatistics();
+        ConcreteModel cm;
+        try {
+            cm = instantiator.instantiate(root);
+        } catch (InconsistencyException e) {
+            decompositionStatistics.incrFailures();
+            subproblems = new SymbolicModel[0];
+            return subproblems;
+        }
+        Supplier<SymbolicModel[]> symbolicBranching = SymbolicBranching.toSymbolicBranching(branching, baseModel);
+        subproblems = baseModel.runWithModel(cm, () -> {
+            List<SymbolicModel> frontier = List.of(root);
+            for (int d = 0; d < depth; d++) {
+                List<SymbolicModel> next = new ArrayList<>();
+                for (SymbolicModel m : frontier) {
+                    try {
+                        cm.getStateManager().withNewState(() -> {
+                            cm.jumpTo(m);
+                            SymbolicModel[] alternatives = symbolicBranching.get();
+                            if (alternatives.length == 0) {
+                                next.add(m);
+                            } else {
+                                // as in a depth-first search, a node is counted for each alternative taken
+                                for (SymbolicModel child : alternatives) {
+                                    decompositionStatistics.incrNodes();
+                                    next.add(child);
+                                }
+                            }
+                        });
+                    } catch (InconsistencyException e) {
+                        decompositionStatistics.incrFailures();
+                    }
+                }
+                frontier = next;
+            }
+            // the last level has not been propagated yet
+            List<SymbolicModel> feasible = new ArrayList<>(frontier.size());
+            for (SymbolicModel m : frontier) {
+                try {
+                    cm.getStateManager().withNewState(() -> cm.jumpTo(m));
+                    feasible.add(m);
+                } catch (InconsistencyException e) {
+                    decompositionStatistics.incrFailures();
+                }
+            }
+            return feasible.toArray(new SymbolicModel[0]);
+        });
+        return subproblems;
+    }
+
+    private SearchStatistics run(org.maxicp.modeling.symbolic.Objective obj, Predicate<SearchStatistics> limit) {
+        long t0 = System.currentTimeMillis();
+        stop = false;
+        SymbolicModel root = baseModel.getSymbolicModel();
+        SymbolicModel[] todo = decompose(root);
+        AtomicInteger next = new AtomicInteger(0);
+        workerStatistics = new SearchStatistics[nWorkers];
+        for (int i = 0; i < nWorkers; i++)
+            workerStatistics[i] = new SearchStatistics();
+
+        ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        List<Future<?>> futures = new LinkedList<>();
+        for (int i = 0; i < nWorkers; i++) {
+            SearchStatistics statistics = workerStatistics[i];
+            futures.add(executor.submit(() -> {
+                if (next.get() >= todo.length)
+                    return;
+                ConcreteModel cm = instantiator.instantiate(root);
+                baseModel.runWithModel(cm, () -> solveSubproblems(cm, todo, next, statistics, obj, limit));
+            }));
+        }
+        try {
+            for (Future<?> f : futures)
+                f.get();
+        } catch (InterruptedException e) {
+            stop = true;
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            stop = true;
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SearchStatistics statistics = new SearchStatistics();
+        statistics.merge(decompositionStatistics);
+        for (SearchStatistics s : workerStatistics)
+            statistics.merge(s);
+        if (!stop) // the limit was never reached
+            statistics.setCompleted();
+        statistics.setTimeInMillis(System.currentTimeMillis() - t0);
+        return statistics;
+    }
+
+    private void solveSubproblems(ConcreteModel cm, SymbolicModel[] todo, AtomicInteger next, SearchStatistics statistics,
+                                  org.maxicp.modeling.symbolic.Objective obj, Predicate<SearchStatistics> limit) {
+        DFSearch dfs = cm.dfSearch(branching);
+        dfs.onSolution(stats -> {
+            synchronized (this) {
+                solutionListeners.forEach(l -> l.accept(stats));
+            }
+        });
+        Runnable onNodeVisit = () -> {};
+        if (obj != null) {
+            Objective objective = cm.createObjective(obj);
+            dfs.onSolution(stats -> objective.tighten());
+            onNodeVisit = objective::filter;
+        }
+        Predicate<SearchStatistics> stopCondition = stats -> {
+            if (!stop && limit.test(stats))
+                stop = true;
+            return stop;
+        };
+        int i;
+        while (!stop && (i = next.getAndIncrement()) < todo.length) {
+            SymbolicModel m = todo[i];
+            try {
+                dfs.exploreSubtree(() -> cm.jumpTo(m), statistics, stopCondition, onNodeVisit);
+            } catch (InconsistencyException e) {
+                statistics.incrFailures();
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ package org.maxicp.search;
 import org.maxicp.cp.engine.core.CPIntervalVar;
 import org.maxicp.cp.engine.core.CPSolver;
 import org.maxicp.state.StateManager;
+import org.maxicp.util.collections.IntDoubleHashMap;
 import org.maxicp.util.exception.InconsistencyException;
 
 import java.util.*;
@@ -152,7 +153,10 @@ public class FDS implements Supplier<Runnable[]> {
     private final double alpha;
 
     /** Average rating per depth level, used for normalization. */
-    private final Map<Integer, double[]> avgRatingByDepth; // [0]=avg, [1]=count
+    private final IntDoubleHashMap avgRatingByDepth;
+
+    /** Number of ratings per depth level, for the incremental average. */
+    private final IntDoubleHashMap ratingCountByDepth;
 
     /** All choices generated for this search. */
     private final List<Choice> allChoices;
@@ -182,7 +186,8 @@ public class FDS implements Supplier<Runnable[]> {
         this.sm = cp.getStateManager();
         this.alpha = alpha;
         this.baseLevel = sm.getLevel();
-        this.avgRatingByDepth = new HashMap<>();
+        this.avgRatingByDepth = new IntDoubleHashMap();
+        this.ratingCountByDepth = new IntDoubleHashMap();
         this.allChoices = new ArrayList<>();
 
         generateInitialChoices();
@@ -259,14 +264,6 @@ public class FDS implements Supplier<Runnable[]> {
         return Math.max(0, sm.getLevel() - baseLevel);
     }
 
-    /**
-     * Get the average rating structure for a given depth.
-     * Returns a double[2] where [0] = running average, [1] = count.
-     */
-    private double[] getAvgRating(int depth) {
-        return avgRatingByDepth.computeIfAbsent(depth, k -> new double[]{1.0, 0.0});
-    }
-
     /**
      * Compute the search space size estimate R for the given intervals.
      * R = product(domainSize_after / domainSize_before) over all variables.
@@ -324,8 +321,8 @@ public class FDS implements Supplier<Runnable[]> {
         double localRating = failed ? 0.0 : 1.0 + R;
 
         int d = currentDepth();
-        double[] avg = getAvgRating(d);
-        double avgVal = avg[0] > 0 ? avg[0] : 1.0;
+        double avg = avgRatingByDepth.get(d, 1.0);
+        double avgVal = avg > 0 ? avg : 1.0;
         double normalizedRating = localRating / avgVal;
 
         // Update the branch rating with exponential decay
@@ -336,8 +333,8 @@ public class FDS implements Supplier<Runnable[]> {
         }
 
         // Update average rating for this depth (incremental mean)
-        avg[1] += 1.0;
-        avg[0] += (localRating - avg[0]) / avg[1];
+        double count = ratingCountByDepth.addTo(d, 1.0);
+        avgRatingByDepth.put(d, avg + (localRating - avg) / count);
     }
 
     /**
@@ -375,7 +372,8 @@ public class FDS implements Supplier<Runnable[]> {
         Choice bestChoice = null;
         double bestRating = Double.MAX_VALUE;
 
-        for (Choice c : allChoices) {
+        for (int i = 0; i < allChoices.size(); i++) {
+            Choice c = allChoices.get(i);
             CPIntervalVar var = intervals[c.varIndex];
             if (c.isWaiting(var) || c.isResolved(var)) {
                 continue;
@@ -441,7 +439,6 @@ public class FDS implements Supplier<Runnable[]> {
                 updateRating(choice, isPositive, true, 0);
                 throw e;
             }
-            long[] domAfter = snapshotDomainSizes();
             double R = computeSearchSpaceReduction(domBefore);
             updateRating(choice, isPositive, false, R);
         };
@@ -9,6 +9,7 @@ import org.maxicp.modeling.IntervalVar;
 import org.maxicp.modeling.ModelProxy;
 import org.maxicp.modeling.algebra.integer.IntExpression;
 import org.maxicp.state.StateManager;
+import org.maxicp.util.collections.IntDoubleHashMap;
 import org.maxicp.util.exception.InconsistencyException;
 
 import java.util.*;
@@ -160,7 +161,10 @@ public class FDSModeling implements Supplier<Runnable[]> {
     private final double alpha;
 
     /** Average rating per depth level, used for normalization. */
-    private final Map<Integer, double[]> avgRatingByDepth; // [0]=avg, [1]=count
+    private final IntDoubleHashMap avgRatingByDepth;
+
+    /** Number of ratings per depth level, for the incremental average. */
+    private final IntDoubleHashMap ratingCountByDepth;
 
     /** All choices generated for this search. */
     private final List<Choice> allChoices;
@@ -222,7 +226,8 @@ public class FDSModeling implements Supplier<Runnable[]> {
         this.sm = model.getConcreteModel().getStateManager();
         this.alpha = alpha;
         this.baseLevel = sm.getLevel();
-        this.avgRatingByDepth = new HashMap<>();
+        this.avgRatingByDepth = new IntDoubleHashMap();
+        this.ratingCountByDepth = new IntDoubleHashMap();
         this.allChoices = new ArrayList<>();
 
         generateInitialChoices();
@@ -323,14 +328,6 @@ public class FDSModeling implements Supplier<Runnable[]> {
         return Math.max(0, sm.getLevel() - baseLevel);
     }
 
-    /**
-     * Get the average rating structure for a given depth.
-     * Returns a double[2] where [0] = running average, [1] = count.
-     */
-    private double[] getAvgRating(int depth) {
-        return avgRatingByDepth.computeIfAbsent(depth, k -> new double[]{1.0, 0.0});
-    }
-
     /**
      * Estimate domain size for an interval variable.
      */
@@ -400,8 +397,8 @@ public class FDSModeling implements Supplier<Runnable[]> {
         double localRating = failed ? 0.0 : 1.0 + R;
 
         int d = currentDepth();
-        double[] avg = getAvgRating(d);
-        double avgVal = avg[0] > 0 ? avg[0] : 1.0;
+        double avg = avgRatingByDepth.get(d, 1.0);
+        double avgVal = avg > 0 ? avg : 1.0;
         double normalizedRating = localRating / avgVal;
 
         // Update the branch rating with exponential decay
@@ -412,8 +409,8 @@ public class FDSModeling implements Supplier<Runnable[]> {
         }
 
         // Update average rating for this depth (incremental mean)
-        avg[1] += 1.0;
-        avg[0] += (localRating - avg[0]) / avg[1];
+        double count = ratingCountByDepth.addTo(d, 1.0);
+        avgRatingByDepth.put(d, avg + (localRating - avg) / count);
     }
 
     /**
@@ -454,7 +451,8 @@ public class FDSModeling implements Supplier<Runnable[]> {
         Choice bestChoice = null;
         double bestRating = Double.MAX_VALUE;
 
-        for (Choice c : allChoices) {
+        for (int i = 0; i < allChoices.size(); i++) {
+            Choice c = allChoices.get(i);
             if (c.type == ChoiceType.INT) {
                 IntExpression x = intExpressions[c.varIndex];
                 if (x.isFixed() || x.max() <= c.splitValue || x.min() > c.splitValue) {
@@ -511,17 +509,27 @@ public class FDSModeling implements Supplier<Runnable[]> {
      * @return a Runnable that applies the branch
      */
     private Runnable makeBranch(Choice choice, boolean isPositive) {
+        if (choice.type == ChoiceType.INT) {
+            // the branch is exposed as a decision, such that the search can learn from it
+            IntDecision.Relation relation = isPositive ? IntDecision.Relation.LE : IntDecision.Relation.GT;
+            return new IntDecision(intExpressions[choice.varIndex], relation, choice.splitValue) {
+                @Override
+                public void run() {
+                    long[] domBefore = snapshotDomainSizes();
+                    try {
+                        super.run();
+                    } catch (InconsistencyException e) {
+                        updateRating(choice, isPositive, true, 0);
+                        throw e;
+                    }
+                    updateRating(choice, isPositive, false, computeSearchSpaceReduction(domBefore));
+                }
+            };
+        }
         return () -> {
             long[] domBefore = snapshotDomainSizes();
             try {
-                if (choice.type == ChoiceType.INT) {
-                    IntExpression x = intExpressions[choice.varIndex];
-                    if (isPositive) {
-                        model.add(le(x, choice.splitValue));
-                    } else {
-                        model.add(lt(choice.splitValue, x));
-                    }
-                } else if (isPositive) {
+                if (isPositive) {
                     choice.applyPositive(intervals[choice.varIndex], model);
                 } else {
                     choice.applyNegative(intervals[choice.varIndex], model);
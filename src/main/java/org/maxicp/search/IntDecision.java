@@ -0,0 +1,125 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.maxicp.modeling.algebra.bool.BoolExpression;
+import org.maxicp.modeling.algebra.bool.Eq;
+import org.maxicp.modeling.algebra.bool.NotEq;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+
+import static org.maxicp.modeling.Factory.gt;
+import static org.maxicp.modeling.Factory.le;
+
+/**
+ * A branching decision that compares an integer expression with a value,
+ * e.g. {@code x == 3} on the left branch and {@code x != 3} on the right one.
+ *
+ * Running the decision adds the comparison to the model of the expression.
+ * Contrary to an arbitrary closure, the decision can be inspected,
+ * such that the search can learn from the branches it explored
+ * (see {@link NogoodRecorder}).
+ * The class can be extended to do some bookkeeping around the branch, as long as {@link #run()}
+ * still adds the comparison.
+ */
+public class IntDecision implements Runnable {
+
+    /**
+     * Comparison between the expression and the value of a decision
+     */
+    public enum Relation {
+        EQ, NEQ, LE, GT;
+
+        /**
+         * @return the relation holding iff this one does not hold
+         */
+        public Relation negation() {
+            return switch (this) {
+                case EQ -> NEQ;
+                case NEQ -> EQ;
+                case LE -> GT;
+                case GT -> LE;
+            };
+        }
+
+        /**
+         * Checks if the relation holds
+         *
+         * @param x     the left-hand side
+         * @param value the right-hand side
+         * @return true iff {@code x rel value}
+         */
+        public boolean holds(int x, int value) {
+            return switch (this) {
+                case EQ -> x == value;
+                case NEQ -> x != value;
+                case LE -> x <= value;
+                case GT -> x > value;
+            };
+        }
+    }
+
+    public final IntExpression x;
+    public final Relation relation;
+    public final int value;
+
+    /**
+     * Creates the decision {@code x relation value}
+     *
+     * @param x        the expression on which the decision is taken
+     * @param relation the comparison
+     * @param value    the value compared with the expression
+     */
+    public IntDecision(IntExpression x, Relation relation, int value) {
+        this.x = x;
+        this.relation = relation;
+        this.value = value;
+    }
+
+    /**
+     * @return the comparison as a constraint of the model
+     */
+    public BoolExpression constraint() {
+        return switch (relation) {
+            case EQ -> new Eq(x, value);
+            case NEQ -> new NotEq(x, value);
+            case LE -> le(x, value);
+            case GT -> gt(x, value);
+        };
+    }
+
+    /**
+     * @return the decision taken on the other branch of a binary choice
+     */
+    public IntDecision negation() {
+        return new IntDecision(x, relation.negation(), value);
+    }
+
+    /**
+     * Checks if this decision and another one are the two branches of a binary choice
+     *
+     * @param other the other decision
+     * @return true iff exactly one of the two decisions holds for any value of the expression
+     */
+    public boolean isNegationOf(IntDecision other) {
+        return x == other.x && value == other.value && relation == other.relation.negation();
+    }
+
+    @Override
+    public void run() {
+        x.getModelProxy().add(constraint());
+    }
+
+    @Override
+    public String toString() {
+        String op = switch (relation) {
+            case EQ -> "==";
+            case NEQ -> "!=";
+            case LE -> "<=";
+            case GT -> ">";
+        };
+        return x + op + value;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.maxicp.state.StateManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Listener of a {@link DFSearch} that follows the branch being explored,
+ * in order to extract the nogoods learnt by the search when it is stopped,
+ * typically before a restart.
+ *
+ * The nogoods are the reduced nld-nogoods of
+ * <i>Lecoutre, C., Sais, L., Tabary, S., &amp; Vidal, V. (2007). Recording and minimizing nogoods from restarts.</i>
+ * Each time the branch takes the right decision {@code !d} of a binary choice,
+ * the left subtree has been fully explored, such that the left decisions taken above,
+ * together with {@code d}, form a nogood unless a solution was found in this subtree.
+ * The right decisions taken above can be removed from this nogood, each one being itself
+ * the negation of a refuted left decision.
+ *
+ * Only the choices whose branches are {@link IntDecision}s can be learnt from:
+ * a binary choice is recognized when its second branch is the negation of its first one,
+ * the other decisions are kept in the nogoods extracted below them, and no nogood is extracted
+ * below a branch that is not an {@link IntDecision}.
+ */
+public class NogoodRecorder implements DFSListener {
+
+    private Runnable[] first = new Runnable[16]; // first branch of the choice at each depth
+    private Runnable[] taken = new Runnable[16]; // branch taken at each depth
+    private int[] nVisited = new int[16]; // number of branches visited at each depth
+    private boolean[] solutionInFirst = new boolean[16]; // solution found below the first branch at each depth
+    private int depth = 0;
+
+    @Override
+    public void clear() {
+        depth = 0;
+        Arrays.fill(nVisited, 0);
+        Arrays.fill(solutionInFirst, false);
+        Arrays.fill(taken, null);
+        Arrays.fill(first, null);
+    }
+
+    @Override
+    public void saveState(StateManager sm) {
+        depth++;
+        if (depth == taken.length) {
+            first = Arrays.copyOf(first, depth * 2);
+            taken = Arrays.copyOf(taken, depth * 2);
+            nVisited = Arrays.copyOf(nVisited, depth * 2);
+            solutionInFirst = Arrays.copyOf(solutionInFirst, depth * 2);
+        }
+        taken[depth] = null;
+        nVisited[depth]++;
+    }
+
+    @Override
+    public void restoreState(StateManager sm) {
+        depth--;
+    }
+
+    @Override
+    public void branchingAction(Runnable action) {
+        taken[depth] = action;
+        if (nVisited[depth] == 1)
+            first[depth] = action;
+        // the children of this new node are not visited yet
+        if (depth + 1 < nVisited.length) {
+            nVisited[depth + 1] = 0;
+            solutionInFirst[depth + 1] = false;
+        }
+    }
+
+    @Override
+    public void solution(int id, int pId) {
+        for (int d = 1; d <= depth; d++) {
+            if (nVisited[d] == 1)
+                solutionInFirst[d] = true;
+        }
+    }
+
+    /**
+     * Returns the decisions taken on the branch being explored.
+     *
+     * @return the decisions from the root, a {@code null} entry
+     *         standing for a branch that is not an {@link IntDecision}
+     */
+    public IntDecision[] branch() {
+        List<IntDecision> decisions = new ArrayList<>();
+        for (int d = 1; d <= depth && taken[d] != null; d++)
+            decisions.add(taken[d] instanceof IntDecision decision ? decision : null);
+        return decisions.toArray(new IntDecision[0]);
+    }
+
+    /**
+     * Extracts the reduced nld-nogoods of the branch being explored.
+     *
+     * @return the nogoods, each one being a set of decisions that cannot hold together,
+     *         by increasing number of decisions
+     */
+    public List<IntDecision[]> nogoods() {
+        List<IntDecision[]> nogoods = new ArrayList<>();
+        List<IntDecision> positives = new ArrayList<>();
+        for (int d = 1; d <= depth && taken[d] != null; d++) {
+            if (nVisited[d] == 2 && !solutionInFirst[d] && first[d] instanceof IntDecision left
+                    && taken[d] instanceof IntDecision right && right.isNegationOf(left)) {
+                IntDecision[] nogood = positives.toArray(new IntDecision[positives.size() + 1]);
+                nogood[positives.size()] = left;
+                nogoods.add(nogood);
+            } else if (taken[d] instanceof IntDecision decision) {
+                positives.add(decision);
+            } else {
+                break;
+            }
+        }
+        return nogoods;
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.maxicp.cp.modeling.CPModelInstantiator;
+import org.maxicp.modeling.ModelProxyInstantiator;
+import org.maxicp.modeling.concrete.ConcreteModel;
+import org.maxicp.modeling.symbolic.SharedMaximization;
+import org.maxicp.modeling.symbolic.SharedMinimization;
+import org.maxicp.modeling.symbolic.SymbolicModel;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Parallel depth-first search based on work-stealing.
+ *
+ * Each worker runs in its own thread, with its own concrete model instantiated
+ * from the current symbolic model of the {@link ModelProxyInstantiator}
+ * (the current model of a {@link org.maxicp.ModelDispatcher} is thread-local),
+ * and explores its part of the tree with a {@link ConcurrentDFSearch}.
+ * A worker without work steals the oldest unexplored node of a random victim,
+ * i.e. the one closest to the root, and replays it with {@link ConcreteModel#jumpTo(SymbolicModel)}.
+ *
+ * When optimizing, the bound is shared by all the workers through a
+ * {@link SharedMinimization} or a {@link SharedMaximization},
+ * such that every worker prunes with the best solution found so far.
+ *
+ * The branching and the listeners are called concurrently by the workers:
+ * the branching must only rely on the model proxy to access the variables,
+ * and the solution listeners are called one at a time.
+ */
+public class ParallelDFSearch {
+
+    private final ModelProxyInstantiator baseModel;
+    private final ModelProxyInstantiator.ModelInstantiator<? extends ConcreteModel> instantiator;
+    private final Supplier<SymbolicModel[]> branching;
+    private final int nWorkers;
+    private final List<Consumer<SearchStatistics>> solutionListeners = new LinkedList<>();
+
+    // number of workers holding some work, including the models being handed to a thief
+    private AtomicInteger busy;
+    private volatile boolean stop;
+    private Worker[] workers;
+
+    /**
+     * Creates a parallel depth-first search
+     *
+     * @param baseModel    the model proxy holding the (symbolic) model to solve
+     * @param instantiator instantiates the concrete model of each worker
+     * @param nWorkers     the number of workers, each running in its own thread
+     * @param branching    the symbolic branching, evaluated in the thread of each worker
+     */
+    public ParallelDFSearch(ModelProxyInstantiator baseModel,
+                            ModelProxyInstantiator.ModelInstantiator<? extends ConcreteModel> instantiator,
+                            int nWorkers,
+                            Supplier<SymbolicModel[]> branching) {
+        if (nWorkers < 1) throw new IllegalArgumentException("at least one worker is needed");
+        this.baseModel = baseModel;
+        this.instantiator = instantiator;
+        this.nWorkers = nWorkers;
+        this.branching = branching;
+    }
+
+    /**
+     * Creates a parallel depth-first search where each worker uses a CP solver with trailing
+     *
+     * @param baseModel the model proxy holding the (symbolic) model to solve
+     * @param nWorkers  the number of workers, each running in its own thread
+     * @param branching the symbolic branching, evaluated in the thread of each worker
+     */
+    public ParallelDFSearch(ModelProxyInstantiator baseModel, int nWorkers, Supplier<SymbolicModel[]> branching) {
+        this(baseModel, CPModelInstantiator.withTrailing, nWorkers, branching);
+    }
+
+    /**
+     * Adds a listener that is called on each solution.
+     * It is called in the thread of the worker that found the solution,
+     * with the statistics of this worker, and never concurrently with another solution listener.
+     * When optimizing, a worker may report a solution that does not improve the one just found by
+     * another worker, if it did not yet prune with the new bound.
+     *
+     * @param listener the closure to be called whenever a solution is found
+     */
+    public void onSolution(Consumer<SearchStatistics> listener) {
+        solutionListeners.add(listener);
+    }
+
+    /**
+     * Adds a listener that is called on each solution.
+     *
+     * @param listener the closure to be called whenever a solution is found
+     * @see #onSolution(Consumer)
+     */
+    public void onSolution(Runnable listener) {
+        onSolution(s -> listener.run());
+    }
+
+    /**
+     * Explores the whole search tree
+     *
+     * @return the statistics merged over all the workers
+     */
+    public SearchStatistics solve() {
+        return solve(s -> false);
+    }
+
+    /**
+     * Explores the search tree until the limit is reached by one of the workers
+     *
+     * @param limit a predicate called at each node with the statistics of the worker visiting it.
+     *              The whole search stops as soon as it becomes true for one worker.
+     * @return the statistics merged over all the workers
+     */
+    public SearchStatistics solve(Predicate<SearchStatistics> limit) {
+        return run(null, limit);
+    }
+
+    /**
+     * Starts a branch and bound parallel search
+     *
+     * @param obj the objective to optimize. If it is not shared yet, it is turned into
+     *            a shared objective so that all the workers prune with the best bound found
+     * @return the statistics merged over all the workers
+     */
+    public SearchStatistics optimize(org.maxicp.modeling.symbolic.Objective obj) {
+        return optimize(obj, s -> false);
+    }
+
+    /**
+     * Starts a branch and bound parallel search
+     *
+     * @param obj   the objective to optimize. If it is not shared yet, it is turned into
+     *              a shared objective so that all the workers prune with the best bound found
+     * @param limit a predicate called at each node with the statistics of the worker visiting it.
+     *              The whole search stops as soon as it becomes true for one worker.
+     * @return the statistics merged over all the workers
+     */
+    public SearchStatistics optimize(org.maxicp.modeling.symbolic.Objective obj, Predicate<SearchStatistics> limit) {
+        return run(org.maxicp.modeling.symbolic.Objective.shared(obj), limit);
+    }
+
+    private SearchStatistics run(org.maxicp.modeling.symbolic.Objective obj, Predicate<SearchStatistics> limit) {
+        long t0 = System.currentTimeMillis();
+        SymbolicModel root = baseModel.getSymbolicModel();
+        busy = new AtomicInteger(1); // the root is given to the first worker
+        stop = false;
+        workers = new Worker[nWorkers];
+        for (int i = 0; i < nWorkers; i++)
+            workers[i] = new Worker(i);
+        CountDownLatch ready = new CountDownLatch(nWorkers);
+
+        ExecutorService executor = Executors.newFixedThreadPool(nWorkers);
+        List<Future<?>> futures = new LinkedList<>();
+        for (Worker w : workers) {
+            futures.add(executor.submit(() -> {
+                try {
+                    ConcreteModel cm = instantiator.instantiate(root);
+                    baseModel.runWithModel(cm, () -> w.run(cm, root, obj, limit, ready));
+                } catch (InconsistencyException e) {
+                    // the root itself is infeasible
+                    w.prepared(null, ready);
+                    if (w.id == 0)
+                        busy.decrementAndGet();
+                } catch (Throwable t) {
+                    stop = true;
+                    w.prepared(null, ready);
+                    throw t;
+                }
+            }));
+        }
+        try {
+            for (Future<?> f : futures)
+                f.get();
+        } catch (InterruptedException e) {
+            stop = true;
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SearchStatistics statistics = new SearchStatistics();
+        for (Worker w : workers)
+            statistics.merge(w.statistics);
+        if (!stop) // the limit was never reached
+            statistics.setCompleted();
+        statistics.setTimeInMillis(System.currentTimeMillis() - t0);
+        return statistics;
+    }
+
+    /**
+     * Statistics of the last search, one per worker
+     *
+     * @return the statistics of each worker
+     */
+    public SearchStatistics[] workerStatistics() {
+        SearchStatistics[] stats = new SearchStatistics[nWorkers];
+        for (int i = 0; i < nWorkers; i++)
+            stats[i] = workers[i].statistics;
+        return stats;
+    }
+
+    private class Worker {
+        final int id;
+        final SearchStatistics statistics = new SearchStatistics();
+        final Random random;
+        volatile ConcurrentDFSearch search;
+
+        Worker(int id) {
+            this.id = id;
+            this.random = new Random(id);
+        }
+
+        void prepared(ConcurrentDFSearch search, CountDownLatch ready) {
+            this.search = search;
+            ready.countDown();
+        }
+
+        void run(ConcreteModel cm, SymbolicModel root, org.maxicp.modeling.symbolic.Objective obj, Predicate<SearchStatistics> limit, CountDownLatch ready) {
+            ConcurrentDFSearch s = new ConcurrentDFSearch(baseModel, branching) {
+                @Override
+                protected SymbolicModel extractModel() {
+                    SymbolicModel m = super.extractModel();
+                    if (m != null) // the thief is counted as busy before receiving the model
+                        busy.incrementAndGet();
+                    return m;
+                }
+            };
+            s.onSolution(stats -> {
+                synchronized (ParallelDFSearch.this) {
+                    solutionListeners.forEach(l -> l.accept(stats));
+                }
+            });
+            Runnable onNodeVisit = () -> {};
+            if (obj != null) {
+                Objective objective = cm.createObjective(obj);
+                s.onSolution(stats -> objective.tighten());
+                onNodeVisit = objective::filter;
+            }
+            Predicate<SearchStatistics> stopCondition = stats -> {
+                if (stop)
+                    return true;
+                if (limit.test(stats))
+                    stop = true;
+                return stop;
+            };
+            prepared(s, ready);
+            try {
+                ready.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            SymbolicModel work = id == 0 ? root : null;
+            while (!stop) {
+                if (work != null) {
+                    try {
+                        if (work != root)
+                            statistics.incrNodes();
+                        SymbolicModel node = work;
+                        s.exploreSubtree(() -> cm.jumpTo(node), statistics, stopCondition, onNodeVisit);
+                    } catch (InconsistencyException e) {
+                        statistics.incrFailures();
+                    } finally {
+                        busy.decrementAndGet();
+                    }
+                }
+                work = steal(s);
+                if (work == null && busy.get() == 0)
+                    break;
+            }
+        }
+
+        /**
+         * Tries to steal a model from a random victim.
+         * While waiting for the answer, the requests received by this worker are answered.
+         *
+         * @return the stolen model, null if none could be obtained
+         */
+        private SymbolicModel steal(ConcurrentDFSearch own) {
+            own.processQueueWhileIdle();
+            if (nWorkers == 1)
+                return null;
+            int victimId = random.nextInt(nWorkers - 1);
+            if (victimId >= id)
+                victimId++;
+            ConcurrentDFSearch victim = workers[victimId].search;
+            if (victim == null)
+                return null;
+            Future<SymbolicModel> future = victim.steal();
+            while (!future.isDone()) {
+                // no worker has any work left, nor is handing some, the victim will never give a model
+                if (stop || busy.get() == 0)
+                    return null;
+                own.processQueueWhileIdle();
+                Thread.onSpinWait();
+            }
+            try {
+                return future.get();
+            } catch (InterruptedException | ExecutionException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@
 
 package org.maxicp.search;
 
+import org.maxicp.cp.engine.core.PropagationProfiler;
+
 import java.util.Objects;
 
 /**
@@ -20,13 +22,15 @@ public class SearchStatistics {
     private int nSolutions = 0;
     private boolean completed = false;
     private long timeInMillis = 0;
+    private PropagationProfiler propagationProfile = null;
 
     public String toString() {
         return "\n\t#choice: " + nNodes
                 + "\n\t#fail: " + nFailures
                 + "\n\t#sols : " + nSolutions
                 + "\n\tcompleted : " + completed
-                + "\n\ttime(ms) : " + timeInMillis + "\n";
+                + "\n\ttime(ms) : " + timeInMillis + "\n"
+                + (propagationProfile == null ? "" : "\tpropagation profile:\n" + propagationProfile);
     }
 
     public void incrFailures() {
@@ -61,6 +65,36 @@ public class SearchStatistics {
         return completed;
     }
 
+    /**
+     * Adds the number of nodes, failures and solutions of another
+     * search to this one, e.g. to merge the statistics of parallel workers.
+     * The completion status and the time are left unchanged.
+     *
+     * @param other the statistics to add
+     */
+    public void merge(SearchStatistics other) {
+        nFailures += other.nFailures;
+        nNodes += other.nNodes;
+        nSolutions += other.nSolutions;
+    }
+
+    /**
+     * Attaches the profile of the propagations made during the search,
+     * that is then dumped by {@link #toString()}
+     *
+     * @param propagationProfile the profile, null if none
+     */
+    public void setPropagationProfile(PropagationProfiler propagationProfile) {
+        this.propagationProfile = propagationProfile;
+    }
+
+    /**
+     * @return the profile of the propagations made during the search, null if none was attached
+     */
+    public PropagationProfiler propagationProfile() {
+        return propagationProfile;
+    }
+
     public void setTimeInMillis(long timeInMillis) {
         this.timeInMillis = timeInMillis;
     }
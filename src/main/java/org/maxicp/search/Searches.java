@@ -181,10 +181,9 @@ public final class Searches {
             if (xs == null)
                 return EMPTY;
             else {
-                ModelProxy model = xs.getModelProxy();
                 int v = xs.min();
-                return branch(() -> model.add(new Eq(xs, v)),
-                        () -> model.add(new NotEq(xs, v)));
+                return branch(new IntDecision(xs, IntDecision.Relation.EQ, v),
+                        new IntDecision(xs, IntDecision.Relation.NEQ, v));
             }
         };
     }
@@ -206,10 +205,9 @@ public final class Searches {
             if (xs == null)
                 return EMPTY;
             else {
-                ModelProxy model = xs.getModelProxy();
                 int v = valueSelector.apply(xs);
-                return branch(() -> model.add(new Eq(xs, v)),
-                        () -> model.add(new NotEq(xs, v)));
+                return branch(new IntDecision(xs, IntDecision.Relation.EQ, v),
+                        new IntDecision(xs, IntDecision.Relation.NEQ, v));
             }
         };
     }
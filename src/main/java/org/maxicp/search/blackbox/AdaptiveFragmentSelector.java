@@ -0,0 +1,138 @@
+package org.maxicp.search.blackbox;
+
+import org.maxicp.util.collections.IntArrayList;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Adaptive LNS: chooses the fragment selector, or destroy operator, of each restart with a
+ * multi-armed bandit whose rewards are learnt online from the outcome of the restarts,
+ * as in Ropke, S., &amp; Pisinger, D. (2006). An adaptive large neighborhood search heuristic for the
+ * pickup and delivery problem with time windows. Transportation Science.
+ *
+ * <p>A restart finding an improving solution has a reward of 1, the other ones a reward of 0.
+ * The operator is either drawn with a roulette wheel over weights smoothing the rewards of the
+ * operator, or chosen as the one with the best upper confidence bound (UCB1) on its mean reward.
+ * The feedback of a restart is also given to the operator used, for the adaptive ones.</p>
+ */
+public class AdaptiveFragmentSelector implements FragmentSelector {
+
+    /** Policy choosing the operator of each restart. */
+    public enum Policy {
+        /** Roulette wheel over the smoothed rewards of the operators. */
+        ROULETTE_WHEEL,
+        /** Operator with the best upper confidence bound on its mean reward. */
+        UCB
+    }
+
+    static final double REACTION_FACTOR = 0.2;
+    static final double MIN_WEIGHT = 0.05;
+    static final double UCB_EXPLORATION = 0.5;
+
+    private final Random random;
+    private final List<FragmentSelector> operators;
+    private final Policy policy;
+    private final double[] weights;
+    private final int[] uses;
+    private final double[] totalReward;
+    private int nUses = 0;
+    private int lastOperator = -1;
+
+    /**
+     * Creates the selector
+     *
+     * @param random    the random number generator
+     * @param operators the operators among which the selector chooses
+     * @param policy    the policy choosing the operator of each restart
+     */
+    public AdaptiveFragmentSelector(Random random, List<FragmentSelector> operators, Policy policy) {
+        if (operators.isEmpty()) {
+            throw new IllegalArgumentException("At least one operator is needed");
+        }
+        this.random = random;
+        this.operators = List.copyOf(operators);
+        this.policy = policy;
+        this.weights = new double[operators.size()];
+        this.uses = new int[operators.size()];
+        this.totalReward = new double[operators.size()];
+        Arrays.fill(weights, 1.0);
+    }
+
+    public AdaptiveFragmentSelector(Random random, List<FragmentSelector> operators) {
+        this(random, operators, Policy.ROULETTE_WHEEL);
+    }
+
+    @Override
+    public void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen) {
+        lastOperator = policy == Policy.UCB ? selectUpperConfidenceBound() : selectRouletteWheel();
+        operators.get(lastOperator).selectFrozenIndices(context, frozen);
+    }
+
+    private int selectRouletteWheel() {
+        double sum = 0.0;
+        for (double w : weights) {
+            sum += w;
+        }
+        double r = random.nextDouble() * sum;
+        double running = 0.0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            if (r < running) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private int selectUpperConfidenceBound() {
+        int best = -1;
+        double bestBound = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < uses.length; i++) {
+            if (uses[i] == 0) {
+                return i; // each operator is tried once first
+            }
+            double bound = totalReward[i] / uses[i] + UCB_EXPLORATION * Math.sqrt(2.0 * Math.log(nUses) / uses[i]);
+            if (bound > bestBound) {
+                bestBound = bound;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void onRestartCompleted(FragmentSelectionFeedback feedback) {
+        if (lastOperator == -1) {
+            return;
+        }
+        double reward = feedback.restartImproved() ? 1.0 : 0.0;
+        weights[lastOperator] = Math.max(MIN_WEIGHT,
+                (1.0 - REACTION_FACTOR) * weights[lastOperator] + REACTION_FACTOR * reward);
+        uses[lastOperator]++;
+        totalReward[lastOperator] += reward;
+        nUses++;
+        operators.get(lastOperator).onRestartCompleted(feedback);
+    }
+
+    /** Returns the operators among which the selector chooses. */
+    public List<FragmentSelector> getOperators() {
+        return operators;
+    }
+
+    /** Returns the number of restarts in which each operator has been used. */
+    public int[] getUses() {
+        return uses.clone();
+    }
+
+    /** Returns the weight of each operator in the roulette wheel. */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    @Override
+    public String name() {
+        return "adaptive";
+    }
+}
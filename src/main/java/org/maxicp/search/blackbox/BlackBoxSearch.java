@@ -1,13 +1,19 @@
 package org.maxicp.search.blackbox;
 
 import org.maxicp.ModelDispatcher;
+import org.maxicp.cp.modeling.CPModelInstantiator;
 import org.maxicp.modeling.Factory;
 import org.maxicp.modeling.algebra.VariableNotFixedException;
 import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.concrete.ConcreteModel;
 import org.maxicp.modeling.symbolic.Maximization;
 import org.maxicp.modeling.symbolic.Minimization;
 import org.maxicp.modeling.symbolic.Objective;
+import org.maxicp.modeling.symbolic.SharedMaximization;
+import org.maxicp.modeling.symbolic.SharedMinimization;
+import org.maxicp.modeling.symbolic.SymbolicModel;
 import org.maxicp.search.SearchStatistics;
+import org.maxicp.util.exception.InconsistencyException;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -16,6 +22,10 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Phase-based black-box search orchestrator for modeling-level CP problems.
@@ -43,6 +53,16 @@ import java.util.Set;
  * <li>The actual per-phase budget is always capped by the currently remaining
  * global time.</li>
  * </ul>
+ *
+ * <p>
+ * <b>Portfolio mode:</b> {@link #startPortfolio(int)} runs the configured
+ * portfolio workers (see {@link #withPortfolioPlan(int)}) at the same time, each
+ * one in its own thread and on its own CP model instantiated from the current
+ * symbolic model. The incumbent is shared through {@link #updateSolution(List)}
+ * and {@link #updateObjective(Integer)}, which are thread-safe, and the bound is
+ * shared during the search through a {@link SharedMinimization} or a
+ * {@link SharedMaximization}.
+ * </p>
  */
 public class BlackBoxSearch {
 
@@ -56,7 +76,12 @@ public class BlackBoxSearch {
         /** Impact-guided behavior inspired by PGLNS ideas. */
         IMPACT_GUIDED,
         /** Group-coherent behavior relaxing variables from the same array. */
-        GROUP_COHERENT
+        GROUP_COHERENT,
+        /**
+         * Adaptive LNS: bandit learning online which destroy operator to use,
+         * among the other strategies and structure-aware operators.
+         */
+        ADAPTIVE
     }
 
     /** Logging granularity for phase execution. */
@@ -132,16 +157,40 @@ public class BlackBoxSearch {
         }
     }
 
+    private record PortfolioWorker(String name, RunnableSearch search, boolean requiresFeasible) {
+    }
+
+    /**
+     * Outcome of one portfolio worker.
+     *
+     * @param name       name of the worker configuration
+     * @param status     status returned by its search
+     * @param statistics nodes, failures and solutions accumulated by its search
+     */
+    public record WorkerResult(String name, SearchStatus status, SearchStatistics statistics) {
+    }
+
     private final ModelDispatcher model;
     private final List<IntExpression> vars;
     private final Objective objective;
     private final List<Phase> phases = new ArrayList<>();
     private final List<String> executedPhaseNames = new ArrayList<>();
+    private final List<PortfolioWorker> portfolio = new ArrayList<>();
+    private final List<WorkerResult> workerResults = new ArrayList<>();
     private Verbosity verbosity = Verbosity.QUIET;
-    private Optional<List<Integer>> bestSolution = Optional.empty();
-    private Optional<Integer> bestObjectiveValue = Optional.empty();
+    private volatile Optional<List<Integer>> bestSolution = Optional.empty();
+    private volatile Optional<Integer> bestObjectiveValue = Optional.empty();
     private long solutionCount = 0;
 
+    // name of the phase or portfolio worker running in the current thread
+    private final ThreadLocal<String> activeConfiguration = new ThreadLocal<>();
+    private volatile String winningConfiguration = null;
+    private Objective portfolioObjective = null;
+    private volatile boolean portfolioRunning = false;
+    private volatile boolean stopRequested = false;
+    // portfolio workers able to find a first solution that are still running, guarded by this
+    private int runningFeasibilityWorkers = 0;
+
     /**
      * Creates a black-box search on decision variables with an objective
      * (optimization).
@@ -349,6 +398,90 @@ public class BlackBoxSearch {
         }
     }
 
+    /**
+     * Registers one worker of the portfolio run by {@link #startPortfolio(int)}.
+     *
+     * <p>
+     * The search must be dedicated to this worker, as it is run in its own thread.
+     * When optimizing, it should use {@link #portfolioObjective()} to prune with
+     * the solutions found by the other workers during its search.
+     * </p>
+     *
+     * @param name             descriptive worker name used in logs and results
+     * @param search           runnable implementation executed by the worker
+     * @param requiresFeasible whether the worker must wait for an incumbent before
+     *                         starting
+     * @return this search instance for fluent configuration
+     */
+    public BlackBoxSearch addPortfolioWorker(String name, RunnableSearch search, boolean requiresFeasible) {
+        portfolio.add(new PortfolioWorker(name, search, requiresFeasible));
+        return this;
+    }
+
+    /**
+     * Builds the default portfolio with the default phase options.
+     *
+     * @param nWorkers number of workers, each one running in its own thread
+     * @see #withPortfolioPlan(int, RestartPhaseOptions, LnsPhaseOptions, ExhaustivePhaseOptions)
+     */
+    public BlackBoxSearch withPortfolioPlan(int nWorkers) {
+        return withPortfolioPlan(nWorkers, RestartPhaseOptions.defaults(), LnsPhaseOptions.defaults(),
+                ExhaustivePhaseOptions.defaults());
+    }
+
+    /**
+     * Builds a portfolio of differently-seeded searches.
+     *
+     * <p>
+     * The first worker runs the exhaustive search, which is the only one able to
+     * prove optimality or infeasibility.
+     * Feasibility: the other workers run restarts.
+     * Optimization: the second worker runs restarts and the other ones run LNS,
+     * rotating over the fragment selection strategies.
+     * Worker {@code i} uses the configured seed plus {@code i}.
+     * </p>
+     *
+     * @param nWorkers number of workers, each one running in its own thread
+     */
+    public BlackBoxSearch withPortfolioPlan(int nWorkers, RestartPhaseOptions restart, LnsPhaseOptions lns,
+            ExhaustivePhaseOptions exhaustive) {
+        if (nWorkers < 1) {
+            throw new IllegalArgumentException("At least one portfolio worker is needed");
+        }
+        portfolio.clear();
+        Objective shared = portfolioObjective();
+        addPortfolioWorker("exhaustive-fds-0", new DFSRunnableSearch(this, model, vars, shared,
+                exhaustive.randomSwapProbability(), exhaustive.randomSeed()), false);
+        FragmentSelectionStrategy[] strategies = FragmentSelectionStrategy.values();
+        for (int i = 1; i < nWorkers; i++) {
+            if (objective == null || i == 1) {
+                addPortfolioWorker("feasibility-restarts-" + i, new RestartRunnableSearch(this, model, vars,
+                        restart.baseFailureLimit(), restart.randomSwapProbability(), restart.randomSeed() + i), false);
+            } else {
+                FragmentSelectionStrategy strategy =
+                        strategies[(lns.fragmentSelectionStrategy().ordinal() + i - 2) % strategies.length];
+                addPortfolioWorker("lns-improvement-" + i, new LNSRunnableSearch(this, model, vars, shared,
+                        lns.failureLimitPerRestart(), lns.freezeRatePercent(), lns.randomSwapProbability(),
+                        lns.randomSeed() + i, strategy), true);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Returns the objective to be used by the portfolio workers, whose bound is
+     * shared by all the threads, or {@code null} for a feasibility search.
+     */
+    public synchronized Objective portfolioObjective() {
+        if (portfolioObjective == null && objective != null) {
+            if (!(objective instanceof Minimization || objective instanceof Maximization))
+                throw new IllegalStateException("Unsupported objective type: " + objective.getClass());
+            portfolioObjective = Objective.shared(objective);
+            bestObjectiveValue.ifPresent(this::tightenPortfolioBound);
+        }
+        return portfolioObjective;
+    }
+
     /**
      * Executes the configured phase plan under a global timeout.
      *
@@ -418,6 +551,7 @@ public class BlackBoxSearch {
             logPhase("[blackbox] phase '%s' budget=%dms remaining=%dms"
                     .formatted(phase.name, phaseBudget, remaining));
             executedPhaseNames.add(phase.name);
+            activeConfiguration.set(phase.name);
             SearchStatus status = phase.search.run(phaseBudget);
             logPhase("[blackbox] phase '%s' completed with status=%s".formatted(phase.name, status));
             globalStatus = mergeStatus(globalStatus, status);
@@ -436,6 +570,137 @@ public class BlackBoxSearch {
         return globalStatus;
     }
 
+    /**
+     * Executes the configured portfolio workers in parallel under a global timeout.
+     *
+     * <p>
+     * Each worker runs its search once, with the whole remaining time, on its own
+     * CP model instantiated from the current symbolic model.
+     * Workers requiring a feasible solution wait until one is found by another worker.
+     * All the workers stop as soon as one of them proves optimality or
+     * infeasibility, or in feasibility mode as soon as a solution is found.
+     * The outcome of each worker is then available through {@link #workerResults()}
+     * and the one that found the incumbent through {@link #winningConfiguration()}.
+     * </p>
+     *
+     * @param timeLimitInSeconds global timeout in seconds
+     * @return merged global status across the workers
+     */
+    public SearchStatus startPortfolio(int timeLimitInSeconds) {
+        if (portfolio.isEmpty()) {
+            throw new IllegalStateException("No portfolio workers configured");
+        }
+
+        long deadline = System.currentTimeMillis() + Math.max(1L, timeLimitInSeconds * 1000L);
+        SymbolicModel root = model.getSymbolicModel();
+        workerResults.clear();
+        solutionCount = 0;
+        stopRequested = false;
+        portfolioRunning = true;
+        synchronized (this) {
+            runningFeasibilityWorkers = (int) portfolio.stream().filter(w -> !w.requiresFeasible).count();
+        }
+
+        logPhase("[blackbox] start portfolio timeout=%ds workers=%d objective=%s"
+                .formatted(timeLimitInSeconds, portfolio.size(),
+                        objective == null ? "none" : objective.getClass().getSimpleName()));
+
+        ExecutorService executor = Executors.newFixedThreadPool(portfolio.size());
+        List<Future<SearchStatus>> futures = new ArrayList<>();
+        for (PortfolioWorker worker : portfolio) {
+            futures.add(executor.submit(() -> {
+                try {
+                    ConcreteModel cm = CPModelInstantiator.withTrailing.instantiate(root);
+                    return model.runWithModel(cm, () -> runWorker(worker, deadline));
+                } catch (InconsistencyException e) {
+                    requestStop();
+                    return SearchStatus.UNSAT;
+                } finally {
+                    if (!worker.requiresFeasible) {
+                        synchronized (this) {
+                            runningFeasibilityWorkers--;
+                            notifyAll();
+                        }
+                    }
+                }
+            }));
+        }
+
+        SearchStatus globalStatus = SearchStatus.UNKNOWN;
+        try {
+            for (int i = 0; i < portfolio.size(); i++) {
+                PortfolioWorker worker = portfolio.get(i);
+                SearchStatus status = futures.get(i).get();
+                workerResults.add(new WorkerResult(worker.name, status, worker.search.statistics()));
+                logPhase("[blackbox] worker '%s' completed with status=%s %s"
+                        .formatted(worker.name, status, formatStats(worker.search.statistics())));
+                globalStatus = mergeStatus(globalStatus, status);
+            }
+        } catch (InterruptedException e) {
+            requestStop();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            requestStop();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            portfolioRunning = false;
+        }
+
+        if (objective == null && bestSolution.isPresent()) {
+            globalStatus = SearchStatus.SAT;
+        }
+        logPhase("[blackbox] portfolio finished with status=%s winner=%s"
+                .formatted(globalStatus, winningConfiguration));
+        return globalStatus;
+    }
+
+    private SearchStatus runWorker(PortfolioWorker worker, long deadline) {
+        activeConfiguration.set(worker.name);
+        if (worker.requiresFeasible && !awaitFeasibleSolution(deadline)) {
+            logPhase("[blackbox] skip worker '%s' (no feasible incumbent)".formatted(worker.name));
+            return SearchStatus.UNKNOWN;
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0 || stopRequested) {
+            return SearchStatus.UNKNOWN;
+        }
+        logPhase("[blackbox] worker '%s' budget=%dms".formatted(worker.name, remaining));
+        SearchStatus status = worker.search.run(remaining);
+        if (status == SearchStatus.PROVEN_OPTIMAL || status == SearchStatus.UNSAT) {
+            requestStop();
+        }
+        return status;
+    }
+
+    private synchronized boolean awaitFeasibleSolution(long deadline) {
+        long remaining;
+        while (bestSolution.isEmpty() && !stopRequested && runningFeasibilityWorkers > 0
+                && (remaining = deadline - System.currentTimeMillis()) > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return bestSolution.isPresent() && !stopRequested;
+    }
+
+    private synchronized void requestStop() {
+        stopRequested = true;
+        notifyAll();
+    }
+
+    /**
+     * Returns whether the running portfolio workers must stop, because one of them
+     * closed the search.
+     */
+    boolean isStopRequested() {
+        return stopRequested;
+    }
+
     /** Returns the best incumbent solution found so far, if any. */
     public Optional<List<Integer>> bestSolution() {
         return bestSolution.map(List::copyOf);
@@ -451,27 +716,68 @@ public class BlackBoxSearch {
         return List.copyOf(executedPhaseNames);
     }
 
+    /** Returns the outcome of each worker of the last portfolio run, in configuration order. */
+    public List<WorkerResult> workerResults() {
+        return List.copyOf(workerResults);
+    }
+
+    /** Returns the name of the phase or portfolio worker that found the incumbent, if any. */
+    public Optional<String> winningConfiguration() {
+        return Optional.ofNullable(winningConfiguration);
+    }
+
     Integer evaluateCurrentObjective() {
         return evaluateObjective(objective);
     }
 
-    public void updateObjective(Integer objectiveValue) {
+    public synchronized void updateObjective(Integer objectiveValue) {
         if (objectiveValue == null) {
             return;
         }
+        if (portfolioObjective != null) {
+            tightenPortfolioBound(objectiveValue);
+        }
         if (bestObjectiveValue.isEmpty()) {
             bestObjectiveValue = Optional.of(objectiveValue);
             logProgress("[blackbox] objective initialized to %d".formatted(objectiveValue));
             return;
         }
         int incumbent = bestObjectiveValue.get();
-        if (objective instanceof Maximization && objectiveValue > incumbent) {
+        if (isImprovement(objectiveValue, incumbent)) {
             bestObjectiveValue = Optional.of(objectiveValue);
             logProgress("[blackbox] objective improved %d -> %d".formatted(incumbent, objectiveValue));
         }
-        if (objective instanceof Minimization && objectiveValue < incumbent) {
-            bestObjectiveValue = Optional.of(objectiveValue);
-            logProgress("[blackbox] objective improved %d -> %d".formatted(incumbent, objectiveValue));
+    }
+
+    private boolean isImprovement(int objectiveValue, int incumbent) {
+        return (objective instanceof Maximization && objectiveValue > incumbent)
+                || (objective instanceof Minimization && objectiveValue < incumbent);
+    }
+
+    private void tightenPortfolioBound(int objectiveValue) {
+        switch (portfolioObjective) {
+            case SharedMinimization min -> min.bound.getAndUpdate(b -> Math.min(b, objectiveValue - 1));
+            case SharedMaximization max -> max.bound.getAndUpdate(b -> Math.max(b, objectiveValue + 1));
+            default -> throw new IllegalStateException("Unsupported objective type: " + portfolioObjective.getClass());
+        }
+    }
+
+    /**
+     * Records a solution found by a phase with its objective value.
+     * A solution that does not improve the incumbent, as found concurrently by
+     * another portfolio worker, is ignored.
+     */
+    synchronized void offerSolution(List<Integer> solution, Integer objectiveValue) {
+        if (objectiveValue != null && bestObjectiveValue.isPresent()
+                && !isImprovement(objectiveValue, bestObjectiveValue.get())) {
+            logTrace("[blackbox] solution with objective %d ignored".formatted(objectiveValue));
+            return;
+        }
+        winningConfiguration = activeConfiguration.get();
+        updateSolution(solution);
+        updateObjective(objectiveValue);
+        if (objective == null && portfolioRunning) {
+            requestStop();
         }
     }
 
@@ -523,16 +829,19 @@ public class BlackBoxSearch {
         return current;
     }
 
-    public void updateSolution(List<Integer> solution) {
+    public synchronized void updateSolution(List<Integer> solution) {
         boolean first = bestSolution.isEmpty();
         solutionCount++;
-        bestSolution = Optional.of(Collections.unmodifiableList(new ArrayList<>(solution)));
-        logProgress("[blackbox] solution #%d found%s".formatted(solutionCount, formatSolutionPreview(solution)));
+        // copied, the searches may offer a buffer they reuse
+        List<Integer> copy = Collections.unmodifiableList(new ArrayList<>(solution));
+        bestSolution = Optional.of(copy);
+        logProgress("[blackbox] solution #%d found%s".formatted(solutionCount, formatSolutionPreview(copy)));
         if (!first)
             logTrace("[blackbox] incumbent updated");
         for (RunnableSearch search : registeredSearches()) {
-            search.updateSolution(solution);
+            search.updateSolution(copy);
         }
+        notifyAll();
     }
 
     private Set<RunnableSearch> registeredSearches() {
@@ -540,9 +849,20 @@ public class BlackBoxSearch {
         for (Phase phase : phases) {
             unique.add(phase.search);
         }
+        for (PortfolioWorker worker : portfolio) {
+            unique.add(worker.search);
+        }
         return unique;
     }
 
+    /**
+     * Returns whether the messages of the given level are printed,
+     * such that the callers can skip formatting them in hot loops.
+     */
+    boolean isLogged(Verbosity level) {
+        return verbosity.ordinal() >= level.ordinal();
+    }
+
     void logPhase(String msg) {
         if (verbosity.ordinal() >= Verbosity.PHASE.ordinal()) {
             System.out.println(msg);
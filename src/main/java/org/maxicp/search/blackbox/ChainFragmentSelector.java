@@ -0,0 +1,83 @@
+package org.maxicp.search.blackbox;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * String removal: relaxes short strings of consecutive decision variables.
+ *
+ * <p>When the incumbent values of the decision variables are a permutation of their indices without fixed point,
+ * as for the successor variables of a routing model, a string follows the successors in the incumbent,
+ * such that it relaxes a part of a route. Otherwise, a string is a range of consecutive decision
+ * variables, as the consecutive positions of a sequence.</p>
+ */
+public class ChainFragmentSelector extends DestroyFragmentSelector {
+
+    static final int MAX_STRING_LENGTH = 10;
+
+    private int[] decisionVarIndices;
+    private int[] position; // position in decisionVarIndices of each variable, -1 if it is not a decision variable
+    private boolean[] isValue; // variables whose index is the value of a decision variable
+
+    public ChainFragmentSelector(Random random) {
+        super(random);
+    }
+
+    @Override
+    protected void relax(FragmentSelectionContext context, int relaxCount) {
+        int[] dec = context.decisionVarIndices();
+        int n = dec.length;
+        computePositions(dec);
+        boolean successors = isSuccessorAssignment(dec, context.incumbent());
+        int attempts = 0;
+        while (nRelaxed() < relaxCount && attempts++ < 2 * n) {
+            int pos = random.nextInt(n);
+            int length = 1 + random.nextInt(Math.min(MAX_STRING_LENGTH, relaxCount - nRelaxed()));
+            for (int k = 0; k < length && nRelaxed() < relaxCount; k++) {
+                int idx = dec[pos];
+                if (!addRelaxed(idx)) {
+                    break; // reached a string that is already relaxed
+                }
+                pos = successors ? position[context.incumbent()[idx]] : (pos + 1) % n;
+            }
+        }
+    }
+
+    private void computePositions(int[] dec) {
+        if (dec == decisionVarIndices) {
+            return;
+        }
+        int maxIndex = -1;
+        for (int idx : dec) {
+            maxIndex = Math.max(maxIndex, idx);
+        }
+        position = new int[maxIndex + 1];
+        isValue = new boolean[maxIndex + 1];
+        Arrays.fill(position, -1);
+        for (int pos = 0; pos < dec.length; pos++) {
+            position[dec[pos]] = pos;
+        }
+        decisionVarIndices = dec;
+    }
+
+    // true if the values of the decision variables are a permutation of their indices, without fixed point
+    private boolean isSuccessorAssignment(int[] dec, int[] incumbent) {
+        if (incumbent == null) {
+            return false;
+        }
+        Arrays.fill(isValue, false);
+        for (int idx : dec) {
+            int value = incumbent[idx];
+            if (value == idx || value < 0 || value >= position.length || position[value] < 0 || isValue[value]) {
+                return false;
+            }
+            isValue[value] = true;
+        }
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "chain";
+    }
+}
@@ -0,0 +1,60 @@
+package org.maxicp.search.blackbox;
+
+import org.maxicp.util.collections.IntArrayList;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Resource-based removal: relaxes the decision variables involved in the same constraint,
+ * such as the activities sharing a resource, so that the search can reorganize them together.
+ *
+ * <p>The constraints involving all the decision variables are never chosen, as relaxing
+ * a part of their scope is the same as a random relaxation.</p>
+ */
+public class ConstraintFragmentSelector extends DestroyFragmentSelector {
+
+    private final List<int[]> scopes;
+    private final IntArrayList candidates = new IntArrayList(); // constraints that can be chosen
+    private int nCandidates = -1; // number of decision variables for which the candidates were computed
+
+    /**
+     * Creates the selector
+     *
+     * @param random the random number generator
+     * @param scopes the indices of the decision variables involved in each constraint
+     */
+    public ConstraintFragmentSelector(Random random, List<int[]> scopes) {
+        super(random);
+        this.scopes = List.copyOf(scopes);
+    }
+
+    @Override
+    protected void relax(FragmentSelectionContext context, int relaxCount) {
+        int n = context.decisionVarIndices().length;
+        if (n != nCandidates) {
+            candidates.clear();
+            for (int c = 0; c < scopes.size(); c++) {
+                int length = scopes.get(c).length;
+                if (length >= 2 && length < n) {
+                    candidates.add(c);
+                }
+            }
+            nCandidates = n;
+        }
+        int attempts = 0;
+        while (nRelaxed() < relaxCount && !candidates.isEmpty() && attempts++ < candidates.size()) {
+            int[] scope = scopes.get(candidates.get(random.nextInt(candidates.size())));
+            // starting at a random offset, such that a large scope is not always relaxed by the same variables
+            int offset = random.nextInt(scope.length);
+            for (int k = 0; k < scope.length && nRelaxed() < relaxCount; k++) {
+                addRelaxed(scope[(offset + k) % scope.length]);
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "constraint";
+    }
+}
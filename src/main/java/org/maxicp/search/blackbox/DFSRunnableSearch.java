@@ -51,18 +51,20 @@ public class DFSRunnableSearch extends RunnableSearch {
             for (IntExpression var : vars) {
                 solution.add(var.min());
             }
-            blackBoxSearch.updateSolution(solution);
-            blackBoxSearch.updateObjective(blackBoxSearch.evaluateCurrentObjective());
+            blackBoxSearch.offerSolution(solution, blackBoxSearch.evaluateCurrentObjective());
         });
 
         SearchStatistics stats;
         if (objective == null) {
-            stats = dfs.solve(s -> (System.currentTimeMillis() - t0) >= timeLimitInMillis);
+            stats = dfs.solve(s -> (System.currentTimeMillis() - t0) >= timeLimitInMillis
+                    || blackBoxSearch.isStopRequested());
         } else {
             stats = dfs.optimizeSubjectTo(objective,
-                    s -> (System.currentTimeMillis() - t0) >= timeLimitInMillis,
+                    s -> (System.currentTimeMillis() - t0) >= timeLimitInMillis
+                            || blackBoxSearch.isStopRequested(),
                     blackBoxSearch::postIncumbentCut);
         }
+        recordStatistics(stats);
         blackBoxSearch.logProgress("[phase exhaustive-fds] stats: %s".formatted(blackBoxSearch.formatStats(stats)));
 
         if (stats.isCompleted()) {
@@ -0,0 +1,85 @@
+package org.maxicp.search.blackbox;
+
+import org.maxicp.util.collections.IntArrayList;
+
+import java.util.Random;
+
+/**
+ * Fragment selector choosing the decision variables to relax, as a destroy operator of
+ * an adaptive LNS, all the other decision variables being frozen.
+ *
+ * <p>The number of relaxed variables follows the freeze rate of the restart.
+ * When an operator relaxes fewer variables than requested, the missing ones are relaxed at random.
+ * The relaxed variables are marked in an array indexed by variable, reset after each selection.</p>
+ */
+public abstract class DestroyFragmentSelector implements FragmentSelector {
+
+    protected final Random random;
+
+    private final IntArrayList relaxed = new IntArrayList();
+    private boolean[] isRelaxed = new boolean[0];
+
+    protected DestroyFragmentSelector(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen) {
+        frozen.clear();
+        int[] decisionVarIndices = context.decisionVarIndices();
+        int n = decisionVarIndices.length;
+        for (int idx : decisionVarIndices) {
+            if (idx >= isRelaxed.length) {
+                isRelaxed = new boolean[Math.max(idx + 1, 2 * isRelaxed.length)];
+            }
+        }
+        int relaxCount = n - context.freezeCount();
+        if (relaxCount > 0) {
+            relax(context, relaxCount);
+            while (nRelaxed() < relaxCount) {
+                addRelaxed(decisionVarIndices[random.nextInt(n)]);
+            }
+        }
+        for (int idx : decisionVarIndices) {
+            if (!isRelaxed[idx]) {
+                frozen.add(idx);
+            }
+        }
+        for (int i = 0; i < relaxed.size(); i++) {
+            isRelaxed[relaxed.get(i)] = false;
+        }
+        relaxed.clear();
+    }
+
+    /**
+     * Relaxes a decision variable
+     *
+     * @param idx the index of the variable
+     * @return false if it was already relaxed
+     */
+    protected final boolean addRelaxed(int idx) {
+        if (isRelaxed[idx]) {
+            return false;
+        }
+        isRelaxed[idx] = true;
+        relaxed.add(idx);
+        return true;
+    }
+
+    protected final boolean isRelaxed(int idx) {
+        return isRelaxed[idx];
+    }
+
+    /** Returns the number of decision variables relaxed so far during the selection. */
+    protected final int nRelaxed() {
+        return relaxed.size();
+    }
+
+    /**
+     * Relaxes decision variables through {@link #addRelaxed(int)} for the restart.
+     *
+     * @param context    the context of the restart
+     * @param relaxCount the number of decision variables to relax, that must not be exceeded
+     */
+    protected abstract void relax(FragmentSelectionContext context, int relaxCount);
+}
@@ -1,14 +1,23 @@
 package org.maxicp.search.blackbox;
 
-import java.util.List;
-import java.util.Set;
+import org.maxicp.util.collections.IntArrayList;
 
 /**
  * Selects which decision-variable indices are frozen for one LNS restart.
+ *
+ * <p>The selection is written into a list owned by the caller, and the context and feedback
+ * objects are mutable, such that the search can reuse them from one restart to the next
+ * without allocating nor boxing the indices.</p>
  */
 public interface FragmentSelector {
 
-    List<Integer> selectFrozenIndices(FragmentSelectionContext context);
+    /**
+     * Selects the decision variables to freeze during a restart
+     *
+     * @param context the context of the restart
+     * @param frozen  cleared, then filled with the indices of the frozen decision variables
+     */
+    void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen);
 
     default void onRestartCompleted(FragmentSelectionFeedback feedback) {
         // Optional hook for adaptive selectors.
@@ -16,17 +25,138 @@ public interface FragmentSelector {
 
     String name();
 
-    record FragmentSelectionContext(List<Integer> decisionVarIndices,
-                                    int freezeRatePercent,
-                                    int iteration) {
+    /**
+     * Input of the selection for one restart, updated by the search before each restart.
+     */
+    final class FragmentSelectionContext {
+
+        private final int[] decisionVarIndices;
+        private final int[] incumbent;
+        private int freezeRatePercent;
+        private int iteration;
+
+        /**
+         * Creates the context of the restarts
+         *
+         * @param decisionVarIndices indices of the decision variables
+         * @param freezeRatePercent  percentage of the decision variables to freeze
+         * @param iteration          number of the restart
+         * @param incumbent          value of each variable in the incumbent solution, or {@code null} if unknown
+         */
+        public FragmentSelectionContext(int[] decisionVarIndices, int freezeRatePercent, int iteration, int[] incumbent) {
+            this.decisionVarIndices = decisionVarIndices;
+            this.incumbent = incumbent;
+            update(freezeRatePercent, iteration);
+        }
+
+        public FragmentSelectionContext(int[] decisionVarIndices, int freezeRatePercent, int iteration) {
+            this(decisionVarIndices, freezeRatePercent, iteration, null);
+        }
+
+        /**
+         * Prepares the context for a new restart
+         *
+         * @param freezeRatePercent percentage of the decision variables to freeze
+         * @param iteration         number of the restart
+         */
+        public void update(int freezeRatePercent, int iteration) {
+            this.freezeRatePercent = freezeRatePercent;
+            this.iteration = iteration;
+        }
+
+        /** Returns the indices of the decision variables, that must not be modified. */
+        public int[] decisionVarIndices() {
+            return decisionVarIndices;
+        }
+
+        public int freezeRatePercent() {
+            return freezeRatePercent;
+        }
+
+        public int iteration() {
+            return iteration;
+        }
+
+        /** Returns the value of each variable in the incumbent solution, or {@code null} if unknown. */
+        public int[] incumbent() {
+            return incumbent;
+        }
+
+        /**
+         * Returns the number of decision variables to freeze, keeping at least one of them relaxed.
+         */
+        public int freezeCount() {
+            int n = decisionVarIndices.length;
+            int freezeCount = Math.max(0, Math.min(n, (int) Math.round(n * (freezeRatePercent / 100.0))));
+            if (n > 1 && freezeCount >= n) {
+                freezeCount = n - 1;
+            }
+            return freezeCount;
+        }
     }
 
-    record FragmentSelectionFeedback(List<Integer> decisionVarIndices,
-                                     List<Integer> frozenDecisionVarIndices,
-                                     Set<Integer> changedDecisionVarIndices,
-                                     boolean restartImproved,
-                                     boolean restartExhausted,
-                                     boolean reachedFailureLimit) {
+    /**
+     * Outcome of a restart, updated by the search after each restart.
+     */
+    final class FragmentSelectionFeedback {
+
+        private final int[] decisionVarIndices;
+        private final IntArrayList frozenDecisionVarIndices;
+        private final IntArrayList changedDecisionVarIndices;
+        private boolean restartImproved;
+        private boolean restartExhausted;
+        private boolean reachedFailureLimit;
+
+        /**
+         * Creates the feedback of the restarts
+         *
+         * @param decisionVarIndices        indices of the decision variables
+         * @param frozenDecisionVarIndices  indices of the decision variables frozen during the restart
+         * @param changedDecisionVarIndices indices of the decision variables whose value changed in the incumbent
+         */
+        public FragmentSelectionFeedback(int[] decisionVarIndices,
+                                         IntArrayList frozenDecisionVarIndices,
+                                         IntArrayList changedDecisionVarIndices) {
+            this.decisionVarIndices = decisionVarIndices;
+            this.frozenDecisionVarIndices = frozenDecisionVarIndices;
+            this.changedDecisionVarIndices = changedDecisionVarIndices;
+        }
+
+        /**
+         * Records the outcome of a restart
+         *
+         * @param restartImproved     true if the restart found an improving solution
+         * @param restartExhausted    true if the neighborhood was explored completely without improvement
+         * @param reachedFailureLimit true if the restart stopped on its failure limit without improvement
+         */
+        public void update(boolean restartImproved, boolean restartExhausted, boolean reachedFailureLimit) {
+            this.restartImproved = restartImproved;
+            this.restartExhausted = restartExhausted;
+            this.reachedFailureLimit = reachedFailureLimit;
+        }
+
+        public int[] decisionVarIndices() {
+            return decisionVarIndices;
+        }
+
+        public IntArrayList frozenDecisionVarIndices() {
+            return frozenDecisionVarIndices;
+        }
+
+        public IntArrayList changedDecisionVarIndices() {
+            return changedDecisionVarIndices;
+        }
+
+        public boolean restartImproved() {
+            return restartImproved;
+        }
+
+        public boolean restartExhausted() {
+            return restartExhausted;
+        }
+
+        public boolean reachedFailureLimit() {
+            return reachedFailureLimit;
+        }
     }
 }
-
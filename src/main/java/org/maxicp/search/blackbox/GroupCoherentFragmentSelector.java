@@ -1,6 +1,7 @@
 package org.maxicp.search.blackbox;
 
-import java.util.ArrayList;
+import org.maxicp.util.collections.IntArrayList;
+
 import java.util.List;
 import java.util.Random;
 
@@ -13,6 +14,7 @@ public class GroupCoherentFragmentSelector implements FragmentSelector {
 
     private final Random random;
     private final List<List<Integer>> groups;
+    private final int[][] groupIndices; // the groups, unboxed
     private final double[] weights;
     private int lastSelectedGroupIdx = -1;
     private final double explorationRate = 0.2;
@@ -20,6 +22,9 @@ public class GroupCoherentFragmentSelector implements FragmentSelector {
     public GroupCoherentFragmentSelector(Random random, List<List<Integer>> groups) {
         this.random = random;
         this.groups = List.copyOf(groups);
+        this.groupIndices = groups.stream()
+                .map(group -> group.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
         this.weights = new double[groups.size()];
         for (int i = 0; i < weights.length; i++) {
             weights[i] = 1.0;
@@ -27,17 +32,17 @@ public class GroupCoherentFragmentSelector implements FragmentSelector {
     }
 
     @Override
-    public List<Integer> selectFrozenIndices(FragmentSelectionContext context) {
-        List<Integer> decisionVarIndices = context.decisionVarIndices();
+    public void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen) {
+        frozen.clear();
+        int[] decisionVarIndices = context.decisionVarIndices();
         if (groups.isEmpty()) {
             // Fallback: freeze at random
-            List<Integer> frozen = new ArrayList<>();
             for (int idx : decisionVarIndices) {
                 if (random.nextInt(100) < context.freezeRatePercent()) {
                     frozen.add(idx);
                 }
             }
-            return frozen;
+            return;
         }
 
         // Select a group
@@ -51,18 +56,15 @@ public class GroupCoherentFragmentSelector implements FragmentSelector {
         }
         lastSelectedGroupIdx = selectedGroupIdx;
 
-        List<Integer> selectedGroup = groups.get(selectedGroupIdx);
-        List<Integer> frozen = new ArrayList<>();
-        for (int idx : selectedGroup) {
+        for (int idx : groupIndices[selectedGroupIdx]) {
             if (random.nextInt(100) < context.freezeRatePercent()) {
                 frozen.add(idx);
             }
         }
-        if (context.decisionVarIndices().size() > 1 && frozen.size() == context.decisionVarIndices().size()) {
+        if (decisionVarIndices.length > 1 && frozen.size() == decisionVarIndices.length) {
             // Avoid degenerate neighborhoods: keep at least one decision variable relaxed.
-            frozen.remove(random.nextInt(frozen.size()));
+            frozen.swapRemove(random.nextInt(frozen.size()));
         }
-        return frozen;
     }
 
     private int selectRouletteWheel() {
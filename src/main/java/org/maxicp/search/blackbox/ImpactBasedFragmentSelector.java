@@ -1,20 +1,22 @@
 package org.maxicp.search.blackbox;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
+import org.maxicp.util.collections.IndexedMinHeap;
+import org.maxicp.util.collections.IntArrayList;
+import org.maxicp.util.collections.IntDoubleHashMap;
+
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
 
 /**
  * PGLNS-inspired selector: keep low-impact vars fixed and relax high-impact ones.
  *
  * <p>Impact scores combine a structural prior and online updates from improving
  * restarts. Selection also keeps a small exploration part to avoid stagnation.</p>
+ *
+ * <p>The scores are decayed lazily after each restart, through the global multiplier
+ * of an {@link IntDoubleHashMap}, and the lowest ones are extracted from an {@link IndexedMinHeap},
+ * such that a restart does not box the scores nor sort all the variables.</p>
  */
 public class ImpactBasedFragmentSelector implements FragmentSelector {
 
@@ -24,77 +26,92 @@ public class ImpactBasedFragmentSelector implements FragmentSelector {
     private static final double EXPLORATION_SHARE = 0.20;
 
     private final Random random;
-    private final Map<Integer, Double> impacts = new HashMap<>();
+    private final IntDoubleHashMap impacts = new IntDoubleHashMap();
+
+    // buffers reused across the restarts
+    private IndexedMinHeap heap = new IndexedMinHeap(0);
+    private final IntArrayList remaining = new IntArrayList();
+    private boolean[] frozenMarks = new boolean[0];
 
     public ImpactBasedFragmentSelector(Random random, Map<Integer, Double> structuralImpacts) {
         this.random = random;
-        this.impacts.putAll(structuralImpacts);
+        structuralImpacts.forEach(impacts::put);
     }
 
     @Override
-    public List<Integer> selectFrozenIndices(FragmentSelectionContext context) {
-        int n = context.decisionVarIndices().size();
-        if (n == 0) {
-            return List.of();
-        }
-
-        int freezeCount = Math.max(0, Math.min(n, (int) Math.round(n * (context.freezeRatePercent() / 100.0))));
-        if (n > 1 && freezeCount >= n) {
-            freezeCount = n - 1;
-        }
+    public void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen) {
+        frozen.clear();
+        int[] candidates = context.decisionVarIndices();
+        int n = candidates.length;
+        int freezeCount = context.freezeCount();
         if (freezeCount == 0) {
-            return List.of();
+            return;
         }
         if (freezeCount == n) {
-            return List.copyOf(context.decisionVarIndices());
+            for (int idx : candidates) {
+                frozen.add(idx);
+            }
+            return;
         }
 
-        List<Integer> candidates = new ArrayList<>(context.decisionVarIndices());
-        Map<Integer, Double> scoreByIndex = new HashMap<>(candidates.size());
-        for (int idx : candidates) {
-            scoreByIndex.put(idx, noisyImpact(idx));
+        // the heap is over the positions of the candidates
+        if (heap.capacity() < n) {
+            heap = new IndexedMinHeap(n);
+        }
+        heap.clear();
+        for (int pos = 0; pos < n; pos++) {
+            heap.insert(pos, noisyImpact(candidates[pos]));
         }
-        // Keep comparator stable within the restart to satisfy TimSort contract.
-        candidates.sort(Comparator.comparingDouble((Integer idx) -> scoreByIndex.get(idx))
-                .thenComparingInt(Integer::intValue));
 
         int deterministicCount = (int) Math.round(freezeCount * (1.0 - EXPLORATION_SHARE));
         deterministicCount = Math.max(0, Math.min(freezeCount, deterministicCount));
 
-        List<Integer> frozen = new ArrayList<>(freezeCount);
         for (int i = 0; i < deterministicCount; i++) {
-            frozen.add(candidates.get(i));
+            frozen.add(candidates[heap.poll()]);
         }
 
-        Set<Integer> chosen = new HashSet<>(frozen);
-        List<Integer> remaining = new ArrayList<>(candidates.subList(deterministicCount, candidates.size()));
-        while (frozen.size() < freezeCount && !remaining.isEmpty()) {
-            int pos = random.nextInt(remaining.size());
-            int idx = remaining.remove(pos);
-            if (chosen.add(idx)) {
-                frozen.add(idx);
+        remaining.clear();
+        for (int pos = 0; pos < n; pos++) {
+            if (heap.contains(pos)) {
+                remaining.add(pos);
             }
         }
-
-        return List.copyOf(frozen);
+        while (frozen.size() < freezeCount && !remaining.isEmpty()) {
+            int pos = remaining.swapRemove(random.nextInt(remaining.size()));
+            frozen.add(candidates[pos]);
+        }
     }
 
     @Override
     public void onRestartCompleted(FragmentSelectionFeedback feedback) {
-        decayScores(feedback.decisionVarIndices());
+        impacts.scale(SCORE_DECAY);
 
         if (feedback.restartImproved()) {
-            for (int idx : feedback.changedDecisionVarIndices()) {
-                impacts.merge(idx, IMPROVEMENT_BONUS, Double::sum);
+            IntArrayList changed = feedback.changedDecisionVarIndices();
+            for (int i = 0; i < changed.size(); i++) {
+                impacts.addTo(changed.get(i), IMPROVEMENT_BONUS);
             }
             return;
         }
 
         if (feedback.reachedFailureLimit()) {
-            Collection<Integer> relaxed = relaxedIndices(feedback);
-            for (int idx : relaxed) {
-                impacts.merge(idx, STAGNATION_BONUS, Double::sum);
+            markFrozen(feedback.frozenDecisionVarIndices(), true);
+            for (int idx : feedback.decisionVarIndices()) {
+                if (idx >= frozenMarks.length || !frozenMarks[idx]) {
+                    impacts.addTo(idx, STAGNATION_BONUS);
+                }
+            }
+            markFrozen(feedback.frozenDecisionVarIndices(), false);
+        }
+    }
+
+    private void markFrozen(IntArrayList frozen, boolean mark) {
+        for (int i = 0; i < frozen.size(); i++) {
+            int idx = frozen.get(i);
+            if (idx >= frozenMarks.length) {
+                frozenMarks = Arrays.copyOf(frozenMarks, Math.max(idx + 1, 2 * frozenMarks.length));
             }
+            frozenMarks[idx] = mark;
         }
     }
 
@@ -103,26 +120,18 @@ public class ImpactBasedFragmentSelector implements FragmentSelector {
         return "impact-guided";
     }
 
-    private void decayScores(List<Integer> decisionVarIndices) {
-        for (int idx : decisionVarIndices) {
-            impacts.merge(idx, 0.0, (oldV, unused) -> oldV * SCORE_DECAY);
-        }
-    }
-
-    private Collection<Integer> relaxedIndices(FragmentSelectionFeedback feedback) {
-        Set<Integer> frozen = new HashSet<>(feedback.frozenDecisionVarIndices());
-        List<Integer> relaxed = new ArrayList<>();
-        for (int idx : feedback.decisionVarIndices()) {
-            if (!frozen.contains(idx)) {
-                relaxed.add(idx);
-            }
-        }
-        return relaxed;
+    /**
+     * Returns the current impact score of a decision variable
+     *
+     * @param idx the index of the variable
+     * @return its impact score, 0 if it has never been scored
+     */
+    public double impact(int idx) {
+        return impacts.get(idx, 0.0);
     }
 
     private double noisyImpact(int idx) {
-        double base = impacts.getOrDefault(idx, 0.0);
+        double base = impacts.get(idx, 0.0);
         return base + random.nextDouble() * 1e-6;
     }
 }
-
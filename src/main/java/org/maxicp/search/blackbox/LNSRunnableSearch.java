@@ -1,6 +1,8 @@
 package org.maxicp.search.blackbox;
 
 import org.maxicp.ModelDispatcher;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.modeling.ConcreteCPModel;
 import org.maxicp.modeling.Constraint;
 import org.maxicp.modeling.Factory;
 import org.maxicp.modeling.algebra.Expression;
@@ -8,8 +10,10 @@ import org.maxicp.modeling.algebra.integer.IntExpression;
 import org.maxicp.search.DFSearch;
 import org.maxicp.search.FDSModeling;
 import org.maxicp.search.SearchStatistics;
+import org.maxicp.util.collections.IntArrayList;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -22,8 +26,8 @@ public class LNSRunnableSearch extends RunnableSearch {
     private final ModelDispatcher model;
     private final List<IntExpression> vars;
     private final List<IntExpression> decisionVars;
-    private final List<Integer> decisionVarIndices;  // indices in 'vars' of decision variables
-    private Optional<List<Integer>> feasibleSolution;
+    private final int[] decisionVarIndices;  // indices in 'vars' of decision variables
+    private volatile Optional<List<Integer>> feasibleSolution;
     private final org.maxicp.modeling.symbolic.Objective objective;
     private final Random random;
     private final int failureLimitPerRestart;
@@ -31,6 +35,25 @@ public class LNSRunnableSearch extends RunnableSearch {
     private final double randomSwapProbability;
     private final FragmentSelector fragmentSelector;
 
+    // incumbent, and its copy at the start of the current restart, reused across the restarts
+    private final int[] best;
+    private final int[] incumbent;
+    private final List<Integer> bestView; // read-only view of best, offered as solution
+    private List<Integer> lastIncumbent; // last solution copied into best
+    private ConcreteCPModel cpModel;
+    private CPIntVar[] cpVars; // variables of the CP solver, null when the model is not instantiated with it
+
+    // state of the fragment selection, reused across the restarts
+    private final IntArrayList frozen = new IntArrayList(); // frozen indices of the current restart
+    private final IntArrayList changed = new IntArrayList(); // decision variables changed by the current restart
+    private final FragmentSelector.FragmentSelectionContext selectionContext;
+    private final FragmentSelector.FragmentSelectionFeedback selectionFeedback;
+    private final Runnable fixFragment = this::fixFragment;
+    private final Runnable cutAndFixFragment = () -> {
+        blackBoxSearch.postIncumbentCut();
+        fixFragment();
+    };
+
     public LNSRunnableSearch(BlackBoxSearch blackBoxSearch, ModelDispatcher model, List<IntExpression> vars,
                              org.maxicp.modeling.symbolic.Objective objective,
                              int failureLimitPerRestart,
@@ -60,6 +83,21 @@ public class LNSRunnableSearch extends RunnableSearch {
         this.randomSwapProbability = randomSwapProbability;
         this.random = new Random(randomSeed);
         this.fragmentSelector = buildFragmentSelector(fragmentSelectionStrategy);
+        this.best = new int[this.vars.size()];
+        this.incumbent = new int[this.vars.size()];
+        this.bestView = new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return best[index];
+            }
+
+            @Override
+            public int size() {
+                return best.length;
+            }
+        };
+        this.selectionContext = new FragmentSelector.FragmentSelectionContext(decisionVarIndices, freezeRatePercent, 0, incumbent);
+        this.selectionFeedback = new FragmentSelector.FragmentSelectionFeedback(decisionVarIndices, frozen, changed);
     }
 
     /**
@@ -67,7 +105,7 @@ public class LNSRunnableSearch extends RunnableSearch {
      * This allows us to map decision variables back to their positions
      * in the incumbent solution list.
      */
-    private List<Integer> computeDecisionVarIndices() {
+    private int[] computeDecisionVarIndices() {
         List<Integer> indices = new ArrayList<>();
         IdentityHashMap<IntExpression, Integer> varToIndex = new IdentityHashMap<>();
         for (int i = 0; i < vars.size(); i++) {
@@ -85,7 +123,7 @@ public class LNSRunnableSearch extends RunnableSearch {
                 indices.add(i);
             }
         }
-        return List.copyOf(indices);
+        return indices.stream().mapToInt(Integer::intValue).toArray();
     }
 
     @Override
@@ -100,24 +138,33 @@ public class LNSRunnableSearch extends RunnableSearch {
         } else {
             AtomicBoolean improved = new AtomicBoolean(false);
             long t0 = System.currentTimeMillis();
-            List<Integer> best = new ArrayList<>(feasibleSolution.get());
+            resolveCPVars();
+            lastIncumbent = null;
             int iteration = 0;
             int adaptiveFreezeRatePercent = clampFreezeRatePercent(freezeRatePercent);
-            DFSearch deterministicDfs = randomSwapProbability <= 0.0 ? createDfs(0.0, best, improved) : null;
+            // the searches are reused across the restarts: a single one when the branching is deterministic,
+            // otherwise one for each of the two swap probabilities alternating from one restart to the next
+            DFSearch[] searches = new DFSearch[2];
             blackBoxSearch.logPhase("[phase lns-improvement] start budget=%dms".formatted(timeLimitInMillis));
 
+            Predicate<SearchStatistics> limit = stats -> System.currentTimeMillis() - t0 >= timeLimitInMillis
+                    || stats.numberOfFailures() >= failureLimitPerRestart
+                    || blackBoxSearch.isStopRequested();
             SearchStatistics lastStats = null;
-            while ((System.currentTimeMillis() - t0) < timeLimitInMillis) {
+            while ((System.currentTimeMillis() - t0) < timeLimitInMillis && !blackBoxSearch.isStopRequested()) {
                 iteration++;
-                final List<Integer> incumbent = new ArrayList<>(best);
+                // restart from the incumbent, that may have been improved by a concurrent search
+                refreshIncumbent();
+                System.arraycopy(best, 0, incumbent, 0, best.length);
                 final int restartFreezeRatePercent = adaptiveFreezeRatePercent;
                 final double restartSwapProbability = randomSwapProbabilityForIteration(iteration);
-                FragmentSelector.FragmentSelectionContext selectionContext =
-                        new FragmentSelector.FragmentSelectionContext(decisionVarIndices, restartFreezeRatePercent, iteration);
-                final List<Integer> frozenIndices = fragmentSelector.selectFrozenIndices(selectionContext);
-                DFSearch dfs = deterministicDfs != null
-                        ? deterministicDfs
-                        : createDfs(restartSwapProbability, best, improved);
+                selectionContext.update(restartFreezeRatePercent, iteration);
+                fragmentSelector.selectFrozenIndices(selectionContext, frozen);
+                int slot = randomSwapProbability <= 0.0 ? 0 : iteration % 2;
+                if (searches[slot] == null) {
+                    searches[slot] = createDfs(restartSwapProbability, improved);
+                }
+                DFSearch dfs = searches[slot];
 
                 if (shouldLogProgressIteration(iteration)) {
                     blackBoxSearch.logProgress("[phase lns-improvement] iteration=%d incumbentKnown=%s freezeRate=%d swapProb=%.3f selector=%s frozen=%d/%d"
@@ -126,58 +173,46 @@ public class LNSRunnableSearch extends RunnableSearch {
                                     restartFreezeRatePercent,
                                     restartSwapProbability,
                                     fragmentSelector.name(),
-                                    frozenIndices.size(),
-                                    decisionVarIndices.size()));
+                                    frozen.size(),
+                                    decisionVarIndices.length));
                 }
                 if (objective == null) {
-                    lastStats = dfs.solveSubjectTo(stats -> {
-                        long elapsed = System.currentTimeMillis() - t0;
-                        return elapsed >= timeLimitInMillis || stats.numberOfFailures() >= failureLimitPerRestart;
-                    }, () -> {
-                        // Only freeze decision variables
-                        for (int idx : frozenIndices) {
-                            model.add(Factory.eq(vars.get(idx), incumbent.get(idx)));
-                        }
-                    });
+                    lastStats = dfs.solveSubjectTo(limit, fixFragment);
                 } else {
-                    lastStats = dfs.optimizeSubjectTo(objective,
-                            stats -> {
-                                long elapsed = System.currentTimeMillis() - t0;
-                                return elapsed >= timeLimitInMillis || stats.numberOfFailures() >= failureLimitPerRestart;
-                            }, () -> {
-                                blackBoxSearch.postIncumbentCut();
-                                // Only freeze decision variables
-                                for (int idx : frozenIndices) {
-                                    model.add(Factory.eq(vars.get(idx), incumbent.get(idx)));
-                                }
-                            });
-                    //System.out.println(lastStats);
+                    lastStats = dfs.optimizeSubjectTo(objective, limit, cutAndFixFragment);
                 }
                 if (lastStats != null) {
-                    blackBoxSearch.logTrace("[phase lns-improvement] iteration=%d stats: %s"
-                            .formatted(iteration, blackBoxSearch.formatStats(lastStats)));
+                    recordStatistics(lastStats);
+                    if (blackBoxSearch.isLogged(BlackBoxSearch.Verbosity.TRACE)) {
+                        blackBoxSearch.logTrace("[phase lns-improvement] iteration=%d stats: %s"
+                                .formatted(iteration, blackBoxSearch.formatStats(lastStats)));
+                    }
                 }
                 boolean restartImproved = lastStats != null && lastStats.numberOfSolutions() > 0;
                 boolean restartExhausted = lastStats != null && lastStats.isCompleted() && !restartImproved;
                 boolean reachedFailureLimit = lastStats != null
                         && !restartImproved
                         && lastStats.numberOfFailures() >= failureLimitPerRestart;
-                fragmentSelector.onRestartCompleted(new FragmentSelector.FragmentSelectionFeedback(
-                        decisionVarIndices,
-                        frozenIndices,
-                        changedDecisionVarIndices(incumbent, best),
-                        restartImproved,
-                        restartExhausted,
-                        reachedFailureLimit));
+                changed.clear();
+                if (restartImproved) {
+                    collectChangedDecisionVarIndices();
+                }
+                selectionFeedback.update(restartImproved, restartExhausted, reachedFailureLimit);
+                fragmentSelector.onRestartCompleted(selectionFeedback);
+                boolean logProgress = blackBoxSearch.isLogged(BlackBoxSearch.Verbosity.PROGRESS);
                 if (restartExhausted) {
                     adaptiveFreezeRatePercent = Math.max(0, adaptiveFreezeRatePercent - ADAPTIVE_FREEZE_STEP);
-                    blackBoxSearch.logProgress("[phase lns-improvement] iteration=%d exhausted without improvement, relaxing more vars (freezeRate=%d)"
-                            .formatted(iteration, adaptiveFreezeRatePercent));
+                    if (logProgress) {
+                        blackBoxSearch.logProgress("[phase lns-improvement] iteration=%d exhausted without improvement, relaxing more vars (freezeRate=%d)"
+                                .formatted(iteration, adaptiveFreezeRatePercent));
+                    }
                 } else if (reachedFailureLimit) {
                     adaptiveFreezeRatePercent = Math.min(maxUsefulFreezeRatePercent(),
                             adaptiveFreezeRatePercent + ADAPTIVE_FREEZE_STEP);
-                    blackBoxSearch.logProgress("[phase lns-improvement] iteration=%d reached failure limit, freezing more vars (freezeRate=%d)"
-                            .formatted(iteration, adaptiveFreezeRatePercent));
+                    if (logProgress) {
+                        blackBoxSearch.logProgress("[phase lns-improvement] iteration=%d reached failure limit, freezing more vars (freezeRate=%d)"
+                                .formatted(iteration, adaptiveFreezeRatePercent));
+                    }
                 } else if (lastStats != null && restartImproved) {
                     adaptiveFreezeRatePercent = Math.min(clampFreezeRatePercent(freezeRatePercent),
                             adaptiveFreezeRatePercent + ADAPTIVE_FREEZE_STEP / 2);
@@ -206,6 +241,57 @@ public class LNSRunnableSearch extends RunnableSearch {
 
     }
 
+    /**
+     * Retrieves the variables of the CP solver when the model is instantiated with it,
+     * such that the fragments can be fixed directly on them.
+     */
+    private void resolveCPVars() {
+        if (model.getConcreteModel() instanceof ConcreteCPModel concrete) {
+            if (concrete != cpModel) {
+                cpModel = concrete;
+                cpVars = concrete.getCPVar(vars.toArray(IntExpression[]::new));
+            }
+        } else {
+            cpModel = null;
+            cpVars = null;
+        }
+    }
+
+    /**
+     * Copies the incumbent into {@code best} if it has changed since the last restart,
+     * which is the case when a concurrent search has improved it.
+     */
+    private void refreshIncumbent() {
+        List<Integer> solution = feasibleSolution.orElse(null);
+        if (solution != null && solution != lastIncumbent && solution.size() == best.length) {
+            for (int i = 0; i < best.length; i++) {
+                best[i] = solution.get(i);
+            }
+        }
+        lastIncumbent = solution;
+    }
+
+    /**
+     * Fixes the frozen variables of the current restart to their value in the incumbent.
+     * With the CP solver, the variables are fixed directly and propagated with a single fixpoint,
+     * instead of instantiating one equality constraint per variable.
+     */
+    private void fixFragment() {
+        int n = frozen.size();
+        if (cpVars != null) {
+            for (int i = 0; i < n; i++) {
+                int idx = frozen.get(i);
+                cpVars[idx].fix(incumbent[idx]);
+            }
+            cpModel.solver.fixPoint();
+        } else {
+            for (int i = 0; i < n; i++) {
+                int idx = frozen.get(i);
+                model.add(Factory.eq(vars.get(idx), incumbent[idx]));
+            }
+        }
+    }
+
     static boolean shouldLogProgressIteration(int iteration) {
         return iteration > 0 && iteration % PROGRESS_LOG_PERIOD == 0;
     }
@@ -215,7 +301,7 @@ public class LNSRunnableSearch extends RunnableSearch {
     }
 
     private int maxUsefulFreezeRatePercent() {
-        int n = decisionVarIndices.size();
+        int n = decisionVarIndices.length;
         if (n == 0) {
             return 0;
         }
@@ -259,25 +345,48 @@ public class LNSRunnableSearch extends RunnableSearch {
             safeStrategy = BlackBoxSearch.FragmentSelectionStrategy.IMPACT_GUIDED;
         }
         return switch (safeStrategy) {
-            case IMPACT_GUIDED -> new ImpactBasedFragmentSelector(random, computeStructuralImpactScores());
+            case IMPACT_GUIDED -> new ImpactBasedFragmentSelector(random, computeStructuralImpactScores(computeConstraintScopes()));
             case RANDOM_UNIFORM -> new RandomFragmentSelector(random);
             case GROUP_COHERENT -> new GroupCoherentFragmentSelector(random, groups);
+            case ADAPTIVE -> {
+                List<int[]> scopes = computeConstraintScopes();
+                List<FragmentSelector> operators = new ArrayList<>();
+                operators.add(new RandomFragmentSelector(random));
+                operators.add(new ImpactBasedFragmentSelector(random, computeStructuralImpactScores(scopes)));
+                if (!groups.isEmpty()) {
+                    operators.add(new GroupCoherentFragmentSelector(random, groups));
+                }
+                operators.add(new RelatedFragmentSelector(random, vars.size(), scopes));
+                operators.add(new ConstraintFragmentSelector(random, scopes));
+                operators.add(new ChainFragmentSelector(random));
+                operators.add(new ValueWindowFragmentSelector(random));
+                yield new AdaptiveFragmentSelector(random, operators);
+            }
         };
     }
 
-    private Map<Integer, Double> computeStructuralImpactScores() {
+    /**
+     * Computes the indices (in 'vars') of the decision variables involved in each constraint of the model.
+     */
+    private List<int[]> computeConstraintScopes() {
         IdentityHashMap<IntExpression, Integer> varToIndex = new IdentityHashMap<>();
         for (int idx : decisionVarIndices) {
             varToIndex.put(vars.get(idx), idx);
         }
-
-        Map<Integer, Double> impact = new HashMap<>();
+        List<int[]> scopes = new ArrayList<>();
         for (Constraint constraint : model.getConstraints()) {
             Set<Integer> involved = collectDecisionVarIndices(constraint.scope(), varToIndex);
-            if (involved.isEmpty()) {
-                continue;
+            if (!involved.isEmpty()) {
+                scopes.add(involved.stream().mapToInt(Integer::intValue).sorted().toArray());
             }
-            double weight = 1.0 / involved.size();
+        }
+        return scopes;
+    }
+
+    private Map<Integer, Double> computeStructuralImpactScores(List<int[]> scopes) {
+        Map<Integer, Double> impact = new HashMap<>();
+        for (int[] involved : scopes) {
+            double weight = 1.0 / involved.length;
             for (int idx : involved) {
                 impact.merge(idx, weight, Double::sum);
             }
@@ -308,28 +417,27 @@ public class LNSRunnableSearch extends RunnableSearch {
         return involved;
     }
 
-    private Set<Integer> changedDecisionVarIndices(List<Integer> incumbent, List<Integer> best) {
-        Set<Integer> changed = new HashSet<>();
+    // the decision variables whose value in the incumbent changed during the restart
+    private void collectChangedDecisionVarIndices() {
         for (int idx : decisionVarIndices) {
-            if (!Objects.equals(incumbent.get(idx), best.get(idx))) {
+            if (incumbent[idx] != best[idx]) {
                 changed.add(idx);
             }
         }
-        return changed;
     }
 
-    private DFSearch createDfs(double swapProbability, List<Integer> best, AtomicBoolean improved) {
+    private DFSearch createDfs(double swapProbability, AtomicBoolean improved) {
         Supplier<Runnable[]> branching = new FDSModeling(vars.toArray(IntExpression[]::new));
         if (swapProbability > 0.0) {
             branching = new RandomizedBranching(branching, random, swapProbability);
         }
         DFSearch dfs = model.dfSearch(branching);
         dfs.onSolution(() -> {
-            for (int i = 0; i < vars.size(); i++) {
-                best.set(i, vars.get(i).min());
+            for (int i = 0; i < best.length; i++) {
+                best[i] = cpVars != null ? cpVars[i].min() : vars.get(i).min();
             }
-            blackBoxSearch.updateSolution(best);
-            blackBoxSearch.updateObjective(blackBoxSearch.evaluateCurrentObjective());
+            // the black-box search keeps its own copy of the solution
+            blackBoxSearch.offerSolution(bestView, blackBoxSearch.evaluateCurrentObjective());
             improved.set(true);
         });
         return dfs;
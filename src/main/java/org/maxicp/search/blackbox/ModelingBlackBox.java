@@ -44,6 +44,7 @@ public final class ModelingBlackBox {
         private double initialExhaustiveShare = 0.0;
         private double restartShare = 0.40;
         private double exhaustiveShare = 0.60;
+        private int portfolioWorkers = 1;
         private BlackBoxSearch.Verbosity verbosity = BlackBoxSearch.Verbosity.QUIET;
 
         /**
@@ -86,6 +87,17 @@ public final class ModelingBlackBox {
             this.verbosity = verbosity;
             return this;
         }
+
+        /**
+         * Runs a portfolio of this number of parallel workers instead of the sequential phases
+         * (the time shares are then ignored).
+         */
+        public SolveConfig portfolioWorkers(int portfolioWorkers) {
+            if (portfolioWorkers < 1)
+                throw new IllegalArgumentException("portfolioWorkers must be > 0");
+            this.portfolioWorkers = portfolioWorkers;
+            return this;
+        }
     }
 
     /**
@@ -99,6 +111,7 @@ public final class ModelingBlackBox {
         private double restartShare = 0.20;
         private double lnsShare = 1.0 / 3.0;
         private double exhaustiveShare = 1.0 - 0.25 - 0.20 - 1.0 / 3.0;
+        private int portfolioWorkers = 1;
         private BlackBoxSearch.Verbosity verbosity = BlackBoxSearch.Verbosity.QUIET;
 
         /**
@@ -150,6 +163,17 @@ public final class ModelingBlackBox {
             this.verbosity = verbosity;
             return this;
         }
+
+        /**
+         * Runs a portfolio of this number of parallel workers instead of the sequential phases
+         * (the time shares are then ignored).
+         */
+        public OptimizeConfig portfolioWorkers(int portfolioWorkers) {
+            if (portfolioWorkers < 1)
+                throw new IllegalArgumentException("portfolioWorkers must be > 0");
+            this.portfolioWorkers = portfolioWorkers;
+            return this;
+        }
     }
 
     /**
@@ -167,10 +191,17 @@ public final class ModelingBlackBox {
         return model.runCP(() -> {
             SolveConfig cfg = configurer.apply(new SolveConfig());
             BlackBoxSearch search = new BlackBoxSearch(model, decisionVars)
-                    .withVerbosity(cfg.verbosity)
-                    .withFeasibilityPlan(cfg.restart, cfg.exhaustive,
-                            cfg.initialExhaustiveShare, cfg.restartShare, cfg.exhaustiveShare);
-            SearchStatus status = search.start(timeLimitInSeconds);
+                    .withVerbosity(cfg.verbosity);
+            SearchStatus status;
+            if (cfg.portfolioWorkers > 1) {
+                status = search.withPortfolioPlan(cfg.portfolioWorkers, cfg.restart,
+                                BlackBoxSearch.LnsPhaseOptions.defaults(), cfg.exhaustive)
+                        .startPortfolio(timeLimitInSeconds);
+            } else {
+                status = search.withFeasibilityPlan(cfg.restart, cfg.exhaustive,
+                                cfg.initialExhaustiveShare, cfg.restartShare, cfg.exhaustiveShare)
+                        .start(timeLimitInSeconds);
+            }
             return new Result(status, search.bestSolution(), search.bestObjectiveValue());
         });
     }
@@ -190,10 +221,16 @@ public final class ModelingBlackBox {
         return model.runCP(() -> {
             OptimizeConfig cfg = configurer.apply(new OptimizeConfig());
             BlackBoxSearch search = new BlackBoxSearch(model, decisionVars, objective)
-                    .withVerbosity(cfg.verbosity)
-                    .withOptimizationPlan(cfg.restart, cfg.lns, cfg.exhaustive,
-                            cfg.initialExhaustiveShare, cfg.restartShare, cfg.lnsShare, cfg.exhaustiveShare);
-            SearchStatus status = search.start(timeLimitInSeconds);
+                    .withVerbosity(cfg.verbosity);
+            SearchStatus status;
+            if (cfg.portfolioWorkers > 1) {
+                status = search.withPortfolioPlan(cfg.portfolioWorkers, cfg.restart, cfg.lns, cfg.exhaustive)
+                        .startPortfolio(timeLimitInSeconds);
+            } else {
+                status = search.withOptimizationPlan(cfg.restart, cfg.lns, cfg.exhaustive,
+                                cfg.initialExhaustiveShare, cfg.restartShare, cfg.lnsShare, cfg.exhaustiveShare)
+                        .start(timeLimitInSeconds);
+            }
             return new Result(status, search.bestSolution(), search.bestObjectiveValue());
         });
     }
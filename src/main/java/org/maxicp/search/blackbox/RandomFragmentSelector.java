@@ -1,7 +1,7 @@
 package org.maxicp.search.blackbox;
 
-import java.util.ArrayList;
-import java.util.List;
+import org.maxicp.util.collections.IntArrayList;
+
 import java.util.Random;
 
 /**
@@ -16,18 +16,17 @@ public class RandomFragmentSelector implements FragmentSelector {
     }
 
     @Override
-    public List<Integer> selectFrozenIndices(FragmentSelectionContext context) {
-        List<Integer> frozen = new ArrayList<>();
+    public void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen) {
+        frozen.clear();
         for (int idx : context.decisionVarIndices()) {
             if (random.nextInt(100) < context.freezeRatePercent()) {
                 frozen.add(idx);
             }
         }
-        if (context.decisionVarIndices().size() > 1 && frozen.size() == context.decisionVarIndices().size()) {
+        if (context.decisionVarIndices().length > 1 && frozen.size() == context.decisionVarIndices().length) {
             // Avoid degenerate neighborhoods: keep at least one decision variable relaxed.
-            frozen.remove(random.nextInt(frozen.size()));
+            frozen.swapRemove(random.nextInt(frozen.size()));
         }
-        return List.copyOf(frozen);
     }
 
     @Override
@@ -0,0 +1,90 @@
+package org.maxicp.search.blackbox;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Related removal, in the spirit of Shaw's removal: starting from a variable chosen at random,
+ * repeatedly relaxes the decision variable the most related to the ones already relaxed.
+ *
+ * <p>The relatedness of two variables is an affinity in the constraint graph, higher meaning closer:
+ * each constraint involving both of them contributes the inverse of the size of its scope,
+ * such that small constraints relate their variables more than global ones.
+ * A small noise on the relatedness diversifies the fragments.</p>
+ */
+public class RelatedFragmentSelector extends DestroyFragmentSelector {
+
+    static final double NOISE = 0.5;
+
+    private final List<int[]> scopes;
+    private final int[][] constraintsOf; // constraints involving each variable
+    private final double[] relatedness;
+
+    /**
+     * Creates the selector
+     *
+     * @param random the random number generator
+     * @param nVars  the number of variables
+     * @param scopes the indices of the decision variables involved in each constraint
+     */
+    public RelatedFragmentSelector(Random random, int nVars, List<int[]> scopes) {
+        super(random);
+        this.scopes = List.copyOf(scopes);
+        this.relatedness = new double[nVars];
+        int[] degree = new int[nVars];
+        for (int[] scope : scopes) {
+            for (int idx : scope) {
+                degree[idx]++;
+            }
+        }
+        constraintsOf = new int[nVars][];
+        for (int i = 0; i < nVars; i++) {
+            constraintsOf[i] = new int[degree[i]];
+        }
+        Arrays.fill(degree, 0);
+        for (int c = 0; c < scopes.size(); c++) {
+            for (int idx : scopes.get(c)) {
+                constraintsOf[idx][degree[idx]++] = c;
+            }
+        }
+    }
+
+    @Override
+    protected void relax(FragmentSelectionContext context, int relaxCount) {
+        int[] dec = context.decisionVarIndices();
+        Arrays.fill(relatedness, 0.0);
+        while (nRelaxed() < relaxCount) {
+            int next = -1;
+            double bestScore = 0.0;
+            for (int idx : dec) {
+                if (relatedness[idx] > 0.0 && !isRelaxed(idx)) {
+                    double score = relatedness[idx] * (1.0 + NOISE * random.nextDouble());
+                    if (score > bestScore) {
+                        bestScore = score;
+                        next = idx;
+                    }
+                }
+            }
+            if (next == -1) {
+                // no variable is related to the relaxed ones: start again from a new one
+                do {
+                    next = dec[random.nextInt(dec.length)];
+                } while (isRelaxed(next));
+            }
+            addRelaxed(next);
+            for (int c : constraintsOf[next]) {
+                int[] scope = scopes.get(c);
+                double weight = 1.0 / scope.length;
+                for (int idx : scope) {
+                    relatedness[idx] += weight;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "related";
+    }
+}
@@ -1,10 +1,17 @@
 package org.maxicp.search.blackbox;
 
 import org.maxicp.ModelDispatcher;
+import org.maxicp.cp.engine.constraints.NogoodStore;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.modeling.ConcreteCPModel;
 import org.maxicp.modeling.algebra.integer.IntExpression;
 import org.maxicp.search.DFSearch;
 import org.maxicp.search.FDSModeling;
+import org.maxicp.search.IntDecision;
+import org.maxicp.search.NogoodRecorder;
 import org.maxicp.search.SearchStatistics;
+import org.maxicp.state.StateManager;
+import org.maxicp.util.exception.InconsistencyException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +31,11 @@ import java.util.function.Supplier;
  * stored in the enclosing {@link BlackBoxSearch}. This phase does not optimize
  * anything; it only tries to determine whether the model is feasible and, if so,
  * record one feasible assignment.</p>
+ *
+ * <p>With the CP solver, the phase learns from its restarts: the reduced nld-nogoods of the branch on which
+ * each restart is stopped (see {@link NogoodRecorder}) are added to a {@link NogoodStore},
+ * such that the next restarts never explore again the subtrees that were refuted.
+ * The nogoods are kept from one run of the phase to the next one.</p>
  */
 public class RestartRunnableSearch extends RunnableSearch {
 
@@ -32,6 +44,7 @@ public class RestartRunnableSearch extends RunnableSearch {
     private final double randomSwapProbability;
     private final int baseFailureLimit;
     private final Random random;
+    private final List<IntDecision[]> nogoods = new ArrayList<>(); // learnt from the previous restarts
 
     public RestartRunnableSearch(BlackBoxSearch blackBoxSearch,
                                  ModelDispatcher model,
@@ -54,12 +67,36 @@ public class RestartRunnableSearch extends RunnableSearch {
 
     @Override
     public SearchStatus run(long timeLimitInMillis) {
+        if (!(model.getConcreteModel() instanceof ConcreteCPModel cpModel)) {
+            return restarts(timeLimitInMillis, null, null);
+        }
+        // the store and the propagation of the nogoods at the root are discarded at the end of the phase,
+        // the nogoods being kept to be added again at the next run
+        StateManager sm = cpModel.getStateManager();
+        sm.saveState();
+        try {
+            NogoodStore store = new NogoodStore(cpModel.solver);
+            cpModel.solver.post(store);
+            for (IntDecision[] nogood : nogoods) {
+                addNogood(cpModel, store, nogood);
+            }
+            return restarts(timeLimitInMillis, cpModel, store);
+        } catch (InconsistencyException e) {
+            blackBoxSearch.logPhase("[phase feasibility-restarts] proven UNSAT by the nogoods");
+            return SearchStatus.UNSAT;
+        } finally {
+            sm.restoreState();
+        }
+    }
+
+    private SearchStatus restarts(long timeLimitInMillis, ConcreteCPModel cpModel, NogoodStore store) {
         long t0 = System.currentTimeMillis();
         int restart = 1;
         SearchStatus bestStatus = SearchStatus.UNKNOWN;
         blackBoxSearch.logPhase("[phase feasibility-restarts] start budget=%dms".formatted(timeLimitInMillis));
 
-        while ((System.currentTimeMillis() - t0) < timeLimitInMillis && !hasFeasibleSolution()) {
+        while ((System.currentTimeMillis() - t0) < timeLimitInMillis && !hasFeasibleSolution()
+                && !blackBoxSearch.isStopRequested()) {
             Supplier<Runnable[]> branching = new FDSModeling(vars.toArray(IntExpression[]::new));
             if (randomSwapProbability > 0.0) {
                 branching = new RandomizedBranching(branching, random, randomSwapProbability);
@@ -71,17 +108,22 @@ public class RestartRunnableSearch extends RunnableSearch {
                 for (IntExpression var : vars) {
                     solution.add(var.min());
                 }
-                blackBoxSearch.updateSolution(solution);
-                blackBoxSearch.updateObjective(blackBoxSearch.evaluateCurrentObjective());
+                blackBoxSearch.offerSolution(solution, blackBoxSearch.evaluateCurrentObjective());
             });
+            NogoodRecorder recorder = new NogoodRecorder();
+            if (store != null) {
+                dfs.setDFSListener(recorder);
+            }
 
             final int failureLimit = baseFailureLimit * luby(restart);
             blackBoxSearch.logProgress("[phase feasibility-restarts] restart=%d failureLimit=%d"
                     .formatted(restart, failureLimit));
             SearchStatistics stats = dfs.solve(s -> {
                 long elapsed = System.currentTimeMillis() - t0;
-                return elapsed >= timeLimitInMillis || s.numberOfFailures() >= failureLimit || hasFeasibleSolution();
+                return elapsed >= timeLimitInMillis || s.numberOfFailures() >= failureLimit || hasFeasibleSolution()
+                        || blackBoxSearch.isStopRequested();
             });
+            recordStatistics(stats);
             blackBoxSearch.logTrace("[phase feasibility-restarts] restart=%d stats: %s"
                     .formatted(restart, blackBoxSearch.formatStats(stats)));
 
@@ -93,6 +135,15 @@ public class RestartRunnableSearch extends RunnableSearch {
                 bestStatus = SearchStatus.SAT;
                 break;
             }
+            if (store != null) {
+                // the subtrees refuted by this restart are never explored again
+                for (IntDecision[] nogood : recorder.nogoods()) {
+                    nogoods.add(nogood);
+                    addNogood(cpModel, store, nogood);
+                }
+                blackBoxSearch.logTrace("[phase feasibility-restarts] restart=%d nogoods=%d"
+                        .formatted(restart, store.size()));
+            }
             restart++;
         }
 
@@ -101,6 +152,18 @@ public class RestartRunnableSearch extends RunnableSearch {
         return status;
     }
 
+    private static void addNogood(ConcreteCPModel cpModel, NogoodStore store, IntDecision[] nogood) {
+        CPIntVar[] x = new CPIntVar[nogood.length];
+        IntDecision.Relation[] rel = new IntDecision.Relation[nogood.length];
+        int[] values = new int[nogood.length];
+        for (int i = 0; i < nogood.length; i++) {
+            x[i] = cpModel.getCPVar(nogood[i].x);
+            rel[i] = nogood[i].relation;
+            values[i] = nogood[i].value;
+        }
+        store.add(x, rel, values);
+    }
+
     /**
      * Returns the {@code i}-th term of the Luby sequence, using 1-based indexing.
      *
@@ -1,10 +1,13 @@
 package org.maxicp.search.blackbox;
 
+import org.maxicp.search.SearchStatistics;
+
 import java.util.List;
 
 public abstract class RunnableSearch {
 
     protected final BlackBoxSearch blackBoxSearch;
+    private final SearchStatistics statistics = new SearchStatistics();
 
     protected RunnableSearch(BlackBoxSearch blackBoxSearch) {
         this.blackBoxSearch = blackBoxSearch;
@@ -18,4 +21,16 @@ public abstract class RunnableSearch {
         return blackBoxSearch.bestSolution().isPresent();
     }
 
-}
\ No newline at end of file
+    /**
+     * Adds the statistics of one search run by this phase to its cumulative statistics.
+     */
+    protected void recordStatistics(SearchStatistics stats) {
+        statistics.merge(stats);
+    }
+
+    /** Returns the nodes, failures and solutions accumulated over all the runs of this phase. */
+    public SearchStatistics statistics() {
+        return statistics;
+    }
+
+}
@@ -0,0 +1,48 @@
+package org.maxicp.search.blackbox;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Time-window removal: relaxes the decision variables whose incumbent values are the closest
+ * to each other, in a window of values chosen at random.
+ *
+ * <p>On the start variables of a scheduling model, this relaxes the activities executing
+ * during a window of time, and lets the search reorder them.
+ * Without incumbent, the variables are relaxed at random.</p>
+ */
+public class ValueWindowFragmentSelector extends DestroyFragmentSelector {
+
+    // value (high bits) and index (low bits) of each decision variable, sorted by value
+    private long[] order = new long[0];
+
+    public ValueWindowFragmentSelector(Random random) {
+        super(random);
+    }
+
+    @Override
+    protected void relax(FragmentSelectionContext context, int relaxCount) {
+        int[] incumbent = context.incumbent();
+        if (incumbent == null) {
+            return;
+        }
+        int[] dec = context.decisionVarIndices();
+        int n = dec.length;
+        if (order.length < n) {
+            order = new long[n];
+        }
+        for (int i = 0; i < n; i++) {
+            order[i] = ((long) incumbent[dec[i]] << 32) | dec[i];
+        }
+        Arrays.sort(order, 0, n);
+        int start = random.nextInt(n - relaxCount + 1);
+        for (int k = start; k < start + relaxCount; k++) {
+            addRelaxed((int) order[k]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "value-window";
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state;
+
+/**
+ * Array of long values that are saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}.
+ *
+ * Unlike an array of {@link StateLong}, the values are stored contiguously
+ * and setting one of them does not box it.
+ *
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public interface StateLongArray {
+
+    /**
+     * Returns the number of values
+     *
+     * @return the number of values
+     */
+    int length();
+
+    /**
+     * Returns a value
+     *
+     * @param i the index of the value
+     * @return the value at index i
+     */
+    long get(int i);
+
+    /**
+     * Sets a value
+     *
+     * @param i the index of the value
+     * @param v the new value
+     */
+    void set(int i, long v);
+}
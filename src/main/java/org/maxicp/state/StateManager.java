@@ -77,6 +77,15 @@ public interface StateManager {
      */
     StateLong makeStateLong(long initValue);
 
+    /**
+     * Creates a Stateful array of long values (restorable)
+     *
+     * @param length    the number of values
+     * @param initValue the initial value of each entry
+     * @return a StateLongArray object with all its values equal to initValue
+     */
+    StateLongArray makeStateLongArray(int length, long initValue);
+
     /**
      * Creates a Stateful map (restorable)
      *
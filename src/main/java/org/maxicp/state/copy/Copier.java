@@ -102,6 +102,13 @@ public class Copier implements StateManager {
         return s;
     }
 
+    @Override
+    public StateLongArray makeStateLongArray(int length, long initValue) {
+        CopyLongArray s = new CopyLongArray(length, initValue);
+        store.add(s);
+        return s;
+    }
+
     @Override
     public <K,V> StateMap<K,V> makeStateMap() {
         CopyMap<K, V> s = new CopyMap<>();
@@ -0,0 +1,68 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.maxicp.state.StateEntry;
+import org.maxicp.state.StateLongArray;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.Storage;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateLongArray} with copy strategy:
+ * the whole array is copied at each save.
+ *
+ * @see Copier
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public class CopyLongArray implements Storage, StateLongArray {
+
+    class CopyLongArrayStateEntry implements StateEntry {
+        private final long[] values;
+
+        CopyLongArrayStateEntry(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public void restore() {
+            System.arraycopy(values, 0, CopyLongArray.this.values, 0, values.length);
+        }
+    }
+
+    private final long[] values;
+
+    protected CopyLongArray(int length, long initValue) {
+        values = new long[length];
+        Arrays.fill(values, initValue);
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public long get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public void set(int i, long v) {
+        values[i] = v;
+    }
+
+    @Override
+    public StateEntry save() {
+        return new CopyLongArrayStateEntry(values.clone());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
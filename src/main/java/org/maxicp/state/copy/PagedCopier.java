@@ -0,0 +1,330 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.maxicp.state.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * StateManager that copies the state with a copy-on-write strategy.
+ *
+ * <p>The values of {@link StateInt}, {@link StateLong}, {@link StateLongArray}
+ * and of the references are stored in fixed-size primitive pages.
+ * {@link #saveState()} only copies the tables of pages (one reference per page),
+ * and a page is copied the first time it is modified after a save or a restore.
+ * The cost of a save is thus proportional to the number of pages,
+ * and the memory of a level to the number of pages modified at that level,
+ * instead of the number of states as with {@link Copier}.
+ *
+ * <p>A page referenced by a saved level is never modified anymore,
+ * such that the saved levels can be read by other threads.
+ *
+ * <p>The maps are copied at each save, as with {@link Copier}.
+ */
+public class PagedCopier implements StateManager {
+
+    static final int PAGE_BITS = 8;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final int INITIAL_PAGES = 4;
+
+    /**
+     * Tables of pages of a saved level
+     */
+    private record Level(int nInts, int[][] intPages, int nLongs, long[][] longPages,
+                         int nRefs, Object[][] refPages, StateEntry[] maps) {
+    }
+
+    int[][] intPages = new int[INITIAL_PAGES][];
+    private long[] intPageEpoch = new long[INITIAL_PAGES]; // epoch at which each page was last copied
+    private int nInts = 0;
+
+    long[][] longPages = new long[INITIAL_PAGES][];
+    private long[] longPageEpoch = new long[INITIAL_PAGES];
+    private int nLongs = 0;
+
+    Object[][] refPages = new Object[INITIAL_PAGES][];
+    private long[] refPageEpoch = new long[INITIAL_PAGES];
+    private int nRefs = 0;
+
+    private final List<Storage> maps = new ArrayList<>();
+
+    private final ArrayList<Level> levels = new ArrayList<>();
+    // incremented at each save and restore, a page copied at an earlier epoch is shared with a saved level
+    private long epoch = 0;
+
+    private final List<Runnable> onRestoreListeners = new LinkedList<>();
+
+    private void notifyRestore() {
+        for (Runnable l : onRestoreListeners) {
+            l.run();
+        }
+    }
+
+    @Override
+    public void onRestore(Runnable listener) {
+        onRestoreListeners.add(listener);
+    }
+
+    @Override
+    public int getLevel() {
+        return levels.size() - 1;
+    }
+
+    @Override
+    public void saveState() {
+        StateEntry[] mapEntries = new StateEntry[maps.size()];
+        for (int i = 0; i < mapEntries.length; i++)
+            mapEntries[i] = maps.get(i).save();
+        levels.add(new Level(
+                nInts, Arrays.copyOf(intPages, pages(nInts)),
+                nLongs, Arrays.copyOf(longPages, pages(nLongs)),
+                nRefs, Arrays.copyOf(refPages, pages(nRefs)),
+                mapEntries));
+        epoch++;
+    }
+
+    @Override
+    public void restoreState() {
+        if (levels.isEmpty())
+            throw new IllegalStateException("no state to restore");
+        Level level = levels.remove(levels.size() - 1);
+        epoch++;
+        // as with the Trailer, the slots created after the save keep their value:
+        // the pages created after the save are kept, and the slots of the last saved page
+        // created after the save are copied in the restored page
+        int lastInt = level.nInts >>> PAGE_BITS;
+        int[] pageInt = null;
+        if ((level.nInts & PAGE_MASK) != 0 && nInts > level.nInts) {
+            int from = level.nInts & PAGE_MASK;
+            int end = Math.min(nInts - (lastInt << PAGE_BITS), PAGE_SIZE);
+            pageInt = level.intPages[lastInt].clone();
+            System.arraycopy(intPages[lastInt], from, pageInt, from, end - from);
+        }
+        System.arraycopy(level.intPages, 0, intPages, 0, level.intPages.length);
+        if (pageInt != null) {
+            intPages[lastInt] = pageInt;
+            intPageEpoch[lastInt] = epoch;
+        }
+        int lastLong = level.nLongs >>> PAGE_BITS;
+        long[] pageLong = null;
+        if ((level.nLongs & PAGE_MASK) != 0 && nLongs > level.nLongs) {
+            int from = level.nLongs & PAGE_MASK;
+            int end = Math.min(nLongs - (lastLong << PAGE_BITS), PAGE_SIZE);
+            pageLong = level.longPages[lastLong].clone();
+            System.arraycopy(longPages[lastLong], from, pageLong, from, end - from);
+        }
+        System.arraycopy(level.longPages, 0, longPages, 0, level.longPages.length);
+        if (pageLong != null) {
+            longPages[lastLong] = pageLong;
+            longPageEpoch[lastLong] = epoch;
+        }
+        int lastRef = level.nRefs >>> PAGE_BITS;
+        Object[] pageRef = null;
+        if ((level.nRefs & PAGE_MASK) != 0 && nRefs > level.nRefs) {
+            int from = level.nRefs & PAGE_MASK;
+            int end = Math.min(nRefs - (lastRef << PAGE_BITS), PAGE_SIZE);
+            pageRef = level.refPages[lastRef].clone();
+            System.arraycopy(refPages[lastRef], from, pageRef, from, end - from);
+        }
+        System.arraycopy(level.refPages, 0, refPages, 0, level.refPages.length);
+        if (pageRef != null) {
+            refPages[lastRef] = pageRef;
+            refPageEpoch[lastRef] = epoch;
+        }
+        for (StateEntry e : level.maps)
+            e.restore();
+        notifyRestore();
+    }
+
+    @Override
+    public void restoreStateUntil(int level) {
+        while (getLevel() > level)
+            restoreState();
+    }
+
+    private static int pages(int nSlots) {
+        return (nSlots + PAGE_MASK) >>> PAGE_BITS;
+    }
+
+    /**
+     * Allocates an int slot
+     *
+     * @param initial the initial value of the slot
+     * @return the index of the slot
+     */
+    int newInt(int initial) {
+        int index = nInts++;
+        int p = index >>> PAGE_BITS;
+        if (p == intPages.length) {
+            intPages = Arrays.copyOf(intPages, p * 2);
+            intPageEpoch = Arrays.copyOf(intPageEpoch, p * 2);
+        }
+        if (intPages[p] == null) {
+            intPages[p] = new int[PAGE_SIZE];
+            intPageEpoch[p] = epoch;
+        }
+        setInt(index, initial);
+        return index;
+    }
+
+    int getInt(int index) {
+        return intPages[index >>> PAGE_BITS][index & PAGE_MASK];
+    }
+
+    /**
+     * Sets the value of an int slot, copying its page first
+     * if it is shared with a saved level
+     *
+     * @param index the index of the slot
+     * @param v     the new value
+     */
+    void setInt(int index, int v) {
+        int p = index >>> PAGE_BITS;
+        int[] page = intPages[p];
+        if (page[index & PAGE_MASK] == v)
+            return;
+        if (intPageEpoch[p] != epoch) {
+            page = page.clone();
+            intPages[p] = page;
+            intPageEpoch[p] = epoch;
+        }
+        page[index & PAGE_MASK] = v;
+    }
+
+    /**
+     * Allocates consecutive long slots
+     *
+     * @param n       number of slots
+     * @param aligned true if the first slot must be the first one of a page
+     * @return the index of the first slot
+     */
+    int newLongs(int n, boolean aligned) {
+        if (aligned)
+            nLongs = pages(nLongs) << PAGE_BITS;
+        int first = nLongs;
+        nLongs += n;
+        int nPages = pages(nLongs);
+        if (nPages > longPages.length) {
+            int capacity = Math.max(nPages, longPages.length * 2);
+            longPages = Arrays.copyOf(longPages, capacity);
+            longPageEpoch = Arrays.copyOf(longPageEpoch, capacity);
+        }
+        for (int p = pages(first); p < nPages; p++) {
+            if (longPages[p] == null) {
+                longPages[p] = new long[PAGE_SIZE];
+                longPageEpoch[p] = epoch;
+            }
+        }
+        return first;
+    }
+
+    long getLong(int index) {
+        return longPages[index >>> PAGE_BITS][index & PAGE_MASK];
+    }
+
+    /**
+     * Sets the value of a long slot, copying its page first
+     * if it is shared with a saved level
+     *
+     * @param index the index of the slot
+     * @param v     the new value
+     */
+    void setLong(int index, long v) {
+        int p = index >>> PAGE_BITS;
+        long[] page = longPages[p];
+        if (page[index & PAGE_MASK] == v)
+            return;
+        if (longPageEpoch[p] != epoch) {
+            page = page.clone();
+            longPages[p] = page;
+            longPageEpoch[p] = epoch;
+        }
+        page[index & PAGE_MASK] = v;
+    }
+
+    /**
+     * Allocates a reference slot
+     *
+     * @param initial the initial value of the slot
+     * @return the index of the slot
+     */
+    int newRef(Object initial) {
+        int index = nRefs++;
+        int p = index >>> PAGE_BITS;
+        if (p == refPages.length) {
+            refPages = Arrays.copyOf(refPages, p * 2);
+            refPageEpoch = Arrays.copyOf(refPageEpoch, p * 2);
+        }
+        if (refPages[p] == null) {
+            refPages[p] = new Object[PAGE_SIZE];
+            refPageEpoch[p] = epoch;
+        }
+        setRef(index, initial);
+        return index;
+    }
+
+    Object getRef(int index) {
+        return refPages[index >>> PAGE_BITS][index & PAGE_MASK];
+    }
+
+    /**
+     * Sets the value of a reference slot, copying its page first
+     * if it is shared with a saved level
+     *
+     * @param index the index of the slot
+     * @param v     the new value
+     */
+    void setRef(int index, Object v) {
+        int p = index >>> PAGE_BITS;
+        Object[] page = refPages[p];
+        if (page[index & PAGE_MASK] == v)
+            return;
+        if (refPageEpoch[p] != epoch) {
+            page = page.clone();
+            refPages[p] = page;
+            refPageEpoch[p] = epoch;
+        }
+        page[index & PAGE_MASK] = v;
+    }
+
+    @Override
+    public <T> State<T> makeStateRef(T initValue) {
+        return new PagedRef<>(this, initValue);
+    }
+
+    @Override
+    public StateInt makeStateInt(int initValue) {
+        return new PagedInt(this, initValue);
+    }
+
+    @Override
+    public StateLong makeStateLong(long initValue) {
+        return new PagedLong(this, initValue);
+    }
+
+    @Override
+    public StateLongArray makeStateLongArray(int length, long initValue) {
+        return new PagedLongArray(this, length, initValue);
+    }
+
+    @Override
+    public <K, V> StateMap<K, V> makeStateMap() {
+        CopyMap<K, V> s = new CopyMap<>();
+        maps.add(s);
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return "PagedCopier";
+    }
+}
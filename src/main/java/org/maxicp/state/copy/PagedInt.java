@@ -0,0 +1,55 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateManager;
+
+/**
+ * Implementation of {@link StateInt} stored in a page of a {@link PagedCopier}
+ * @see PagedCopier
+ * @see StateManager#makeStateInt(int)
+ */
+public class PagedInt implements StateInt {
+
+    private final PagedCopier copier;
+    private final int index;
+
+    protected PagedInt(PagedCopier copier, int initial) {
+        this.copier = copier;
+        this.index = copier.newInt(initial);
+    }
+
+    @Override
+    public Integer setValue(Integer v) {
+        copier.setInt(index, v);
+        return v;
+    }
+
+    @Override
+    public Integer value() {
+        return copier.getInt(index);
+    }
+
+    @Override
+    public int increment() {
+        int v = copier.getInt(index) + 1;
+        copier.setInt(index, v);
+        return v;
+    }
+
+    @Override
+    public int decrement() {
+        int v = copier.getInt(index) - 1;
+        copier.setInt(index, v);
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return "" + copier.getInt(index);
+    }
+}
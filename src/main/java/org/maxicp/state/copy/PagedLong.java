@@ -0,0 +1,56 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.maxicp.state.StateLong;
+import org.maxicp.state.StateManager;
+
+/**
+ * Implementation of {@link StateLong} stored in a page of a {@link PagedCopier}
+ * @see PagedCopier
+ * @see StateManager#makeStateLong(long)
+ */
+public class PagedLong implements StateLong {
+
+    private final PagedCopier copier;
+    private final int index;
+
+    protected PagedLong(PagedCopier copier, long initial) {
+        this.copier = copier;
+        this.index = copier.newLongs(1, false);
+        copier.setLong(index, initial);
+    }
+
+    @Override
+    public Long setValue(Long v) {
+        copier.setLong(index, v);
+        return v;
+    }
+
+    @Override
+    public Long value() {
+        return copier.getLong(index);
+    }
+
+    @Override
+    public long increment() {
+        long v = copier.getLong(index) + 1;
+        copier.setLong(index, v);
+        return v;
+    }
+
+    @Override
+    public long decrement() {
+        long v = copier.getLong(index) - 1;
+        copier.setLong(index, v);
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return "" + copier.getLong(index);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.maxicp.state.StateLongArray;
+import org.maxicp.state.StateManager;
+
+import java.util.StringJoiner;
+
+/**
+ * Implementation of {@link StateLongArray} stored in consecutive pages of a {@link PagedCopier}:
+ * only the pages of the array modified since the last save or restore are copied.
+ *
+ * @see PagedCopier
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public class PagedLongArray implements StateLongArray {
+
+    private final PagedCopier copier;
+    private final int first;
+    private final int length;
+
+    protected PagedLongArray(PagedCopier copier, int length, long initValue) {
+        this.copier = copier;
+        this.length = length;
+        // the array starts at a page boundary such that it shares no page with other states
+        this.first = copier.newLongs(length, true);
+        if (initValue != 0) {
+            for (int i = 0; i < length; i++)
+                copier.setLong(first + i, initValue);
+        }
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public long get(int i) {
+        return copier.getLong(first + i);
+    }
+
+    @Override
+    public void set(int i, long v) {
+        copier.setLong(first + i, v);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < length; i++)
+            joiner.add(Long.toString(get(i)));
+        return joiner.toString();
+    }
+}
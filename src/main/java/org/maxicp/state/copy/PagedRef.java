@@ -0,0 +1,42 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.maxicp.state.State;
+import org.maxicp.state.StateManager;
+
+/**
+ * Implementation of {@link State} stored in a page of a {@link PagedCopier}
+ * @see PagedCopier
+ * @see StateManager#makeStateRef(Object)
+ */
+public class PagedRef<T> implements State<T> {
+
+    private final PagedCopier copier;
+    private final int index;
+
+    protected PagedRef(PagedCopier copier, T initial) {
+        this.copier = copier;
+        this.index = copier.newRef(initial);
+    }
+
+    @Override
+    public T setValue(T v) {
+        copier.setRef(index, v);
+        return v;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T value() {
+        return (T) copier.getRef(index);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(copier.getRef(index));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.datastructures;
+
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateLongArray;
+import org.maxicp.state.StateManager;
+
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+
+/**
+ * Set of integers {@code {0,...,n-1}} that can be saved and restored through
+ * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ * methods, where values can only be removed.
+ *
+ * Contrary to {@link StateSparseSet}, that uses two arrays of {@code n} integers,
+ * the set is represented by {@code n/64} words, and its values are iterated by increasing order.
+ * It is thus more compact when many sets are needed over a large domain,
+ * at the price of iterations in {@code O(n/64 + size)} instead of {@code O(size)}.
+ */
+public class StateBitSet {
+
+    private final int n;
+    private final StateLongArray words;
+    private final StateInt size;
+
+    /**
+     * Creates a set containing the elements {@code {0,...,n-1}}.
+     *
+     * @param sm the state manager that will save and restore the set when
+     *           {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+     *           methods are called
+     * @param n  the number of elements in the set
+     */
+    public StateBitSet(StateManager sm, int n) {
+        this.n = n;
+        int nWords = (n + 63) >>> 6;
+        words = sm.makeStateLongArray(nWords, -1L);
+        if ((n & 63) != 0)
+            words.set(nWords - 1, -1L >>> (64 - (n & 63)));
+        size = sm.makeStateInt(n);
+    }
+
+    /**
+     * Returns the size of the set.
+     *
+     * @return the size of the set
+     */
+    public int size() {
+        return size.value();
+    }
+
+    /**
+     * Checks if the set is empty
+     *
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return size.value() == 0;
+    }
+
+    /**
+     * Checks if a value is in the set.
+     *
+     * @param val the value to check
+     * @return true if val is in the set
+     */
+    public boolean contains(int val) {
+        if (val < 0 || val >= n)
+            return false;
+        return (words.get(val >>> 6) & (1L << val)) != 0;
+    }
+
+    /**
+     * Removes the given value from the set.
+     *
+     * @param val the value to remove.
+     * @return true if val was in the set, false otherwise
+     */
+    public boolean remove(int val) {
+        if (!contains(val))
+            return false;
+        int w = val >>> 6;
+        words.set(w, words.get(w) & ~(1L << val));
+        size.decrement();
+        return true;
+    }
+
+    /**
+     * Removes all the elements in the set
+     */
+    public void removeAll() {
+        for (int w = 0; w < words.length(); w++)
+            words.set(w, 0L);
+        size.setValue(0);
+    }
+
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * present in the set, by increasing order.
+     *
+     * @param dest, an array large enough {@code dest.length >= size()}
+     * @return the size of the set
+     */
+    public int fillArray(int[] dest) {
+        int j = 0;
+        for (int w = 0; w < words.length(); w++) {
+            long word = words.get(w);
+            while (word != 0) {
+                dest[j++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return j;
+    }
+
+    /**
+     * Sets the first values of <code>dest</code> to the ones
+     * present in the set that also satisfy the given filter predicate, by increasing order.
+     *
+     * @param dest, an array large enough {@code dest.length >= size()}
+     * @param filterPredicate the predicate, only elements for which the predicate is true are kept
+     * @return the size of the set of elements in the set satisfying the predicate
+     */
+    public int fillArrayWithFilter(int[] dest, Predicate<Integer> filterPredicate) {
+        int j = 0;
+        for (int w = 0; w < words.length(); w++) {
+            long word = words.get(w);
+            while (word != 0) {
+                int val = (w << 6) + Long.numberOfTrailingZeros(word);
+                if (filterPredicate.test(val))
+                    dest[j++] = val;
+                word &= word - 1;
+            }
+        }
+        return j;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(",", "{", "}");
+        for (int w = 0; w < words.length(); w++) {
+            long word = words.get(w);
+            while (word != 0) {
+                joiner.add(Integer.toString((w << 6) + Long.numberOfTrailingZeros(word)));
+                word &= word - 1;
+            }
+        }
+        return joiner.toString();
+    }
+}
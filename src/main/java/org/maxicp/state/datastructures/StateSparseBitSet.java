@@ -7,8 +7,8 @@
 package org.maxicp.state.datastructures;
 
 
-import org.maxicp.state.State;
 import org.maxicp.state.StateInt;
+import org.maxicp.state.StateLongArray;
 import org.maxicp.state.StateManager;
 
 import java.util.Arrays;
@@ -17,27 +17,41 @@ import java.util.Arrays;
 /**
  * Class to represent a bit-set that can be saved and restored through
  * the {@link StateManager#saveState()} / {@link StateManager#restoreState()}
+ *
+ * <p>This is the reversible sparse bit-set of the compact-table algorithm:
+ * the words are stored in a {@link StateLongArray}, each word being trailed
+ * at most once per level without boxing, and the indices of the non-zero words
+ * are kept in a sparse array such that the operations only visit those words.
+ *
+ * <p>See Demeulenaere, J., Hartert, R., Lecoutre, C., Perez, G., Perron, L., Régin, J. C., &amp; Schaus, P.
+ * Compact-table: efficiently filtering table constraints with reversible sparse bit-sets. CP 2016.
  */
 public class StateSparseBitSet {
 
     /* Variables used to store value of the bitset */
     private int nWords;
-    private State<Long>[] words;
+    private StateLongArray words;
 
     /* Variables used to make set sparse */
     private int[] nonZeroIdx;
     private StateInt nNonZero;
 
-    private Long mask;
+    private long mask;
 
     /**
      * Bitset of the same capacity as the outer {@link StateSparseBitSet}.
      * It is not synchronized with  {@link StateManager}.
      * It is rather intended to be used as parameter to the
      * {@link #intersect(BitSet)} method to modify the outer {@link StateSparseBitSet}.
+     *
+     * <p>It caches a residue, the index of the last word found to intersect
+     * the outer {@link StateSparseBitSet} in {@link #hasEmptyIntersection(BitSet)},
+     * that is checked first the next time.
      */
     public class SupportBitSet extends BitSet {
 
+        private int residue = 0;
+
         public SupportBitSet() {
             super(nWords);
         }
@@ -94,13 +108,10 @@ public class StateSparseBitSet {
      */
     public StateSparseBitSet(StateManager sm, int n) {
         nWords = (n + 63) >>> 6; // divided by 64
-        words = new State[nWords];
+        words = sm.makeStateLongArray(nWords, 0xFFFFFFFFFFFFFFFFL);
         mask = ~0L >>> (64 - (n % 64));
-        Arrays.setAll(words, i ->
-                i == nWords - 1 ?
-                        sm.makeStateLong(mask) :
-                        sm.makeStateLong(0xFFFFFFFFFFFFFFFFL)
-        );
+        if (nWords > 0)
+            words.set(nWords - 1, mask);
         nonZeroIdx = new int[nWords];
         Arrays.setAll(nonZeroIdx, i -> i);
         nNonZero = sm.makeStateInt(nWords);
@@ -124,14 +135,13 @@ public class StateSparseBitSet {
         int size = nNonZero.value();
         for (int i = size - 1; i >= 0; i--) {
             int idx = nonZeroIdx[i];
-            long remove = words[idx].value() & ~bs.words[idx];
+            long remove = words.get(idx) & ~bs.words[idx];
+            words.set(idx, remove);
             if (remove == 0L) {
                 // deactivation of word
                 size -= 1;
                 nonZeroIdx[i] = nonZeroIdx[size];
                 nonZeroIdx[size] = idx;
-            } else {
-                words[idx].setValue(remove);
             }
         }
         nNonZero.setValue(size);
@@ -146,28 +156,37 @@ public class StateSparseBitSet {
         int size = nNonZero.value();
         for (int i = size - 1; i >= 0; i--) {
             int idx = nonZeroIdx[i];
-            long intersect = words[idx].value() & bs.words[idx];
+            long intersect = words.get(idx) & bs.words[idx];
+            words.set(idx, intersect);
             if (intersect == 0L) {
                 // deactivation of word
                 size -= 1;
                 nonZeroIdx[i] = nonZeroIdx[size];
                 nonZeroIdx[size] = idx;
-            } else {
-                words[idx].setValue(intersect);
             }
         }
         nNonZero.setValue(size);
     }
+
     /**
-     * Test the emptiness of the intersection with a given BitSet
+     * Test the emptiness of the intersection with a given BitSet.
+     * If it is a {@link SupportBitSet}, its residue is checked first
+     * and updated when another intersecting word is found.
      *
      * @param bs the BitSet to test the intersection with
      * @return true if empty, false otherwise
      */
     public boolean hasEmptyIntersection(BitSet bs) {
+        // the deactivated words are zero, the residue can be checked without knowing if it is active
+        SupportBitSet support = bs instanceof SupportBitSet s ? s : null;
+        if (support != null && nWords > 0 && (words.get(support.residue) & bs.words[support.residue]) != 0L) {
+            return false;
+        }
         for (int i = nNonZero.value() - 1; i >= 0; i--) {
             int idx = nonZeroIdx[i];
-            if ((words[idx].value() & bs.words[idx]) != 0L) {
+            if ((words.get(idx) & bs.words[idx]) != 0L) {
+                if (support != null)
+                    support.residue = idx;
                 return false;
             }
         }
@@ -178,7 +197,7 @@ public class StateSparseBitSet {
         int count = 0;
         for (int i = nNonZero.value() - 1; i >= 0; i--) {
             int idx = nonZeroIdx[i];
-            count += java.lang.Long.bitCount(words[idx].value() & bs.words[idx]);
+            count += java.lang.Long.bitCount(words.get(idx) & bs.words[idx]);
         }
         return count;
     }
@@ -187,7 +206,7 @@ public class StateSparseBitSet {
     public String toString() {
         String res = "";
         for (int i = 0; i < nNonZero.value(); i++) {
-            res += " w" + nonZeroIdx[i] + "=" + Long.toBinaryString(words[nonZeroIdx[i]].value());
+            res += " w" + nonZeroIdx[i] + "=" + Long.toBinaryString(words.get(nonZeroIdx[i]));
         }
         return res;
     }
@@ -10,14 +10,49 @@ import org.maxicp.state.StateInt;
 import org.maxicp.state.StateManager;
 
 /**
- * Implementation of {@link StateInt} with trail strategy
+ * Implementation of {@link StateInt} with trail strategy.
+ * The value is stored in a primitive slot of the {@link Trailer},
+ * such that no object is allocated when it is trailed.
  * @see Trailer
  * @see StateManager#makeStateInt(int)
  */
-public class TrailInt extends Trail<Integer> implements StateInt {
+public class TrailInt implements StateInt {
+
+    private final Trailer trail;
+    private final int index;
 
     protected TrailInt(Trailer trail, int initial) {
-        super(trail, initial);
+        this.trail = trail;
+        this.index = trail.newInt(initial);
+    }
+
+    @Override
+    public Integer setValue(Integer v) {
+        trail.setInt(index, v);
+        return v;
+    }
+
+    @Override
+    public Integer value() {
+        return trail.intValues[index];
     }
 
+    @Override
+    public int increment() {
+        int v = trail.intValues[index] + 1;
+        trail.setInt(index, v);
+        return v;
+    }
+
+    @Override
+    public int decrement() {
+        int v = trail.intValues[index] - 1;
+        trail.setInt(index, v);
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return "" + trail.intValues[index];
+    }
 }
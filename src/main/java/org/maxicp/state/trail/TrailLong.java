@@ -6,19 +6,53 @@
 package org.maxicp.state.trail;
 
 
-import org.maxicp.state.StateInt;
 import org.maxicp.state.StateLong;
 import org.maxicp.state.StateManager;
 
 /**
- * Implementation of {@link StateInt} with trail strategy
+ * Implementation of {@link StateLong} with trail strategy.
+ * The value is stored in a primitive slot of the {@link Trailer},
+ * such that no object is allocated when it is trailed.
  * @see Trailer
- * @see StateManager#makeStateInt(int)
+ * @see StateManager#makeStateLong(long)
  */
-public class TrailLong extends Trail<Long> implements StateLong {
+public class TrailLong implements StateLong {
+
+    private final Trailer trail;
+    private final int index;
 
     protected TrailLong(Trailer trail, long initial) {
-        super(trail, initial);
+        this.trail = trail;
+        this.index = trail.newLong(initial);
+    }
+
+    @Override
+    public Long setValue(Long v) {
+        trail.setLong(index, v);
+        return v;
+    }
+
+    @Override
+    public Long value() {
+        return trail.longValues[index];
     }
 
+    @Override
+    public long increment() {
+        long v = trail.longValues[index] + 1;
+        trail.setLong(index, v);
+        return v;
+    }
+
+    @Override
+    public long decrement() {
+        long v = trail.longValues[index] - 1;
+        trail.setLong(index, v);
+        return v;
+    }
+
+    @Override
+    public String toString() {
+        return "" + trail.longValues[index];
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.trail;
+
+import org.maxicp.state.StateEntry;
+import org.maxicp.state.StateLongArray;
+import org.maxicp.state.StateManager;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of {@link StateLongArray} with trail strategy.
+ *
+ * Each entry is timestamped with the magic of the {@link Trailer} at which it was last trailed,
+ * such that it is trailed at most once between two calls to save or restore.
+ * The old values are kept in a primitive trail owned by the array,
+ * and the array registers itself on the trailer (once per level where it is modified)
+ * to restore them, such that setting an entry does not allocate any object.
+ *
+ * @see Trailer
+ * @see StateManager#makeStateLongArray(int, long)
+ */
+public class TrailLongArray implements StateLongArray, StateEntry {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Trailer trail;
+    private final long[] values;
+    private final long[] magic; // magic at which each entry was last trailed
+
+    // trail of the entries: index and value to restore
+    private int[] trailIndex = new int[INITIAL_CAPACITY];
+    private long[] trailValue = new long[INITIAL_CAPACITY];
+    private int trailSize = 0;
+
+    // size of the trail when the array was registered on the trailer, one per registration
+    private int[] marks = new int[INITIAL_CAPACITY];
+    private int nMarks = 0;
+    private long lastRegistration = -1;
+
+    protected TrailLongArray(Trailer trail, int length, long initValue) {
+        this.trail = trail;
+        this.values = new long[length];
+        Arrays.fill(values, initValue);
+        this.magic = new long[length];
+        Arrays.fill(magic, trail.getMagic());
+    }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public long get(int i) {
+        return values[i];
+    }
+
+    @Override
+    public void set(int i, long v) {
+        if (values[i] != v) {
+            long m = trail.getMagic();
+            if (magic[i] != m) {
+                magic[i] = m;
+                if (lastRegistration != m) {
+                    lastRegistration = m;
+                    if (nMarks == marks.length)
+                        marks = Arrays.copyOf(marks, nMarks * 2);
+                    marks[nMarks++] = trailSize;
+                    trail.pushState(this);
+                }
+                if (trailSize == trailIndex.length) {
+                    trailIndex = Arrays.copyOf(trailIndex, trailSize * 2);
+                    trailValue = Arrays.copyOf(trailValue, trailSize * 2);
+                }
+                trailIndex[trailSize] = i;
+                trailValue[trailSize] = values[i];
+                trailSize++;
+            }
+            values[i] = v;
+        }
+    }
+
+    /**
+     * Restores the entries trailed since the last registration on the trailer
+     */
+    @Override
+    public void restore() {
+        int mark = marks[--nMarks];
+        while (trailSize > mark) {
+            trailSize--;
+            values[trailIndex[trailSize]] = trailValue[trailSize];
+        }
+        lastRegistration = -1;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
@@ -9,9 +9,9 @@ package org.maxicp.state.trail;
 import org.maxicp.state.*;
 import org.maxicp.state.copy.Copier;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Stack;
 
 /**
  * StateManager that will lazily store
@@ -20,28 +20,51 @@ import java.util.Stack;
  * Only the one that effectively change are stored
  * and at most once between any to call to {@link #saveState()}.
  * This can be seen as an optimized version of {@link Copier}.
+ *
+ * <p>The values of {@link StateInt} and {@link StateLong} are kept
+ * in primitive arrays owned by the trailer and their trail is made of
+ * parallel (owner index, old value) primitive arrays,
+ * such that setting them does not allocate any object.
+ * Other states push a {@link StateEntry} on a generic trail.
+ * Saving and restoring a level only moves a mark on each of those trails.
  */
 public class Trailer implements StateManager {
 
-    static class Backup extends Stack<StateEntry> {
-        Backup() {
-        }
-
-        void restore() {
-            while (!isEmpty())
-                pop().restore();
-        }
-    }
+    private static final int INITIAL_CAPACITY = 64;
+
+    // generic trail of state entries
+    private StateEntry[] entries = new StateEntry[INITIAL_CAPACITY];
+    private int nEntries = 0;
+
+    // values of the int states, with the magic at which they were last trailed
+    int[] intValues = new int[INITIAL_CAPACITY];
+    private long[] intMagic = new long[INITIAL_CAPACITY];
+    private int nInts = 0;
+    // trail of the int states: index of the owner and value to restore
+    private int[] intTrailOwner = new int[INITIAL_CAPACITY];
+    private int[] intTrailValue = new int[INITIAL_CAPACITY];
+    private int intTrailSize = 0;
+
+    // values of the long states, with the magic at which they were last trailed
+    long[] longValues = new long[INITIAL_CAPACITY];
+    private long[] longMagic = new long[INITIAL_CAPACITY];
+    private int nLongs = 0;
+    // trail of the long states: index of the owner and value to restore
+    private int[] longTrailOwner = new int[INITIAL_CAPACITY];
+    private long[] longTrailValue = new long[INITIAL_CAPACITY];
+    private int longTrailSize = 0;
+
+    // size of each trail when the corresponding level was saved
+    private int[] entriesMark = new int[INITIAL_CAPACITY];
+    private int[] intMark = new int[INITIAL_CAPACITY];
+    private int[] longMark = new int[INITIAL_CAPACITY];
+    private int level = -1;
 
-    private Stack<Backup> prior;
-    private Backup current;
     private long magic = 0L;
 
     private List<Runnable> onRestoreListeners;
 
     public Trailer() {
-        prior = new Stack<Backup>();
-        current = new Backup();
         onRestoreListeners = new LinkedList<Runnable>();
     }
 
@@ -61,26 +84,53 @@ public class Trailer implements StateManager {
     }
 
     public void pushState(StateEntry entry) {
-        current.push(entry);
+        if (nEntries == entries.length)
+            entries = Arrays.copyOf(entries, nEntries * 2);
+        entries[nEntries++] = entry;
     }
 
     @Override
     public int getLevel() {
-        return prior.size() - 1;
+        return level;
     }
 
     @Override
     public void saveState() {
-        prior.add(current);
-        current = new Backup();
+        level++;
+        if (level == entriesMark.length) {
+            entriesMark = Arrays.copyOf(entriesMark, level * 2);
+            intMark = Arrays.copyOf(intMark, level * 2);
+            longMark = Arrays.copyOf(longMark, level * 2);
+        }
+        entriesMark[level] = nEntries;
+        intMark[level] = intTrailSize;
+        longMark[level] = longTrailSize;
         magic++;
     }
 
 
     @Override
     public void restoreState() {
-        current.restore();
-        current = prior.pop();
+        if (level < 0)
+            throw new IllegalStateException("no state to restore");
+        // the entries must be restored in the reverse order of their insertion
+        int mark = entriesMark[level];
+        while (nEntries > mark) {
+            StateEntry entry = entries[--nEntries];
+            entries[nEntries] = null;
+            entry.restore();
+        }
+        mark = intMark[level];
+        while (intTrailSize > mark) {
+            intTrailSize--;
+            intValues[intTrailOwner[intTrailSize]] = intTrailValue[intTrailSize];
+        }
+        mark = longMark[level];
+        while (longTrailSize > mark) {
+            longTrailSize--;
+            longValues[longTrailOwner[longTrailSize]] = longTrailValue[longTrailSize];
+        }
+        level--;
         magic++;
         notifyRestore();
     }
@@ -91,6 +141,84 @@ public class Trailer implements StateManager {
             restoreState();
     }
 
+    /**
+     * Allocates a new slot for an int state
+     *
+     * @param initValue the initial value of the slot
+     * @return the index of the slot
+     */
+    int newInt(int initValue) {
+        if (nInts == intValues.length) {
+            intValues = Arrays.copyOf(intValues, nInts * 2);
+            intMagic = Arrays.copyOf(intMagic, nInts * 2);
+        }
+        intValues[nInts] = initValue;
+        intMagic[nInts] = magic;
+        return nInts++;
+    }
+
+    /**
+     * Sets the value of an int slot, trailing its previous value
+     * if it is the first change since the last save or restore
+     *
+     * @param index the index of the slot
+     * @param v the new value
+     */
+    void setInt(int index, int v) {
+        if (intValues[index] != v) {
+            if (intMagic[index] != magic) {
+                intMagic[index] = magic;
+                if (intTrailSize == intTrailOwner.length) {
+                    intTrailOwner = Arrays.copyOf(intTrailOwner, intTrailSize * 2);
+                    intTrailValue = Arrays.copyOf(intTrailValue, intTrailSize * 2);
+                }
+                intTrailOwner[intTrailSize] = index;
+                intTrailValue[intTrailSize] = intValues[index];
+                intTrailSize++;
+            }
+            intValues[index] = v;
+        }
+    }
+
+    /**
+     * Allocates a new slot for a long state
+     *
+     * @param initValue the initial value of the slot
+     * @return the index of the slot
+     */
+    int newLong(long initValue) {
+        if (nLongs == longValues.length) {
+            longValues = Arrays.copyOf(longValues, nLongs * 2);
+            longMagic = Arrays.copyOf(longMagic, nLongs * 2);
+        }
+        longValues[nLongs] = initValue;
+        longMagic[nLongs] = magic;
+        return nLongs++;
+    }
+
+    /**
+     * Sets the value of a long slot, trailing its previous value
+     * if it is the first change since the last save or restore
+     *
+     * @param index the index of the slot
+     * @param v the new value
+     */
+    void setLong(int index, long v) {
+        if (longValues[index] != v) {
+            if (longMagic[index] != magic) {
+                longMagic[index] = magic;
+                if (longTrailSize == longTrailOwner.length) {
+                    longTrailOwner = Arrays.copyOf(longTrailOwner, longTrailSize * 2);
+                    longTrailValue = Arrays.copyOf(longTrailValue, longTrailSize * 2);
+                }
+                longTrailOwner[longTrailSize] = index;
+                longTrailValue[longTrailSize] = longValues[index];
+                longTrailSize++;
+            }
+            longValues[index] = v;
+        }
+    }
+
     @Override
     public <T> State<T> makeStateRef(T initValue) {
         return new Trail<>(this,initValue);
@@ -106,6 +234,11 @@ public class Trailer implements StateManager {
         return new TrailLong(this,initValue);
     }
 
+    @Override
+    public StateLongArray makeStateLongArray(int length, long initValue) {
+        return new TrailLongArray(this, length, initValue);
+    }
+
     @Override
     public <K, V> StateMap<K, V> makeStateMap() {
         return new TrailMap<K,V>(this);
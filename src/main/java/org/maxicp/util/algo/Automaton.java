@@ -0,0 +1,264 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.algo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * Finite automaton over integer symbols, possibly non-deterministic.
+ *
+ * The automaton is immutable, and its unrolling over a given number of symbols,
+ * used by the {@link org.maxicp.cp.engine.constraints.MDD} propagator, is computed once
+ * and shared by all the constraints using the same automaton over sequences of the same length.
+ * A non-deterministic automaton is unrolled as is, the diagram having one edge per transition.
+ */
+public final class Automaton {
+
+    private final int nStates;
+    private final int initial;
+    private final boolean[] accepting;
+    private final int[][] transitions; // {from, symbol, to}, sorted and without duplicates
+    private final int[] firstTransition; // transitions leaving s are in [firstTransition[s]..firstTransition[s+1]-1]
+    private final boolean deterministic;
+    private final HashMap<Integer, LayeredGraph<Long>> unrolled = new HashMap<>();
+
+    /**
+     * Creates a finite automaton
+     *
+     * @param nStates     the number of states, the states are in {@code [0..nStates-1]}
+     * @param initial     the initial state
+     * @param finals      the accepting states
+     * @param transitions the transitions, each one being an array {@code {from, symbol, to}},
+     *                    several transitions may leave the same state with the same symbol
+     * @throws IllegalArgumentException if a state is not in {@code [0..nStates-1]}
+     */
+    public Automaton(int nStates, int initial, int[] finals, int[][] transitions) {
+        this.nStates = nStates;
+        checkState(initial);
+        this.initial = initial;
+        this.accepting = new boolean[nStates];
+        for (int f : finals) {
+            checkState(f);
+            accepting[f] = true;
+        }
+        int[][] sorted = new int[transitions.length][];
+        for (int i = 0; i < transitions.length; i++) {
+            if (transitions[i].length != 3)
+                throw new IllegalArgumentException("a transition must be given as {from, symbol, to}");
+            checkState(transitions[i][0]);
+            checkState(transitions[i][2]);
+            sorted[i] = transitions[i].clone();
+        }
+        Arrays.sort(sorted, Comparator.<int[]>comparingInt(t -> t[0]).thenComparingInt(t -> t[1]).thenComparingInt(t -> t[2]));
+        int n = 0;
+        boolean det = true;
+        for (int[] t : sorted) {
+            if (n > 0 && sorted[n - 1][0] == t[0] && sorted[n - 1][1] == t[1]) {
+                if (sorted[n - 1][2] == t[2])
+                    continue; // duplicated transition
+                det = false;
+            }
+            sorted[n++] = t;
+        }
+        this.transitions = Arrays.copyOf(sorted, n);
+        this.deterministic = det;
+        this.firstTransition = new int[nStates + 1];
+        for (int[] t : this.transitions)
+            firstTransition[t[0] + 1]++;
+        for (int s = 0; s < nStates; s++)
+            firstTransition[s + 1] += firstTransition[s];
+    }
+
+    private void checkState(int state) {
+        if (state < 0 || state >= nStates)
+            throw new IllegalArgumentException("state " + state + " is not in [0.." + (nStates - 1) + "]");
+    }
+
+    public int nStates() {
+        return nStates;
+    }
+
+    public int initial() {
+        return initial;
+    }
+
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * Tells if no state has two transitions with the same symbol
+     *
+     * @return true if the automaton is deterministic
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Returns the state reached from a state with a symbol
+     *
+     * @param state  the state
+     * @param symbol the symbol
+     * @return the state reached, the smallest one if the automaton is not deterministic,
+     *         -1 if there is no such transition
+     */
+    public int next(int state, int symbol) {
+        int lo = firstTransition[state], hi = firstTransition[state + 1] - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (transitions[mid][1] < symbol)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo <= hi && transitions[lo][1] == symbol ? transitions[lo][2] : -1;
+    }
+
+    /**
+     * Tells if a sequence of symbols is accepted by the automaton
+     *
+     * @param word the sequence of symbols
+     * @return true if an accepting state can be reached from the initial state with the sequence
+     */
+    public boolean accepts(int[] word) {
+        boolean[] current = new boolean[nStates];
+        boolean[] next = new boolean[nStates];
+        current[initial] = true;
+        for (int symbol : word) {
+            boolean any = false;
+            Arrays.fill(next, false);
+            for (int s = 0; s < nStates; s++) {
+                if (!current[s])
+                    continue;
+                for (int i = firstTransition[s]; i < firstTransition[s + 1]; i++) {
+                    if (transitions[i][1] == symbol) {
+                        next[transitions[i][2]] = true;
+                        any = true;
+                    }
+                }
+            }
+            if (!any)
+                return false;
+            boolean[] tmp = current;
+            current = next;
+            next = tmp;
+        }
+        for (int s = 0; s < nStates; s++) {
+            if (current[s] && accepting[s])
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Unrolls the automaton over sequences of a given length.
+     * The layer {@code i} of the graph holds the states that can be reached after {@code i} symbols
+     * and from which an accepting state can be reached after the remaining symbols,
+     * and the edges between layer {@code i} and {@code i+1} are labeled with the symbols.
+     * Only the initial state is in the first layer and only accepting states are in the last one.
+     * The graph is computed once per length and must not be modified.
+     *
+     * @param length the length of the sequences
+     * @return a graph with {@code length+1} layers whose paths from the first to the last layer
+     *         are the sequences accepted by the automaton
+     */
+    public synchronized LayeredGraph<Long> unroll(int length) {
+        return unrolled.computeIfAbsent(length, this::computeUnroll);
+    }
+
+    private LayeredGraph<Long> computeUnroll(int length) {
+        // the states of each layer, in increasing order, only the transitions leaving them being scanned
+        int[][] layers = new int[length + 1][];
+        boolean[] marked = new boolean[nStates];
+        int[] buffer = new int[nStates];
+        // forward reachability
+        layers[0] = new int[]{initial};
+        for (int l = 0; l < length; l++) {
+            int size = 0;
+            for (int s : layers[l]) {
+                for (int i = firstTransition[s]; i < firstTransition[s + 1]; i++) {
+                    int to = transitions[i][2];
+                    if (!marked[to]) {
+                        marked[to] = true;
+                        buffer[size++] = to;
+                    }
+                }
+            }
+            layers[l + 1] = Arrays.copyOf(buffer, size);
+            Arrays.sort(layers[l + 1]);
+            for (int s : layers[l + 1])
+                marked[s] = false;
+        }
+        // backward pruning of the states not leading to an accepting state
+        layers[length] = Arrays.stream(layers[length]).filter(s -> accepting[s]).toArray();
+        for (int l = length - 1; l >= 0; l--) {
+            for (int s : layers[l + 1])
+                marked[s] = true;
+            int size = 0;
+            for (int s : layers[l]) {
+                for (int i = firstTransition[s]; i < firstTransition[s + 1]; i++) {
+                    if (marked[transitions[i][2]]) {
+                        buffer[size++] = s;
+                        break;
+                    }
+                }
+            }
+            for (int s : layers[l + 1])
+                marked[s] = false;
+            layers[l] = Arrays.copyOf(buffer, size);
+        }
+        LayeredGraph<Long> graph = new LayeredGraph<>(length + 1);
+        for (int l = 0; l <= length; l++) {
+            graph.startLayer(l);
+            for (int s : layers[l])
+                graph.getOrCreateNode(key(l, s));
+            graph.endLayer(l);
+        }
+        for (int l = 0; l < length; l++) {
+            for (int s : layers[l + 1])
+                marked[s] = true;
+            for (int s : layers[l]) {
+                int from = graph.getOrCreateNode(key(l, s));
+                for (int i = firstTransition[s]; i < firstTransition[s + 1]; i++) {
+                    int[] t = transitions[i];
+                    if (marked[t[2]])
+                        graph.addEdge(from, graph.getOrCreateNode(key(l + 1, t[2])), t[1]);
+                }
+            }
+            for (int s : layers[l + 1])
+                marked[s] = false;
+        }
+        return graph;
+    }
+
+    private long key(int layer, int state) {
+        return (long) layer * nStates + state;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Automaton other))
+            return false;
+        return nStates == other.nStates && initial == other.initial
+                && Arrays.equals(accepting, other.accepting)
+                && Arrays.deepEquals(transitions, other.transitions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Integer.hashCode(nStates) + initial) + Arrays.deepHashCode(transitions);
+    }
+
+    @Override
+    public String toString() {
+        return "Automaton(" + nStates + " states, " + transitions.length + " transitions)";
+    }
+}
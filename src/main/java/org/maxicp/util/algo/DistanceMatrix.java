@@ -1,71 +1,223 @@
 package org.maxicp.util.algo;
 
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Random;
+import java.util.*;
+import java.util.stream.IntStream;
 
+/**
+ * A square distance matrix, stored row by row in a flat array.
+ * <p>
+ * The matrices are shared by identity with {@link #of(int[][])}: several constraints over the same {@code int[][]}
+ * get the same object, such that the checks of the triangular inequality
+ * and the shortest paths are computed only once, in parallel.
+ * The {@code int[][]} given to {@link #of(int[][])} is assumed to be left unchanged afterward.
+ * <p>
+ * The class also provides static utilities over {@code int[][]} distance matrices.
+ */
 public class DistanceMatrix {
 
+    private static final Map<int[][], DistanceMatrix> shared = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // size of the blocks of the Floyd-Warshall algorithm, such that 3 blocks fit in the L2 cache
+    private static final int BLOCK = 64;
+
+    private final int n;
+    private final int[] dist; // dist[i * n + j] is the distance from i to j
+    private final Map<int[], Boolean> triangular = new IdentityHashMap<>(); // per service time, null for none
+    private DistanceMatrix shortestPaths;
+
+    private DistanceMatrix(int[] dist, int n) {
+        this.n = n;
+        this.dist = dist;
+    }
+
+    private DistanceMatrix(int[][] matrix) {
+        this(new int[matrix.length * matrix.length], matrix.length);
+        for (int i = 0; i < n; i++) {
+            if (matrix[i].length != n)
+                throw new IllegalArgumentException("the distance matrix should be square");
+            System.arraycopy(matrix[i], 0, dist, i * n, n);
+        }
+    }
 
     /**
-     * Enforces the triangular inequality on the given distance
-     * matrix using the Bellman-Ford algorithm.
-     * The shortest paths are computed between all pairs of nodes and
-     * the distance matrix is updated accordingly.
-     * @param distance a distance matrix
+     * Returns the distance matrix shared by all the callers giving the same {@code int[][]}
+     *
+     * @param matrix a square distance matrix, that is not modified afterward
+     * @return the distance matrix of {@code matrix}
      */
-    public static void enforceTriangularInequality(int[][] distance) {
-        int n = distance.length;
-        int[][] edges = new int[n * n][3];
-        int edgeCount = 0;
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                edges[edgeCount][0] = i;
-                edges[edgeCount][1] = j;
-                edges[edgeCount][2] = distance[i][j];
-                edgeCount++;
+    public static DistanceMatrix of(int[][] matrix) {
+        return shared.computeIfAbsent(matrix, DistanceMatrix::new);
+    }
+
+    /**
+     * Returns the number of rows and columns of the matrix
+     *
+     * @return the number of rows and columns of the matrix
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the distance between two nodes
+     *
+     * @param i the origin
+     * @param j the destination
+     * @return the distance from i to j
+     */
+    public int get(int i, int j) {
+        return dist[i * n + j];
+    }
+
+    /**
+     * Returns a copy of the matrix, as an {@code int[][]}
+     *
+     * @return a copy of the matrix
+     */
+    public int[][] toArray() {
+        int[][] matrix = new int[n][n];
+        for (int i = 0; i < n; i++)
+            System.arraycopy(dist, i * n, matrix[i], 0, n);
+        return matrix;
+    }
+
+    /**
+     * Checks whether the matrix respects the triangular inequality.
+     * Prints a warning message on stderr, the first time the check fails.
+     *
+     * @return true if the triangular inequality is respected
+     */
+    public boolean checkTriangularInequality() {
+        return checkTriangularInequality((int[]) null);
+    }
+
+    /**
+     * Checks whether the matrix respects the triangular inequality,
+     * when the time to process each node is added to the paths going through it:
+     * {@code dist[i][k] + serviceTime[k] + dist[k][j] >= dist[i][j]}.
+     * Prints a warning message on stderr, the first time the check fails.
+     *
+     * @param serviceTime the time to process each node, null for none. It is also shared by identity.
+     * @return true if the triangular inequality is respected
+     */
+    public synchronized boolean checkTriangularInequality(int[] serviceTime) {
+        Boolean respected = triangular.get(serviceTime);
+        if (respected == null) {
+            int[] violation = findViolation(serviceTime);
+            respected = violation == null;
+            triangular.put(serviceTime, respected);
+            if (violation != null) {
+                int i = violation[0], k = violation[1], j = violation[2];
+                if (serviceTime == null) {
+                    System.err.println("[WARNING]: triangular inequality not respected with distance matrix");
+                    System.err.printf("[WARNING]: dist[%d][%d] + dist[%d][%d] < dist[%d][%d] (%d + %d < %d)%n", i, k, k, j, i, j,
+                            get(i, k), get(k, j), get(i, j));
+                } else {
+                    System.err.println("[WARNING]: triangular inequality not respected with distance matrix and service time");
+                    System.err.printf("[WARNING]: dist[%d][%d] + duration[%d] + dist[%d][%d] < dist[%d][%d] (%d + %d + %d < %d)%n", i, k, k, k, j, i, j,
+                            get(i, k), serviceTime[k], get(k, j), get(i, j));
+                }
+                System.err.println("[WARNING]: this might remove some solutions");
             }
         }
-        for (int i = 0; i < n; i++) {
-            long[] dist = new long[n];
-            try {
-                bellmanFord(n, edgeCount, edges, i, dist);
+        return respected;
+    }
+
+    // returns the first triple {i, k, j} such that the detour through k is shorter, the rows being checked in parallel
+    private int[] findViolation(int[] serviceTime) {
+        return IntStream.range(0, n).parallel().mapToObj(i -> {
+            int row = i * n;
+            for (int k = 0; k < n; k++) {
+                long viaK = (long) dist[row + k] + (serviceTime == null ? 0 : serviceTime[k]);
+                int rowK = k * n;
                 for (int j = 0; j < n; j++) {
-                    distance[i][j] = (int) dist[j];
+                    if (viaK + dist[rowK + j] < dist[row + j])
+                        return new int[]{i, k, j};
                 }
-            } catch (Exception e) {
-                System.out.println("negative cycle");
             }
+            return null;
+        }).filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    /**
+     * Returns the matrix of the shortest paths between all pairs of nodes, which respects the triangular inequality.
+     * The distance from a node to itself is at most 0.
+     * It is computed once with a parallel blocked Floyd-Warshall algorithm, in O(n^3).
+     *
+     * @return the matrix of the shortest paths
+     */
+    public synchronized DistanceMatrix shortestPaths() {
+        if (shortestPaths == null) {
+            int[] sp = dist.clone();
+            for (int i = 0; i < n; i++)
+                sp[i * n + i] = Math.min(sp[i * n + i], 0);
+            floydWarshall(sp, n);
+            shortestPaths = new DistanceMatrix(sp, n);
         }
+        return shortestPaths;
     }
 
-    private static void bellmanFord(int numNodes, int edgeCount, int[][] edges, int src, long[] dist) throws Exception {
-        // Initially distance from source to all other vertices
-        // is not known(Infinite).
-        int INF = Integer.MAX_VALUE;
-        Arrays.fill(dist, INF);
-        dist[src] = 0;
-        // Relaxation of all the edges V times, not (V - 1) as we
-        // need one additional relaxation to detect negative cycle
-        for (int i = 0; i < numNodes; i++) {
-            for (int ne = 0; ne < edgeCount; ne++) {
-                int u = edges[ne][0];
-                int v = edges[ne][1];
-                int wt = edges[ne][2];
-                if (dist[u] != INF && dist[u] + wt < dist[v]) {
-                    // V_th relaxation => negative cycle
-                    if (i == numNodes - 1) {
-                        throw new Exception();
-                    }
-                    // Update shortest distance to node v
-                    dist[v] = dist[u] + wt;
+    /**
+     * Floyd-Warshall algorithm over the blocks of the matrix.
+     * For each block on the diagonal, the block is first closed, then the blocks of its row and column,
+     * in parallel, and finally all the other blocks, in parallel.
+     */
+    private static void floydWarshall(int[] d, int n) {
+        int nBlocks = (n + BLOCK - 1) / BLOCK;
+        for (int kb = 0; kb < nBlocks; kb++) {
+            final int k = kb;
+            relaxBlock(d, n, k, k, k);
+            IntStream.range(0, nBlocks).parallel().filter(b -> b != k).forEach(b -> {
+                relaxBlock(d, n, k, b, k);
+                relaxBlock(d, n, b, k, k);
+            });
+            IntStream.range(0, nBlocks * nBlocks).parallel().forEach(ij -> {
+                int ib = ij / nBlocks;
+                int jb = ij % nBlocks;
+                if (ib != k && jb != k)
+                    relaxBlock(d, n, ib, jb, k);
+            });
+        }
+    }
+
+    // relaxes the paths from the nodes of block ib to the nodes of block jb through the nodes of block kb
+    private static void relaxBlock(int[] d, int n, int ib, int jb, int kb) {
+        int kEnd = Math.min(n, (kb + 1) * BLOCK);
+        int iEnd = Math.min(n, (ib + 1) * BLOCK);
+        int jEnd = Math.min(n, (jb + 1) * BLOCK);
+        for (int k = kb * BLOCK; k < kEnd; k++) {
+            int rowK = k * n;
+            for (int i = ib * BLOCK; i < iEnd; i++) {
+                int row = i * n;
+                long dik = d[row + k];
+                for (int j = jb * BLOCK; j < jEnd; j++) {
+                    long viaK = dik + d[rowK + j];
+                    if (viaK < d[row + j])
+                        d[row + j] = (int) viaK;
                 }
             }
         }
     }
 
-
+    /**
+     * Enforces the triangular inequality on the given distance
+     * matrix using the Floyd-Warshall algorithm.
+     * The shortest paths are computed between all pairs of nodes and
+     * the distance matrix is updated accordingly.
+     * @param distance a distance matrix
+     */
+    public static void enforceTriangularInequality(int[][] distance) {
+        DistanceMatrix shortestPaths = new DistanceMatrix(distance).shortestPaths();
+        boolean negativeCycle = false;
+        for (int i = 0; i < distance.length; i++) {
+            negativeCycle |= shortestPaths.get(i, i) < 0;
+            System.arraycopy(shortestPaths.dist, i * shortestPaths.n, distance[i], 0, shortestPaths.n);
+        }
+        if (negativeCycle)
+            System.out.println("negative cycle");
+        shared.remove(distance); // the matrix has changed
+    }
 
     /**
      * Position between points
@@ -86,25 +238,12 @@ public class DistanceMatrix {
 
     /**
      * Checks whether a distance matrix respects the triangular inequality.
-     * Prints a warning message on stderr if the triangular inequality is not enforced
+     * Prints a warning message on stderr if the triangular inequality is not enforced.
+     * The check is done once per matrix, see {@link #of(int[][])}.
      * @param dist distance matrix
      */
     public static void checkTriangularInequality(int[][] dist) {
-        for (int i = 0 ; i < dist.length ; i++) {
-            for (int j = 0 ; j < dist[i].length ; j++) {
-                int smallestDist = dist[i][j];
-                for (int k = 0 ; k < dist.length ; k++) {
-                    int distWithDetour = dist[i][k] + dist[k][j];
-                    if (distWithDetour < smallestDist) {
-                        System.err.println("[WARNING]: triangular inequality not respected with distance matrix");
-                        System.err.printf("[WARNING]: dist[%d][%d] + dist[%d][%d] < dist[%d][%d] (%d + %d < %d)%n", i, k, k, j, i, j,
-                                dist[i][k], dist[k][j], dist[i][j]);
-                        System.err.println("[WARNING]: this might remove some solutions");
-                        return;
-                    }
-                }
-            }
-        }
+        of(dist).checkTriangularInequality();
     }
 
     /**
@@ -80,6 +80,10 @@ public final class LayeredGraph<State> {
         };
     }
 
+    public int nLayers() { return layerStart.length - 1; }
+
+    public int nNodes() { return states.size(); }
+
     public int layerBegin(int l) { return layerStart[l]; }
     public int layerEnd(int l) { return layerStart[l + 1]; }
 
@@ -0,0 +1,180 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap over the ids {0, ..., capacity-1}, with a double key for each id.
+ * The position of each id in the heap is maintained, such that
+ * the key of an id in the heap can be updated in O(log n).
+ * The ids with the same key are ordered by increasing id.
+ */
+public class IndexedMinHeap {
+
+    private final int[] heap; // ids in the heap
+    private final int[] position; // position of each id in the heap, -1 if not in the heap
+    private final double[] key;
+    private int size;
+
+    /**
+     * Creates an empty heap
+     *
+     * @param capacity the number of ids, from 0 to capacity-1
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        position = new int[capacity];
+        key = new double[capacity];
+        Arrays.fill(position, -1);
+        size = 0;
+    }
+
+    public int capacity() {
+        return heap.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return position[id] >= 0;
+    }
+
+    /**
+     * Returns the key of an id in the heap
+     *
+     * @param id the id
+     * @return the key of the id
+     */
+    public double key(int id) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("id " + id + " is not in the heap");
+        }
+        return key[id];
+    }
+
+    /**
+     * Inserts an id in the heap
+     *
+     * @param id    the id, not yet in the heap
+     * @param value the key of the id
+     */
+    public void insert(int id, double value) {
+        if (contains(id)) {
+            throw new IllegalArgumentException("id " + id + " is already in the heap");
+        }
+        key[id] = value;
+        heap[size] = id;
+        position[id] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Changes the key of an id in the heap
+     *
+     * @param id    the id, in the heap
+     * @param value the new key of the id
+     */
+    public void update(int id, double value) {
+        if (!contains(id)) {
+            throw new NoSuchElementException("id " + id + " is not in the heap");
+        }
+        double old = key[id];
+        key[id] = value;
+        if (value < old) {
+            siftUp(position[id]);
+        } else {
+            siftDown(position[id]);
+        }
+    }
+
+    /**
+     * Returns the id with the smallest key, without removing it
+     *
+     * @return the id with the smallest key
+     */
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException("The heap is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes the id with the smallest key
+     *
+     * @return the removed id
+     */
+    public int poll() {
+        int top = peek();
+        size--;
+        position[top] = -1;
+        if (size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * Removes all the ids from the heap, in O(size)
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private boolean less(int id1, int id2) {
+        return key[id1] < key[id2] || (key[id1] == key[id2] && id1 < id2);
+    }
+
+    private void siftUp(int pos) {
+        int id = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!less(id, heap[parent])) {
+                break;
+            }
+            heap[pos] = heap[parent];
+            position[heap[pos]] = pos;
+            pos = parent;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+
+    private void siftDown(int pos) {
+        int id = heap[pos];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && less(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!less(heap[child], id)) {
+                break;
+            }
+            heap[pos] = heap[child];
+            position[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = id;
+        position[id] = pos;
+    }
+}
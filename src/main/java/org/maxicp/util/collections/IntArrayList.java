@@ -0,0 +1,114 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * Resizable array of int values
+ */
+public class IntArrayList {
+
+    private int[] values;
+    private int size;
+
+    public IntArrayList() {
+        this(10);
+    }
+
+    /**
+     * Creates an empty list
+     *
+     * @param initialCapacity the number of values that can be added before resizing the list
+     */
+    public IntArrayList(int initialCapacity) {
+        values = new int[Math.max(1, initialCapacity)];
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Appends a value at the end of the list
+     *
+     * @param value the value to append
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, 2 * values.length);
+        }
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    /**
+     * Removes the last value of the list
+     *
+     * @return the removed value
+     */
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("The list is empty");
+        }
+        return values[--size];
+    }
+
+    /**
+     * Removes the value at the given index in O(1), by replacing it with the last value of the list
+     *
+     * @param index the index of the value to remove
+     * @return the removed value
+     */
+    public int swapRemove(int index) {
+        checkIndex(index);
+        int value = values[index];
+        values[index] = values[--size];
+        return value;
+    }
+
+    public boolean contains(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.collections;
+
+import java.util.Arrays;
+
+/**
+ * Map from int keys to double values, using open addressing with linear probing.
+ *
+ * <p>All the values can be multiplied by a factor in O(1) with {@link #scale(double)}:
+ * the values are stored divided by a global multiplier, and are only renormalized
+ * when this multiplier becomes too small or too large. This implements the decay of scores
+ * without touching every entry.</p>
+ */
+public class IntDoubleHashMap {
+
+    private static final double MIN_MULTIPLIER = 1e-100;
+    private static final double MAX_MULTIPLIER = 1e100;
+
+    private int[] keys;
+    private double[] values; // the value of a key is values[slot] * multiplier
+    private boolean[] used;
+    private int size;
+    private double multiplier = 1.0;
+
+    public IntDoubleHashMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map
+     *
+     * @param expectedSize the number of keys that can be inserted before resizing the map
+     */
+    public IntDoubleHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, 2 * expectedSize - 1)) << 1;
+        keys = new int[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    // slot of the key, or of the free slot where it must be inserted
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int s = slot(key);
+        while (used[s] && keys[s] != key) {
+            s = (s + 1) & mask;
+        }
+        return s;
+    }
+
+    public boolean containsKey(int key) {
+        return used[find(key)];
+    }
+
+    /**
+     * Returns the value of a key
+     *
+     * @param key          the key
+     * @param defaultValue the value returned if the key is not in the map
+     * @return the value of the key, or defaultValue if it is not in the map
+     */
+    public double get(int key, double defaultValue) {
+        int s = find(key);
+        return used[s] ? values[s] * multiplier : defaultValue;
+    }
+
+    /**
+     * Sets the value of a key
+     *
+     * @param key   the key
+     * @param value the new value of the key
+     */
+    public void put(int key, double value) {
+        int s = find(key);
+        if (!used[s]) {
+            insert(s, key);
+            s = find(key);
+        }
+        values[s] = value / multiplier;
+    }
+
+    /**
+     * Adds a value to the one of a key, considered as 0 if the key is not in the map
+     *
+     * @param key   the key
+     * @param delta the value to add
+     * @return the new value of the key
+     */
+    public double addTo(int key, double delta) {
+        int s = find(key);
+        if (!used[s]) {
+            insert(s, key);
+            s = find(key);
+        }
+        values[s] += delta / multiplier;
+        return values[s] * multiplier;
+    }
+
+    private void insert(int s, int key) {
+        used[s] = true;
+        keys[s] = key;
+        values[s] = 0.0;
+        size++;
+        if (2 * size > keys.length) {
+            rehash(2 * keys.length);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        keys = new int[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int s = find(oldKeys[i]);
+                used[s] = true;
+                keys[s] = oldKeys[i];
+                values[s] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Multiplies the values of all the keys by a factor, in amortized O(1)
+     *
+     * @param factor the factor by which the values are multiplied
+     */
+    public void scale(double factor) {
+        if (factor == 0.0) {
+            Arrays.fill(values, 0.0);
+            multiplier = 1.0;
+            return;
+        }
+        multiplier *= factor;
+        double abs = Math.abs(multiplier);
+        if (abs < MIN_MULTIPLIER || abs > MAX_MULTIPLIER) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= multiplier;
+            }
+            multiplier = 1.0;
+        }
+    }
+
+    /**
+     * Returns the keys of the map, in no particular order
+     *
+     * @return a new array with the keys of the map
+     */
+    public int[] keys() {
+        int[] result = new int[size];
+        int k = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                result[k++] = keys[i];
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+        multiplier = 1.0;
+    }
+}
@@ -0,0 +1,10 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+/**
+ * Collections specialized for primitive types, avoiding the boxing of the standard collections
+ * in the data-structures updated at every node or restart of a search.
+ */
+package org.maxicp.util.collections;
@@ -10,6 +10,7 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.maxicp.cp.engine.core.MaxiCP;
 import org.maxicp.cp.engine.core.CPSolver;
 import org.maxicp.state.copy.Copier;
+import org.maxicp.state.copy.PagedCopier;
 import org.maxicp.state.trail.Trailer;
 
 import java.util.function.Supplier;
@@ -21,7 +22,7 @@ import static org.junit.jupiter.params.provider.Arguments.arguments;
 public abstract class CPSolverTest {
 
     public static Stream<CPSolver> getSolver() {
-        return Stream.of(new MaxiCP(new Trailer()), new MaxiCP(new Copier()));
+        return Stream.of(new MaxiCP(new Trailer()), new MaxiCP(new Copier()), new MaxiCP(new PagedCopier()));
     }
 
     public static Stream<Arguments> solverSupplier() {
@@ -31,7 +32,10 @@ public abstract class CPSolverTest {
                         (Supplier<CPSolver>) () -> new MaxiCP(new Trailer()))),
                 arguments(named(
                         new MaxiCP(new Copier()).toString(),
-                        (Supplier<CPSolver>) () -> new MaxiCP(new Copier()))));
+                        (Supplier<CPSolver>) () -> new MaxiCP(new Copier()))),
+                arguments(named(
+                        new MaxiCP(new PagedCopier()).toString(),
+                        (Supplier<CPSolver>) () -> new MaxiCP(new PagedCopier()))));
     }
 
     /**
@@ -44,6 +48,7 @@ public abstract class CPSolverTest {
     public static Stream<Supplier<CPSolver>> getRepeatedSolverSuppliers(int nRepeat) {
         Stream<Supplier<CPSolver>> trailerStream = Stream.generate((Supplier<Supplier<CPSolver>>) () -> () -> new MaxiCP(new Trailer())).limit(nRepeat);
         Stream<Supplier<CPSolver>> copyStream = Stream.generate((Supplier<Supplier<CPSolver>>) () -> () -> new MaxiCP(new Copier())).limit(nRepeat);
-        return Stream.concat(trailerStream, copyStream);
+        Stream<Supplier<CPSolver>> pagedStream = Stream.generate((Supplier<Supplier<CPSolver>>) () -> () -> new MaxiCP(new PagedCopier())).limit(nRepeat);
+        return Stream.concat(Stream.concat(trailerStream, copyStream), pagedStream);
     }
 }
@@ -0,0 +1,233 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.ModelDispatcher;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.modeling.ConcreteCPModel;
+import org.maxicp.modeling.Factory;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Searches;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+public class LexLeqTest extends CPSolverTest {
+
+    private static final int MAX_VALUE = 3; // values of the random domains
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFiltering(CPSolver cp) {
+        CPIntVar[] x = new CPIntVar[]{CPFactory.makeIntVar(cp, 2, 2), CPFactory.makeIntVar(cp, 0, 3), CPFactory.makeIntVar(cp, 2, 4)};
+        CPIntVar[] y = new CPIntVar[]{CPFactory.makeIntVar(cp, 0, 2), CPFactory.makeIntVar(cp, 1, 1), CPFactory.makeIntVar(cp, 0, 1)};
+        cp.post(CPFactory.lexLe(x, y));
+        // y[0] = 2, then the suffix x[2] > y[2] forces x[1] < y[1]
+        assertTrue(y[0].isFixed());
+        assertEquals(2, y[0].min());
+        assertTrue(x[1].isFixed());
+        assertEquals(0, x[1].min());
+        assertEquals(3, x[2].size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testStrictOnEqualArrays(CPSolver cp) {
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 3, 1);
+        CPIntVar[] y = CPFactory.makeIntVarArray(cp, 3, 1);
+        cp.getStateManager().saveState();
+        cp.post(CPFactory.lexLe(x, y));
+        cp.getStateManager().restoreState();
+        assertThrows(InconsistencyException.class, () -> cp.post(CPFactory.lexLt(x, y)));
+    }
+
+    private static boolean lexLe(int[] a, int[] b, boolean strict) {
+        int cmp = Arrays.compare(a, b);
+        return strict ? cmp < 0 : cmp <= 0;
+    }
+
+    /**
+     * Checks that every value remaining in the domains belongs to an assignment of the initial domains
+     * satisfying the predicate, and that every such assignment remains
+     */
+    private static void assertDomainConsistent(int[][] initial, CPIntVar[] vars, Predicate<int[]> sat) {
+        boolean[][] supported = supports(initial, sat);
+        for (int i = 0; i < vars.length; i++) {
+            for (int v : initial[i])
+                assertEquals(supported[i][v], vars[i].contains(v), "value " + v + " of variable " + i);
+        }
+    }
+
+    private static boolean[][] supports(int[][] domains, Predicate<int[]> sat) {
+        boolean[][] supported = new boolean[domains.length][MAX_VALUE + 1];
+        enumerate(domains, 0, new int[domains.length], sat, supported);
+        return supported;
+    }
+
+    private static void enumerate(int[][] domains, int i, int[] tuple, Predicate<int[]> sat, boolean[][] supported) {
+        if (i == tuple.length) {
+            if (sat.test(tuple)) {
+                for (int j = 0; j < tuple.length; j++)
+                    supported[j][tuple[j]] = true;
+            }
+            return;
+        }
+        for (int v : domains[i]) {
+            tuple[i] = v;
+            enumerate(domains, i + 1, tuple, sat, supported);
+        }
+    }
+
+    private static int[][] randomDomains(Random random, int nVars) {
+        int[][] domains = new int[nVars][];
+        for (int i = 0; i < nVars; i++)
+            domains[i] = random.ints(1 + random.nextInt(3), 0, MAX_VALUE + 1).distinct().sorted().toArray();
+        return domains;
+    }
+
+    private static int[][] domains(CPIntVar[] vars) {
+        return Arrays.stream(vars).map(v -> {
+            int[] d = new int[v.size()];
+            v.fillArray(d);
+            Arrays.sort(d);
+            return d;
+        }).toArray(int[][]::new);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDomainConsistency(CPSolver cp) {
+        Random random = new Random(42);
+        int n = 4;
+        for (int iter = 0; iter < 500; iter++) {
+            boolean strict = iter % 2 == 0;
+            int[][] domains = randomDomains(random, 2 * n);
+            Predicate<int[]> sat = t -> lexLe(Arrays.copyOfRange(t, 0, n), Arrays.copyOfRange(t, n, 2 * n), strict);
+            cp.getStateManager().saveState();
+            CPIntVar[] vars = Arrays.stream(domains).map(d -> CPFactory.makeIntVar(cp, Arrays.stream(d).boxed().collect(Collectors.toSet()))).toArray(CPIntVar[]::new);
+            CPIntVar[] x = Arrays.copyOfRange(vars, 0, n);
+            CPIntVar[] y = Arrays.copyOfRange(vars, n, 2 * n);
+            int[][] current = domains;
+            try {
+                cp.post(strict ? CPFactory.lexLt(x, y) : CPFactory.lexLe(x, y));
+                assertDomainConsistent(current, vars, sat);
+                // the filtering remains consistent as the domains shrink
+                for (int k = 0; k < 3; k++) {
+                    int i = random.nextInt(2 * n);
+                    if (vars[i].isFixed())
+                        continue;
+                    current = domains(vars);
+                    int removed = vars[i].min();
+                    current[i] = Arrays.copyOfRange(current[i], 1, current[i].length);
+                    vars[i].remove(removed);
+                    cp.fixPoint();
+                    assertDomainConsistent(current, vars, sat);
+                }
+            } catch (InconsistencyException e) {
+                for (boolean[] s : supports(current, sat))
+                    for (boolean supported : s)
+                        assertFalse(supported);
+            }
+            cp.getStateManager().restoreState();
+        }
+    }
+
+    private static int countChains(int m, int n, int d, boolean strict) {
+        int count = 0;
+        int total = (int) Math.pow(d, m * n);
+        for (int s = 0; s < total; s++) {
+            int[][] rows = new int[m][n];
+            for (int k = 0, v = s; k < m * n; k++, v /= d)
+                rows[k / n][k % n] = v % d;
+            boolean ok = true;
+            for (int i = 0; i + 1 < m && ok; i++)
+                ok = lexLe(rows[i], rows[i + 1], strict);
+            if (ok)
+                count++;
+        }
+        return count;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testLexChain(CPSolver cp) {
+        int m = 4, n = 2, d = 3;
+        for (boolean strict : new boolean[]{false, true}) {
+            cp.getStateManager().saveState();
+            CPIntVar[][] x = new CPIntVar[m][];
+            for (int i = 0; i < m; i++)
+                x[i] = CPFactory.makeIntVarArray(cp, n, d);
+            cp.post(strict ? CPFactory.lexChainLt(x) : CPFactory.lexChainLe(x));
+            CPIntVar[] all = Arrays.stream(x).flatMap(Arrays::stream).toArray(CPIntVar[]::new);
+            DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(all));
+            dfs.onSolution(() -> {
+                for (int i = 0; i + 1 < m; i++) {
+                    int[] a = Arrays.stream(x[i]).mapToInt(CPIntVar::min).toArray();
+                    int[] b = Arrays.stream(x[i + 1]).mapToInt(CPIntVar::min).toArray();
+                    assertTrue(lexLe(a, b, strict));
+                }
+            });
+            assertEquals(countChains(m, n, d, strict), dfs.solve().numberOfSolutions());
+            cp.getStateManager().restoreState();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testLexChainPropagatesAlongTheChain(CPSolver cp) {
+        // 3 strictly increasing binary arrays of length 2: the last one is at least 10,
+        // which is not deduced by the decomposition into 2 constraints
+        CPIntVar[][] x = new CPIntVar[3][];
+        for (int i = 0; i < 3; i++)
+            x[i] = CPFactory.makeIntVarArray(cp, 2, 2);
+        cp.post(CPFactory.lexChainLt(x));
+        assertTrue(x[2][0].isFixed());
+        assertEquals(1, x[2][0].min());
+        assertTrue(x[0][0].isFixed());
+        assertEquals(0, x[0][0].min());
+        assertEquals(2, x[1][0].size());
+    }
+
+    @Test
+    public void testEmptyArraysAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> CPFactory.lexLe(new CPIntVar[0], new CPIntVar[0]));
+        assertThrows(IllegalArgumentException.class, () -> CPFactory.lexChainLt(new CPIntVar[0][]));
+        assertThrows(IllegalArgumentException.class, () -> CPFactory.lexChainLe(new CPIntVar[0], new CPIntVar[0], new CPIntVar[0]));
+    }
+
+    @Test
+    public void testModeling() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[][] x = new IntVar[3][];
+        for (int i = 0; i < 3; i++)
+            x[i] = model.intVarArray(2, 3);
+        model.add(Factory.lexChainLe(x));
+        model.add(Factory.lexLt(x[0], new IntVar[]{model.intVar(1, 1), model.intVar(1, 1)}));
+        ConcreteCPModel cp = model.cpInstantiate();
+        IntVar[] all = Arrays.stream(x).flatMap(Arrays::stream).toArray(IntVar[]::new);
+        int expected = 0;
+        // chains of 3 arrays in [0..2]^2, the first one being < (1,1)
+        for (int a = 0; a < 9; a++)
+            for (int b = a; b < 9; b++)
+                for (int c = b; c < 9; c++)
+                    if (a < 4)
+                        expected++;
+        assertEquals(expected, cp.dfSearch(Searches.staticOrderBinary(all)).solve().numberOfSolutions());
+    }
+}
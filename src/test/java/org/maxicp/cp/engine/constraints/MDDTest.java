@@ -0,0 +1,164 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.ModelDispatcher;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.modeling.ConcreteCPModel;
+import org.maxicp.modeling.Factory;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Searches;
+import org.maxicp.util.algo.Automaton;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+public class MDDTest extends CPSolverTest {
+
+    // binary words without two consecutive 1
+    private static final Automaton NO_CONSECUTIVE_ONES = new Automaton(2, 0, new int[]{0, 1},
+            new int[][]{{0, 0, 0}, {0, 1, 1}, {1, 0, 0}});
+
+    /**
+     * Automaton accepting exactly the tuples of a table, as a trie
+     */
+    private static Automaton trie(int[][] table) {
+        List<int[]> transitions = new ArrayList<>();
+        List<HashMap<Integer, Integer>> children = new ArrayList<>();
+        children.add(new HashMap<>());
+        List<Integer> finals = new ArrayList<>();
+        for (int[] tuple : table) {
+            int state = 0;
+            for (int v : tuple) {
+                Integer next = children.get(state).get(v);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new HashMap<>());
+                    children.get(state).put(v, next);
+                    transitions.add(new int[]{state, v, next});
+                }
+                state = next;
+            }
+            finals.add(state);
+        }
+        return new Automaton(children.size(), 0, finals.stream().mapToInt(i -> i).toArray(), transitions.toArray(new int[0][]));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testNoConsecutiveOnes(CPSolver cp) {
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 5, 2);
+        cp.post(CPFactory.regular(x, NO_CONSECUTIVE_ONES));
+        DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(x));
+        dfs.onSolution(() -> {
+            int[] word = new int[x.length];
+            for (int i = 0; i < x.length; i++)
+                word[i] = x[i].min();
+            assertTrue(NO_CONSECUTIVE_ONES.accepts(word));
+        });
+        // fibonacci(7)
+        assertEquals(13, dfs.solve().numberOfSolutions());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFiltering(CPSolver cp) {
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 4, 2);
+        cp.post(CPFactory.regular(x, NO_CONSECUTIVE_ONES));
+        assertEquals(2, x[1].size());
+        x[1].fix(1);
+        cp.fixPoint();
+        assertTrue(x[0].isFixed());
+        assertEquals(0, x[0].min());
+        assertTrue(x[2].isFixed());
+        assertEquals(0, x[2].min());
+        assertEquals(2, x[3].size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testNoAcceptedWord(CPSolver cp) {
+        // words must end in state 1, reached only with a 1 that cannot be in the domains
+        Automaton endsWithOne = new Automaton(2, 0, new int[]{1}, new int[][]{{0, 0, 0}, {0, 1, 1}, {1, 0, 0}});
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 3, 1);
+        assertThrows(InconsistencyException.class, () -> cp.post(CPFactory.regular(x, endsWithOne)));
+    }
+
+    @Test
+    public void testModeling() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] x = model.intVarArray(5, 2);
+        IntVar[] y = model.intVarArray(5, 2);
+        model.add(Factory.regular(x, NO_CONSECUTIVE_ONES));
+        model.add(Factory.mdd(y, NO_CONSECUTIVE_ONES.unroll(5)));
+        ConcreteCPModel cp = model.cpInstantiate();
+        assertEquals(13 * 13, cp.dfSearch(Searches.staticOrderBinary(Stream.concat(Stream.of(x), Stream.of(y)).toArray(IntVar[]::new))).solve().numberOfSolutions());
+    }
+
+    @Test
+    public void testUnrollingIsShared() {
+        assertSame(NO_CONSECUTIVE_ONES.unroll(6), NO_CONSECUTIVE_ONES.unroll(6));
+        assertNotSame(NO_CONSECUTIVE_ONES.unroll(6), NO_CONSECUTIVE_ONES.unroll(7));
+        assertEquals(7, NO_CONSECUTIVE_ONES.unroll(6).nLayers());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testNonDeterministicAutomaton(CPSolver cp) {
+        // binary words whose second to last symbol is a 1: the state 0 guesses where this 1 is
+        Automaton secondToLastIsOne = new Automaton(3, 0, new int[]{2},
+                new int[][]{{0, 0, 0}, {0, 1, 0}, {0, 1, 1}, {1, 0, 2}, {1, 1, 2}});
+        assertFalse(secondToLastIsOne.isDeterministic());
+        assertTrue(secondToLastIsOne.accepts(new int[]{0, 1, 1, 0}));
+        assertFalse(secondToLastIsOne.accepts(new int[]{1, 1, 0, 1}));
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 4, 2);
+        cp.post(CPFactory.regular(x, secondToLastIsOne));
+        assertTrue(x[2].isFixed());
+        assertEquals(1, x[2].min());
+        DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(x));
+        dfs.onSolution(() -> {
+            int[] word = new int[x.length];
+            for (int i = 0; i < x.length; i++)
+                word[i] = x[i].min();
+            assertTrue(secondToLastIsOne.accepts(word));
+        });
+        // the other symbols are free
+        assertEquals(8, dfs.solve().numberOfSolutions());
+    }
+
+    public static Stream<Arguments> getRandomTables() {
+        Random rand = new Random(67292);
+        return getRepeatedSolverSuppliers(50)
+                .map(supplier -> Arguments.of(supplier,
+                        TableTest.randomTuples(rand, 3, 50, 2, 8),
+                        TableTest.randomTuples(rand, 3, 50, 2, 8),
+                        TableTest.randomTuples(rand, 3, 50, 2, 8)));
+    }
+
+    @ParameterizedTest(name = "CPSolver, 3 Sets of Tuples")
+    @MethodSource("getRandomTables")
+    public void testSameSearchAsTable(Supplier<CPSolver> cpSupplier, int[][] t1, int[][] t2, int[][] t3) {
+        // both constraints are domain consistent
+        TableTest.assertSameSearch(cpSupplier, TableCT::new,
+                (x, table) -> CPFactory.regular(x, trie(table)), t1, t2, t3);
+    }
+}
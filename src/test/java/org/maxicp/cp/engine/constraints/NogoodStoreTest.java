@@ -0,0 +1,181 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.engine.core.Literal;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.IntDecision.Relation;
+import org.maxicp.search.SearchStatistics;
+import org.maxicp.state.StateManager;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+public class NogoodStoreTest extends CPSolverTest {
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void lastLiteralIsNegated(CPSolver cp) {
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 3, 5);
+        NogoodStore store = new NogoodStore(cp);
+        cp.post(store);
+        // !(x0 == 1 && x1 <= 2 && x2 > 0)
+        store.add(x, new Relation[]{Relation.EQ, Relation.LE, Relation.GT}, new int[]{1, 2, 0});
+        assertEquals(1, store.size());
+
+        cp.getStateManager().saveState();
+        x[0].fix(1);
+        cp.fixPoint();
+        assertEquals(5, x[1].size());
+        x[2].removeBelow(1);
+        cp.fixPoint();
+        assertEquals(3, x[1].min());
+        cp.getStateManager().restoreState();
+
+        cp.getStateManager().saveState();
+        x[1].removeAbove(2);
+        x[2].remove(0);
+        cp.fixPoint();
+        assertFalse(x[0].contains(1));
+        cp.getStateManager().restoreState();
+
+        cp.getStateManager().saveState();
+        x[0].fix(1);
+        x[1].removeAbove(2);
+        assertThrowsExactly(InconsistencyException.class, () -> {
+            x[2].removeBelow(1);
+            cp.fixPoint();
+        });
+        cp.getStateManager().restoreState();
+
+        // the watches moved during the search are still valid
+        cp.getStateManager().saveState();
+        x[2].removeBelow(1);
+        x[1].fix(0);
+        cp.fixPoint();
+        assertFalse(x[0].contains(1));
+        cp.getStateManager().restoreState();
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void nogoodsAddedAtTheRoot(CPSolver cp) {
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 2, 5);
+        NogoodStore store = new NogoodStore(cp);
+        cp.post(store);
+        store.add(new CPIntVar[]{x[0]}, new Relation[]{Relation.NEQ}, new int[]{3});
+        assertTrue(x[0].isFixed());
+        assertEquals(3, x[0].min());
+        store.add(x, new Relation[]{Relation.EQ, Relation.EQ}, new int[]{3, 4});
+        assertFalse(x[1].contains(4));
+        assertThrowsExactly(InconsistencyException.class,
+                () -> store.add(x, new Relation[]{Relation.EQ, Relation.NEQ}, new int[]{3, 4}));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void learntNogoodsPropagateAfterBacktracking(CPSolver cp) {
+        CPIntVar x = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar y = CPFactory.makeIntVar(cp, 0, 5);
+        NogoodStore store = new NogoodStore(cp);
+        cp.post(store);
+        StateManager sm = cp.getStateManager();
+        // learnt below a saved state, on variables that the store has not seen yet
+        sm.saveState();
+        sm.saveState();
+        store.learn(Literal.le(x, 2), Literal.le(y, 2));
+        cp.fixPoint();
+        sm.restoreState();
+
+        x.removeAbove(2);
+        cp.fixPoint();
+        assertEquals(3, y.min());
+        sm.restoreState();
+
+        // and in the other direction, from the root
+        y.removeAbove(1);
+        cp.fixPoint();
+        assertEquals(3, x.min());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void sameSolutionsAsDecomposition(CPSolver cp) {
+        Random random = new Random(42);
+        int n = 5;
+        int d = 4;
+        for (int iter = 0; iter < 20; iter++) {
+            cp.getStateManager().saveState();
+            CPIntVar[] x = CPFactory.makeIntVarArray(cp, n, d);
+            int nNogoods = 10 + random.nextInt(20);
+            int[][] var = new int[nNogoods][];
+            Relation[][] rel = new Relation[nNogoods][];
+            int[][] val = new int[nNogoods][];
+            for (int k = 0; k < nNogoods; k++) {
+                int size = 2 + random.nextInt(3);
+                var[k] = new int[size];
+                rel[k] = new Relation[size];
+                val[k] = new int[size];
+                for (int i = 0; i < size; i++) {
+                    var[k][i] = random.nextInt(n);
+                    rel[k][i] = Relation.values()[random.nextInt(4)];
+                    val[k][i] = random.nextInt(d);
+                }
+            }
+            int expected = 0;
+            int[] sol = new int[n];
+            for (int s = 0; s < Math.pow(d, n); s++) {
+                for (int i = 0, v = s; i < n; i++, v /= d)
+                    sol[i] = v % d;
+                if (satisfies(sol, var, rel, val))
+                    expected++;
+            }
+
+            try {
+                NogoodStore store = new NogoodStore(cp);
+                cp.post(store);
+                for (int k = 0; k < nNogoods; k++) {
+                    CPIntVar[] scope = new CPIntVar[var[k].length];
+                    for (int i = 0; i < scope.length; i++)
+                        scope[i] = x[var[k][i]];
+                    store.add(scope, rel[k], val[k]);
+                }
+                DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(x));
+                dfs.onSolution(() -> {
+                    int[] values = new int[n];
+                    for (int i = 0; i < n; i++)
+                        values[i] = x[i].min();
+                    assertTrue(satisfies(values, var, rel, val));
+                });
+                SearchStatistics stats = dfs.solve();
+                assertEquals(expected, stats.numberOfSolutions());
+            } catch (InconsistencyException e) {
+                assertEquals(0, expected);
+            }
+            cp.getStateManager().restoreState();
+        }
+    }
+
+    private static boolean satisfies(int[] sol, int[][] var, Relation[][] rel, int[][] val) {
+        for (int k = 0; k < var.length; k++) {
+            boolean violated = true;
+            for (int i = 0; i < var[k].length && violated; i++)
+                violated = rel[k][i].holds(sol[var[k][i]], val[k][i]);
+            if (violated)
+                return false;
+        }
+        return true;
+    }
+}
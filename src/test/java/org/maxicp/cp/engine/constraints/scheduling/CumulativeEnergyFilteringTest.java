@@ -0,0 +1,124 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2024 UCLouvain
+ *
+ */
+
+package org.maxicp.cp.engine.constraints.scheduling;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.Constants;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPIntervalVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Searches;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.cp.CPFactory.makeIntervalVar;
+
+public class CumulativeEnergyFilteringTest extends CPSolverTest {
+
+    private static Activity activity(CPSolver cp, int startMin, int endMax, int length, int height) {
+        CPIntervalVar interval = makeIntervalVar(cp);
+        interval.setPresent();
+        interval.setLength(length);
+        interval.setStartMin(startMin);
+        interval.setEndMax(endMax);
+        return new Activity(interval, CPFactory.makeIntVar(cp, height, height));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testTimeTableEdgeFinding(CPSolver cp) {
+        // 2 activities of length 2 fill [0,4), the third one starts after them
+        Activity[] activities = new Activity[]{activity(cp, 0, 4, 2, 1), activity(cp, 0, 4, 2, 1), activity(cp, 0, 10, 2, 1)};
+        cp.getStateManager().saveState();
+        cp.post(new GeneralizedCumulativeConstraint(activities, 1));
+        assertEquals(0, activities[2].getStartMin());
+        cp.getStateManager().restoreState();
+        cp.post(new GeneralizedCumulativeConstraint(activities, 1, Constants.CumulativeFiltering.TIME_TABLING_EDGE_FINDING));
+        assertEquals(4, activities[2].getStartMin());
+        assertEquals(0, activities[0].getStartMin());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testTimeTableEdgeFindingWithCompulsoryPart(CPSolver cp) {
+        // the first two activities and the last one, with a compulsory part in [5,6), fill the window [0,7)
+        Activity[] activities = new Activity[]{activity(cp, 0, 6, 3, 1), activity(cp, 0, 6, 2, 1), activity(cp, 0, 12, 2, 1), activity(cp, 4, 7, 2, 1)};
+        cp.post(new GeneralizedCumulativeConstraint(activities, 1, Constants.CumulativeFiltering.TIME_TABLING_EDGE_FINDING));
+        assertEquals(7, activities[2].getStartMin());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testOverload(CPSolver cp) {
+        // no compulsory part, such that time-tabling does not detect the overload
+        Activity[] activities = new Activity[]{activity(cp, 0, 5, 2, 2), activity(cp, 0, 5, 2, 2), activity(cp, 0, 5, 2, 2)};
+        cp.getStateManager().saveState();
+        cp.post(new GeneralizedCumulativeConstraint(activities, 2));
+        cp.getStateManager().restoreState();
+        assertThrows(InconsistencyException.class,
+                () -> cp.post(new GeneralizedCumulativeConstraint(activities, 2, Constants.CumulativeFiltering.TIME_TABLING_EDGE_FINDING)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testEnergeticReasoning(CPSolver cp) {
+        // the activity of height 2 cannot execute in parallel with the others, such that the first one cannot start at 1:
+        // this is only detected on the interval [1,4), which no activity is within
+        Activity[] activities = new Activity[]{activity(cp, 1, 7, 3, 1), activity(cp, 1, 6, 2, 2), activity(cp, 2, 8, 3, 1)};
+        cp.getStateManager().saveState();
+        cp.post(new GeneralizedCumulativeConstraint(activities, 2, Constants.CumulativeFiltering.TIME_TABLING_EDGE_FINDING));
+        assertEquals(1, activities[0].getStartMin());
+        cp.getStateManager().restoreState();
+        cp.post(new GeneralizedCumulativeConstraint(activities, 2, Constants.CumulativeFiltering.ENERGETIC_REASONING));
+        assertEquals(3, activities[0].getStartMin());
+        assertEquals(4, activities[1].getEndMax());
+        assertEquals(3, activities[2].getStartMin());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testSameSolutions(CPSolver cp) {
+        Random random = new Random(42);
+        for (int iter = 0; iter < 20; iter++) {
+            int n = 5;
+            int capacity = 2 + random.nextInt(3);
+            int[] length = random.ints(n, 1, 4).toArray();
+            int[] height = random.ints(n, 1, capacity + 1).toArray();
+            int[] startMin = random.ints(n, 0, 3).toArray();
+            int horizon = 2 + random.nextInt(4) + Arrays.stream(length).sum() / 2;
+            int expected = -1;
+            for (int k = 0; k < 2 * Constants.CumulativeFiltering.values().length; k++) {
+                Constants.CumulativeFiltering filtering = Constants.CumulativeFiltering.values()[k / 2];
+                boolean sweep = k % 2 == 1;
+                cp.getStateManager().saveState();
+                Activity[] activities = new Activity[n];
+                for (int i = 0; i < n; i++)
+                    activities[i] = activity(cp, startMin[i], Math.max(startMin[i] + length[i], horizon), length[i], height[i]);
+                CPIntVar[] starts = Arrays.stream(activities).map(a -> CPFactory.start(a.interval())).toArray(CPIntVar[]::new);
+                int count = 0;
+                try {
+                    cp.post(sweep ? new GeneralizedCumulativeSweepMax(activities, capacity, filtering)
+                            : new GeneralizedCumulativeConstraint(activities, capacity, filtering));
+                    DFSearch dfs = CPFactory.makeDfs(cp, Searches.staticOrderBinary(starts));
+                    count = dfs.solve().numberOfSolutions();
+                } catch (InconsistencyException ignored) {
+                }
+                if (expected == -1)
+                    expected = count;
+                assertEquals(expected, count, "filtering " + filtering + (sweep ? " with the sweep" : ""));
+                cp.getStateManager().restoreState();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints.scheduling;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.ModelDispatcher;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.cp.modeling.ConcreteCPModel;
+import org.maxicp.modeling.Factory;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Searches;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CumulativeTest extends CPSolverTest {
+
+    private static CPIntVar[] constants(CPSolver cp, int... values) {
+        return Arrays.stream(values).mapToObj(v -> CPFactory.makeIntVar(cp, v, v)).toArray(CPIntVar[]::new);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testAllDiffWithCumulative(CPSolver cp) {
+        CPIntVar[] s = CPFactory.makeIntVarArray(cp, 5, 5);
+        cp.post(CPFactory.cumulative(s, constants(cp, 1, 1, 1, 1, 1), constants(cp, 100, 100, 100, 100, 100), 100));
+        assertEquals(120, CPFactory.makeDfs(cp, Searches.firstFailBinary(s)).solve().numberOfSolutions());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testOverloadWithoutCompulsoryParts(CPSolver cp) {
+        // 3 tasks of length 2 in [0,5) on a unary resource, none has a compulsory part
+        CPIntVar[] s = CPFactory.makeIntVarArray(cp, 3, 0, 3);
+        assertThrows(InconsistencyException.class,
+                () -> cp.post(CPFactory.cumulative(s, constants(cp, 2, 2, 2), constants(cp, 1, 1, 1), 1)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testEdgeFinding(CPSolver cp) {
+        // 2 tasks of length 2 fill [0,4), such that the third one starts after them
+        CPIntVar[] s = new CPIntVar[]{CPFactory.makeIntVar(cp, 0, 2), CPFactory.makeIntVar(cp, 0, 2), CPFactory.makeIntVar(cp, 0, 8)};
+        cp.post(CPFactory.cumulative(s, constants(cp, 2, 2, 2), constants(cp, 1, 1, 1), 1));
+        assertEquals(4, s[2].min());
+        assertEquals(3, s[0].size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testVariableHeightsAndLengths(CPSolver cp) {
+        Random random = new Random(42);
+        for (int iter = 0; iter < 30; iter++) {
+            int n = 3;
+            int capacity = 2 + random.nextInt(3);
+            cp.getStateManager().saveState();
+            CPIntVar[] s = CPFactory.makeIntVarArray(cp, n, 0, 3);
+            CPIntVar[] l = CPFactory.makeIntVarArray(n, i -> CPFactory.makeIntVar(cp, random.nextInt(2), 2 + random.nextInt(2)));
+            CPIntVar[] h = CPFactory.makeIntVarArray(n, i -> CPFactory.makeIntVar(cp, random.nextInt(2), 1 + random.nextInt(3)));
+            int expected = countSolutions(s, l, h, capacity);
+            int count = 0;
+            try {
+                cp.post(CPFactory.cumulative(s, l, h, capacity));
+                CPIntVar[] all = Stream.of(s, l, h).flatMap(Arrays::stream).toArray(CPIntVar[]::new);
+                DFSearch dfs = CPFactory.makeDfs(cp, Searches.firstFailBinary(all));
+                dfs.onSolution(() -> assertTrue(satisfies(values(s), values(l), values(h), capacity)));
+                count = dfs.solve().numberOfSolutions();
+            } catch (InconsistencyException ignored) {
+            }
+            assertEquals(expected, count);
+            cp.getStateManager().restoreState();
+        }
+    }
+
+    private static int[] values(CPIntVar[] x) {
+        return Arrays.stream(x).mapToInt(CPIntVar::min).toArray();
+    }
+
+    private static boolean satisfies(int[] s, int[] l, int[] h, int capacity) {
+        int horizon = Arrays.stream(s).max().getAsInt() + Arrays.stream(l).max().getAsInt();
+        for (int t = 0; t < horizon; t++) {
+            int load = 0;
+            for (int i = 0; i < s.length; i++) {
+                if (s[i] <= t && t < s[i] + l[i])
+                    load += h[i];
+            }
+            if (load > capacity)
+                return false;
+        }
+        return true;
+    }
+
+    // enumerates the assignments of the variables, before posting the constraint
+    private static int countSolutions(CPIntVar[] s, CPIntVar[] l, CPIntVar[] h, int capacity) {
+        CPIntVar[] all = Stream.of(s, l, h).flatMap(Arrays::stream).toArray(CPIntVar[]::new);
+        int[] tuple = new int[all.length];
+        return countSolutions(all, 0, tuple, s.length, capacity);
+    }
+
+    private static int countSolutions(CPIntVar[] all, int i, int[] tuple, int n, int capacity) {
+        if (i == all.length) {
+            return satisfies(Arrays.copyOfRange(tuple, 0, n), Arrays.copyOfRange(tuple, n, 2 * n),
+                    Arrays.copyOfRange(tuple, 2 * n, 3 * n), capacity) ? 1 : 0;
+        }
+        int count = 0;
+        for (int v = all[i].min(); v <= all[i].max(); v++) {
+            tuple[i] = v;
+            count += countSolutions(all, i + 1, tuple, n, capacity);
+        }
+        return count;
+    }
+
+    @Test
+    public void testModeling() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] s = model.intVarArray(3, 4);
+        IntVar[] l = new IntVar[]{model.intVar(1, 2), model.intVar(1, 2), model.intVar(1, 2)};
+        IntVar[] h = new IntVar[]{model.intVar(1, 1), model.intVar(1, 1), model.intVar(1, 1)};
+        model.add(Factory.cumulative(s, l, h, 1));
+        ConcreteCPModel cp = model.cpInstantiate();
+        IntVar[] all = Stream.of(s, l, h).flatMap(Arrays::stream).toArray(IntVar[]::new);
+        // the tasks are in sequence within [0,5)
+        int expected = 0;
+        for (int s0 = 0; s0 < 4; s0++)
+            for (int s1 = 0; s1 < 4; s1++)
+                for (int s2 = 0; s2 < 4; s2++)
+                    for (int l0 = 1; l0 <= 2; l0++)
+                        for (int l1 = 1; l1 <= 2; l1++)
+                            for (int l2 = 1; l2 <= 2; l2++)
+                                if (satisfies(new int[]{s0, s1, s2}, new int[]{l0, l1, l2}, new int[]{1, 1, 1}, 1))
+                                    expected++;
+        assertEquals(expected, cp.dfSearch(Searches.staticOrderBinary(all)).solve().numberOfSolutions());
+    }
+}
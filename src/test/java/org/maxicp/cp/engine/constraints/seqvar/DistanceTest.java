@@ -0,0 +1,227 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.constraints.seqvar;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSeqVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.Objective;
+import org.maxicp.search.Searches;
+import org.maxicp.state.StateManager;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.modeling.algebra.sequence.SeqStatus.*;
+
+public class DistanceTest extends CPSolverTest {
+
+    // manhattan distances, respecting the triangular inequality
+    private static int[][] distances(int[][] coords) {
+        int n = coords.length;
+        int[][] dist = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                dist[i][j] = Math.abs(coords[i][0] - coords[j][0]) + Math.abs(coords[i][1] - coords[j][1]);
+        return dist;
+    }
+
+    // the last two nodes are the start and the end of the sequence
+    private static int[][] randomCoords(Random random, int n) {
+        int[][] coords = new int[n + 2][];
+        for (int i = 0; i < n; i++)
+            coords[i] = new int[]{random.nextInt(100), random.nextInt(100)};
+        coords[n] = new int[]{50, 50};
+        coords[n + 1] = new int[]{50, 50};
+        return coords;
+    }
+
+    private static int tourLength(CPSeqVar seqVar, int[][] dist) {
+        int[] nodes = new int[seqVar.nNode()];
+        int nMember = seqVar.fillNode(nodes, MEMBER_ORDERED);
+        int d = 0;
+        for (int i = 0; i < nMember - 1; i++)
+            d += dist[nodes[i]][nodes[i + 1]];
+        return d;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testIncrementalLength(CPSolver cp) {
+        Random random = new Random(42);
+        int n = 8;
+        int[][] dist = distances(randomCoords(random, n));
+        CPSeqVar seqVar = CPFactory.makeSeqVar(cp, n + 2, n, n + 1);
+        CPIntVar totalDist = CPFactory.makeIntVar(cp, 0, 10000);
+        cp.post(new Distance(seqVar, dist, totalDist));
+        StateManager sm = cp.getStateManager();
+        int[] nodes = new int[n + 2];
+        int base = sm.getLevel();
+        for (int dive = 0; dive < 50; dive++) {
+            sm.saveState();
+            // no node is required: the bound is the length of the partial tour
+            while (!seqVar.isFixed()) {
+                if (random.nextInt(4) == 0)
+                    sm.saveState();
+                int nInsertable = seqVar.fillNode(nodes, INSERTABLE);
+                int node = nodes[random.nextInt(nInsertable)];
+                if (random.nextInt(5) == 0) {
+                    seqVar.exclude(node);
+                } else {
+                    int nInsert = seqVar.fillInsert(node, nodes);
+                    seqVar.insert(nodes[random.nextInt(nInsert)], node);
+                }
+                cp.fixPoint();
+                assertEquals(tourLength(seqVar, dist), totalDist.min());
+                if (random.nextInt(6) == 0 && sm.getLevel() > base + 1) {
+                    sm.restoreState();
+                    assertEquals(tourLength(seqVar, dist), totalDist.min());
+                }
+            }
+            assertTrue(totalDist.isFixed());
+            assertEquals(tourLength(seqVar, dist), totalDist.min());
+            sm.restoreStateUntil(base);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testStrongBound(CPSolver cp) {
+        // 4 nodes at distance 100 of the depot, in each direction
+        int[][] dist = distances(new int[][]{{0, 100}, {100, 0}, {0, -100}, {-100, 0}, {0, 0}, {0, 0}});
+        StateManager sm = cp.getStateManager();
+        for (boolean strong : new boolean[]{false, true}) {
+            sm.saveState();
+            CPSeqVar seqVar = CPFactory.makeSeqVar(cp, 6, 4, 5);
+            for (int node = 0; node < 4; node++)
+                seqVar.require(node);
+            CPIntVar totalDist = CPFactory.makeIntVar(cp, 0, 10000);
+            cp.post(new Distance(seqVar, dist, totalDist, strong));
+            // requiring the node 0 inserts it: the default bound is the tour through it, of length 200,
+            // plus the detour of 200 of any other node, while the assignment gives the optimal tour of 800
+            assertEquals(strong ? 800 : 400, totalDist.min());
+            sm.restoreState();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testStrongBoundPrunesMoreThanTheDetours(CPSolver cp) {
+        int[][] dist = distances(new int[][]{{0, 100}, {100, 0}, {0, -100}, {-100, 0}, {0, 0}, {0, 0}});
+        StateManager sm = cp.getStateManager();
+        // the optimal tour of 800 is not feasible, but the detours of the default bound cannot detect it
+        sm.saveState();
+        CPSeqVar seqVar = CPFactory.makeSeqVar(cp, 6, 4, 5);
+        CPIntVar totalDist = CPFactory.makeIntVar(cp, 0, 799);
+        cp.post(new Distance(seqVar, dist, totalDist));
+        for (int node = 0; node < 4; node++)
+            seqVar.require(node);
+        cp.fixPoint();
+        assertEquals(400, totalDist.min());
+        sm.restoreState();
+
+        CPSeqVar strongSeqVar = CPFactory.makeSeqVar(cp, 6, 4, 5);
+        CPIntVar strongTotalDist = CPFactory.makeIntVar(cp, 0, 799);
+        cp.post(new Distance(strongSeqVar, dist, strongTotalDist, true));
+        assertThrowsExactly(InconsistencyException.class, () -> {
+            for (int node = 0; node < 4; node++)
+                strongSeqVar.require(node);
+            cp.fixPoint();
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testStrongBoundWithOptionalNodes(CPSolver cp) {
+        Random random = new Random(1);
+        StateManager sm = cp.getStateManager();
+        for (int iter = 0; iter < 5; iter++) {
+            int n = 7;
+            int[][] dist = distances(randomCoords(random, n));
+            // the first half of the nodes is required, and the other one is visited for a penalty
+            int[] best = new int[2];
+            for (boolean strong : new boolean[]{false, true}) {
+                sm.saveState();
+                CPSeqVar seqVar = CPFactory.makeSeqVar(cp, n + 2, n, n + 1);
+                for (int node = 0; node < n / 2; node++)
+                    seqVar.require(node);
+                CPIntVar totalDist = CPFactory.makeIntVar(cp, 0, 10000);
+                cp.post(new Distance(seqVar, dist, totalDist, strong));
+                CPIntVar[] visited = new CPIntVar[n - n / 2];
+                for (int node = n / 2; node < n; node++)
+                    visited[node - n / 2] = CPFactory.mul(seqVar.isNodeRequired(node), -30);
+                CPIntVar objective = CPFactory.sum(CPFactory.sum(visited), totalDist);
+                Objective obj = cp.minimize(objective);
+                DFSearch dfs = CPFactory.makeDfs(cp, Searches.firstFailBinary(seqVar));
+                int k = strong ? 1 : 0;
+                best[k] = Integer.MAX_VALUE;
+                dfs.onSolution(() -> {
+                    assertEquals(tourLength(seqVar, dist), totalDist.min());
+                    best[k] = objective.min();
+                });
+                dfs.optimize(obj);
+                assertNotEquals(Integer.MAX_VALUE, best[k]);
+                sm.restoreState();
+            }
+            assertEquals(best[0], best[1]);
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testOptimalTour(CPSolver cp) {
+        Random random = new Random(0);
+        StateManager sm = cp.getStateManager();
+        for (int iter = 0; iter < 5; iter++) {
+            int n = 6;
+            int[][] dist = distances(randomCoords(random, n));
+            int expected = bruteForce(dist, n);
+            for (boolean strong : new boolean[]{false, true}) {
+                sm.saveState();
+                CPSeqVar seqVar = CPFactory.makeSeqVar(cp, n + 2, n, n + 1);
+                for (int node = 0; node < n; node++)
+                    seqVar.require(node);
+                CPIntVar totalDist = CPFactory.makeIntVar(cp, 0, 10000);
+                cp.post(new Distance(seqVar, dist, totalDist, strong));
+                Objective obj = cp.minimize(totalDist);
+                DFSearch dfs = CPFactory.makeDfs(cp, Searches.firstFailBinary(seqVar));
+                int[] best = new int[]{Integer.MAX_VALUE};
+                dfs.onSolution(() -> {
+                    assertEquals(tourLength(seqVar, dist), totalDist.min());
+                    best[0] = totalDist.min();
+                });
+                dfs.optimize(obj);
+                assertEquals(expected, best[0]);
+                sm.restoreState();
+            }
+        }
+    }
+
+    // length of the shortest tour visiting all the nodes from the start to the end
+    private static int bruteForce(int[][] dist, int n) {
+        return bruteForce(dist, n, n, new boolean[n], 0);
+    }
+
+    private static int bruteForce(int[][] dist, int n, int last, boolean[] visited, int nVisited) {
+        if (nVisited == n)
+            return dist[last][n + 1];
+        int best = Integer.MAX_VALUE;
+        for (int node = 0; node < n; node++) {
+            if (!visited[node]) {
+                visited[node] = true;
+                best = Math.min(best, dist[last][node] + bruteForce(dist, n, node, visited, nVisited + 1));
+                visited[node] = false;
+            }
+        }
+        return best;
+    }
+}
@@ -65,7 +65,9 @@ public class CPSeqVarTest extends CPSolverTest {
     }
 
     public static Stream<CPSeqVar> getSeqVar() {
-        return getSolver().map(cp -> CPFactory.makeSeqVar(cp, nNodes, start, end));
+        return Stream.concat(
+                getSolver().map(cp -> CPFactory.makeSeqVar(cp, nNodes, start, end, false)),
+                getSolver().map(cp -> CPFactory.makeSeqVar(cp, nNodes, start, end, true)));
     }
 
     /**
@@ -0,0 +1,264 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.search.ConflictLearner;
+import org.maxicp.search.DFSListener;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.SearchStatistics;
+import org.maxicp.state.StateManager;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+public class ExplanationsTest extends CPSolverTest {
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDisabledByDefault(CPSolver cp) {
+        assertNull(cp.getExplanations());
+        cp.setExplanations(true);
+        assertNotNull(cp.getExplanations());
+        cp.setExplanations(false);
+        assertNull(cp.getExplanations());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFailureOfAChain(CPSolver cp) {
+        cp.setExplanations(true);
+        CPIntVar x = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar y = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar z = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar w = CPFactory.makeIntVar(cp, 0, 5);
+        cp.post(CPFactory.le(x, y));
+        cp.post(CPFactory.le(y, z));
+        Explanations explanations = cp.getExplanations();
+
+        cp.getStateManager().saveState();
+        z.removeAbove(2);
+        w.removeAbove(1);
+        x.removeBelow(3);
+        assertThrowsExactly(InconsistencyException.class, cp::fixPoint);
+        Literal[] nogood = explanations.analyze();
+        // the bound of w is not involved in the failure
+        assertEquals(Set.of(Literal.ge(x, 3), Literal.le(z, 2)), Set.of(nogood));
+        // the failure is forgotten once analyzed
+        assertNull(explanations.analyze());
+        cp.getStateManager().restoreState();
+        assertEquals(0, explanations.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testSharedReasonOfASum(CPSolver cp) {
+        cp.setExplanations(true);
+        CPIntVar x = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar y = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar z = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar u = CPFactory.makeIntVar(cp, 0, 5);
+        CPIntVar w = CPFactory.makeIntVar(cp, 0, 5);
+        cp.post(CPFactory.sum(new CPIntVar[]{x, y, z}, 5));
+        cp.post(CPFactory.le(w, z));
+        cp.post(CPFactory.le(x, u));
+        cp.post(CPFactory.le(u, y));
+        Explanations explanations = cp.getExplanations();
+        StateManager sm = cp.getStateManager();
+
+        // changes forgotten when restored, before the same failure
+        sm.saveState();
+        y.removeAbove(4);
+        z.removeAbove(4);
+        cp.fixPoint();
+        sm.restoreState();
+        for (int k = 0; k < 2; k++) {
+            sm.saveState();
+            w.removeBelow(1);
+            cp.fixPoint();
+            x.removeBelow(3);
+            // y <= 1 by the sum, with the reason x >= 3, z >= 1 and y >= 0 shared with z <= 2,
+            // while y >= 3 by the chain x <= u <= y
+            assertThrowsExactly(InconsistencyException.class, cp::fixPoint);
+            Literal[] nogood = explanations.analyze();
+            // the literal on y in the shared reason is ignored
+            assertEquals(Set.of(Literal.ge(x, 3), Literal.ge(w, 1)), Set.of(nogood));
+            sm.restoreState();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testGreaterOrEqualToTheMinimumValue(CPSolver cp) {
+        CPIntVar x = CPFactory.makeIntVar(cp, 0, 5);
+        Literal l = Literal.ge(x, Integer.MIN_VALUE);
+        assertTrue(l.isTrue());
+        assertTrue(l.negation().isFalse());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFailureOfANonExplainingPropagator(CPSolver cp) {
+        cp.setExplanations(true);
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 3, 3);
+        cp.post(CPFactory.allDifferentDC(x));
+        cp.getStateManager().saveState();
+        for (CPIntVar y : x)
+            y.removeAbove(1);
+        assertThrowsExactly(InconsistencyException.class, cp::fixPoint);
+        assertNull(cp.getExplanations().analyze());
+        cp.getStateManager().restoreState();
+    }
+
+    private record RandomModel(CPIntVar[] x, List<Predicate<int[]>> constraints) {
+        boolean satisfies(int[] sol) {
+            return constraints.stream().allMatch(c -> c.test(sol));
+        }
+    }
+
+    // random model mixing the explaining propagators and a non explaining one
+    private static RandomModel randomModel(CPSolver cp, Random random, int n, int d) {
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, n, d);
+        List<Predicate<int[]>> constraints = new ArrayList<>();
+        int nConstraints = 4 + random.nextInt(4);
+        for (int k = 0; k < nConstraints; k++) {
+            int i = random.nextInt(n);
+            int j = (i + 1 + random.nextInt(n - 1)) % n;
+            int l = (j + 1 + random.nextInt(n - 1)) % n;
+            int c = random.nextInt(d);
+            switch (random.nextInt(7)) {
+                case 0 -> {
+                    cp.post(CPFactory.le(x[i], x[j]));
+                    constraints.add(s -> s[i] <= s[j]);
+                }
+                case 1 -> {
+                    int offset = c - d / 2;
+                    cp.post(CPFactory.neq(x[i], x[j], offset));
+                    constraints.add(s -> s[i] != s[j] + offset);
+                }
+                case 2 -> {
+                    cp.post(CPFactory.sum(new CPIntVar[]{x[i], x[j]}, CPFactory.plus(x[l], c)));
+                    constraints.add(s -> s[i] + s[j] == s[l] + c);
+                }
+                case 3 -> {
+                    int[] array = random.ints(d, 0, d).toArray();
+                    cp.post(CPFactory.le(CPFactory.element(array, x[i]), x[j]));
+                    constraints.add(s -> array[s[i]] <= s[j]);
+                }
+                case 4 -> {
+                    cp.post(CPFactory.le(CPFactory.isEq(x[i], c), x[j]));
+                    constraints.add(s -> (s[i] == c ? 1 : 0) <= s[j]);
+                }
+                case 5 -> {
+                    cp.post(CPFactory.le(x[j], CPFactory.isLe(x[i], c)));
+                    constraints.add(s -> s[j] <= (s[i] <= c ? 1 : 0));
+                }
+                default -> {
+                    cp.post(CPFactory.neq(x[i], c));
+                    constraints.add(s -> s[i] != c);
+                }
+            }
+        }
+        return new RandomModel(x, constraints);
+    }
+
+    private static List<int[]> solutions(int n, int d, RandomModel model) {
+        List<int[]> solutions = new ArrayList<>();
+        for (int s = 0; s < Math.pow(d, n); s++) {
+            int[] sol = new int[n];
+            for (int i = 0, v = s; i < n; i++, v /= d)
+                sol[i] = v % d;
+            if (model.satisfies(sol))
+                solutions.add(sol);
+        }
+        return solutions;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testNogoodsAreValid(CPSolver cp) {
+        Random random = new Random(42);
+        int n = 5;
+        int d = 5;
+        int nNogoods = 0;
+        for (int iter = 0; iter < 50; iter++) {
+            cp.getStateManager().saveState();
+            cp.setExplanations(true);
+            try {
+                RandomModel model = randomModel(cp, random, n, d);
+                List<int[]> solutions = solutions(n, d, model);
+                List<Literal[]> nogoods = new ArrayList<>();
+                DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(model.x()));
+                dfs.setDFSListener(new DFSListener() {
+                    @Override
+                    public void fail(int id, int pId) {
+                        Literal[] nogood = cp.getExplanations().analyze();
+                        if (nogood != null)
+                            nogoods.add(nogood);
+                    }
+                });
+                SearchStatistics stats = dfs.solve();
+                assertEquals(solutions.size(), stats.numberOfSolutions());
+                // the nogoods may involve the auxiliary variables of the model, that are fixed by the solutions
+                for (int[] sol : solutions) {
+                    cp.getStateManager().saveState();
+                    for (int i = 0; i < n; i++)
+                        model.x()[i].fix(sol[i]);
+                    cp.fixPoint();
+                    for (Literal[] nogood : nogoods)
+                        assertFalse(Arrays.stream(nogood).allMatch(Literal::isTrue));
+                    cp.getStateManager().restoreState();
+                }
+                nNogoods += nogoods.size();
+            } catch (InconsistencyException ignored) {
+            }
+            cp.getStateManager().restoreState();
+        }
+        assertTrue(nNogoods > 0);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testLearningKeepsTheSolutions(CPSolver cp) {
+        Random random = new Random(7);
+        int n = 5;
+        int d = 5;
+        int nLearnt = 0;
+        for (int iter = 0; iter < 50; iter++) {
+            cp.getStateManager().saveState();
+            cp.setExplanations(true);
+            try {
+                RandomModel model = randomModel(cp, random, n, d);
+                int expected = solutions(n, d, model).size();
+                ConflictLearner learner = new ConflictLearner(cp);
+                DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(model.x()));
+                dfs.onSolution(() -> {
+                    int[] sol = new int[n];
+                    for (int i = 0; i < n; i++)
+                        sol[i] = model.x()[i].min();
+                    assertTrue(model.satisfies(sol));
+                });
+                SearchStatistics stats = dfs.solve(learner);
+                assertEquals(expected, stats.numberOfSolutions());
+                nLearnt += learner.numberOfNogoods();
+            } catch (InconsistencyException ignored) {
+            }
+            cp.getStateManager().restoreState();
+        }
+        assertTrue(nLearnt > 0);
+    }
+}
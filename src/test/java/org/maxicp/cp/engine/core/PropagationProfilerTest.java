@@ -0,0 +1,115 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.cp.engine.constraints.AllDifferentDC;
+import org.maxicp.search.DFSearch;
+import org.maxicp.search.SearchStatistics;
+import org.maxicp.util.exception.InconsistencyException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.search.Searches.firstFailBinary;
+
+public class PropagationProfilerTest extends CPSolverTest {
+
+    private static CPIntVar[] nQueens(CPSolver cp, int n) {
+        CPIntVar[] q = CPFactory.makeIntVarArray(cp, n, n);
+        CPIntVar[] qL = CPFactory.makeIntVarArray(n, i -> CPFactory.plus(q[i], i));
+        CPIntVar[] qR = CPFactory.makeIntVarArray(n, i -> CPFactory.minus(q[i], i));
+        cp.post(CPFactory.allDifferentDC(q));
+        cp.post(CPFactory.allDifferentDC(qL));
+        cp.post(CPFactory.allDifferentDC(qR));
+        return q;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testDisabledByDefault(CPSolver cp) {
+        CPIntVar[] q = nQueens(cp, 6);
+        assertNull(cp.getProfiler());
+        SearchStatistics stats = CPFactory.makeDfs(cp, firstFailBinary(q)).solve();
+        assertEquals(4, stats.numberOfSolutions());
+        assertNull(stats.propagationProfile());
+        assertFalse(stats.toString().contains("propagation profile"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testProfileNQueens(CPSolver cp) {
+        cp.setProfiling(true);
+        CPIntVar[] q = nQueens(cp, 8);
+        DFSearch dfs = CPFactory.makeDfs(cp, firstFailBinary(q));
+        SearchStatistics stats = dfs.solve();
+        assertEquals(92, stats.numberOfSolutions());
+
+        PropagationProfiler profiler = cp.getProfiler();
+        assertSame(profiler, stats.propagationProfile());
+        PropagationProfiler.Stats allDiff = profiler.get(AllDifferentDC.class);
+        assertNotNull(allDiff);
+        assertTrue(allDiff.calls() > 0);
+        assertTrue(allDiff.timeNanos() > 0);
+        assertTrue(allDiff.reductions() > 0);
+        // a failure is either raised by a propagator or when applying a decision
+        assertTrue(allDiff.failures() > 0);
+        assertTrue(allDiff.failures() <= stats.numberOfFailures());
+
+        // the counters of the class are the sum over its instances
+        long calls = 0, failures = 0, reductions = 0;
+        for (PropagationProfiler.Stats s : profiler.byInstance()) {
+            if (s.name().startsWith(AllDifferentDC.class.getName() + "@")) {
+                calls += s.calls();
+                failures += s.failures();
+                reductions += s.reductions();
+            }
+        }
+        assertEquals(allDiff.calls(), calls);
+        assertEquals(allDiff.failures(), failures);
+        assertEquals(allDiff.reductions(), reductions);
+
+        assertTrue(stats.toString().contains(AllDifferentDC.class.getName()));
+
+        profiler.reset();
+        assertNull(profiler.get(AllDifferentDC.class));
+        assertTrue(profiler.byInstance().isEmpty());
+
+        cp.setProfiling(false);
+        assertNull(cp.getProfiler());
+        assertNull(dfs.solve().propagationProfile());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testFailureAndReductionsOfInstance(CPSolver cp) {
+        cp.setProfiling(true);
+        CPIntVar x = CPFactory.makeIntVar(cp, 0, 10);
+        CPIntVar y = CPFactory.makeIntVar(cp, 0, 10);
+        CPConstraint lessOrEqual = CPFactory.le(x, y);
+        cp.post(lessOrEqual);
+        PropagationProfiler profiler = cp.getProfiler();
+
+        y.removeAbove(5);
+        cp.fixPoint();
+        PropagationProfiler.Stats s = profiler.get(lessOrEqual);
+        assertNotNull(s);
+        long calls = s.calls();
+        assertTrue(calls > 0);
+        assertEquals(0, s.failures());
+        assertEquals(1, s.reductions()); // removeAbove on x
+
+        cp.getStateManager().saveState();
+        x.removeBelow(4);
+        y.removeAbove(3);
+        assertThrows(InconsistencyException.class, cp::fixPoint);
+        cp.getStateManager().restoreState();
+        assertTrue(s.calls() > calls);
+        assertEquals(1, s.failures());
+        assertEquals(1, profiler.get(lessOrEqual.getClass()).failures());
+    }
+}
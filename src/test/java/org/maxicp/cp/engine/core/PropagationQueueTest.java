@@ -0,0 +1,129 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PropagationQueueTest extends CPSolverTest {
+
+    private static CPConstraint[] constraints(CPSolver cp, int n) {
+        CPConstraint[] c = new CPConstraint[n];
+        for (int i = 0; i < n; i++)
+            c[i] = new AbstractCPConstraint(cp) {};
+        return c;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testPriorityThenFifo(CPSolver cp) {
+        CPConstraint[] c = constraints(cp, 6);
+        PropagationQueue queue = new PropagationQueue(3);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+        queue.add(c[0], 2);
+        queue.add(c[1], 1);
+        queue.add(c[2], 0);
+        queue.add(c[3], 2);
+        queue.add(c[4], 0);
+        queue.add(c[5], 1);
+        assertEquals(6, queue.size());
+        CPConstraint[] expected = {c[2], c[4], c[1], c[5], c[0], c[3]};
+        for (CPConstraint e : expected)
+            assertSame(e, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testGrowAndWrapAround(CPSolver cp) {
+        CPConstraint[] c = constraints(cp, 100);
+        PropagationQueue queue = new PropagationQueue(2);
+        ArrayDeque<CPConstraint>[] reference = new ArrayDeque[]{new ArrayDeque<>(), new ArrayDeque<>()};
+        Random random = new Random(42);
+        for (int step = 0; step < 10000; step++) {
+            if (random.nextInt(3) > 0) {
+                int priority = random.nextInt(2);
+                CPConstraint e = c[random.nextInt(c.length)];
+                queue.add(e, priority);
+                reference[priority].add(e);
+            } else {
+                CPConstraint expected = !reference[0].isEmpty() ? reference[0].poll() : reference[1].poll();
+                assertSame(expected, queue.poll());
+            }
+            assertEquals(reference[0].size() + reference[1].size(), queue.size());
+            assertEquals(reference[0].isEmpty() && reference[1].isEmpty(), queue.isEmpty());
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testClear(CPSolver cp) {
+        CPConstraint[] c = constraints(cp, 40);
+        PropagationQueue queue = new PropagationQueue(3);
+        for (int i = 0; i < c.length; i++)
+            queue.add(c[i], i % 3);
+        long epoch = queue.epoch();
+        queue.clear();
+        assertEquals(epoch + 1, queue.epoch());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+        queue.add(c[7], 1);
+        assertSame(c[7], queue.poll());
+    }
+
+    @Test
+    public void testInvalidNumberOfPriorities() {
+        assertThrows(IllegalArgumentException.class, () -> new PropagationQueue(0));
+        assertThrows(IllegalArgumentException.class, () -> new PropagationQueue(33));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void testScheduledStatusResetOnFailure(CPSolver cp) {
+        CPIntVar x = CPFactory.makeIntVar(cp, 0, 10);
+        CPConstraint[] pending = new CPConstraint[3];
+        for (int i = 0; i < pending.length; i++) {
+            pending[i] = new AbstractCPConstraint(cp) {};
+        }
+        // the first constraint to be propagated schedules the others and then fails
+        CPConstraint failing = new AbstractCPConstraint(cp) {
+            @Override
+            public void propagate() {
+                for (CPConstraint c : pending)
+                    cp.schedule(c);
+                for (CPConstraint c : pending)
+                    assertTrue(c.isScheduled());
+                throw new InconsistencyException();
+            }
+        };
+        cp.schedule(failing);
+        assertTrue(failing.isScheduled());
+        assertThrows(InconsistencyException.class, cp::fixPoint);
+        assertFalse(failing.isScheduled());
+        for (CPConstraint c : pending)
+            assertFalse(c.isScheduled());
+
+        // the constraints can be scheduled again
+        CPConstraint propagated = pending[0];
+        cp.schedule(propagated);
+        assertTrue(propagated.isScheduled());
+        cp.fixPoint();
+        assertFalse(propagated.isScheduled());
+        assertEquals(11, x.size());
+    }
+}
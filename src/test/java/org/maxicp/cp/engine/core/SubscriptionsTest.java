@@ -0,0 +1,179 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.cp.engine.core;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.CPSolverTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SubscriptionsTest extends CPSolverTest {
+
+    private static class Counting extends AbstractCPConstraint {
+        int nPropagate = 0;
+
+        Counting(CPSolver cp) {
+            super(cp);
+        }
+
+        @Override
+        public void propagate() {
+            nPropagate++;
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void constraintSubscribedOnlyOnce(CPSolver cp) {
+        Subscriptions subscriptions = new Subscriptions(cp.getStateManager());
+        Counting c1 = new Counting(cp);
+        Counting c2 = new Counting(cp);
+        subscriptions.add(c1);
+        subscriptions.add(c1);
+        subscriptions.add(c2);
+        assertEquals(2, subscriptions.size());
+        assertSame(c1, subscriptions.get(0));
+        assertSame(c2, subscriptions.get(1));
+        // not consecutive: stored again, but still scheduled once
+        subscriptions.add(c1);
+        assertEquals(3, subscriptions.size());
+
+        subscriptions.fire(cp);
+        cp.fixPoint();
+        assertEquals(1, c1.nPropagate);
+        assertEquals(1, c2.nPropagate);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void subscriptionsAreRestored(CPSolver cp) {
+        Subscriptions subscriptions = new Subscriptions(cp.getStateManager());
+        List<Counting> constraints = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+            constraints.add(new Counting(cp));
+        subscriptions.add(constraints.get(0));
+        subscriptions.addDemon(() -> {});
+
+        cp.getStateManager().saveState();
+        subscriptions.add(constraints.get(1));
+        subscriptions.add(constraints.get(2));
+        subscriptions.addDemon(() -> {});
+        assertEquals(3, subscriptions.size());
+        assertEquals(2, subscriptions.nDemons());
+
+        cp.getStateManager().restoreState();
+        assertEquals(1, subscriptions.size());
+        assertEquals(1, subscriptions.nDemons());
+        assertSame(constraints.get(0), subscriptions.get(0));
+
+        // the slots above the size are reused
+        subscriptions.add(constraints.get(2));
+        assertEquals(2, subscriptions.size());
+        assertSame(constraints.get(2), subscriptions.get(1));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void demonsRunBeforeTheFixPoint(CPSolver cp) {
+        CPIntVar x = CPFactory.makeIntVar(cp, 10);
+        AtomicInteger nFix = new AtomicInteger();
+        AtomicInteger nBound = new AtomicInteger();
+        AtomicInteger nDomain = new AtomicInteger();
+        x.demonOnFix(nFix::incrementAndGet);
+        x.demonOnBoundChange(nBound::incrementAndGet);
+        x.demonOnDomainChange(nDomain::incrementAndGet);
+
+        cp.getStateManager().saveState();
+        x.remove(5);
+        // no fix point is needed for the demons to be run
+        assertEquals(0, nFix.get());
+        assertEquals(0, nBound.get());
+        assertEquals(1, nDomain.get());
+        x.removeAbove(7);
+        assertEquals(0, nFix.get());
+        assertEquals(1, nBound.get());
+        assertEquals(2, nDomain.get());
+        x.fix(3);
+        assertEquals(1, nFix.get());
+        // run once for each modified bound
+        assertEquals(3, nBound.get());
+        assertEquals(3, nDomain.get());
+        cp.getStateManager().restoreState();
+
+        x.remove(0);
+        assertEquals(4, nBound.get());
+        assertEquals(4, nDomain.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void demonsOnViews(CPSolver cp) {
+        CPIntVar x = CPFactory.makeIntVar(cp, 10);
+        CPIntVar y = CPFactory.minus(CPFactory.mul(CPFactory.plus(x, 2), 3));
+        CPBoolVar b = CPFactory.makeBoolVar(cp);
+        AtomicInteger nFix = new AtomicInteger();
+        AtomicInteger nBool = new AtomicInteger();
+        y.demonOnFix(nFix::incrementAndGet);
+        CPFactory.not(b).demonOnFix(nBool::incrementAndGet);
+
+        x.fix(4);
+        assertEquals(1, nFix.get());
+        assertEquals(-18, y.min());
+        b.fix(true);
+        assertEquals(1, nBool.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void demonsOnIntervalSetAndSeqVars(CPSolver cp) {
+        CPIntervalVar interval = CPFactory.makeIntervalVar(cp, 5);
+        CPSetVar set = CPFactory.makeSetVar(cp, 4);
+        CPSeqVar seq = CPFactory.makeSeqVar(cp, 4, 2, 3);
+        AtomicInteger nInterval = new AtomicInteger();
+        AtomicInteger nSet = new AtomicInteger();
+        AtomicInteger nInsert = new AtomicInteger();
+        AtomicInteger nRequire = new AtomicInteger();
+        AtomicInteger nExclude = new AtomicInteger();
+        AtomicInteger nFix = new AtomicInteger();
+        interval.demonOnChange(nInterval::incrementAndGet);
+        set.demonOnDomainChange(nSet::incrementAndGet);
+        seq.demonOnInsert(nInsert::incrementAndGet);
+        seq.demonOnRequire(nRequire::incrementAndGet);
+        seq.demonOnExclude(nExclude::incrementAndGet);
+        seq.demonOnFix(nFix::incrementAndGet);
+
+        // no fix point is needed for the demons to be run
+        interval.setStartMin(3);
+        assertEquals(1, nInterval.get());
+        set.include(1);
+        assertEquals(1, nSet.get());
+        seq.insert(2, 0);
+        assertEquals(1, nInsert.get());
+        assertEquals(1, nRequire.get());
+        assertEquals(0, nFix.get());
+        seq.exclude(1);
+        assertEquals(1, nExclude.get());
+        assertEquals(1, nFix.get());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSolver")
+    public void closuresStayQueued(CPSolver cp) {
+        CPIntVar x = CPFactory.makeIntVar(cp, 10);
+        AtomicInteger nFix = new AtomicInteger();
+        x.whenFixed(nFix::incrementAndGet);
+        x.fix(2);
+        assertEquals(0, nFix.get());
+        cp.fixPoint();
+        assertEquals(1, nFix.get());
+    }
+}
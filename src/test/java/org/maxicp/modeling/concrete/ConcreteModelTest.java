@@ -192,6 +192,44 @@ public abstract class ConcreteModelTest<C extends ConcreteModel, P extends Concr
         }
     }
 
+    /**
+     * Jumps to a node of another branch, restoring the states only up to the lowest common ancestor
+     */
+    @Test
+    public void testJumpToCommonAncestor() {
+        int[] nRestores = new int[1];
+        StateManager sm = new Trailer() {
+            @Override
+            public void restoreState() {
+                nRestores[0]++;
+                super.restoreState();
+            }
+        };
+        C model = modelSupplier(sm);
+        SymbolicModel rootModel = model.symbolicCopy();
+        SymbolicModel[] branch = new SymbolicModel[6];
+        branch[0] = rootModel;
+        for (int i = 1; i < branch.length; i++) {
+            sm.saveState();
+            model.add(mockConstraint());
+            branch[i] = model.symbolicCopy();
+            assertEquals(rootModel.depth() + i, branch[i].depth());
+        }
+        SymbolicModel other = branch[2].add(mockConstraint()).add(mockConstraint());
+        assertSame(branch[2], SymbolicModel.lowestCommonAncestor(branch[5], other));
+        assertSame(branch[2], SymbolicModel.lowestCommonAncestor(other, branch[2]));
+        assertSame(rootModel, SymbolicModel.lowestCommonAncestor(rootModel, other));
+
+        model.jumpTo(other);
+        assertSame(other, model.symbolicCopy());
+        // the nodes 5, 4 and 3 are removed
+        assertEquals(3, nRestores[0]);
+        nRestores[0] = 0;
+        model.jumpTo(branch[2]);
+        assertSame(branch[2], model.symbolicCopy());
+        assertEquals(1, nRestores[0]);
+    }
+
     @ParameterizedTest
     @MethodSource("getStateManager")
     public void testJumpToChild(StateManager sm) {
@@ -0,0 +1,125 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.junit.jupiter.api.Test;
+import org.maxicp.ModelDispatcher;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.symbolic.SymbolicModel;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.modeling.Factory.*;
+import static org.maxicp.search.Searches.*;
+
+public class BestFirstSearchTest {
+
+    private static final int N = 8;
+
+    private static ModelDispatcher queens(IntVar[] q) {
+        ModelDispatcher model = makeModelDispatcher();
+        IntVar[] vars = model.intVarArray(N, N);
+        System.arraycopy(vars, 0, q, 0, N);
+        model.add(allDifferent(q));
+        model.add(allDifferent(model.intVarArray(N, i -> q[i].plus(i))));
+        model.add(allDifferent(model.intVarArray(N, i -> q[i].minus(i))));
+        return model;
+    }
+
+    private static Supplier<Runnable[]> branching(ModelDispatcher model, IntVar[] q) {
+        return () -> {
+            IntExpression qs = selectMin(q, qi -> qi.size() > 1, qi -> qi.size());
+            if (qs == null)
+                return EMPTY;
+            int v = qs.min();
+            return branch(() -> model.add(eq(qs, v)), () -> model.add(neq(qs, v)));
+        };
+    }
+
+    // the open nodes with the largest remaining search space are expanded first
+    private static Supplier<Integer> evaluator(IntVar[] q) {
+        return () -> -Arrays.stream(q).mapToInt(IntExpression::size).sum();
+    }
+
+    private static Set<String> solve(Consumer<BestFirstSearch<Integer>> configuration) {
+        IntVar[] q = new IntVar[N];
+        ModelDispatcher model = queens(q);
+        Set<String> solutions = new HashSet<>();
+        model.runCP(cp -> {
+            BestFirstSearch<Integer> search = cp.bestFirstSearch(branching(model, q), evaluator(q));
+            configuration.accept(search);
+            search.onSolution(() -> assertTrue(solutions.add(Arrays.toString(Arrays.stream(q).mapToInt(IntExpression::min).toArray()))));
+            SearchStatistics stats = search.solve();
+            assertEquals(solutions.size(), stats.numberOfSolutions());
+        });
+        return solutions;
+    }
+
+    @Test
+    public void testAllSolutions() {
+        assertEquals(92, solve(search -> {}).size());
+    }
+
+    @Test
+    public void testBoundedOpenNodesIsComplete() {
+        for (int maxOpenNodes : new int[]{1, 2, 3, 10, 50}) {
+            assertEquals(92, solve(search -> search.setMaxOpenNodes(maxOpenNodes)).size());
+        }
+    }
+
+    @Test
+    public void testBeamSearch() {
+        Set<String> all = solve(search -> {});
+        for (int width : new int[]{1, 5, 20}) {
+            Set<String> solutions = solve(search -> search.setBeamWidth(width));
+            assertTrue(all.containsAll(solutions));
+        }
+        // the beam is never full
+        assertEquals(92, solve(search -> search.setBeamWidth(10000)).size());
+    }
+
+    @Test
+    public void testDiscrepancy() {
+        for (int maxDiscrepancy = 0; maxDiscrepancy < 6; maxDiscrepancy++) {
+            IntVar[] q = new IntVar[N];
+            ModelDispatcher model = queens(q);
+            int d = maxDiscrepancy;
+            int expected = model.runCP(cp -> {
+                DFSearch dfs = cp.dfSearch(new LimitedDiscrepancyBranching(branching(model, q), d));
+                return dfs.solve().numberOfSolutions();
+            });
+            assertEquals(expected, solve(search -> search.setMaxDiscrepancy(d)).size());
+            assertEquals(expected, solve(search -> search.setMaxDiscrepancy(d).setMaxOpenNodes(3)).size());
+        }
+    }
+
+    @Test
+    public void testUnexploredModelsWithForgottenNodes() {
+        IntVar[] q = new IntVar[N];
+        ModelDispatcher model = queens(q);
+        Supplier<Runnable[]> branching = branching(model, q);
+        SymbolicModel[] unexplored = model.runCP(cp -> {
+            BestFirstSearch<Integer> search = cp.bestFirstSearch(branching, evaluator(q)).setMaxOpenNodes(4);
+            SearchStatistics stats = search.solve(s -> s.numberOfNodes() >= 30);
+            assertEquals(0, stats.numberOfSolutions());
+            return search.getUnexploredModels();
+        });
+        // the subtrees of the unexplored models partition the remaining search space
+        int count = 0;
+        for (SymbolicModel m : unexplored) {
+            count += model.runCP(m, cp -> {
+                return cp.dfSearch(branching).solve().numberOfSolutions();
+            });
+        }
+        assertEquals(92, count);
+    }
+}
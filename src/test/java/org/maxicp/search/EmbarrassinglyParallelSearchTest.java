@@ -0,0 +1,126 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.junit.jupiter.api.Test;
+import org.maxicp.ModelDispatcher;
+import org.maxicp.modeling.Factory;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.symbolic.Objective;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.modeling.Factory.*;
+import static org.maxicp.search.Searches.*;
+
+public class EmbarrassinglyParallelSearchTest {
+
+    private static Supplier<Runnable[]> firstFail(ModelDispatcher model, IntExpression[] x) {
+        return () -> {
+            IntExpression xs = selectMin(x, xi -> !xi.isFixed(), IntExpression::size);
+            if (xs == null)
+                return EMPTY;
+            int v = xs.min();
+            return branch(() -> model.add(eq(xs, v)), () -> model.add(neq(xs, v)));
+        };
+    }
+
+    private static IntVar[] nQueens(ModelDispatcher model, int n) {
+        IntVar[] q = model.intVarArray(n, n);
+        IntExpression[] qL = model.intVarArray(n, i -> q[i].plus(i));
+        IntExpression[] qR = model.intVarArray(n, i -> q[i].minus(i));
+        model.add(allDifferent(q));
+        model.add(allDifferent(qL));
+        model.add(allDifferent(qR));
+        return q;
+    }
+
+    @Test
+    public void testNQueensAllSolutions() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 8);
+        Supplier<Runnable[]> branching = firstFail(model, q);
+
+        for (int depth : new int[]{0, 1, 4, 10, 100}) {
+            for (int nWorkers : new int[]{1, 3}) {
+                EmbarrassinglyParallelSearch search = model.embarrassinglyParallelSearch(nWorkers, depth, branching);
+                AtomicInteger nSols = new AtomicInteger(0);
+                search.onSolution(() -> {
+                    // the variables are those of the worker that found the solution
+                    for (IntVar qi : q)
+                        assertTrue(qi.isFixed());
+                    nSols.incrementAndGet();
+                });
+                SearchStatistics stats = search.solve();
+                assertEquals(92, stats.numberOfSolutions());
+                assertEquals(92, nSols.get());
+                assertTrue(stats.isCompleted());
+                if (depth == 0)
+                    assertEquals(1, search.getSubproblems().length);
+            }
+        }
+    }
+
+    @Test
+    public void testSameTreeAsSequential() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 9);
+        Supplier<Runnable[]> branching = firstFail(model, q);
+
+        SearchStatistics sequential = model.runCP(cp -> {
+            return model.dfSearch(branching).solve();
+        });
+        EmbarrassinglyParallelSearch search = model.embarrassinglyParallelSearch(4, 6, branching);
+        SearchStatistics stats = search.solve();
+        assertEquals(352, stats.numberOfSolutions());
+        // the decomposition and the workers explore together the same tree as a sequential search
+        assertEquals(sequential.numberOfNodes(), stats.numberOfNodes());
+        assertEquals(sequential.numberOfFailures(), stats.numberOfFailures());
+        assertTrue(search.getSubproblems().length > 4);
+    }
+
+    @Test
+    public void testOptimize() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        int n = 7;
+        IntVar[] x = model.intVarArray(n, n);
+        model.add(allDifferent(x));
+        IntExpression[] terms = new IntExpression[n];
+        for (int i = 0; i < n; i++)
+            terms[i] = mul(x[i], i + 1);
+        IntExpression cost = sum(terms);
+        Objective obj = minimize(cost);
+
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        EmbarrassinglyParallelSearch search = model.embarrassinglyParallelSearch(3, 3, firstFail(model, x));
+        search.onSolution(() -> best.set(Math.min(best.get(), cost.min())));
+        SearchStatistics stats = search.optimize(obj);
+        assertEquals(56, best.get());
+        assertTrue(stats.isCompleted());
+    }
+
+    @Test
+    public void testLimit() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 12);
+        SearchStatistics stats = model.embarrassinglyParallelSearch(2, 3, firstFail(model, q))
+                .solve(s -> s.numberOfSolutions() >= 10);
+        assertFalse(stats.isCompleted());
+        assertTrue(stats.numberOfSolutions() >= 10);
+    }
+
+    @Test
+    public void testInfeasible() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 3);
+        SearchStatistics stats = model.embarrassinglyParallelSearch(2, 2, firstFail(model, q)).solve();
+        assertEquals(0, stats.numberOfSolutions());
+        assertTrue(stats.isCompleted());
+    }
+}
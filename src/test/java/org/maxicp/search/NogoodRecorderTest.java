@@ -0,0 +1,112 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.junit.jupiter.api.Test;
+import org.maxicp.cp.CPFactory;
+import org.maxicp.cp.engine.constraints.NogoodStore;
+import org.maxicp.cp.engine.core.CPIntVar;
+import org.maxicp.cp.engine.core.CPSolver;
+import org.maxicp.util.exception.InconsistencyException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NogoodRecorderTest {
+
+    private static CPIntVar[] queens(CPSolver cp, int n) {
+        CPIntVar[] q = CPFactory.makeIntVarArray(cp, n, n);
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++) {
+                cp.post(CPFactory.neq(q[i], q[j]));
+                cp.post(CPFactory.neq(q[i], q[j], j - i));
+                cp.post(CPFactory.neq(q[i], q[j], i - j));
+            }
+        return q;
+    }
+
+    private static void add(NogoodStore store, IntDecision[] nogood) {
+        CPIntVar[] x = new CPIntVar[nogood.length];
+        IntDecision.Relation[] rel = new IntDecision.Relation[nogood.length];
+        int[] values = new int[nogood.length];
+        for (int i = 0; i < nogood.length; i++) {
+            x[i] = (CPIntVar) nogood[i].x;
+            rel[i] = nogood[i].relation;
+            values[i] = nogood[i].value;
+        }
+        store.add(x, rel, values);
+    }
+
+    @Test
+    public void nogoodsExcludeNoSolution() {
+        CPSolver cp = CPFactory.makeSolver();
+        CPIntVar[] q = queens(cp, 8);
+        List<int[]> solutions = new ArrayList<>();
+        DFSearch all = CPFactory.makeDfs(cp, Searches.firstFailBinary(q));
+        all.onSolution(() -> {
+            int[] sol = new int[q.length];
+            for (int i = 0; i < q.length; i++)
+                sol[i] = q[i].min();
+            solutions.add(sol);
+        });
+        all.solve();
+        assertEquals(92, solutions.size());
+
+        int nNogoods = 0;
+        for (int limit = 1; limit < 40; limit++) {
+            DFSearch dfs = CPFactory.makeDfs(cp, Searches.firstFailBinary(q));
+            NogoodRecorder recorder = new NogoodRecorder();
+            dfs.setDFSListener(recorder);
+            final int failureLimit = limit;
+            dfs.solve(s -> s.numberOfFailures() >= failureLimit);
+            List<IntDecision[]> nogoods = recorder.nogoods();
+            nNogoods += nogoods.size();
+            for (IntDecision[] nogood : nogoods) {
+                for (int[] sol : solutions) {
+                    boolean allHold = true;
+                    for (IntDecision d : nogood) {
+                        int i = List.of(q).indexOf((CPIntVar) d.x);
+                        allHold &= d.relation.holds(sol[i], d.value);
+                    }
+                    assertFalse(allHold);
+                }
+            }
+        }
+        assertTrue(nNogoods > 0);
+    }
+
+    @Test
+    public void restartsWithNogoodsComplete() {
+        CPSolver cp = CPFactory.makeSolver();
+        // pigeonhole: 6 pigeons in 5 holes
+        CPIntVar[] x = CPFactory.makeIntVarArray(cp, 6, 5);
+        for (int i = 0; i < x.length; i++)
+            for (int j = i + 1; j < x.length; j++)
+                cp.post(CPFactory.neq(x[i], x[j]));
+        NogoodStore store = new NogoodStore(cp);
+        cp.post(store);
+
+        boolean completed = false;
+        for (int restart = 0; restart < 10000 && !completed; restart++) {
+            DFSearch dfs = CPFactory.makeDfs(cp, Searches.firstFailBinary(x));
+            NogoodRecorder recorder = new NogoodRecorder();
+            dfs.setDFSListener(recorder);
+            // the same search is restarted, it only progresses thanks to the nogoods
+            SearchStatistics stats = dfs.solve(s -> s.numberOfFailures() >= 3);
+            assertEquals(0, stats.numberOfSolutions());
+            completed = stats.isCompleted();
+            try {
+                for (IntDecision[] nogood : recorder.nogoods())
+                    add(store, nogood);
+            } catch (InconsistencyException e) {
+                completed = true;
+            }
+        }
+        assertTrue(completed);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.search;
+
+import org.junit.jupiter.api.Test;
+import org.maxicp.ModelDispatcher;
+import org.maxicp.modeling.Factory;
+import org.maxicp.modeling.IntVar;
+import org.maxicp.modeling.algebra.integer.IntExpression;
+import org.maxicp.modeling.symbolic.Objective;
+import org.maxicp.modeling.symbolic.SymbolicModel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.maxicp.modeling.Factory.*;
+import static org.maxicp.search.Searches.*;
+
+public class ParallelDFSearchTest {
+
+    private static Supplier<Runnable[]> firstFail(ModelDispatcher model, IntExpression[] x) {
+        return () -> {
+            IntExpression xs = selectMin(x, xi -> !xi.isFixed(), IntExpression::size);
+            if (xs == null)
+                return EMPTY;
+            int v = xs.min();
+            return branch(() -> model.add(eq(xs, v)), () -> model.add(neq(xs, v)));
+        };
+    }
+
+    private static IntVar[] nQueens(ModelDispatcher model, int n) {
+        IntVar[] q = model.intVarArray(n, n);
+        IntExpression[] qL = model.intVarArray(n, i -> q[i].plus(i));
+        IntExpression[] qR = model.intVarArray(n, i -> q[i].minus(i));
+        model.add(allDifferent(q));
+        model.add(allDifferent(qL));
+        model.add(allDifferent(qR));
+        return q;
+    }
+
+    @Test
+    public void testConcurrentDFSearchSequential() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 8);
+        Supplier<SymbolicModel[]> branching = toSymbolicBranching(model, firstFail(model, q));
+        SearchStatistics stats = model.runCP(cp -> {
+            return model.concurrentDFSearch(branching).solve();
+        });
+        assertEquals(92, stats.numberOfSolutions());
+        assertTrue(stats.isCompleted());
+    }
+
+    @Test
+    public void testNQueensAllSolutions() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 9);
+        Supplier<SymbolicModel[]> branching = toSymbolicBranching(model, firstFail(model, q));
+
+        SearchStatistics sequential = model.runCP(cp -> {
+            return model.concurrentDFSearch(branching).solve();
+        });
+
+        for (int nWorkers : new int[]{1, 2, 4}) {
+            ParallelDFSearch search = model.parallelDFSearch(nWorkers, branching);
+            AtomicInteger nSols = new AtomicInteger(0);
+            search.onSolution(() -> {
+                // the variables are those of the worker that found the solution
+                for (IntVar qi : q)
+                    assertTrue(qi.isFixed());
+                nSols.incrementAndGet();
+            });
+            SearchStatistics stats = search.solve();
+            assertEquals(352, stats.numberOfSolutions());
+            assertEquals(352, nSols.get());
+            assertEquals(sequential.numberOfNodes(), stats.numberOfNodes());
+            assertEquals(sequential.numberOfFailures(), stats.numberOfFailures());
+            assertTrue(stats.isCompleted());
+        }
+    }
+
+    @Test
+    public void testOptimize() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        int n = 7;
+        IntVar[] x = model.intVarArray(n, n);
+        model.add(allDifferent(x));
+        // weighted sum of the positions, minimized when the heaviest get the smallest values
+        IntExpression[] terms = new IntExpression[n];
+        for (int i = 0; i < n; i++)
+            terms[i] = mul(x[i], i + 1);
+        IntExpression cost = sum(terms);
+        Objective obj = minimize(cost);
+        Supplier<SymbolicModel[]> branching = toSymbolicBranching(model, firstFail(model, x));
+
+        AtomicInteger best = new AtomicInteger(Integer.MAX_VALUE);
+        ParallelDFSearch search = model.parallelDFSearch(4, branching);
+        search.onSolution(() -> {
+            // a worker may find a solution before noticing the improvement found by another one
+            best.set(Math.min(best.get(), cost.min()));
+        });
+        SearchStatistics stats = search.optimize(obj);
+        // 6*1 + 5*2 + ... + 0*7
+        assertEquals(56, best.get());
+        assertTrue(stats.isCompleted());
+    }
+
+    @Test
+    public void testLimit() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] q = nQueens(model, 12);
+        Supplier<SymbolicModel[]> branching = toSymbolicBranching(model, firstFail(model, q));
+        SearchStatistics stats = model.parallelDFSearch(4, branching).solve(s -> s.numberOfSolutions() >= 10);
+        assertFalse(stats.isCompleted());
+        assertTrue(stats.numberOfSolutions() >= 10);
+    }
+
+    private static Supplier<SymbolicModel[]> toSymbolicBranching(ModelDispatcher model, Supplier<Runnable[]> branching) {
+        return org.maxicp.modeling.SymbolicBranching.toSymbolicBranching(branching, model);
+    }
+}
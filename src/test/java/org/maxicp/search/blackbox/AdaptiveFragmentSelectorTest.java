@@ -0,0 +1,203 @@
+package org.maxicp.search.blackbox;
+
+import org.junit.jupiter.api.Test;
+import org.maxicp.util.collections.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveFragmentSelectorTest {
+
+    private static int[] indices(int n) {
+        return IntStream.range(0, n).toArray();
+    }
+
+    private static List<Integer> select(FragmentSelector selector, FragmentSelector.FragmentSelectionContext context) {
+        IntArrayList frozen = new IntArrayList();
+        selector.selectFrozenIndices(context, frozen);
+        return IntStream.of(frozen.toArray()).boxed().toList();
+    }
+
+    private static Set<Integer> relaxed(int[] decisionVarIndices, List<Integer> frozen) {
+        Set<Integer> relaxed = new HashSet<>(IntStream.of(decisionVarIndices).boxed().toList());
+        frozen.forEach(relaxed::remove);
+        return relaxed;
+    }
+
+    @Test
+    public void destroyOperatorsFollowTheFreezeRate() {
+        Random random = new Random(42);
+        int n = 30;
+        int[] dec = indices(n);
+        List<int[]> scopes = new ArrayList<>();
+        for (int i = 0; i + 1 < n; i += 2) {
+            scopes.add(new int[]{i, i + 1});
+        }
+        int[] incumbent = IntStream.range(0, n).map(i -> random.nextInt(100)).toArray();
+        List<FragmentSelector> operators = List.of(
+                new RelatedFragmentSelector(random, n, scopes),
+                new ConstraintFragmentSelector(random, scopes),
+                new ChainFragmentSelector(random),
+                new ValueWindowFragmentSelector(random));
+        for (FragmentSelector operator : operators) {
+            for (int rate : new int[]{0, 50, 90, 100}) {
+                FragmentSelector.FragmentSelectionContext context =
+                        new FragmentSelector.FragmentSelectionContext(dec, rate, 1, incumbent);
+                List<Integer> frozen = select(operator, context);
+                assertEquals(context.freezeCount(), frozen.size(), operator.name());
+                assertEquals(frozen.size(), new HashSet<>(frozen).size(), operator.name());
+                assertTrue(frozen.stream().allMatch(i -> i >= 0 && i < n), operator.name());
+            }
+        }
+    }
+
+    @Test
+    public void constraintOperatorRelaxesTheScopeOfAConstraint() {
+        Random random = new Random(42);
+        int[] dec = indices(12);
+        List<int[]> scopes = List.of(new int[]{0, 1, 2}, new int[]{3, 4, 5}, IntStream.range(0, 12).toArray());
+        ConstraintFragmentSelector operator = new ConstraintFragmentSelector(random, scopes);
+        for (int iter = 0; iter < 20; iter++) {
+            // 9 frozen variables out of 12: the 3 relaxed ones are the scope of a small constraint
+            Set<Integer> relaxed = relaxed(dec, select(operator,
+                    new FragmentSelector.FragmentSelectionContext(dec, 75, iter)));
+            assertTrue(relaxed.equals(Set.of(0, 1, 2)) || relaxed.equals(Set.of(3, 4, 5)), "relaxed " + relaxed);
+        }
+    }
+
+    @Test
+    public void relatedOperatorRelaxesNeighboursInTheConstraintGraph() {
+        Random random = new Random(42);
+        int n = 20;
+        int[] dec = indices(n);
+        // a path of binary constraints, and a global constraint relating all the variables
+        List<int[]> scopes = new ArrayList<>();
+        for (int i = 0; i + 1 < n; i++) {
+            scopes.add(new int[]{i, i + 1});
+        }
+        scopes.add(IntStream.range(0, n).toArray());
+        RelatedFragmentSelector operator = new RelatedFragmentSelector(random, n, scopes);
+        for (int iter = 0; iter < 20; iter++) {
+            Set<Integer> relaxed = relaxed(dec, select(operator,
+                    new FragmentSelector.FragmentSelectionContext(dec, 80, iter)));
+            assertEquals(4, relaxed.size());
+            int min = relaxed.stream().mapToInt(Integer::intValue).min().orElseThrow();
+            int max = relaxed.stream().mapToInt(Integer::intValue).max().orElseThrow();
+            assertEquals(3, max - min, "relaxed " + relaxed);
+        }
+    }
+
+    @Test
+    public void chainOperatorFollowsTheSuccessors() {
+        Random random = new Random(42);
+        int n = 20;
+        int[] dec = indices(n);
+        // a single route visiting the nodes by steps of 7
+        int[] successor = IntStream.range(0, n).map(i -> (i + 7) % n).toArray();
+        ChainFragmentSelector operator = new ChainFragmentSelector(random);
+        for (int iter = 0; iter < 20; iter++) {
+            // 2 relaxed variables: either a string of 2 nodes, or 2 strings of 1 node
+            Set<Integer> relaxed = relaxed(dec, select(operator,
+                    new FragmentSelector.FragmentSelectionContext(dec, 90, iter, successor)));
+            assertEquals(2, relaxed.size());
+        }
+        int strings = 0;
+        int trials = 200;
+        for (int iter = 0; iter < trials; iter++) {
+            Set<Integer> relaxed = relaxed(dec, select(operator,
+                    new FragmentSelector.FragmentSelectionContext(dec, 90, iter, successor)));
+            int first = relaxed.iterator().next();
+            if (relaxed.contains(successor[first]) || relaxed.contains((first + n - 7) % n)) {
+                strings++;
+            }
+        }
+        // a string of 2 nodes is chosen with probability 1/2, while 2 random nodes are adjacent with probability 2/19
+        assertTrue(strings > trials / 3, "strings " + strings);
+    }
+
+    @Test
+    public void chainOperatorFollowsThePositionsOfSmallValues() {
+        Random random = new Random(42);
+        int n = 20;
+        int[] dec = indices(n);
+        // small values that are indices of decision variables, but not a permutation of them
+        int[] incumbent = IntStream.range(0, n).map(i -> i % 3).toArray();
+        ChainFragmentSelector operator = new ChainFragmentSelector(random);
+        int strings = 0;
+        int trials = 200;
+        for (int iter = 0; iter < trials; iter++) {
+            Set<Integer> relaxed = relaxed(dec, select(operator,
+                    new FragmentSelector.FragmentSelectionContext(dec, 90, iter, incumbent)));
+            assertEquals(2, relaxed.size());
+            int first = relaxed.iterator().next();
+            if (relaxed.contains((first + 1) % n) || relaxed.contains((first + n - 1) % n)) {
+                strings++;
+            }
+        }
+        assertTrue(strings > trials / 3, "strings " + strings);
+    }
+
+    @Test
+    public void valueWindowOperatorRelaxesCloseValues() {
+        Random random = new Random(42);
+        int n = 20;
+        int[] dec = indices(n);
+        int[] incumbent = IntStream.range(0, n).map(i -> (i * 13) % n * 10).toArray();
+        ValueWindowFragmentSelector operator = new ValueWindowFragmentSelector(random);
+        for (int iter = 0; iter < 20; iter++) {
+            Set<Integer> relaxed = relaxed(dec, select(operator,
+                    new FragmentSelector.FragmentSelectionContext(dec, 75, iter, incumbent)));
+            assertEquals(5, relaxed.size());
+            int min = relaxed.stream().mapToInt(i -> incumbent[i]).min().orElseThrow();
+            int max = relaxed.stream().mapToInt(i -> incumbent[i]).max().orElseThrow();
+            assertEquals(40, max - min, "relaxed " + relaxed);
+        }
+    }
+
+    // operator always freezing the same variables
+    private record FixedOperator(int... frozen) implements FragmentSelector {
+        @Override
+        public void selectFrozenIndices(FragmentSelectionContext context, IntArrayList frozen) {
+            frozen.clear();
+            for (int idx : this.frozen) {
+                frozen.add(idx);
+            }
+        }
+
+        @Override
+        public String name() {
+            return "fixed";
+        }
+    }
+
+    @Test
+    public void banditFavorsTheImprovingOperator() {
+        int[] dec = indices(4);
+        List<FragmentSelector> operators = List.of(new FixedOperator(2, 3), new FixedOperator(0, 1),
+                new FixedOperator(1, 2));
+        for (AdaptiveFragmentSelector.Policy policy : AdaptiveFragmentSelector.Policy.values()) {
+            AdaptiveFragmentSelector selector = new AdaptiveFragmentSelector(new Random(42), operators, policy);
+            FragmentSelector.FragmentSelectionContext context = new FragmentSelector.FragmentSelectionContext(dec, 50, 0);
+            IntArrayList frozen = new IntArrayList();
+            FragmentSelector.FragmentSelectionFeedback feedback =
+                    new FragmentSelector.FragmentSelectionFeedback(dec, frozen, new IntArrayList());
+            for (int iter = 0; iter < 300; iter++) {
+                context.update(50, iter);
+                selector.selectFrozenIndices(context, frozen);
+                // only the second operator finds improving solutions, every other time
+                boolean improved = frozen.get(0) == 0 && iter % 2 == 0;
+                feedback.update(improved, false, !improved);
+                selector.onRestartCompleted(feedback);
+            }
+            int[] uses = selector.getUses();
+            assertEquals(300, IntStream.of(uses).sum());
+            assertTrue(uses[1] > uses[0] + uses[2], policy + " " + java.util.Arrays.toString(uses));
+        }
+    }
+}
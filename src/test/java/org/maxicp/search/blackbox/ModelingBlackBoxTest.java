@@ -34,6 +34,22 @@ public class ModelingBlackBoxTest {
         assertTrue(result.status() == SearchStatus.PROVEN_OPTIMAL || result.status() == SearchStatus.IMPROVED);
     }
 
+    @Test
+    public void optimizeWithPortfolioFindsBestObjective() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar x = model.intVar(0, 2);
+        IntVar y = model.intVar(0, 2);
+        model.add(Factory.allDifferent(x, y));
+
+        Objective objective = model.minimize(Factory.sum(x, y));
+
+        ModelingBlackBox.Result result = ModelingBlackBox.optimize(model, new IntExpression[]{x, y}, objective, 2,
+                cfg -> cfg.portfolioWorkers(3));
+
+        assertEquals(1, (int) result.objectiveValue().orElseThrow());
+        assertEquals(SearchStatus.PROVEN_OPTIMAL, result.status());
+    }
+
     @Test
     public void solveOnModelingLayerReturnsSatisfiableStatus() {
         ModelDispatcher model = Factory.makeModelDispatcher();
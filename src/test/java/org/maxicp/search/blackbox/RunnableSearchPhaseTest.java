@@ -54,6 +54,94 @@ public class RunnableSearchPhaseTest {
         assertEquals(SearchStatus.IMPROVED, status);
     }
 
+    @Test
+    public void lnsPhaseWithRandomizedBranchingKeepsConsistentIncumbent() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        TspModel tsp = buildTsp(model);
+        int n = tsp.successor().length;
+
+        model.runCP(() -> {
+            BlackBoxSearch blackBoxSearch = new BlackBoxSearch(model, tsp.successor(), tsp.objective());
+            // the restarts alternate between two swap probabilities, each with its own search
+            LNSRunnableSearch lns = new LNSRunnableSearch(
+                    blackBoxSearch,
+                    model,
+                    Arrays.asList(tsp.successor()),
+                    tsp.objective(),
+                    50,
+                    70,
+                    0.5,
+                    42L
+            );
+            blackBoxSearch.addPhase("lns-improvement", lns, 1.0, true);
+            List<Integer> initial = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                initial.add((i + 1) % n);
+            }
+            blackBoxSearch.updateSolution(initial);
+            blackBoxSearch.withVerbosity(BlackBoxSearch.Verbosity.QUIET);
+            blackBoxSearch.start(1);
+
+            int[][] distances = new TSPInstance("src/test/resources/TSP/gr21.xml").distanceMatrix;
+            int initialLength = 0;
+            for (int i = 0; i < n; i++) {
+                initialLength += distances[i][initial.get(i)];
+            }
+            List<Integer> sol = blackBoxSearch.bestSolution().orElseThrow();
+            int length = 0;
+            for (int i = 0; i < n; i++) {
+                length += distances[i][sol.get(i)];
+            }
+            assertEquals(blackBoxSearch.bestObjectiveValue().orElseThrow(), length);
+            assertTrue(length < initialLength);
+            assertTrue(lns.statistics().numberOfSolutions() > 0);
+            return null;
+        });
+    }
+
+    @Test
+    public void adaptiveLnsPhaseImprovesTsp() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        TspModel tsp = buildTsp(model);
+        int n = tsp.successor().length;
+
+        model.runCP(() -> {
+            BlackBoxSearch blackBoxSearch = new BlackBoxSearch(model, tsp.successor(), tsp.objective());
+            LNSRunnableSearch lns = new LNSRunnableSearch(
+                    blackBoxSearch,
+                    model,
+                    Arrays.asList(tsp.successor()),
+                    tsp.objective(),
+                    100,
+                    80,
+                    0.0,
+                    123L,
+                    BlackBoxSearch.FragmentSelectionStrategy.ADAPTIVE
+            );
+            blackBoxSearch.addPhase("lns-improvement", lns, 1.0, true);
+            List<Integer> initial = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                initial.add((i + 1) % n);
+            }
+            blackBoxSearch.updateSolution(initial);
+            blackBoxSearch.withVerbosity(BlackBoxSearch.Verbosity.QUIET);
+            SearchStatus phaseStatus = blackBoxSearch.start(1);
+
+            assertEquals(SearchStatus.IMPROVED, phaseStatus);
+            AdaptiveFragmentSelector selector = (AdaptiveFragmentSelector) lns.getFragmentSelector();
+            // each operator is tried
+            assertTrue(Arrays.stream(selector.getUses()).allMatch(uses -> uses > 0));
+            int[][] distances = new TSPInstance("src/test/resources/TSP/gr21.xml").distanceMatrix;
+            List<Integer> sol = blackBoxSearch.bestSolution().orElseThrow();
+            int length = 0;
+            for (int i = 0; i < n; i++) {
+                length += distances[i][sol.get(i)];
+            }
+            assertEquals(blackBoxSearch.bestObjectiveValue().orElseThrow(), length);
+            return phaseStatus;
+        });
+    }
+
     @Test
     public void dfsPhaseClosesMagicSquareSearch() {
         ModelDispatcher model = Factory.makeModelDispatcher();
@@ -177,6 +265,71 @@ public class RunnableSearchPhaseTest {
     }
 
 
+    @Test
+    public void portfolioFindsFeasibleMagicSquareSolution() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] vars = buildMagicSquare(model, 5);
+
+        BlackBoxSearch blackBoxSearch = new BlackBoxSearch(model, vars).withPortfolioPlan(3);
+        SearchStatus status = blackBoxSearch.startPortfolio(10);
+
+        assertEquals(SearchStatus.SAT, status);
+        assertTrue(blackBoxSearch.bestSolution().isPresent());
+        assertEquals(3, blackBoxSearch.workerResults().size());
+        assertTrue(blackBoxSearch.winningConfiguration().isPresent());
+        // the solution is a magic square
+        List<Integer> sol = blackBoxSearch.bestSolution().get();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(65, sol.subList(i * 5, i * 5 + 5).stream().mapToInt(Integer::intValue).sum());
+        }
+    }
+
+    @Test
+    public void portfolioProvesOptimality() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        IntVar[] x = model.intVarArray(6, 6);
+        model.add(allDifferent(x));
+        IntExpression[] terms = new IntExpression[x.length];
+        for (int i = 0; i < x.length; i++) {
+            terms[i] = mul(x[i], i + 1);
+        }
+        Objective obj = minimize(sum(terms));
+
+        BlackBoxSearch blackBoxSearch = new BlackBoxSearch(model, x, obj).withPortfolioPlan(4);
+        SearchStatus status = blackBoxSearch.startPortfolio(20);
+
+        assertEquals(SearchStatus.PROVEN_OPTIMAL, status);
+        // 5*1 + 4*2 + 3*3 + 2*4 + 1*5 + 0*6
+        assertEquals(35, blackBoxSearch.bestObjectiveValue().orElseThrow());
+        List<BlackBoxSearch.WorkerResult> results = blackBoxSearch.workerResults();
+        assertEquals(4, results.size());
+        assertTrue(results.stream().anyMatch(r -> r.status() == SearchStatus.PROVEN_OPTIMAL));
+        assertTrue(results.get(0).statistics().numberOfNodes() > 0);
+        assertTrue(blackBoxSearch.winningConfiguration().isPresent());
+    }
+
+    @Test
+    public void portfolioImprovesTsp() {
+        ModelDispatcher model = Factory.makeModelDispatcher();
+        TspModel tsp = buildTsp(model);
+
+        BlackBoxSearch blackBoxSearch = new BlackBoxSearch(model, tsp.successor(), tsp.objective())
+                .withPortfolioPlan(4);
+        SearchStatus status = blackBoxSearch.startPortfolio(2);
+
+        assertTrue(status == SearchStatus.IMPROVED || status == SearchStatus.PROVEN_OPTIMAL, "status " + status);
+        int best = blackBoxSearch.bestObjectiveValue().orElseThrow();
+        assertTrue(best >= 2707);
+        // the incumbent is consistent with its objective value
+        List<Integer> sol = blackBoxSearch.bestSolution().orElseThrow();
+        int[][] distances = new TSPInstance("src/test/resources/TSP/gr21.xml").distanceMatrix;
+        int length = 0;
+        for (int i = 0; i < sol.size(); i++) {
+            length += distances[i][sol.get(i)];
+        }
+        assertEquals(best, length);
+    }
+
     private static TspModel buildTsp(ModelDispatcher model) {
 
         TSPInstance instance = new TSPInstance("src/test/resources/TSP/gr21.xml");
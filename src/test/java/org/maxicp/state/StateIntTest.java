@@ -201,7 +201,32 @@ public class StateIntTest extends StateManagerTest {
         assertEquals(0, a.value());
     }
 
-
-
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testManyStatesAndLevels(StateManager sm) {
+        // enough states and levels to exceed the initial capacity of the trail
+        int n = 500;
+        StateInt[] a = new StateInt[n];
+        StateLong[] b = new StateLong[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = sm.makeStateInt(i);
+            b[i] = sm.makeStateLong(-i);
+        }
+        for (int level = 0; level < n; level++) {
+            sm.saveState();
+            for (int i = 0; i < n; i++) {
+                a[i].increment();
+                b[i].setValue(b[i].value() - 1000);
+            }
+        }
+        for (int level = n - 1; level >= 0; level--) {
+            sm.restoreState();
+            for (int i = 0; i < n; i++) {
+                assertEquals(i + level, a[i].value());
+                assertEquals(-i - 1000L * level, b[i].value());
+            }
+        }
+        assertEquals(-1, sm.getLevel());
+    }
 
 }
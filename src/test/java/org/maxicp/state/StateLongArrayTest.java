@@ -0,0 +1,79 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StateLongArrayTest extends StateManagerTest {
+
+    private static long[] values(StateLongArray a) {
+        long[] v = new long[a.length()];
+        for (int i = 0; i < v.length; i++)
+            v[i] = a.get(i);
+        return v;
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testExample(StateManager sm) {
+        StateLongArray a = sm.makeStateLongArray(3, 7L);
+        assertEquals(3, a.length());
+        assertArrayEquals(new long[]{7, 7, 7}, values(a));
+
+        a.set(0, 1);
+        sm.saveState(); // level 0: {1, 7, 7}
+
+        a.set(1, 2);
+        a.set(1, 3);
+        a.set(2, Long.MIN_VALUE);
+        sm.saveState(); // level 1: {1, 3, MIN}
+
+        a.set(0, 4);
+        a.set(2, 5);
+        assertArrayEquals(new long[]{4, 3, 5}, values(a));
+
+        sm.restoreState();
+        assertArrayEquals(new long[]{1, 3, Long.MIN_VALUE}, values(a));
+
+        a.set(1, 8); // modified again at the same level after a restore
+        sm.restoreState();
+        assertArrayEquals(new long[]{1, 7, 7}, values(a));
+        assertEquals(-1, sm.getLevel());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRandomAgainstCopies(StateManager sm) {
+        Random random = new Random(42);
+        int n = 100;
+        StateLongArray a = sm.makeStateLongArray(n, 0L);
+        StateLongArray b = sm.makeStateLongArray(n, -1L); // interleaved with a, to check they are independent
+        ArrayDeque<long[][]> saved = new ArrayDeque<>();
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                saved.push(new long[][]{values(a), values(b)});
+                sm.saveState();
+            } else if (action == 1 && !saved.isEmpty()) {
+                sm.restoreState();
+                long[][] expected = saved.pop();
+                assertArrayEquals(expected[0], values(a));
+                assertArrayEquals(expected[1], values(b));
+            } else {
+                StateLongArray target = random.nextBoolean() ? a : b;
+                target.set(random.nextInt(n), random.nextLong(4));
+            }
+            assertEquals(saved.size() - 1, sm.getLevel());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.copy;
+
+import org.junit.jupiter.api.Test;
+import org.maxicp.state.State;
+import org.maxicp.state.StateInt;
+import org.maxicp.state.StateLongArray;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.trail.Trailer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedCopierTest {
+
+    @Test
+    public void testRandomAgainstTrailer() {
+        // enough states to span several pages, compared with the Trailer
+        StateManager paged = new PagedCopier();
+        StateManager trailer = new Trailer();
+        int n = 3 * PagedCopier.PAGE_SIZE + 17;
+        StateInt[] p = new StateInt[n];
+        StateInt[] t = new StateInt[n];
+        for (int i = 0; i < n; i++) {
+            p[i] = paged.makeStateInt(i);
+            t[i] = trailer.makeStateInt(i);
+        }
+        StateLongArray pa = paged.makeStateLongArray(PagedCopier.PAGE_SIZE + 3, -1);
+        StateLongArray ta = trailer.makeStateLongArray(PagedCopier.PAGE_SIZE + 3, -1);
+        Random random = new Random(42);
+        for (int step = 0; step < 20000; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                paged.saveState();
+                trailer.saveState();
+            } else if (action == 1 && trailer.getLevel() >= 0) {
+                paged.restoreState();
+                trailer.restoreState();
+            } else if (action < 6) {
+                int i = random.nextInt(n);
+                int v = random.nextInt(100);
+                p[i].setValue(v);
+                t[i].setValue(v);
+            } else {
+                int i = random.nextInt(pa.length());
+                long v = random.nextLong();
+                pa.set(i, v);
+                ta.set(i, v);
+            }
+            assertEquals(trailer.getLevel(), paged.getLevel());
+        }
+        for (int i = 0; i < n; i++)
+            assertEquals(t[i].value(), p[i].value());
+        for (int i = 0; i < pa.length(); i++)
+            assertEquals(ta.get(i), pa.get(i));
+    }
+
+    @Test
+    public void testStatesCreatedAfterSave() {
+        PagedCopier sm = new PagedCopier();
+        StateInt a = sm.makeStateInt(1);
+        State<String> r = sm.makeStateRef("a");
+        sm.saveState();
+        a.setValue(2);
+        r.setValue("b");
+        // the new states share the last page of a and r, saved at level 0
+        StateInt b = sm.makeStateInt(3);
+        State<String> s = sm.makeStateRef("c");
+        List<StateInt> others = new ArrayList<>();
+        for (int i = 0; i < PagedCopier.PAGE_SIZE; i++)
+            others.add(sm.makeStateInt(i));
+        sm.restoreState();
+        assertEquals(1, a.value());
+        assertEquals("a", r.value());
+        // as with the Trailer, the states created after the save keep their value
+        assertEquals(3, b.value());
+        assertEquals("c", s.value());
+        for (int i = 0; i < others.size(); i++)
+            assertEquals(i, others.get(i).value());
+    }
+
+    @Test
+    public void testSavedPagesAreNotModified() {
+        PagedCopier sm = new PagedCopier();
+        StateInt a = sm.makeStateInt(1);
+        sm.saveState();
+        int[] saved = sm.intPages[0];
+        a.setValue(2);
+        // the page saved at level 0 has been copied before being modified
+        assertNotSame(saved, sm.intPages[0]);
+        assertEquals(1, saved[0]);
+        int[] copy = sm.intPages[0];
+        a.setValue(3);
+        // a page is copied at most once per level
+        assertSame(copy, sm.intPages[0]);
+        sm.restoreState();
+        assertSame(saved, sm.intPages[0]);
+        assertEquals(1, a.value());
+        a.setValue(4);
+        assertEquals(1, saved[0]);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.state.datastructures;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.maxicp.state.StateManager;
+import org.maxicp.state.StateManagerTest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StateBitSetTest extends StateManagerTest {
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testExample(StateManager sm) {
+        StateBitSet set = new StateBitSet(sm, 70);
+        assertEquals(70, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(69));
+        assertFalse(set.contains(70));
+        assertFalse(set.contains(-1));
+
+        sm.saveState();
+
+        assertTrue(set.remove(4));
+        assertTrue(set.remove(65));
+        assertFalse(set.remove(65));
+        assertFalse(set.contains(4));
+        assertFalse(set.contains(65));
+        assertEquals(68, set.size());
+
+        sm.saveState();
+        set.removeAll();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+
+        sm.restoreState();
+        assertEquals(68, set.size());
+        int[] values = new int[70];
+        assertEquals(68, set.fillArray(values));
+        assertEquals(3, values[3]);
+        assertEquals(5, values[4]);
+        assertEquals(64, values[63]);
+        assertEquals(66, values[64]);
+        assertEquals(2, set.fillArrayWithFilter(values, v -> v >= 66 && v < 68));
+        assertEquals(66, values[0]);
+        assertEquals(67, values[1]);
+
+        sm.restoreState();
+        assertTrue(set.contains(4));
+        assertTrue(set.contains(65));
+        assertEquals(70, set.size());
+    }
+
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRandomAgainstSparseSet(StateManager sm) {
+        int n = 200;
+        StateBitSet set = new StateBitSet(sm, n);
+        StateSparseSet expected = new StateSparseSet(sm, n, 0);
+        Random random = new Random(42);
+        int[] values = new int[n];
+        int[] expectedValues = new int[n];
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                sm.saveState();
+            } else if (action == 1 && sm.getLevel() >= 0) {
+                sm.restoreState();
+            } else {
+                int v = random.nextInt(n);
+                assertEquals(expected.remove(v), set.remove(v));
+            }
+            assertEquals(expected.size(), set.size());
+            int size = set.fillArray(values);
+            expected.fillArray(expectedValues);
+            Arrays.sort(expectedValues, 0, size);
+            for (int i = 0; i < size; i++)
+                assertEquals(expectedValues[i], values[i]);
+        }
+    }
+}
@@ -9,6 +9,11 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.maxicp.state.StateManager;
 import org.maxicp.state.StateManagerTest;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -54,5 +59,87 @@ public class StateSparseBitSetTest extends StateManagerTest {
 
     }
 
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testResidue(StateManager sm) {
+        StateSparseBitSet set = new StateSparseBitSet(sm, 200);
+        StateSparseBitSet.SupportBitSet support = set.new SupportBitSet();
+        support.set(10); // word 0
+        support.set(150); // word 2
+        assertFalse(set.hasEmptyIntersection(support));
+
+        StateSparseBitSet.SupportBitSet without10 = set.new SupportBitSet();
+        for (int i = 0; i < 200; i++)
+            if (i != 10)
+                without10.set(i);
+
+        sm.saveState();
+        set.intersect(without10); // the residue, if it is word 0, is not valid anymore
+        assertFalse(set.hasEmptyIntersection(support));
+        StateSparseBitSet.SupportBitSet only150 = set.new SupportBitSet();
+        only150.set(150);
+        set.remove(only150);
+        assertTrue(set.hasEmptyIntersection(support));
+
+        sm.restoreState();
+        assertFalse(set.hasEmptyIntersection(support));
+    }
 
-}
\ No newline at end of file
+    @ParameterizedTest
+    @MethodSource("getStateManager")
+    public void testRandomAgainstBooleans(StateManager sm) {
+        Random random = new Random(42);
+        int n = 300;
+        StateSparseBitSet set = new StateSparseBitSet(sm, n);
+        boolean[] content = new boolean[n];
+        java.util.Arrays.fill(content, true);
+        ArrayDeque<boolean[]> saved = new ArrayDeque<>();
+        StateSparseBitSet.SupportBitSet[] supports = new StateSparseBitSet.SupportBitSet[20];
+        boolean[][] supportContent = new boolean[supports.length][n];
+        for (int k = 0; k < supports.length; k++) {
+            supports[k] = set.new SupportBitSet();
+            // sparse supports, such that intersections become empty
+            for (int i = 0; i < n; i++) {
+                if (random.nextInt(20) == 0) {
+                    supports[k].set(i);
+                    supportContent[k][i] = true;
+                }
+            }
+        }
+        for (int step = 0; step < 3000; step++) {
+            int action = random.nextInt(8);
+            int k = random.nextInt(supports.length);
+            if (action == 0) {
+                saved.push(content.clone());
+                sm.saveState();
+            } else if (action == 1 && !saved.isEmpty()) {
+                sm.restoreState();
+                content = saved.pop();
+            } else if (action == 2) {
+                // intersection with the complement of a support
+                StateSparseBitSet.SupportBitSet complement = set.new SupportBitSet();
+                for (int i = 0; i < n; i++) {
+                    if (!supportContent[k][i] || random.nextInt(4) > 0)
+                        complement.set(i);
+                    else
+                        content[i] = false;
+                }
+                set.intersect(complement);
+            } else if (action == 3) {
+                set.remove(supports[k]);
+                for (int i = 0; i < n; i++)
+                    content[i] &= !supportContent[k][i];
+            }
+            int count = 0;
+            boolean empty = true;
+            for (int i = 0; i < n; i++) {
+                if (content[i] && supportContent[k][i]) {
+                    count++;
+                    empty = false;
+                }
+            }
+            assertEquals(empty, set.hasEmptyIntersection(supports[k]));
+            assertEquals(count, set.countIntersection(supports[k]));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.maxicp.util.algo.DistanceMatrix;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,4 +62,58 @@ class DistanceMatrixTest {
         assertEquals(n, dist1.length);
         assertEquals(n, dist1[0].length);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSharedByIdentity() {
+        int[][] matrix = DistanceMatrix.randomDistanceMatrix(10, 100, 42);
+        DistanceMatrix shared = DistanceMatrix.of(matrix);
+        assertSame(shared, DistanceMatrix.of(matrix));
+        assertNotSame(shared, DistanceMatrix.of(DistanceMatrix.randomDistanceMatrix(10, 100, 42)));
+        assertArrayEquals(matrix, shared.toArray());
+        for (int i = 0; i < 10; i++)
+            for (int j = 0; j < 10; j++)
+                assertEquals(matrix[i][j], shared.get(i, j));
+    }
+
+    private static int[][] naiveFloydWarshall(int[][] matrix) {
+        int n = matrix.length;
+        int[][] d = Arrays.stream(matrix).map(int[]::clone).toArray(int[][]::new);
+        for (int i = 0; i < n; i++)
+            d[i][i] = Math.min(d[i][i], 0);
+        for (int k = 0; k < n; k++)
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    d[i][j] = Math.min(d[i][j], d[i][k] + d[k][j]);
+        return d;
+    }
+
+    @Test
+    void testShortestPaths() {
+        // more nodes than the size of a block of the parallel algorithm
+        Random random = new Random(42);
+        int n = 150;
+        int[][] matrix = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                matrix[i][j] = 1 + random.nextInt(1000);
+        DistanceMatrix distances = DistanceMatrix.of(matrix);
+        assertFalse(distances.checkTriangularInequality());
+        DistanceMatrix shortestPaths = distances.shortestPaths();
+        assertArrayEquals(naiveFloydWarshall(matrix), shortestPaths.toArray());
+        assertSame(shortestPaths, distances.shortestPaths());
+        assertTrue(shortestPaths.checkTriangularInequality());
+    }
+
+    @Test
+    void testTriangularInequalityWithServiceTime() {
+        int[][] dist = {
+                {0, 3, 7},
+                {3, 0, 3},
+                {7, 3, 0}
+        };
+        // going through 1 is shorter, unless 1 takes some time to process
+        DistanceMatrix distances = DistanceMatrix.of(dist);
+        assertFalse(distances.checkTriangularInequality(new int[]{0, 0, 0}));
+        assertTrue(distances.checkTriangularInequality(new int[]{0, 1, 0}));
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedMinHeapTest {
+
+    @Test
+    public void testPollInOrder() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        heap.insert(0, 3.0);
+        heap.insert(1, 1.0);
+        heap.insert(2, 2.0);
+        heap.insert(3, 1.0);
+        assertEquals(4, heap.size());
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(2, 0.0));
+        // ties are broken by id
+        assertEquals(1, heap.poll());
+        assertEquals(3, heap.poll());
+        assertFalse(heap.contains(3));
+        assertEquals(2, heap.poll());
+        assertEquals(0, heap.poll());
+        assertTrue(heap.isEmpty());
+        assertThrows(NoSuchElementException.class, heap::peek);
+    }
+
+    @Test
+    public void testUpdate() {
+        Random random = new Random(42);
+        int n = 100;
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        double[] key = new double[n];
+        for (int id = 0; id < n; id++) {
+            key[id] = random.nextDouble();
+            heap.insert(id, key[id]);
+        }
+        for (int iter = 0; iter < 1000; iter++) {
+            int id = random.nextInt(n);
+            key[id] = random.nextDouble();
+            heap.update(id, key[id]);
+            assertEquals(key[id], heap.key(id));
+        }
+        double last = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            int id = heap.poll();
+            assertTrue(key[id] >= last);
+            last = key[id];
+        }
+    }
+
+    @Test
+    public void testClear() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.insert(0, 1.0);
+        heap.insert(2, 0.0);
+        heap.clear();
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(2));
+        heap.insert(2, 5.0);
+        heap.insert(1, 4.0);
+        assertEquals(1, heap.peek());
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayListTest {
+
+    @Test
+    public void testAddGrowsAndRemoves() {
+        IntArrayList list = new IntArrayList(2);
+        for (int i = 0; i < 10; i++) {
+            list.add(i * i);
+        }
+        assertEquals(10, list.size());
+        assertEquals(49, list.get(7));
+        assertTrue(list.contains(81));
+        assertEquals(81, list.removeLast());
+        assertFalse(list.contains(81));
+        // the last value replaces the removed one
+        assertEquals(4, list.swapRemove(2));
+        assertEquals(64, list.get(2));
+        assertArrayEquals(new int[]{0, 1, 64, 9, 16, 25, 36, 49}, list.toArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(8));
+        list.clear();
+        assertTrue(list.isEmpty());
+        assertThrows(IllegalStateException.class, list::removeLast);
+    }
+}
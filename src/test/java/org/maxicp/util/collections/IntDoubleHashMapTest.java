@@ -0,0 +1,95 @@
+/*
+ * MaxiCP is under MIT License
+ * Copyright (c)  2023 UCLouvain
+ */
+
+package org.maxicp.util.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntDoubleHashMapTest {
+
+    @Test
+    public void testPutAndGet() {
+        IntDoubleHashMap map = new IntDoubleHashMap(2);
+        assertTrue(map.isEmpty());
+        assertEquals(-1.0, map.get(3, -1.0));
+        map.put(3, 1.5);
+        map.put(-7, 2.5);
+        map.put(Integer.MIN_VALUE, 3.5);
+        assertEquals(1.5, map.get(3, -1.0));
+        assertEquals(2.5, map.get(-7, -1.0));
+        assertEquals(3.5, map.get(Integer.MIN_VALUE, -1.0));
+        assertFalse(map.containsKey(0));
+        assertEquals(3, map.size());
+        map.put(3, 4.0);
+        assertEquals(4.0, map.get(3, -1.0));
+        assertEquals(3, map.size());
+        int[] keys = map.keys();
+        Arrays.sort(keys);
+        assertArrayEquals(new int[]{Integer.MIN_VALUE, -7, 3}, keys);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(3));
+    }
+
+    @Test
+    public void testSameAsHashMap() {
+        Random random = new Random(42);
+        IntDoubleHashMap map = new IntDoubleHashMap();
+        Map<Integer, Double> expected = new HashMap<>();
+        for (int iter = 0; iter < 10000; iter++) {
+            int key = random.nextInt(2000) - 1000;
+            double delta = random.nextDouble();
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    map.put(key, delta);
+                    expected.put(key, delta);
+                }
+                case 1 -> assertEquals(expected.merge(key, delta, Double::sum), map.addTo(key, delta), 1e-9);
+                default -> assertEquals(expected.getOrDefault(key, 0.0), map.get(key, 0.0), 1e-9);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int key : map.keys()) {
+            assertEquals(expected.get(key), map.get(key, 0.0), 1e-9);
+        }
+    }
+
+    @Test
+    public void testLazyScale() {
+        IntDoubleHashMap map = new IntDoubleHashMap();
+        map.put(1, 1.0);
+        map.put(2, 2.0);
+        map.scale(0.5);
+        assertEquals(0.5, map.get(1, 0.0), 1e-12);
+        assertEquals(1.0, map.get(2, 0.0), 1e-12);
+        // the values added after a scaling are not scaled by it
+        map.put(3, 3.0);
+        assertEquals(1.5, map.addTo(1, 1.0), 1e-12);
+        assertEquals(3.0, map.get(3, 0.0), 1e-12);
+        // many decays, going through renormalizations of the values
+        double expected = 1.5;
+        for (int i = 0; i < 20000; i++) {
+            map.scale(0.99);
+            expected *= 0.99;
+            if (i % 1000 == 0) {
+                map.addTo(1, 1.0);
+                expected += 1.0;
+            }
+        }
+        assertEquals(expected, map.get(1, 0.0), 1e-9 * expected);
+        double decayed = Math.pow(0.99, 20000);
+        assertEquals(decayed, map.get(2, 0.0), 1e-9 * decayed);
+        map.scale(0.0);
+        assertEquals(0.0, map.get(1, -1.0));
+        assertTrue(map.containsKey(1));
+    }
+}